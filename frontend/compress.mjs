@@ -0,0 +1,40 @@
+// Writes brotli (.br) and gzip (.gz) encodings next to the text files of the build, so that the backend can serve
+// them without compressing on every request. Encodings that are not smaller than the file are not written.
+import { readdirSync, readFileSync, statSync, writeFileSync } from 'node:fs';
+import { join } from 'node:path';
+import { brotliCompressSync, constants, gzipSync } from 'node:zlib';
+
+const COMPRESSIBLE = /\.(html|js|mjs|css|json|map|svg|txt|xml|ico)$/;
+const MIN_BYTES = 1024;
+
+function compressDirectory(directory) {
+  for (const name of readdirSync(directory)) {
+    const path = join(directory, name);
+    if (statSync(path).isDirectory()) {
+      compressDirectory(path);
+      continue;
+    }
+    if (!COMPRESSIBLE.test(name)) {
+      continue;
+    }
+    const content = readFileSync(path);
+    if (content.length < MIN_BYTES) {
+      continue;
+    }
+    const brotli = brotliCompressSync(content, {
+      params: {
+        [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+        [constants.BROTLI_PARAM_SIZE_HINT]: content.length
+      }
+    });
+    const gzip = gzipSync(content, { level: 9 });
+    if (brotli.length < content.length) {
+      writeFileSync(path + '.br', brotli);
+    }
+    if (gzip.length < content.length) {
+      writeFileSync(path + '.gz', gzip);
+    }
+  }
+}
+
+compressDirectory(process.argv[2] ?? 'dist/kwiz-frontend');
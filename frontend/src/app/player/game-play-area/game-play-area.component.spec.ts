@@ -3,7 +3,7 @@ import { GamePlayAreaComponent } from './game-play-area.component';
 import { By } from '@angular/platform-browser';
 import { FormsModule } from '@angular/forms';
 import { ActivatedRoute } from '@angular/router';
-import { of } from 'rxjs';
+import { of, throwError } from 'rxjs';
 import { GameService } from '../../services/game.service';
 import { WebSocketService } from '../../services/websocket.service';
 import { QuestionDisplayComponent } from '../question-display/question-display.component';
@@ -40,9 +40,13 @@ describe('GamePlayAreaComponent', () => {
     gameServiceSpy.submitAnswer.and.returnValue(of({}));
     gameServiceSpy.adminAdvanceToNextQuestion.and.returnValue(of({}));
 
-    webSocketServiceSpy = jasmine.createSpyObj('WebSocketService', ['connect', 'getGameStateUpdates']);
+    webSocketServiceSpy = jasmine.createSpyObj('WebSocketService', ['connect', 'getGameStateUpdates', 'answerLatencyPings', 'submitAnswer']);
     webSocketServiceSpy.connect.and.returnValue();
+    webSocketServiceSpy.submitAnswer.and.returnValue(of({
+      type: 'answerReceipt', gameId: 'game123', questionId: 'q1', submissionId: 'sub1', status: 'accepted'
+    }));
     webSocketServiceSpy.getGameStateUpdates.and.returnValue(of(mockGameState));
+    webSocketServiceSpy.answerLatencyPings.and.returnValue(() => {});
 
     // Mock session storage
     spyOn(sessionStorage, 'getItem').and.returnValue(JSON.stringify({
@@ -131,12 +135,44 @@ describe('GamePlayAreaComponent', () => {
     expect(component.answerTime).toBeGreaterThan(0); // Should have calculated time
     
     // Verify the service was called
+    expect(webSocketServiceSpy.submitAnswer).toHaveBeenCalledWith(
+      'game123',
+      'player1',
+      'q1',
+      'Paris',
+      jasmine.any(String), // submission ID
+      jasmine.any(Number) // answer time measured since the question arrived
+    );
+    expect(gameServiceSpy.submitAnswer).not.toHaveBeenCalled();
+  });
+
+  it('should fall back to HTTP with the same submission ID if no receipt arrives', () => {
+    // Set up the component state
+    webSocketServiceSpy.submitAnswer.and.returnValue(throwError(() => new Error('Timeout')));
+    component.currentQuestion = {
+      id: 'q1',
+      text: 'What is the capital of France?',
+      options: [],
+      type: 'text-input',
+      timeLimit: 30
+    };
+    component.gameState = { ...mockGameState, acceptingAnswers: true };
+    component.answerSubmitted = false;
+
+    // Submit an answer
+    component.onAnswerSelected('Paris');
+
+    // Verify the answer was retried over HTTP with the same submission ID
+    const submissionId = webSocketServiceSpy.submitAnswer.calls.mostRecent().args[4];
     expect(gameServiceSpy.submitAnswer).toHaveBeenCalledWith(
       'game123',
       'player1',
       'q1',
-      'Paris'
+      'Paris',
+      jasmine.any(Number),
+      submissionId
     );
+    expect(component.answerSubmitted).toBe(true);
   });
 
   it('should not submit answer if already submitted', () => {
@@ -155,7 +191,7 @@ describe('GamePlayAreaComponent', () => {
     component.onAnswerSelected('Paris');
     
     // Verify the answer was not submitted
-    expect(gameServiceSpy.submitAnswer).not.toHaveBeenCalled();
+    expect(webSocketServiceSpy.submitAnswer).not.toHaveBeenCalled();
   });
 
   it('should not submit answer if not accepting answers', () => {
@@ -174,7 +210,7 @@ describe('GamePlayAreaComponent', () => {
     component.onAnswerSelected('Paris');
     
     // Verify the answer was not submitted
-    expect(gameServiceSpy.submitAnswer).not.toHaveBeenCalled();
+    expect(webSocketServiceSpy.submitAnswer).not.toHaveBeenCalled();
   });
 
   it('should reset answer when a new question is detected', () => {
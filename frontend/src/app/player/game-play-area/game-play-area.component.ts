@@ -31,6 +31,7 @@ export class GamePlayAreaComponent implements OnInit, OnDestroy {
   @ViewChild(QuestionDisplayComponent) questionDisplay!: QuestionDisplayComponent;
 
   private gameStateSubscription: Subscription | null = null;
+  private stopAnsweringLatencyPings: (() => void) | null = null;
   private quizId: string | null = null;
   private gameId: string | null = null;
   gameState: GameStateDTO | null = null;
@@ -41,6 +42,8 @@ export class GamePlayAreaComponent implements OnInit, OnDestroy {
   answerSubmitted: boolean = false;
   answerTime: number | null = null;
   answerStartTime: number | null = null;
+  // Monotonic time when the current question was first shown, used for latency-compensated scoring
+  private questionShownAt: number | null = null;
 
   // Current question
   currentQuestion: Question | null = null;
@@ -96,6 +99,7 @@ export class GamePlayAreaComponent implements OnInit, OnDestroy {
               this.answerStartTime = new Date().getTime();
 
               this.subscribeToGameState(this.gameId);
+              this.stopAnsweringLatencyPings = this.webSocketService.answerLatencyPings(this.gameId, playerData.playerId);
             } catch (error) {
               console.error('Error parsing player data:', error);
               // TODO: Handle error - redirect to join page or show error message
@@ -153,6 +157,9 @@ export class GamePlayAreaComponent implements OnInit, OnDestroy {
         // Reset question-specific statistics
         this.playersAnswered = 0;
         this.fastestAnswerTime = null;
+
+        // Start measuring the answer time from the moment the question arrives
+        this.questionShownAt = gameState.currentQuestionId ? performance.now() : null;
       }
 
       // Create current question object if there is a current question
@@ -204,30 +211,60 @@ export class GamePlayAreaComponent implements OnInit, OnDestroy {
       const endTime = new Date().getTime();
       this.answerTime = this.answerStartTime ? parseFloat(((endTime - this.answerStartTime) / 1000).toFixed(1)) : null;
 
-      // Send answer to backend using GameOrchestrationService
-      this.gameService.submitAnswer(
-        this.gameId!,
-        this.currentPlayer.playerId,
-        this.currentQuestion.id,
-        answer
-      ).subscribe({
-        next: () => {
-          console.log('Answer submitted successfully');
+      // Time since the question arrived, excluding network delays
+      const clientAnswerTimeMs = this.questionShownAt !== null ? performance.now() - this.questionShownAt : undefined;
+
+      // Send the answer over the open WebSocket connection; if no receipt arrives, retry over HTTP
+      // with the same submission ID, so the answer is still recorded only once
+      const gameId = this.gameId!;
+      const playerId = this.currentPlayer.playerId;
+      const questionId = this.currentQuestion.id;
+      const submissionId = this.createSubmissionId();
+      this.webSocketService.submitAnswer(gameId, playerId, questionId, answer, submissionId, clientAnswerTimeMs).subscribe({
+        next: (receipt) => {
+          if (receipt.status === 'rejected') {
+            console.error('Answer rejected:', receipt.message);
+            // Reset answer submission state on error
+            this.answerSubmitted = false;
+          } else {
+            console.log('Answer submitted successfully');
+          }
         },
         error: (error) => {
-          console.error('Error submitting answer:', error);
-          // Reset answer submission state on error
-          this.answerSubmitted = false;
+          console.warn('No answer receipt over WebSocket, submitting over HTTP:', error);
+          this.gameService.submitAnswer(gameId, playerId, questionId, answer, clientAnswerTimeMs, submissionId).subscribe({
+            next: () => {
+              console.log('Answer submitted successfully');
+            },
+            error: (httpError) => {
+              console.error('Error submitting answer:', httpError);
+              // Reset answer submission state on error
+              this.answerSubmitted = false;
+            }
+          });
         }
       });
     }
   }
 
+  /**
+   * Creates a unique ID for an answer submission
+   */
+  private createSubmissionId(): string {
+    if (typeof crypto !== 'undefined' && typeof crypto.randomUUID === 'function') {
+      return crypto.randomUUID();
+    }
+    return Date.now().toString(36) + Math.random().toString(36).substring(2);
+  }
+
   ngOnDestroy(): void {
     // Clean up subscriptions
     if (this.gameStateSubscription) {
       this.gameStateSubscription.unsubscribe();
     }
+    if (this.stopAnsweringLatencyPings) {
+      this.stopAnsweringLatencyPings();
+    }
   }
 
   /**
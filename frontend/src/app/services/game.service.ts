@@ -185,19 +185,27 @@ export class GameService {
    * @param playerId The ID of the player
    * @param questionId The ID of the question
    * @param answer The answer to submit
+   * @param clientAnswerTimeMs The time from showing the question to answering it, used for latency compensation
+   * @param submissionId A unique ID for this submission, sent as idempotency key; the answer is recorded at most once per key
    * @returns An Observable that completes when the answer is submitted
    */
-  submitAnswer(gameId: string, playerId: string, questionId: string, answer: string): Observable<any> {
+  submitAnswer(gameId: string, playerId: string, questionId: string, answer: string,
+               clientAnswerTimeMs?: number, submissionId?: string): Observable<any> {
+    const params: Record<string, string> = {
+      playerId,
+      questionId,
+      answerText: answer
+    };
+    if (clientAnswerTimeMs !== undefined && clientAnswerTimeMs !== null) {
+      params['clientAnswerTimeMs'] = clientAnswerTimeMs.toFixed(3);
+    }
+    // The submission ID makes retries safe: the server returns the original outcome
+    const headers: Record<string, string> = submissionId ? { 'Idempotency-Key': submissionId } : {};
+
     return this.http.post(
       `${this.gameApiUrl}/${gameId}/answers`, 
       null, 
-      { 
-        params: {
-          playerId,
-          questionId,
-          answerText: answer
-        }
-      }
+      { params, headers }
     ).pipe(
       tap(() => console.log('Answer submitted successfully')),
       catchError(error => {
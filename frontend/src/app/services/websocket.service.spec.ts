@@ -0,0 +1,71 @@
+import { TestBed } from '@angular/core/testing';
+import { WebSocketService, WebSocketMessage } from './websocket.service';
+
+describe('WebSocketService', () => {
+  let service: WebSocketService;
+  let handlers: Map<string, (message: { body: string }) => void>;
+  let subscribedDestinations: string[];
+
+  const player = (id: string) => ({ id, name: `Player ${id}` });
+  const joined = (id: string, version: number) => ({ type: 'playerJoined', player: player(id), version });
+  const deliver = (destination: string, body: any) => handlers.get(destination)!({ body: JSON.stringify(body) });
+
+  beforeEach(() => {
+    TestBed.configureTestingModule({});
+    service = TestBed.inject(WebSocketService);
+
+    handlers = new Map();
+    subscribedDestinations = [];
+    // Stand in for a connected STOMP client
+    (service as any).stompClient = {
+      active: true,
+      connected: true,
+      subscribe: (destination: string, callback: (message: { body: string }) => void) => {
+        subscribedDestinations.push(destination);
+        handlers.set(destination, callback);
+        return { unsubscribe: () => {} };
+      },
+      publish: () => {}
+    };
+    (service as any).connectionStatus.next(true);
+  });
+
+  it('should apply only the new events of a roster batch that covers the snapshot version', () => {
+    // Arrange
+    const updates: WebSocketMessage[] = [];
+    service.getQuizUpdates('quiz123').subscribe(message => updates.push(message));
+    deliver('/app/quiz/quiz123/roster', {
+      quizId: 'quiz123', version: 3, playerCount: 3, maxPlayers: 10, started: false, currentGameId: '',
+      players: [player('a'), player('b'), player('c')]
+    });
+
+    // Act: the batch started before the snapshot, with this client's own join
+    deliver('/topic/quiz/quiz123/updates', {
+      type: 'rosterDelta', fromVersion: 1, version: 5, playerCount: 5,
+      events: [joined('b', 2), joined('c', 3), joined('d', 4), joined('e', 5)]
+    });
+
+    // Assert
+    const latest = updates[updates.length - 1];
+    expect(latest.players!.map(p => p.id)).toEqual(['a', 'b', 'c', 'd', 'e']);
+    expect(latest.playerCount).toBe(5);
+    expect(subscribedDestinations.filter(d => d === '/app/quiz/quiz123/roster').length).toBe(1);
+  });
+
+  it('should resync with a snapshot when a roster version was missed', () => {
+    // Arrange
+    service.getQuizUpdates('quiz123').subscribe();
+    deliver('/app/quiz/quiz123/roster', {
+      quizId: 'quiz123', version: 3, playerCount: 1, maxPlayers: 10, started: false, currentGameId: '',
+      players: [player('a')]
+    });
+
+    // Act
+    deliver('/topic/quiz/quiz123/updates', {
+      type: 'rosterDelta', fromVersion: 4, version: 5, playerCount: 3, events: [joined('e', 5)]
+    });
+
+    // Assert
+    expect(subscribedDestinations.filter(d => d === '/app/quiz/quiz123/roster').length).toBe(2);
+  });
+});
@@ -2,8 +2,8 @@
 (window as any).global = window;
 
 import { Injectable } from '@angular/core';
-import { Observable, Subject, BehaviorSubject } from 'rxjs';
-import { filter, map } from 'rxjs/operators';
+import { Observable, Subject, BehaviorSubject, ReplaySubject, throwError } from 'rxjs';
+import { filter, finalize, map, take, timeout } from 'rxjs/operators';
 import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
 import { GameStateDTO } from '../types/game.types';
@@ -23,6 +23,32 @@ export interface WebSocketMessage {
   currentGameId: string
 }
 
+/**
+ * Reply of the server to an answer submitted over the WebSocket connection
+ */
+export interface AnswerReceipt {
+  type: 'answerReceipt';
+  gameId: string;
+  questionId: string;
+  submissionId: string;
+  status: 'accepted' | 'duplicate' | 'rejected';
+  reason?: string;
+  message?: string;
+}
+
+// How long to wait for the receipt of an answer before giving up
+const ANSWER_RECEIPT_TIMEOUT_MS = 5000;
+
+/**
+ * Client-side state of a lobby subscription
+ */
+interface LobbyState {
+  version: number | null;
+  players: Map<string, PlayerInfo>;
+  message: WebSocketMessage;
+  bufferedFrames: any[];
+}
+
 @Injectable({
   providedIn: 'root'
 })
@@ -30,40 +56,62 @@ export class WebSocketService {
   private stompClient: Client | null = null;
   private messagesSubject = new Subject<any>();
   private connectionStatus = new BehaviorSubject<boolean>(false);
+  // Answers waiting for their receipt, by submission ID
+  private pendingAnswers = new Map<string, ReplaySubject<AnswerReceipt>>();
 
   constructor() {}
 
   /**
-   * Sends a player's answer to the backend
-   * 
+   * Submits a player's answer over the open WebSocket connection.
+   * The server replies with a receipt to this connection only. Submitting again with the
+   * same submission ID is safe: an answer is recorded at most once per submission ID.
+   *
    * @param gameId The ID of the game
    * @param playerId The ID of the player
    * @param questionId The ID of the question
    * @param answer The player's answer
+   * @param submissionId A unique ID for this submission
+   * @param clientAnswerTimeMs The time from showing the question to answering it, used for latency compensation
+   * @returns An observable of the receipt, which fails if not connected or no receipt arrives in time
    */
-  sendPlayerAnswer(gameId: string, playerId: string, questionId: string, answer: string): void {
-    if (!this.stompClient || !this.stompClient.active) {
-      console.error('Cannot send answer: WebSocket not connected');
-      return;
+  submitAnswer(gameId: string, playerId: string, questionId: string, answer: string,
+               submissionId: string, clientAnswerTimeMs?: number): Observable<AnswerReceipt> {
+    if (!this.stompClient || !this.stompClient.connected) {
+      return throwError(() => new Error('Cannot send answer: WebSocket not connected'));
     }
 
-    const payload = {
-      gameId,
-      playerId,
-      questionId,
-      answer,
-      timestamp: new Date().getTime()
-    };
+    const receipt = new ReplaySubject<AnswerReceipt>(1);
+    this.pendingAnswers.set(submissionId, receipt);
 
     try {
       this.stompClient.publish({
         destination: `/app/game/${gameId}/answer`,
-        body: JSON.stringify(payload)
+        body: JSON.stringify({ submissionId, playerId, questionId, answer, clientAnswerTimeMs })
       });
-      console.log('Answer sent:', payload);
     } catch (error) {
-      console.error('Error sending answer:', error);
+      this.pendingAnswers.delete(submissionId);
+      return throwError(() => error);
     }
+
+    return receipt.pipe(
+      take(1),
+      timeout(ANSWER_RECEIPT_TIMEOUT_MS),
+      finalize(() => this.pendingAnswers.delete(submissionId))
+    );
+  }
+
+  /**
+   * Subscribes to the receipts of the answers sent over this connection
+   */
+  private subscribeToAnswerReceipts(): void {
+    this.stompClient?.subscribe('/user/queue/answers', message => {
+      try {
+        const receipt: AnswerReceipt = JSON.parse(message.body);
+        this.pendingAnswers.get(receipt.submissionId)?.next(receipt);
+      } catch (error) {
+        console.error('Error parsing answer receipt:', error);
+      }
+    });
   }
 
   /**
@@ -97,6 +145,8 @@ export class WebSocketService {
     // Set up connection event handlers
     this.stompClient.onConnect = (frame) => {
       console.log('WebSocket connection established');
+      // Subscriptions do not survive a reconnect, so subscribe on every connect
+      this.subscribeToAnswerReceipts();
       this.connectionStatus.next(true);
     };
 
@@ -183,26 +233,116 @@ export class WebSocketService {
       return;
     }
 
+    // Lobby state of this subscription: the roster is built from one snapshot
+    // followed by incremental, versioned roster deltas
+    const lobby: LobbyState = {
+      version: null,
+      players: new Map<string, PlayerInfo>(),
+      message: { quizId, playerCount: 0, maxPlayers: 0, currentGameId: '' },
+      bufferedFrames: []
+    };
+
+    const emit = () => {
+      subject.next({ ...lobby.message, players: Array.from(lobby.players.values()) });
+    };
+
+    const requestSnapshot = () => {
+      lobby.version = null;
+      const snapshotSubscription = this.stompClient?.subscribe(`/app/quiz/${quizId}/roster`, message => {
+        snapshotSubscription?.unsubscribe();
+        if (message.body) {
+          try {
+            const snapshot = JSON.parse(message.body);
+            lobby.version = snapshot.version;
+            lobby.players = new Map((snapshot.players as PlayerInfo[]).map(player => [player.id, player]));
+            lobby.message = {
+              quizId: snapshot.quizId,
+              playerCount: snapshot.playerCount,
+              maxPlayers: snapshot.maxPlayers,
+              started: snapshot.started,
+              currentGameId: snapshot.currentGameId
+            };
+
+            // Apply the deltas that arrived while waiting for the snapshot
+            const buffered = lobby.bufferedFrames;
+            lobby.bufferedFrames = [];
+            buffered.forEach(frame => applyFrame(frame));
+            emit();
+          } catch (error) {
+            console.error('Error parsing roster snapshot:', error);
+          }
+        }
+      });
+    };
+
+    const applyFrame = (frame: any): boolean => {
+      if (frame.type === 'quizStatus') {
+        lobby.message = {
+          ...lobby.message,
+          playerCount: frame.playerCount,
+          maxPlayers: frame.maxPlayers,
+          started: frame.started,
+          currentGameId: frame.currentGameId
+        };
+        return true;
+      }
+
+      if (frame.type !== 'rosterDelta') {
+        return false;
+      }
+
+      if (lobby.version === null) {
+        // Snapshot not received yet
+        lobby.bufferedFrames.push(frame);
+        return false;
+      }
+
+      if (frame.version <= lobby.version) {
+        // Already contained in the snapshot
+        return false;
+      }
+
+      if (frame.fromVersion > lobby.version) {
+        // A roster version was missed - resync with a fresh snapshot
+        console.warn(`Roster version gap (have ${lobby.version}, got ${frame.fromVersion}), resyncing`);
+        lobby.bufferedFrames = [frame];
+        requestSnapshot();
+        return false;
+      }
+
+      // A batch may start before the snapshot (e.g. with this client's own join), so skip the events it contains
+      const version = lobby.version;
+      for (const event of frame.events) {
+        if (event.version <= version) {
+          continue;
+        }
+        if (event.type === 'playerJoined') {
+          lobby.players.set(event.player.id, event.player);
+        } else if (event.type === 'playerLeft') {
+          lobby.players.delete(event.player.id);
+        }
+      }
+      lobby.version = frame.version;
+      lobby.message = { ...lobby.message, playerCount: frame.playerCount };
+      return true;
+    };
+
     try {
       const subscription = this.stompClient.subscribe(`/topic/quiz/${quizId}/updates`, message => {
         if (message.body) {
           try {
-            const data = JSON.parse(message.body);
-            subject.next({
-              quizId: data.quizId,
-              playerCount: data.playerCount,
-              maxPlayers: data.maxPlayers,
-              started: data.started,
-              players: data.players,
-              gameState: data.gameState,
-              currentGameId: data.currentGameId
-            });
+            if (applyFrame(JSON.parse(message.body))) {
+              emit();
+            }
           } catch (error) {
             console.error('Error parsing message body:', error);
           }
         }
       });
 
+      // Subscribe to the topic first, so that no delta is lost between snapshot and topic
+      requestSnapshot();
+
       // Handle unsubscription when the subject is completed
       subject.subscribe({
         complete: () => {
@@ -256,6 +396,58 @@ export class WebSocketService {
     return gameStateSubject.asObservable();
   }
 
+  /**
+   * Answers the latency pings the server sends to a player, so the server can measure
+   * the round-trip time of this connection for latency-compensated scoring.
+   * The connection registers for the player's pings after every (re)connect; the server only
+   * sends them to, and accepts pongs from, the session that registered last.
+   * Pings are only sent if latency compensation is enabled on the server.
+   *
+   * @param gameId The ID of the game
+   * @param playerId The ID of the player
+   * @returns A function that stops answering pings
+   */
+  answerLatencyPings(gameId: string, playerId: string): () => void {
+    let pingSubscription: { unsubscribe: () => void } | null = null;
+    let stopped = false;
+
+    const connectionSubscription = this.connectionStatus.subscribe(connected => {
+      if (!connected || !this.stompClient || stopped) {
+        return;
+      }
+      pingSubscription?.unsubscribe();
+      pingSubscription = this.stompClient.subscribe('/user/queue/latency', message => {
+        try {
+          const ping = JSON.parse(message.body);
+          if (ping.gameId !== gameId) {
+            return;
+          }
+          // Echo immediately; the server measures the round trip with its own clock
+          this.stompClient?.publish({
+            destination: '/app/latency/pong',
+            body: JSON.stringify({ pingId: ping.pingId })
+          });
+        } catch (error) {
+          console.error('Error answering latency ping:', error);
+        }
+      });
+      this.stompClient.publish({
+        destination: `/app/game/${gameId}/latency/register`,
+        body: JSON.stringify({ playerId })
+      });
+    });
+
+    return () => {
+      stopped = true;
+      connectionSubscription.unsubscribe();
+      try {
+        pingSubscription?.unsubscribe();
+      } catch (error) {
+        console.error('Error unsubscribing from latency pings:', error);
+      }
+    };
+  }
+
   /**
    * Subscribes to a specific game state topic
    * 
@@ -28,7 +28,15 @@ export interface PlayerScore {
 export interface PlayerAnswer {
   playerId: string;
   playerName: string;
-  answerTimeMs: number;
+  answerTimeMicros: number; // from the start of the question
+}
+
+/**
+ * Represents how many players gave an answer
+ */
+export interface AnswerCount {
+  answer: string;
+  count: number;
 }
 
 /**
@@ -51,6 +59,7 @@ export interface GameStateDTO {
   }>;
   playersAnswered?: number;
   playerAnswers?: PlayerAnswer[];
-  fastestAnswerTime?: number;
+  fastestAnswerTime?: number; // in whole seconds
   correctAnswer?: string;
+  answerDistribution?: AnswerCount[];
 }
@@ -0,0 +1,92 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.application.GameOrchestrationService.GameStateDTO;
+import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import ch.zuhlke.camp.kwiz.domain.Game;
+import ch.zuhlke.camp.kwiz.domain.Question;
+import ch.zuhlke.camp.kwiz.domain.Round;
+import ch.zuhlke.camp.kwiz.infrastructure.GameTimerScheduler;
+import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of building the game state that is broadcast after every change, and of
+ * serializing it to JSON, for a game with {@code players} players of which {@code answeredPercent}
+ * percent have answered the current question.
+ * <p>
+ * Both costs are paid once per accepted answer, so they bound how many answers per second a
+ * single game can take. The service is wired with a message channel that drops all messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int players;
+
+    @Param({"0", "50", "100"})
+    private int answeredPercent;
+
+    private GameOrchestrationService gameOrchestrationService;
+    private ObjectMapper objectMapper;
+    private String gameId;
+    private GameStateDTO gameState;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryGameRepository gameRepository = new InMemoryGameRepository();
+        WebSocketController webSocketController = new WebSocketController(new SimpMessagingTemplate((message, timeout) -> true));
+        GameTimerScheduler gameTimerScheduler = new GameTimerScheduler(event -> { }, gameRepository);
+        gameOrchestrationService = new GameOrchestrationService(gameRepository, webSocketController, gameTimerScheduler);
+        objectMapper = new ObjectMapper();
+
+        Game game = new Game("benchmark", "admin");
+        for (int i = 0; i < players; i++) {
+            game.addPlayer("player-" + i, "Player " + i);
+        }
+        Round round = new Round("Round 1");
+        Question question = new Question("Which game?", List.of("Minecraft"), 30);
+        round.addQuestion(question);
+        game.startGame(List.of(round));
+
+        int answering = players * answeredPercent / 100;
+        for (int i = 0; i < answering; i++) {
+            game.acceptPlayerAnswer("player-" + i, question.getId(), i % 2 == 0 ? "Minecraft" : "Tetris");
+        }
+
+        gameRepository.save(game);
+        gameId = game.getId();
+        gameState = gameOrchestrationService.getGameSnapshot(gameId);
+    }
+
+    @Benchmark
+    public GameStateDTO createGameState() {
+        return gameOrchestrationService.getGameSnapshot(gameId);
+    }
+
+    @Benchmark
+    public byte[] serializeGameState() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gameState);
+    }
+}
@@ -0,0 +1,72 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link Game#acceptPlayerAnswer} when every one of {@code players} players
+ * answers the current question, which is the burst a game sees shortly before a question closes.
+ * <p>
+ * Each player can answer a question only once, so each measurement iteration starts from a fresh
+ * game and times one burst. The reported score is the time per burst; divide by {@code players}
+ * for the time per answer, which should stay flat across player counts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class AnswerSubmissionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int players;
+
+    @Param({"false", "true"})
+    private boolean gradeOnClose;
+
+    private Game game;
+    private String questionId;
+    private String[] playerIds;
+    private String[] answers;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        game = new Game("benchmark", "admin", gradeOnClose);
+        playerIds = new String[players];
+        answers = new String[players];
+        for (int i = 0; i < players; i++) {
+            playerIds[i] = "player-" + i;
+            game.addPlayer(playerIds[i], "Player " + i);
+            // Half of the players answer correctly
+            answers[i] = i % 2 == 0 ? "Minecraft" : "Tetris " + i;
+        }
+
+        Round round = new Round("Round 1");
+        Question question = new Question("Which game?", List.of("Minecraft"), 30);
+        round.addQuestion(question);
+        questionId = question.getId();
+        game.startGame(List.of(round));
+    }
+
+    @Benchmark
+    public Game answerBurst() {
+        for (int i = 0; i < players; i++) {
+            game.acceptPlayerAnswer(playerIds[i], questionId, answers[i]);
+        }
+        return game;
+    }
+}
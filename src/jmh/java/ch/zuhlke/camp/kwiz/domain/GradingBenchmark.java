@@ -0,0 +1,86 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of grading a burst of {@link #ANSWERS_PER_BURST} answers to one question,
+ * which is what arrives when every player of a large game answers within the same second.
+ * The score is the average time per answer; it should stay within a few microseconds for every mode.
+ * <p>
+ * The answers are a realistic mix of correct answers, answers with typos, differently cased or
+ * accented answers, and wrong answers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GradingBenchmark {
+    static final int ANSWERS_PER_BURST = 1000;
+
+    @Param({"EXACT", "NORMALIZED", "FUZZY", "NUMERIC", "MULTIPLE_CHOICE"})
+    private GradingMode mode;
+
+    private Question question;
+    private String[] answers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] pool;
+        switch (mode) {
+            case NUMERIC -> {
+                question = new Question("How many players?", List.of("1000"), 30, null, GradingPolicy.numeric(10));
+                pool = new String[]{"1000", "1'000", "995", "1 005", "1200", "12", "about 1000", "999.5"};
+            }
+            case MULTIPLE_CHOICE -> {
+                List<String> options = Arrays.asList("Snake", "Minecraft", "Tetris", "Pub Quiz");
+                question = new Question("Which game?", List.of("Minecraft"), 30, null, GradingPolicy.multipleChoice(options));
+                pool = new String[]{"B", "b", "2", "Minecraft", "A", "Tetris", "d)", "pub quiz"};
+            }
+            default -> {
+                GradingPolicy policy = mode == GradingMode.EXACT ? GradingPolicy.exact()
+                        : mode == GradingMode.FUZZY ? GradingPolicy.fuzzy() : GradingPolicy.normalized();
+                question = new Question("Which game?", List.of("Minecraft", "Mine Craft"), 30, null, policy);
+                pool = new String[]{"Minecraft", "minecraft", "minecraf", "Mine craft", "Minceraft",
+                        "MINECRÄFT", "Tetris", "Snake", "Pub Quiz", "I have no idea at all"};
+            }
+        }
+
+        answers = new String[ANSWERS_PER_BURST];
+        for (int i = 0; i < ANSWERS_PER_BURST; i++) {
+            // Copy the strings, so that no grader benefits from identity comparisons
+            answers[i] = new String(pool[random.nextInt(pool.length)].toCharArray());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ANSWERS_PER_BURST)
+    public int gradeBurst() {
+        int correct = 0;
+        for (String answer : answers) {
+            if (question.isCorrectAnswer(answer)) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+}
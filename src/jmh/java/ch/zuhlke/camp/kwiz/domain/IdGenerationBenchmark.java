@@ -0,0 +1,115 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the random UUIDs the entities used before with the compact IDs of {@link CompactIdGenerator}:
+ * <ul>
+ *     <li>{@code nextId}: IDs per second on 4 threads, which contend for the shared {@code SecureRandom} of UUIDs</li>
+ *     <li>{@code join}: a player with a new name is created and joins a quiz, on 4 threads with a quiz each, so they
+ *     contend for the ID generator but not for the lock of a shared quiz</li>
+ *     <li>{@code joinAndAnswer}: a game of new players is created, and every player answers, on one thread</li>
+ * </ul>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=IdGenerationBenchmark -PjmhProfilers=gc} to also get the bytes
+ * allocated per operation ({@code gc.alloc.rate.norm}); the IDs stored per player and submission shrink from
+ * 36 to 22 characters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class IdGenerationBenchmark {
+    private static final int PLAYERS_PER_GAME = 1000;
+
+    @Param({"uuid", "compact"})
+    private String generator;
+
+    private IdGenerator previousGenerator;
+    private IdGenerator idGenerator;
+
+    @Setup(Level.Trial)
+    public void setUpGenerator() {
+        previousGenerator = EntityIds.getGenerator();
+        idGenerator = "uuid".equals(generator) ? IdGenerator.uuid() : IdGenerator.compact(1);
+        EntityIds.setGenerator(idGenerator);
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreGenerator() {
+        EntityIds.setGenerator(previousGenerator);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextId() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CommandResult<Player> join(JoinState state) {
+        CommandResult<Player> result = state.quiz.tryAddPlayer(new Player("Player " + state.joins++));
+        if (!result.isAccepted()) {
+            throw new IllegalStateException("Join rejected: " + result.getReason());
+        }
+        return result;
+    }
+
+    /**
+     * The quiz of one thread, which its players join with unique names.
+     */
+    @State(Scope.Thread)
+    public static class JoinState {
+        private Quiz quiz;
+        private long joins;
+
+        @Setup(Level.Iteration)
+        public void setUpQuiz() {
+            quiz = new Quiz("benchmark", "Benchmark Quiz", Integer.MAX_VALUE, false);
+            joins = 0;
+        }
+    }
+
+    /**
+     * Creates a game of {@value #PLAYERS_PER_GAME} new players who all answer one question. Divide the time and the
+     * allocated bytes by {@value #PLAYERS_PER_GAME} for the cost per player and submission.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Game joinAndAnswer() {
+        Game game = new Game("benchmark", "admin");
+        String[] playerIds = new String[PLAYERS_PER_GAME];
+        for (int i = 0; i < PLAYERS_PER_GAME; i++) {
+            Player player = new Player("Player " + i);
+            playerIds[i] = player.getId();
+            game.addPlayer(player.getId(), player.getName());
+        }
+        Round round = new Round("Round 1");
+        Question question = new Question("Which game?", List.of("Minecraft"), 30);
+        round.addQuestion(question);
+        game.startGame(List.of(round));
+        for (String playerId : playerIds) {
+            game.acceptPlayerAnswer(playerId, question.getId(), "Minecraft");
+        }
+        return game;
+    }
+}
@@ -0,0 +1,63 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a single join ({@link Quiz#addPlayer}) into a quiz that already
+ * has {@code existingPlayers} players. With indexed lookups the cost per join stays flat
+ * across all player counts instead of growing linearly with the roster.
+ * <p>
+ * Joining is stateful (every call grows the quiz), so each measurement iteration starts
+ * from a fresh quiz and times a batch of {@link #JOINS_PER_BATCH} joins. The reported score
+ * is the time per batch; divide by {@link #JOINS_PER_BATCH} for the time per join.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = QuizJoinBenchmark.JOINS_PER_BATCH)
+@Measurement(iterations = 20, batchSize = QuizJoinBenchmark.JOINS_PER_BATCH)
+@Fork(1)
+public class QuizJoinBenchmark {
+    static final int JOINS_PER_BATCH = 1000;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int existingPlayers;
+
+    private Quiz quiz;
+    private Player[] joiningPlayers;
+    private int nextPlayer;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        quiz = new Quiz("benchmark", "Benchmark Quiz", existingPlayers + JOINS_PER_BATCH, false);
+        for (int i = 0; i < existingPlayers; i++) {
+            quiz.addPlayer(new Player("Existing Player " + i));
+        }
+
+        // Create the joining players up front, so only the join itself is measured
+        joiningPlayers = new Player[JOINS_PER_BATCH];
+        for (int i = 0; i < JOINS_PER_BATCH; i++) {
+            joiningPlayers[i] = new Player("Joining Player " + i);
+        }
+        nextPlayer = 0;
+    }
+
+    @Benchmark
+    public Quiz addPlayer() {
+        quiz.addPlayer(joiningPlayers[nextPlayer++]);
+        return quiz;
+    }
+}
@@ -0,0 +1,70 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import ch.zuhlke.camp.kwiz.domain.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of {@link InMemoryGameRepository} with {@code games} stored games.
+ * Lookups and saves should stay flat across game counts; {@code findAll} copies all games and
+ * grows linearly, which matters because the timer and the latency pings call it periodically.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GameRepositoryBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int games;
+
+    private InMemoryGameRepository gameRepository;
+    private Game[] storedGames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameRepository = new InMemoryGameRepository();
+        storedGames = new Game[games];
+        for (int i = 0; i < games; i++) {
+            storedGames[i] = gameRepository.save(new Game("benchmark-" + i, "admin"));
+        }
+    }
+
+    private Game nextGame() {
+        Game game = storedGames[next];
+        next = next + 1 == games ? 0 : next + 1;
+        return game;
+    }
+
+    @Benchmark
+    public Optional<Game> findById() {
+        return gameRepository.findById(nextGame().getId());
+    }
+
+    @Benchmark
+    public Game save() {
+        return gameRepository.save(nextGame());
+    }
+
+    @Benchmark
+    public List<Game> findAll() {
+        return gameRepository.findAll();
+    }
+}
@@ -0,0 +1,79 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Training run that creates a class data sharing (AppCDS) archive for the extracted release jar.
+ * <p>
+ * The jar is started with {@code -XX:ArchiveClassesAtExit}, and one short quiz is played against it, like in the
+ * {@link LoadTest}: the quiz is created, players join and connect over STOMP, answer every question and receive
+ * the broadcasts. When the server is stopped, the JVM writes all classes it has loaded to the archive, so
+ * instances started with {@code -XX:SharedArchiveFile} load them from the archive instead of parsing and verifying
+ * them again.
+ * <p>
+ * The archive only matches the JDK build that created it and the jar with its "lib" directory, so it must be
+ * created with the same JDK that runs the release. Arguments are given as {@code key=value}: {@code jar} (required,
+ * the extracted jar), {@code archive} (required), {@code profile} ("prod" by default), {@code players},
+ * {@code questions}, {@code timeLimit} (seconds) and {@code outputDir}. Run it with {@code ./gradlew trainCdsArchive}.
+ */
+public class CdsTraining {
+    private static final Duration DUMP_TIMEOUT = Duration.ofSeconds(120);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = LoadTest.parseArguments(args);
+        File jar = new File(LoadTest.required(arguments, "jar"));
+        File archive = new File(LoadTest.required(arguments, "archive")).getAbsoluteFile();
+        String profile = arguments.getOrDefault("profile", "prod");
+        int players = Integer.parseInt(arguments.getOrDefault("players", "50"));
+        int questions = Integer.parseInt(arguments.getOrDefault("questions", "3"));
+        int timeLimitSeconds = Integer.parseInt(arguments.getOrDefault("timeLimit", "5"));
+        File outputDir = new File(arguments.getOrDefault("outputDir", "build/results/cds"));
+
+        Files.deleteIfExists(archive.toPath());
+        List<String> jvmArgs = List.of("-XX:ArchiveClassesAtExit=" + archive.getPath());
+        List<String> applicationArgs = List.of("--spring.profiles.active=" + profile);
+        System.out.println("Training " + archive.getName() + " with a quiz of " + players + " players and "
+                + questions + " questions");
+
+        ServerProcess server = ServerProcess.start(jar, jvmArgs, applicationArgs, new File(outputDir, "training.log"));
+        try {
+            LoadTestMetrics metrics = new LoadTestMetrics();
+            KwizClient client = new KwizClient(server.getBaseUrl(), new ObjectMapper());
+            WebSocketStompClient stompClient = LoadTest.createStompClient();
+            ExecutorService joinExecutor = Executors.newFixedThreadPool(8);
+            ScheduledExecutorService answerScheduler = Executors.newScheduledThreadPool(2);
+            try {
+                new QuizSession("training", players, questions, timeLimitSeconds, client, metrics, answerScheduler, 0)
+                        .run(joinExecutor, stompClient, server.getBaseUrl() + "/ws");
+                // Exercise the actuator endpoints that monitoring uses, so their classes are archived too
+                client.get("/actuator/health");
+                client.get("/actuator/prometheus");
+            } finally {
+                answerScheduler.shutdownNow();
+                joinExecutor.shutdownNow();
+                stompClient.stop();
+            }
+            System.out.println("Training quiz played: " + metrics.summarize().get("counters"));
+        } finally {
+            if (!server.stop(DUMP_TIMEOUT)) {
+                System.err.println("The server did not exit within " + DUMP_TIMEOUT.toSeconds() + " seconds");
+            }
+        }
+
+        if (!archive.isFile()) {
+            throw new IOException("The JVM did not write the archive " + archive + ", see " + new File(outputDir, "training.log"));
+        }
+        System.out.println("Archive written to " + archive + " (" + archive.length() / 1024 / 1024 + " MB)");
+    }
+}
@@ -0,0 +1,75 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * KwizClient calls the REST API of the server under test, the way the frontend does.
+ * It is shared by all synthetic players and quiz masters.
+ */
+public class KwizClient {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+
+    public KwizClient(String baseUrl, ObjectMapper objectMapper) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Sends a GET request.
+     *
+     * @param path the path, e.g. "/api/games/{gameId}"
+     * @return the JSON response
+     * @throws IOException if the request fails or is answered with an error status
+     */
+    public JsonNode get(String path) throws IOException, InterruptedException {
+        return send(newRequest(path).GET().build());
+    }
+
+    /**
+     * Sends a POST request with a JSON body.
+     *
+     * @param path the path, including any query parameters
+     * @param body the body, serialized to JSON; or null for an empty body
+     * @return the response, parsed as JSON if it is JSON
+     * @throws IOException if the request fails or is answered with an error status
+     */
+    public JsonNode post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        return send(newRequest(path)
+                .header("Content-Type", "application/json")
+                .POST(publisher)
+                .build());
+    }
+
+    private HttpRequest.Builder newRequest(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(request.method() + " " + request.uri().getPath() + " failed with HTTP "
+                    + response.statusCode() + ": " + response.body());
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        return contentType.contains("json") ? objectMapper.readTree(response.body()) : objectMapper.nullNode();
+    }
+}
@@ -0,0 +1,77 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LatencyRecorder collects the samples of one latency (e.g. the join latency) from many threads,
+ * and summarizes them as percentiles once the load test is over.
+ */
+public class LatencyRecorder {
+    private final String name;
+    private long[] samplesNanos = new long[1024];
+    private int count;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records the time elapsed since the given start.
+     *
+     * @param startNanos the start, as returned by {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records one sample.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        if (count == samplesNanos.length) {
+            samplesNanos = Arrays.copyOf(samplesNanos, count * 2);
+        }
+        samplesNanos[count++] = nanos;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the count, the percentiles and the maximum of the samples in milliseconds.
+     *
+     * @return the summary, in the order it should be printed
+     */
+    public synchronized Map<String, Object> summarize() {
+        long[] sorted = Arrays.copyOf(samplesNanos, count);
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("p50Ms", percentileMillis(sorted, 50));
+        summary.put("p95Ms", percentileMillis(sorted, 95));
+        summary.put("p99Ms", percentileMillis(sorted, 99));
+        summary.put("maxMs", percentileMillis(sorted, 100));
+        return summary;
+    }
+
+    private static double percentileMillis(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        // Nearest-rank percentile
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        long nanos = sorted[Math.max(rank, 1) - 1];
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,153 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Headless load test that simulates full pub quiz sessions against a locally started server.
+ * <p>
+ * The server jar is started in its own JVM; then {@code games} quizzes are played at the same time,
+ * with {@code players} synthetic players in total. Each player joins over REST, connects to "/ws"
+ * over STOMP, and answers every question (see {@link SyntheticPlayer}). Everything runs on the
+ * local machine, no network access is needed.
+ * <p>
+ * The report contains the join latency, the answer receipt latency, the broadcast fan-out delay,
+ * the CPU and heap usage of the server, and the server's answer traces compared with their SLO. It is printed and written as JSON next to the server log.
+ * <p>
+ * Arguments are given as {@code key=value}: {@code jar} (required), {@code players}, {@code games},
+ * {@code questions}, {@code timeLimit} (seconds), {@code serverJvmArgs} (space separated) and
+ * {@code outputDir}. Run it with {@code ./gradlew loadTest}.
+ */
+public class LoadTest {
+    /** Large enough for the game state of a game with thousands of players. */
+    private static final int MAX_MESSAGE_BYTES = 16 * 1024 * 1024;
+    private static final int JOIN_THREADS = 64;
+    private static final int ANSWER_THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = parseArguments(args);
+        File jar = new File(required(arguments, "jar"));
+        int players = Integer.parseInt(arguments.getOrDefault("players", "2000"));
+        int games = Integer.parseInt(arguments.getOrDefault("games", "4"));
+        int questions = Integer.parseInt(arguments.getOrDefault("questions", "5"));
+        int timeLimitSeconds = Integer.parseInt(arguments.getOrDefault("timeLimit", "20"));
+        List<String> serverJvmArgs = arguments.getOrDefault("serverJvmArgs", "").isBlank()
+                ? List.of() : Arrays.asList(arguments.get("serverJvmArgs").trim().split("\\s+"));
+        File outputDir = new File(arguments.getOrDefault("outputDir", "build/results/loadtest"));
+
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("players", players);
+        configuration.put("games", games);
+        configuration.put("questions", questions);
+        configuration.put("timeLimitSeconds", timeLimitSeconds);
+        configuration.put("serverJvmArgs", serverJvmArgs);
+        System.out.println("Starting " + jar.getName() + " for a load test with " + configuration);
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        LoadTestMetrics metrics = new LoadTestMetrics();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("configuration", configuration);
+
+        try (ServerProcess server = ServerProcess.start(jar, serverJvmArgs, new File(outputDir, "server.log"));
+             ServerStats serverStats = new ServerStats(server.getBaseUrl())) {
+            KwizClient client = new KwizClient(server.getBaseUrl(), objectMapper);
+            WebSocketStompClient stompClient = createStompClient();
+            ExecutorService joinExecutor = Executors.newFixedThreadPool(JOIN_THREADS);
+            ScheduledExecutorService answerScheduler = Executors.newScheduledThreadPool(ANSWER_THREADS);
+            ExecutorService gameExecutor = Executors.newFixedThreadPool(games);
+            try {
+                serverStats.start();
+                long start = System.nanoTime();
+
+                List<Future<?>> sessions = new ArrayList<>();
+                for (int game = 0; game < games; game++) {
+                    // Spread the players evenly, the first games get the remainder
+                    int gamePlayers = players / games + (game < players % games ? 1 : 0);
+                    QuizSession session = new QuizSession("loadtest-" + game, gamePlayers, questions, timeLimitSeconds,
+                            client, metrics, answerScheduler, 1_000_000L * game);
+                    String webSocketUrl = server.getBaseUrl() + "/ws";
+                    sessions.add(gameExecutor.submit(() -> {
+                        session.run(joinExecutor, stompClient, webSocketUrl);
+                        return null;
+                    }));
+                }
+                List<String> failedGames = new ArrayList<>();
+                for (Future<?> session : sessions) {
+                    try {
+                        session.get();
+                    } catch (Exception e) {
+                        failedGames.add(String.valueOf(e.getCause()));
+                    }
+                }
+
+                report.put("durationSeconds", (System.nanoTime() - start) / 1e9);
+                report.put("failedGames", failedGames);
+                report.putAll(metrics.summarize());
+                report.put("server", serverStats.summarize());
+                // Server-side traces from receiving an answer to writing the game state, with the p99 and the SLO
+                report.put("answerTraces", client.get("/actuator/answertraces?limit=0"));
+            } finally {
+                gameExecutor.shutdownNow();
+                answerScheduler.shutdownNow();
+                joinExecutor.shutdownNow();
+                stompClient.stop();
+            }
+        }
+
+        File reportFile = new File(outputDir, "report.json");
+        objectMapper.writeValue(reportFile, report);
+        System.out.println(objectMapper.writeValueAsString(report));
+        System.out.println("Report written to " + reportFile.getPath());
+    }
+
+    static WebSocketStompClient createStompClient() {
+        // Tomcat's WebSocket client only buffers 8 KB per message by default
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(MAX_MESSAGE_BYTES);
+
+        SockJsClient sockJsClient = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient(container))));
+        WebSocketStompClient stompClient = new WebSocketStompClient(sockJsClient);
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setInboundMessageSizeLimit(MAX_MESSAGE_BYTES);
+        return stompClient;
+    }
+
+    static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected an argument in the form key=value, got: " + arg);
+            }
+            arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return arguments;
+    }
+
+    static String required(Map<String, String> arguments, String key) {
+        String value = arguments.get(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing required argument: " + key);
+        }
+        return value;
+    }
+}
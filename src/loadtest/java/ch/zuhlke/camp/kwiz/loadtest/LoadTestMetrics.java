@@ -0,0 +1,48 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadTestMetrics holds everything the synthetic players and quiz masters of all games measure.
+ */
+public class LoadTestMetrics {
+    /** From sending the join request to receiving its response. */
+    final LatencyRecorder joinLatency = new LatencyRecorder("join");
+    /** From sending an answer over STOMP to receiving its receipt. */
+    final LatencyRecorder answerAckLatency = new LatencyRecorder("answerAck");
+    /** From the quiz master's action (start, close, next question) to a player receiving the resulting game state. */
+    final LatencyRecorder broadcastFanOut = new LatencyRecorder("broadcastFanOut");
+
+    final AtomicLong failedJoins = new AtomicLong();
+    final AtomicLong failedConnections = new AtomicLong();
+    final AtomicLong lostConnections = new AtomicLong();
+    final AtomicLong answersAccepted = new AtomicLong();
+    final AtomicLong answersDuplicate = new AtomicLong();
+    final AtomicLong answersRejected = new AtomicLong();
+    final AtomicLong answersUnacknowledged = new AtomicLong();
+
+    /**
+     * Returns the latency summaries and the counters.
+     *
+     * @return the summary, in the order it should be printed
+     */
+    public Map<String, Object> summarize() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (LatencyRecorder recorder : new LatencyRecorder[]{joinLatency, answerAckLatency, broadcastFanOut}) {
+            summary.put(recorder.getName(), recorder.summarize());
+        }
+
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("failedJoins", failedJoins.get());
+        counters.put("failedConnections", failedConnections.get());
+        counters.put("lostConnections", lostConnections.get());
+        counters.put("answersAccepted", answersAccepted.get());
+        counters.put("answersDuplicate", answersDuplicate.get());
+        counters.put("answersRejected", answersRejected.get());
+        counters.put("answersUnacknowledged", answersUnacknowledged.get());
+        summary.put("counters", counters);
+        return summary;
+    }
+}
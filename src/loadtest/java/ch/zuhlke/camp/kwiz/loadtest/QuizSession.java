@@ -0,0 +1,232 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * QuizSession plays one complete pub quiz: it acts as the quiz master, and drives its synthetic
+ * players through join, lobby, all questions and the end of the game.
+ * <p>
+ * The quiz master closes a question as soon as every player who decided to answer has received
+ * a receipt, and otherwise lets the server timer close it. Before each action that leads to a
+ * broadcast, the quiz master publishes a {@link PendingBroadcast}, so that the players can
+ * measure how long the resulting game state took to reach them.
+ */
+public class QuizSession {
+    /** The admin ID the server assigns to every game. */
+    private static final String ADMIN_ID = "notimplemented";
+    private static final long LOBBY_WAIT_MILLIS = 1000;
+    private static final long REVEAL_MILLIS = 2000;
+    private static final long MIN_QUESTION_MILLIS = 2000;
+    private static final long POLL_MILLIS = 100;
+
+    private final String quizId;
+    private final int questionCount;
+    private final int timeLimitSeconds;
+    private final KwizClient client;
+    private final List<SyntheticPlayer> players = new ArrayList<>();
+
+    private final Map<String, String> correctAnswerByQuestionId = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> scheduledAnswersByQuestionId = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> acknowledgedAnswersByQuestionId = new ConcurrentHashMap<>();
+    private volatile PendingBroadcast pendingBroadcast;
+
+    public QuizSession(String quizId, int playerCount, int questionCount, int timeLimitSeconds, KwizClient client,
+                       LoadTestMetrics metrics, ScheduledExecutorService scheduler, long seed) {
+        this.quizId = quizId;
+        this.questionCount = questionCount;
+        this.timeLimitSeconds = timeLimitSeconds;
+        this.client = client;
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new SyntheticPlayer(this, "Player " + i, metrics, scheduler, seed + i));
+        }
+    }
+
+    /**
+     * Plays the quiz from creation to game over.
+     *
+     * @param joinExecutor the executor the players join on, to simulate players joining at the same time
+     * @param stompClient the STOMP client the players connect with
+     * @param webSocketUrl the URL of the "/ws" endpoint
+     * @throws Exception if the quiz master's requests fail
+     */
+    public void run(ExecutorService joinExecutor, WebSocketStompClient stompClient, String webSocketUrl) throws Exception {
+        try {
+            client.post("/api/quizzes", Map.of("quizId", quizId, "quizName", "Load Test " + quizId, "maxPlayers", players.size()));
+            String roundId = client.post("/api/quizzes/" + quizId + "/rounds", Map.of("roundName", "Round 1"))
+                    .path("roundId").asText();
+
+            List<SyntheticPlayer> joinedPlayers = joinPlayers(joinExecutor);
+            if (joinedPlayers.isEmpty()) {
+                throw new IllegalStateException("No player could join quiz " + quizId);
+            }
+            addQuestions(joinedPlayers.get(0).getPlayerId(), roundId);
+            connectPlayers(joinedPlayers, stompClient, webSocketUrl);
+            Thread.sleep(LOBBY_WAIT_MILLIS);
+
+            pendingBroadcast = PendingBroadcast.newQuestion(null);
+            client.post("/api/quizzes/" + quizId + "/start", null);
+            String gameId = client.get("/api/quizzes/" + quizId).path("currentGameId").asText();
+            playQuestions(gameId);
+        } finally {
+            players.forEach(SyntheticPlayer::disconnect);
+        }
+    }
+
+    private List<SyntheticPlayer> joinPlayers(ExecutorService joinExecutor) {
+        List<CompletableFuture<Boolean>> joins = players.stream()
+                .map(player -> CompletableFuture.supplyAsync(() -> player.join(client), joinExecutor))
+                .toList();
+        List<SyntheticPlayer> joinedPlayers = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            if (joins.get(i).join()) {
+                joinedPlayers.add(players.get(i));
+            }
+        }
+        return joinedPlayers;
+    }
+
+    private void addQuestions(String authorId, String roundId) throws Exception {
+        for (int i = 1; i <= questionCount; i++) {
+            String correctAnswer = "Answer " + i;
+            JsonNode question = client.post("/api/quizzes/" + quizId + "/players/" + authorId + "/questions", Map.of(
+                    "questionText", "Question " + i,
+                    "correctAnswers", List.of(correctAnswer),
+                    "timeLimit", timeLimitSeconds,
+                    "roundId", roundId));
+            correctAnswerByQuestionId.put(question.path("questionId").asText(), correctAnswer);
+        }
+    }
+
+    private void connectPlayers(List<SyntheticPlayer> joinedPlayers, WebSocketStompClient stompClient, String webSocketUrl) {
+        List<CompletableFuture<Boolean>> connections = joinedPlayers.stream()
+                .map(player -> player.connect(stompClient, webSocketUrl))
+                .toList();
+        connections.forEach(CompletableFuture::join);
+    }
+
+    private void playQuestions(String gameId) throws Exception {
+        JsonNode state = client.get("/api/games/" + gameId);
+        while ("QUESTION_ACTIVE".equals(state.path("status").asText())) {
+            String questionId = state.path("currentQuestionId").asText();
+            awaitAnswers(questionId);
+
+            state = client.get("/api/games/" + gameId);
+            if ("QUESTION_ACTIVE".equals(state.path("status").asText())) {
+                pendingBroadcast = PendingBroadcast.closedQuestion(questionId);
+                try {
+                    client.post("/api/games/" + gameId + "/close-question?adminId=" + ADMIN_ID, null);
+                } catch (IOException e) {
+                    // The server timer closed the question in the meantime
+                }
+            }
+            Thread.sleep(REVEAL_MILLIS);
+
+            pendingBroadcast = PendingBroadcast.newQuestion(questionId);
+            client.post("/api/games/" + gameId + "/next-question?adminId=" + ADMIN_ID, null);
+            state = client.get("/api/games/" + gameId);
+        }
+    }
+
+    private void awaitAnswers(String questionId) throws InterruptedException {
+        long start = System.nanoTime();
+        long minEnd = start + TimeUnit.MILLISECONDS.toNanos(MIN_QUESTION_MILLIS);
+        // The server timer closes the question after the time limit; give it one more second
+        long maxEnd = start + TimeUnit.SECONDS.toNanos(timeLimitSeconds + 1L);
+        while (System.nanoTime() < maxEnd) {
+            if (System.nanoTime() >= minEnd
+                    && counter(acknowledgedAnswersByQuestionId, questionId).get() >= counter(scheduledAnswersByQuestionId, questionId).get()) {
+                return;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static AtomicInteger counter(Map<String, AtomicInteger> counters, String questionId) {
+        return counters.computeIfAbsent(questionId, id -> new AtomicInteger());
+    }
+
+    void answerScheduled(String questionId) {
+        counter(scheduledAnswersByQuestionId, questionId).incrementAndGet();
+    }
+
+    void answerAcknowledged(String questionId) {
+        counter(acknowledgedAnswersByQuestionId, questionId).incrementAndGet();
+    }
+
+    String getCorrectAnswer(String questionId) {
+        return correctAnswerByQuestionId.getOrDefault(questionId, "");
+    }
+
+    PendingBroadcast getPendingBroadcast() {
+        return pendingBroadcast;
+    }
+
+    KwizClient getClient() {
+        return client;
+    }
+
+    String getQuizId() {
+        return quizId;
+    }
+
+    int getTimeLimitSeconds() {
+        return timeLimitSeconds;
+    }
+
+    /**
+     * A game state the quiz master is about to cause, and when the action started.
+     * Each player measures the first matching state it receives.
+     */
+    static final class PendingBroadcast {
+        private final String status;
+        private final String questionId;
+        private final boolean sameQuestion;
+        private final long startNanos;
+
+        private PendingBroadcast(String status, String questionId, boolean sameQuestion) {
+            this.status = status;
+            this.questionId = questionId;
+            this.sameQuestion = sameQuestion;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * The next question becomes active, or the game ends after the last question.
+         */
+        static PendingBroadcast newQuestion(String previousQuestionId) {
+            return new PendingBroadcast(null, previousQuestionId, false);
+        }
+
+        /**
+         * The given question is closed.
+         */
+        static PendingBroadcast closedQuestion(String questionId) {
+            return new PendingBroadcast("QUESTION_CLOSED", questionId, true);
+        }
+
+        boolean matches(String status, String questionId) {
+            if (sameQuestion) {
+                return this.status.equals(status) && Objects.equals(this.questionId, questionId);
+            }
+            return "GAME_OVER".equals(status)
+                    || ("QUESTION_ACTIVE".equals(status) && !Objects.equals(this.questionId, questionId));
+        }
+
+        long startNanos() {
+            return startNanos;
+        }
+    }
+}
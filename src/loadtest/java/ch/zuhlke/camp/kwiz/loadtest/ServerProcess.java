@@ -0,0 +1,157 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServerProcess runs the kwiz application jar in its own JVM on a free local port, so that
+ * the CPU and heap reported by the server are not mixed up with those of the synthetic players.
+ * The server output is written to a log file next to the load test report.
+ */
+public class ServerProcess implements AutoCloseable {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(90);
+
+    private final Process process;
+    private final int port;
+    private final long startNanos;
+    private long timeToReadyNanos;
+
+    private ServerProcess(Process process, int port, long startNanos) {
+        this.process = process;
+        this.port = port;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Starts the application and waits until it is ready to accept traffic.
+     *
+     * @param jar the executable application jar
+     * @param jvmArgs additional JVM arguments for the server, e.g. "-Xmx512m"
+     * @param logFile the file the server output is written to
+     * @return the running server
+     * @throws IOException if the server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the server
+     */
+    public static ServerProcess start(File jar, List<String> jvmArgs, File logFile) throws IOException, InterruptedException {
+        return start(jar, jvmArgs, List.of(), logFile);
+    }
+
+    /**
+     * Starts the application with additional application arguments, e.g. "--spring.profiles.active=prod",
+     * and waits until it is ready to accept traffic.
+     *
+     * @param jar the executable application jar
+     * @param jvmArgs additional JVM arguments for the server
+     * @param applicationArgs additional arguments for the application
+     * @param logFile the file the server output is written to
+     * @return the running server
+     * @throws IOException if the server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the server
+     */
+    public static ServerProcess start(File jar, List<String> jvmArgs, List<String> applicationArgs, File logFile)
+            throws IOException, InterruptedException {
+        int port = findFreePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.getAbsolutePath());
+        command.add("--server.port=" + port);
+        command.addAll(applicationArgs);
+
+        logFile.getParentFile().mkdirs();
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile)
+                .start();
+        ServerProcess server = new ServerProcess(process, port, startNanos);
+        try {
+            server.awaitHealthy();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    public long getPid() {
+        return process.pid();
+    }
+
+    /**
+     * Returns the time from starting the JVM until the readiness probe reported UP for the first time.
+     *
+     * @return the time in milliseconds
+     */
+    public double getTimeToReadyMillis() {
+        return timeToReadyNanos / 1_000_000.0;
+    }
+
+    private void awaitHealthy() throws IOException, InterruptedException {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(getBaseUrl() + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("The server exited with code " + process.exitValue() + " during startup");
+            }
+            try {
+                // The readiness probe answers 503 until the application runners, such as the JIT warm-up, are done
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    timeToReadyNanos = System.nanoTime() - startNanos;
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            // Poll often, so the time to ready is accurate
+            Thread.sleep(10);
+        }
+        throw new IOException("The server did not become healthy within " + STARTUP_TIMEOUT.toSeconds() + " seconds");
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Stops the server gracefully, so that its shutdown hooks and JVM exit actions run (e.g. writing a
+     * class data sharing archive), and kills it if it does not exit in time.
+     *
+     * @param timeout how long to wait for the server to exit
+     * @return true if the server exited within the timeout
+     * @throws InterruptedException if interrupted while waiting for the server
+     */
+    public boolean stop(Duration timeout) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        stop(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,101 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServerStats samples the CPU usage, the used heap and the live threads of the server once per
+ * second from its actuator metrics endpoint, while the load test is running.
+ */
+public class ServerStats implements AutoCloseable {
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final String metricsUrl;
+
+    private int samples;
+    private double cpuUsageSum;
+    private double maxCpuUsage;
+    private double heapUsedMbSum;
+    private double maxHeapUsedMb;
+    private double maxLiveThreads;
+
+    public ServerStats(String baseUrl) {
+        this.metricsUrl = baseUrl + "/actuator/metrics/";
+    }
+
+    /**
+     * Starts sampling the server metrics once per second.
+     */
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.SECONDS);
+    }
+
+    private void sample() {
+        try {
+            double cpuUsage = readMetric("process.cpu.usage");
+            double heapUsedMb = readMetric("jvm.memory.used?tag=area:heap") / BYTES_PER_MB;
+            double liveThreads = readMetric("jvm.threads.live");
+            synchronized (this) {
+                samples++;
+                cpuUsageSum += cpuUsage;
+                maxCpuUsage = Math.max(maxCpuUsage, cpuUsage);
+                heapUsedMbSum += heapUsedMb;
+                maxHeapUsedMb = Math.max(maxHeapUsedMb, heapUsedMb);
+                maxLiveThreads = Math.max(maxLiveThreads, liveThreads);
+            }
+        } catch (IOException e) {
+            // Skip this sample, the server may be too busy to answer in time
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double readMetric(String metric) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(metricsUrl + metric))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Metric " + metric + " is not available: HTTP " + response.statusCode());
+        }
+        JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+        return measurements.path(0).path("value").asDouble();
+    }
+
+    /**
+     * Returns the averages and maxima of the samples taken so far.
+     * The CPU usage is the share of all CPUs of the machine that the server used, in percent.
+     *
+     * @return the summary, in the order it should be printed
+     */
+    public synchronized Map<String, Object> summarize() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("samples", samples);
+        summary.put("avgCpuPercent", samples == 0 ? 0 : 100 * cpuUsageSum / samples);
+        summary.put("maxCpuPercent", 100 * maxCpuUsage);
+        summary.put("avgHeapUsedMb", samples == 0 ? 0 : heapUsedMbSum / samples);
+        summary.put("maxHeapUsedMb", maxHeapUsedMb);
+        summary.put("maxLiveThreads", (int) maxLiveThreads);
+        return summary;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
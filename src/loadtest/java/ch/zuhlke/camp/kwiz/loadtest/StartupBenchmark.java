@@ -0,0 +1,123 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup benchmark that compares the cold start of the application jar with and without a profile,
+ * and with and without a class data sharing archive.
+ * <p>
+ * For every variant, the jar is started {@code runs} times in a new JVM. Each run measures the time from starting
+ * the JVM until the health endpoint answers (time to ready), and the latency of the first and second request
+ * that creates a quiz, which include the work that was deferred to the first request. If {@code throughputSeconds}
+ * is positive, a {@link ThroughputProbe} then measures the time until the throughput peaks. The variants are run
+ * alternately, so that a busy machine affects all alike.
+ * <p>
+ * Arguments are given as {@code key=value}: {@code jar} (required), {@code profiles} (comma separated, "default"
+ * for no profile; "default,prod" by default), {@code sharedArchive} (a CDS archive of the jar; every profile is then
+ * also run with it, as "profile+cds"), {@code runs}, {@code throughputSeconds}, {@code serverJvmArgs} (space
+ * separated) and {@code outputDir}. Run it with {@code ./gradlew startupBenchmark} or {@code ./gradlew cdsBenchmark}.
+ */
+public class StartupBenchmark {
+    private static final int PROBE_THREADS = 4;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = LoadTest.parseArguments(args);
+        File jar = new File(LoadTest.required(arguments, "jar"));
+        List<String> profiles = Arrays.asList(arguments.getOrDefault("profiles", "default,prod").split(","));
+        int runs = Integer.parseInt(arguments.getOrDefault("runs", "5"));
+        List<String> serverJvmArgs = arguments.getOrDefault("serverJvmArgs", "").isBlank()
+                ? List.of() : Arrays.asList(arguments.get("serverJvmArgs").trim().split("\\s+"));
+        String sharedArchive = arguments.get("sharedArchive");
+        int throughputSeconds = Integer.parseInt(arguments.getOrDefault("throughputSeconds", "0"));
+        File outputDir = new File(arguments.getOrDefault("outputDir", "build/results/startup"));
+
+        // Variant name -> profile, and whether the shared archive is used
+        Map<String, Boolean> variants = new LinkedHashMap<>();
+        for (String profile : profiles) {
+            variants.put(profile, false);
+            if (sharedArchive != null) {
+                variants.put(profile + "+cds", true);
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Map<String, Map<String, LatencyRecorder>> recorders = new LinkedHashMap<>();
+        Map<String, List<Double>> peakThroughputs = new LinkedHashMap<>();
+        for (String variant : variants.keySet()) {
+            Map<String, LatencyRecorder> variantRecorders = new LinkedHashMap<>();
+            for (String name : List.of("timeToReady", "firstRequest", "secondRequest", "timeToPeakThroughput")) {
+                variantRecorders.put(name, new LatencyRecorder(name));
+            }
+            recorders.put(variant, variantRecorders);
+            peakThroughputs.put(variant, new ArrayList<>());
+        }
+
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, Boolean> variant : variants.entrySet()) {
+                String profile = variant.getKey().replace("+cds", "");
+                List<String> applicationArgs = profile.equals("default")
+                        ? List.of() : List.of("--spring.profiles.active=" + profile);
+                List<String> jvmArgs = new ArrayList<>(serverJvmArgs);
+                if (variant.getValue()) {
+                    jvmArgs.add("-XX:SharedArchiveFile=" + sharedArchive);
+                }
+                File logFile = new File(outputDir, "server-" + variant.getKey() + "-" + run + ".log");
+                Map<String, LatencyRecorder> variantRecorders = recorders.get(variant.getKey());
+
+                try (ServerProcess server = ServerProcess.start(jar, jvmArgs, applicationArgs, logFile)) {
+                    variantRecorders.get("timeToReady").record(Math.round(server.getTimeToReadyMillis() * 1_000_000));
+                    KwizClient client = new KwizClient(server.getBaseUrl(), objectMapper);
+                    String quizId = null;
+                    for (String name : List.of("firstRequest", "secondRequest")) {
+                        quizId = name + "-" + run;
+                        long start = System.nanoTime();
+                        client.post("/api/quizzes", Map.of("quizId", quizId, "quizName", "Startup " + quizId, "maxPlayers", 10));
+                        variantRecorders.get(name).recordSince(start);
+                    }
+                    if (throughputSeconds > 0) {
+                        ThroughputProbe.Result result = new ThroughputProbe(client, "/api/quizzes/" + quizId, PROBE_THREADS)
+                                .run(throughputSeconds * 1_000_000_000L);
+                        variantRecorders.get("timeToPeakThroughput").record(result.timeToPeakNanos());
+                        peakThroughputs.get(variant.getKey()).add(result.peakRequestsPerSecond());
+                    }
+                }
+                System.out.println("Run " + (run + 1) + "/" + runs + " of " + variant.getKey() + " done");
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("profiles", profiles);
+        configuration.put("sharedArchive", sharedArchive);
+        configuration.put("runs", runs);
+        configuration.put("throughputSeconds", throughputSeconds);
+        configuration.put("serverJvmArgs", serverJvmArgs);
+        report.put("configuration", configuration);
+        recorders.forEach((variant, variantRecorders) -> {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            variantRecorders.forEach((name, recorder) -> {
+                if (recorder.getCount() > 0) {
+                    summary.put(name, recorder.summarize());
+                }
+            });
+            List<Double> peaks = peakThroughputs.get(variant);
+            if (!peaks.isEmpty()) {
+                summary.put("peakRequestsPerSecond", peaks.stream().mapToDouble(Double::doubleValue).average().orElse(0));
+            }
+            report.put(variant, summary);
+        });
+
+        File reportFile = new File(outputDir, "report.json");
+        objectMapper.writeValue(reportFile, report);
+        System.out.println(objectMapper.writeValueAsString(report));
+        System.out.println("Report written to " + reportFile.getPath());
+    }
+}
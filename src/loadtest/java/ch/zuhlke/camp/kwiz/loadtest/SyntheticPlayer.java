@@ -0,0 +1,234 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * SyntheticPlayer behaves like the browser of one player: it joins the quiz over REST, waits in
+ * the lobby on its STOMP connection, follows the game state and answers every question after
+ * a human-like delay.
+ * <p>
+ * Answer delays follow a log-normal distribution: most players answer after about a third of
+ * the time limit, a few answer almost immediately and a long tail answers in the last seconds.
+ */
+public class SyntheticPlayer extends StompSessionHandlerAdapter {
+    private static final double MEDIAN_ANSWER_SHARE = 0.35;
+    private static final double ANSWER_DELAY_SIGMA = 0.6;
+    private static final double SKIP_PROBABILITY = 0.05;
+    private static final double CORRECT_PROBABILITY = 0.6;
+    private static final long MIN_ANSWER_DELAY_MILLIS = 500;
+
+    private final QuizSession quizSession;
+    private final String name;
+    private final LoadTestMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+    private final Random random;
+
+    private final Set<String> seenQuestionIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> pendingSubmissionStarts = new ConcurrentHashMap<>();
+
+    private volatile String playerId;
+    private volatile String gameId;
+    private volatile StompSession stompSession;
+    private volatile boolean disconnecting;
+    private volatile QuizSession.PendingBroadcast lastMeasuredBroadcast;
+
+    public SyntheticPlayer(QuizSession quizSession, String name, LoadTestMetrics metrics,
+                           ScheduledExecutorService scheduler, long seed) {
+        this.quizSession = quizSession;
+        this.name = name;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.random = new Random(seed);
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Joins the quiz and measures the join latency.
+     *
+     * @param client the REST client
+     * @return whether the player has joined
+     */
+    public boolean join(KwizClient client) {
+        long start = System.nanoTime();
+        try {
+            JsonNode response = client.post("/api/quizzes/" + quizSession.getQuizId() + "/players", Map.of("playerName", name));
+            metrics.joinLatency.recordSince(start);
+            playerId = response.path("playerId").asText();
+            return true;
+        } catch (Exception e) {
+            metrics.failedJoins.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Opens the STOMP connection and subscribes to the answer receipts and the quiz topic.
+     *
+     * @param stompClient the STOMP client
+     * @param webSocketUrl the URL of the "/ws" endpoint
+     * @return a future that completes when the player has subscribed, or with false if the connection failed
+     */
+    public CompletableFuture<Boolean> connect(WebSocketStompClient stompClient, String webSocketUrl) {
+        return stompClient.connectAsync(webSocketUrl, this)
+                .thenApply(session -> {
+                    stompSession = session;
+                    subscribe("/user/queue/answers", this::onAnswerReceipt);
+                    subscribe("/topic/quiz/" + quizSession.getQuizId() + "/updates", this::onQuizUpdate);
+                    return true;
+                })
+                .exceptionally(e -> {
+                    metrics.failedConnections.incrementAndGet();
+                    return false;
+                });
+    }
+
+    private void subscribe(String destination, Consumer<JsonNode> handler) {
+        synchronized (this) {
+            stompSession.subscribe(destination, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return JsonNode.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    handler.accept((JsonNode) payload);
+                }
+            });
+        }
+    }
+
+    private void onQuizUpdate(JsonNode message) {
+        String currentGameId = message.path("currentGameId").asText(null);
+        if (!"quizStatus".equals(message.path("type").asText()) || currentGameId == null || gameId != null) {
+            return;
+        }
+
+        // The first question was broadcast before the game ID was announced, so like the frontend,
+        // subscribe to the game topic and then load the current state once
+        gameId = currentGameId;
+        subscribe("/topic/game/" + gameId + "/state", this::onGameState);
+        scheduler.execute(() -> {
+            try {
+                onGameState(quizSession.getClient().get("/api/games/" + gameId));
+            } catch (Exception e) {
+                // The next broadcast brings the state as well
+            }
+        });
+    }
+
+    private void onGameState(JsonNode state) {
+        String status = state.path("status").asText();
+        String questionId = state.path("currentQuestionId").asText(null);
+
+        QuizSession.PendingBroadcast pendingBroadcast = quizSession.getPendingBroadcast();
+        if (pendingBroadcast != null && pendingBroadcast != lastMeasuredBroadcast && pendingBroadcast.matches(status, questionId)) {
+            lastMeasuredBroadcast = pendingBroadcast;
+            metrics.broadcastFanOut.recordSince(pendingBroadcast.startNanos());
+        }
+
+        if ("QUESTION_ACTIVE".equals(status) && questionId != null && seenQuestionIds.add(questionId)) {
+            scheduleAnswer(questionId, state.path("remainingSeconds").asInt());
+        }
+    }
+
+    private void scheduleAnswer(String questionId, int remainingSeconds) {
+        if (random.nextDouble() < SKIP_PROBABILITY) {
+            return;
+        }
+
+        long timeLimitMillis = TimeUnit.SECONDS.toMillis(quizSession.getTimeLimitSeconds());
+        double median = MEDIAN_ANSWER_SHARE * timeLimitMillis;
+        long delayMillis = (long) (median * Math.exp(ANSWER_DELAY_SIGMA * random.nextGaussian()));
+        long maxDelayMillis = Math.max(MIN_ANSWER_DELAY_MILLIS, TimeUnit.SECONDS.toMillis(remainingSeconds) - MIN_ANSWER_DELAY_MILLIS);
+        delayMillis = Math.min(Math.max(delayMillis, MIN_ANSWER_DELAY_MILLIS), maxDelayMillis);
+
+        String answer = random.nextDouble() < CORRECT_PROBABILITY ? quizSession.getCorrectAnswer(questionId) : "No idea " + name;
+        quizSession.answerScheduled(questionId);
+        scheduler.schedule(() -> sendAnswer(questionId, answer), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendAnswer(String questionId, String answer) {
+        if (disconnecting) {
+            return;
+        }
+        String submissionId = UUID.randomUUID().toString();
+        Map<String, Object> command = new HashMap<>();
+        command.put("submissionId", submissionId);
+        command.put("playerId", playerId);
+        command.put("questionId", questionId);
+        command.put("answer", answer);
+
+        pendingSubmissionStarts.put(submissionId, System.nanoTime());
+        try {
+            synchronized (this) {
+                stompSession.send("/app/game/" + gameId + "/answer", command);
+            }
+        } catch (RuntimeException e) {
+            pendingSubmissionStarts.remove(submissionId);
+            metrics.answersRejected.incrementAndGet();
+            quizSession.answerAcknowledged(questionId);
+        }
+    }
+
+    private void onAnswerReceipt(JsonNode receipt) {
+        Long start = pendingSubmissionStarts.remove(receipt.path("submissionId").asText());
+        if (start == null) {
+            return;
+        }
+        metrics.answerAckLatency.recordSince(start);
+        switch (receipt.path("status").asText()) {
+            case "accepted" -> metrics.answersAccepted.incrementAndGet();
+            case "duplicate" -> metrics.answersDuplicate.incrementAndGet();
+            default -> metrics.answersRejected.incrementAndGet();
+        }
+        quizSession.answerAcknowledged(receipt.path("questionId").asText());
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload, Throwable exception) {
+        // A frame that could not be read does not end the session; the receipt or state it carried is lost
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        if (stompSession != null && !disconnecting) {
+            metrics.lostConnections.incrementAndGet();
+        }
+    }
+
+    /**
+     * Closes the STOMP connection and counts the answers that were never acknowledged.
+     */
+    public void disconnect() {
+        disconnecting = true;
+        metrics.answersUnacknowledged.addAndGet(pendingSubmissionStarts.size());
+        pendingSubmissionStarts.clear();
+        if (stompSession != null && stompSession.isConnected()) {
+            synchronized (this) {
+                stompSession.disconnect();
+            }
+        }
+    }
+}
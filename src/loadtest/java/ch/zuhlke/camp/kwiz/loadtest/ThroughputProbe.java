@@ -0,0 +1,89 @@
+package ch.zuhlke.camp.kwiz.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ThroughputProbe measures how quickly a freshly started server reaches its peak throughput, i.e. how long
+ * the JIT warm-up takes. A few threads send the same request in a loop; the completed requests are counted per
+ * window, and the time to peak is the end of the first window that reaches 90% of the best window.
+ */
+public class ThroughputProbe {
+    private static final long WINDOW_NANOS = 500_000_000L;
+    private static final double PEAK_SHARE = 0.9;
+
+    private final KwizClient client;
+    private final String path;
+    private final int threads;
+
+    /**
+     * Creates a probe.
+     *
+     * @param client the client of the server
+     * @param path the path of the GET request that is sent in a loop
+     * @param threads the number of threads that send requests
+     */
+    public ThroughputProbe(KwizClient client, String path, int threads) {
+        this.client = client;
+        this.path = path;
+        this.threads = threads;
+    }
+
+    /**
+     * Sends requests for the given duration.
+     *
+     * @param durationNanos how long to send requests
+     * @return the result
+     * @throws Exception if a request fails
+     */
+    public Result run(long durationNanos) throws Exception {
+        int windows = (int) Math.max(durationNanos / WINDOW_NANOS, 1);
+        AtomicLongArray completedPerWindow = new AtomicLongArray(windows);
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> senders = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                senders.add(executor.submit(() -> {
+                    while (true) {
+                        client.get(path);
+                        long window = (System.nanoTime() - start) / WINDOW_NANOS;
+                        if (window >= windows) {
+                            return null;
+                        }
+                        completedPerWindow.incrementAndGet((int) window);
+                    }
+                }));
+            }
+            for (Future<?> sender : senders) {
+                sender.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long peak = 0;
+        for (int i = 0; i < windows; i++) {
+            peak = Math.max(peak, completedPerWindow.get(i));
+        }
+        int firstPeakWindow = 0;
+        while (completedPerWindow.get(firstPeakWindow) < peak * PEAK_SHARE) {
+            firstPeakWindow++;
+        }
+        double windowsPerSecond = 1_000_000_000.0 / WINDOW_NANOS;
+        return new Result((firstPeakWindow + 1) * WINDOW_NANOS, peak * windowsPerSecond);
+    }
+
+    /**
+     * The result of a probe.
+     *
+     * @param timeToPeakNanos the time from the first request until the throughput reached 90% of its peak
+     * @param peakRequestsPerSecond the throughput of the best window
+     */
+    public record Result(long timeToPeakNanos, double peakRequestsPerSecond) {
+    }
+}
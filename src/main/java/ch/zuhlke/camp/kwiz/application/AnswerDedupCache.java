@@ -0,0 +1,140 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AnswerDedupCache remembers recent accepted answer submissions by their idempotency key, so that
+ * a client retrying a submission is told it succeeded without the game being locked, changed, or
+ * broadcast again, also after the question has closed.
+ * <p>
+ * Each game keeps at most {@code maxEntriesPerGame} outcomes and evicts the least recently used
+ * one beyond that. This is the only dedup state that outlives a question: the game itself only
+ * keeps the keys of the current question, so that two retries racing past the cache are still
+ * recorded once. Rejections are not remembered, as they may be transient (e.g. an answer that
+ * arrives while the game moves to the next question); a retried rejection is checked again.
+ * <p>
+ * Lookups are counted in the {@value #LOOKUPS_METER} counter, tagged with {@code result=hit} or
+ * {@code result=miss}, which gives the rate of duplicate submissions.
+ */
+@Component
+public class AnswerDedupCache {
+    static final String LOOKUPS_METER = "kwiz.answers.dedup.lookups";
+    static final int DEFAULT_MAX_ENTRIES_PER_GAME = 4096;
+
+    private final int maxEntriesPerGame;
+    private final Map<String, Map<String, AnswerOutcome>> outcomesByGameId = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public AnswerDedupCache(MeterRegistry meterRegistry,
+                            @Value("${kwiz.answers.dedup.max-entries-per-game:" + DEFAULT_MAX_ENTRIES_PER_GAME + "}") int maxEntriesPerGame) {
+        if (maxEntriesPerGame < 1) {
+            throw new IllegalArgumentException("Maximum entries per game must be at least 1");
+        }
+        this.maxEntriesPerGame = maxEntriesPerGame;
+        this.hits = Counter.builder(LOOKUPS_METER)
+                .description("Answer submissions looked up by idempotency key")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder(LOOKUPS_METER)
+                .description("Answer submissions looked up by idempotency key")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a cache with the default size whose metrics are not published.
+     *
+     * @return the cache
+     */
+    static AnswerDedupCache unpublished() {
+        return new AnswerDedupCache(new SimpleMeterRegistry(), DEFAULT_MAX_ENTRIES_PER_GAME);
+    }
+
+    /**
+     * Looks up the outcome of an earlier submission with the same idempotency key.
+     *
+     * @param gameId the ID of the game
+     * @param playerId the ID of the player submitting the answer
+     * @param idempotencyKey the idempotency key, or null if the submission has none
+     * @return the result of the earlier submission by the same player, or null if there is none
+     */
+    public CommandResult<Boolean> lookup(String gameId, String playerId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+
+        AnswerOutcome outcome = null;
+        Map<String, AnswerOutcome> outcomes = outcomesByGameId.get(gameId);
+        if (outcomes != null) {
+            synchronized (outcomes) {
+                outcome = outcomes.get(idempotencyKey);
+            }
+        }
+
+        // A key used by another player is not a retry; the game rejects it
+        if (outcome == null || !outcome.playerId.equals(playerId)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return outcome.result;
+    }
+
+    /**
+     * Remembers the outcome of a submission if it was accepted. Only the first outcome per key is kept.
+     *
+     * @param gameId the ID of the game
+     * @param playerId the ID of the player who submitted the answer
+     * @param idempotencyKey the idempotency key, or null if the submission has none
+     * @param result the result of the submission
+     */
+    public void record(String gameId, String playerId, String idempotencyKey, CommandResult<Boolean> result) {
+        if (idempotencyKey == null || !result.isAccepted()) {
+            return;
+        }
+
+        Map<String, AnswerOutcome> outcomes = outcomesByGameId.computeIfAbsent(gameId, id -> newBoundedMap());
+        synchronized (outcomes) {
+            // Keep the first outcome; it is the one all retries must see
+            outcomes.putIfAbsent(idempotencyKey, new AnswerOutcome(playerId, result));
+        }
+    }
+
+    private Map<String, AnswerOutcome> newBoundedMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AnswerOutcome> eldest) {
+                return size() > maxEntriesPerGame;
+            }
+        };
+    }
+
+    /**
+     * Forgets all outcomes of a game, e.g. when it is over.
+     *
+     * @param gameId the ID of the game
+     */
+    public void forgetGame(String gameId) {
+        outcomesByGameId.remove(gameId);
+    }
+
+    private static class AnswerOutcome {
+        private final String playerId;
+        private final CommandResult<Boolean> result;
+
+        private AnswerOutcome(String playerId, CommandResult<Boolean> result) {
+            this.playerId = playerId;
+            this.result = result;
+        }
+    }
+}
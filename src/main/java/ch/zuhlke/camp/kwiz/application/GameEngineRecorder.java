@@ -0,0 +1,45 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.domain.GameEngineObserver;
+import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.infrastructure.FlightRecorderEvents;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * GameEngineRecorder observes the {@link ch.zuhlke.camp.kwiz.domain.GameEngine}: it publishes the gauges of the
+ * quizzes in the lobby and counts joins in {@link GameMetrics}, and records joins as
+ * {@link FlightRecorderEvents.PlayerJoin} events while a flight recording is running.
+ */
+@Component
+public class GameEngineRecorder implements GameEngineObserver {
+    private final GameMetrics gameMetrics;
+
+    public GameEngineRecorder(GameMetrics gameMetrics) {
+        this.gameMetrics = gameMetrics;
+    }
+
+    @Override
+    public void quizzesRegistered(Supplier<Collection<Quiz>> quizzes) {
+        gameMetrics.registerQuizGauges(quizzes);
+    }
+
+    @Override
+    public JoinObservation joinStarted(String quizId) {
+        FlightRecorderEvents.PlayerJoin event = new FlightRecorderEvents.PlayerJoin();
+        event.begin();
+        return (result, quiz) -> {
+            gameMetrics.recordJoin(result);
+            event.end();
+            if (event.shouldCommit()) {
+                event.quizId = quizId;
+                event.result = result.isAccepted() ? "accepted" : "rejected";
+                event.reason = result.isAccepted() ? null : result.getReason().name();
+                event.players = quiz != null ? quiz.getPlayers().size() : 0;
+                event.commit();
+            }
+        };
+    }
+}
@@ -0,0 +1,222 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
+import ch.zuhlke.camp.kwiz.domain.Game;
+import ch.zuhlke.camp.kwiz.domain.GameStatus;
+import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
+import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * GameMetrics publishes the meters of the game lifecycle:
+ * <ul>
+ *     <li>{@value #ANSWERS_METER}: timer of answer submissions, tagged with the {@code channel} ("rest" or "stomp"),
+ *     the {@code result} ("accepted", "duplicate" or "rejected") and the rejection {@code reason} ("none" otherwise)</li>
+ *     <li>{@value #GAME_STATE_METER}: timer of building the game state that is broadcast after every change</li>
+ *     <li>{@value #JOINS_METER}: counter of joins, tagged with the {@code result} and the rejection {@code reason}</li>
+ *     <li>{@value #LIVE_GAMES_METER}, {@value #LOBBY_QUIZZES_METER} and {@value #LIVE_PLAYERS_METER}: gauges of the
+ *     games that are not over, the quizzes that have not started, and their players, tagged with the {@code state}
+ *     ("lobby" or "game")</li>
+ * </ul>
+ * All tags have few values. The game ID is only added as a tag to the answer and game state timers if
+ * {@code kwiz.metrics.game-id-tags} is enabled, because every game then creates its own time series.
+ */
+@Component
+public class GameMetrics {
+    static final String ANSWERS_METER = "kwiz.answers.submit";
+    static final String GAME_STATE_METER = "kwiz.gamestate.create";
+    static final String JOINS_METER = "kwiz.quiz.joins";
+    static final String LIVE_GAMES_METER = "kwiz.games.live";
+    static final String LOBBY_QUIZZES_METER = "kwiz.quizzes.lobby";
+    static final String LIVE_PLAYERS_METER = "kwiz.players.live";
+
+    // The reasons each path rejects with; meters of other reasons are only registered when they occur
+    private static final Set<RejectionReason> ANSWER_REJECTIONS = EnumSet.of(
+            RejectionReason.GAME_NOT_FOUND, RejectionReason.PLAYER_NOT_FOUND, RejectionReason.NOT_ACCEPTING_ANSWERS,
+            RejectionReason.QUESTION_NOT_CURRENT, RejectionReason.ALREADY_ANSWERED, RejectionReason.SUBMISSION_ID_CONFLICT);
+    private static final Set<RejectionReason> JOIN_REJECTIONS = EnumSet.of(
+            RejectionReason.QUIZ_NOT_FOUND, RejectionReason.QUIZ_ALREADY_STARTED, RejectionReason.QUIZ_FULL,
+            RejectionReason.PLAYER_NAME_REQUIRED, RejectionReason.PLAYER_NAME_TAKEN);
+
+    /**
+     * The transport an answer was submitted over.
+     */
+    public enum Channel {
+        REST, STOMP
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean gameIdTags;
+
+    // Meters without game ID are looked up once, so the hot paths do not build tags
+    private final Map<Channel, Timer> acceptedAnswers = new EnumMap<>(Channel.class);
+    private final Map<Channel, Timer> duplicateAnswers = new EnumMap<>(Channel.class);
+    private final Map<Channel, Map<RejectionReason, Timer>> rejectedAnswers = new EnumMap<>(Channel.class);
+    private final Timer gameStateTimer;
+    private final Counter acceptedJoins;
+    private final Map<RejectionReason, Counter> rejectedJoins = new EnumMap<>(RejectionReason.class);
+
+    public GameMetrics(MeterRegistry meterRegistry,
+                       InMemoryGameRepository gameRepository,
+                       @Value("${kwiz.metrics.game-id-tags:false}") boolean gameIdTags) {
+        this.meterRegistry = meterRegistry;
+        this.gameIdTags = gameIdTags;
+
+        // Prometheus requires the same tag keys for all meters of a name, so there are no
+        // meters without game ID if game ID tags are enabled
+        if (!gameIdTags) {
+            for (Channel channel : Channel.values()) {
+                acceptedAnswers.put(channel, answerTimer(channel, "accepted", "none", null));
+                duplicateAnswers.put(channel, answerTimer(channel, "duplicate", "none", null));
+                Map<RejectionReason, Timer> rejected = new EnumMap<>(RejectionReason.class);
+                for (RejectionReason reason : ANSWER_REJECTIONS) {
+                    rejected.put(reason, answerTimer(channel, "rejected", reason.name(), null));
+                }
+                rejectedAnswers.put(channel, rejected);
+            }
+        }
+        gameStateTimer = gameIdTags ? null : gameStateTimer(null);
+
+        acceptedJoins = joinCounter("accepted", "none");
+        for (RejectionReason reason : JOIN_REJECTIONS) {
+            rejectedJoins.put(reason, joinCounter("rejected", reason.name()));
+        }
+
+        if (gameRepository != null) {
+            Gauge.builder(LIVE_GAMES_METER, gameRepository, repository -> repository.findAll().stream()
+                            .filter(game -> game.getStatus() != GameStatus.GAME_OVER)
+                            .count())
+                    .description("Games that are not over")
+                    .register(meterRegistry);
+            Gauge.builder(LIVE_PLAYERS_METER, gameRepository, repository -> repository.findAll().stream()
+                            .filter(game -> game.getStatus() != GameStatus.GAME_OVER)
+                            .mapToInt(game -> game.getPlayers().size())
+                            .sum())
+                    .description("Players of quizzes in the lobby, and of games that are not over")
+                    .tag("state", "game")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns metrics that are not published.
+     *
+     * @return the metrics
+     */
+    public static GameMetrics unpublished() {
+        return new GameMetrics(new SimpleMeterRegistry(), null, false);
+    }
+
+    /**
+     * Publishes the gauges of the quizzes that have not started yet.
+     *
+     * @param quizzes supplies all quizzes
+     */
+    public void registerQuizGauges(Supplier<Collection<Quiz>> quizzes) {
+        Gauge.builder(LOBBY_QUIZZES_METER, quizzes, supplier -> supplier.get().stream()
+                        .filter(quiz -> !quiz.isStarted())
+                        .count())
+                .description("Quizzes that have not started yet")
+                .strongReference(true)
+                .register(meterRegistry);
+        Gauge.builder(LIVE_PLAYERS_METER, quizzes, supplier -> supplier.get().stream()
+                        .filter(quiz -> !quiz.isStarted())
+                        .mapToInt(quiz -> quiz.getPlayers().size())
+                        .sum())
+                .description("Players of quizzes in the lobby, and of games that are not over")
+                .tag("state", "lobby")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the outcome and duration of an answer submission.
+     *
+     * @param channel the transport the answer was submitted over
+     * @param gameId the ID of the game
+     * @param result the result of the submission
+     * @param startNanos the start of the submission, as returned by {@link System#nanoTime()}
+     */
+    public void recordAnswer(Channel channel, String gameId, CommandResult<Boolean> result, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        Timer timer;
+        if (gameIdTags) {
+            String outcome = !result.isAccepted() ? "rejected" : result.getValue() ? "accepted" : "duplicate";
+            String reason = result.isAccepted() ? "none" : result.getReason().name();
+            timer = answerTimer(channel, outcome, reason, gameId);
+        } else if (!result.isAccepted()) {
+            timer = rejectedAnswers.get(channel).get(result.getReason());
+            if (timer == null) {
+                timer = answerTimer(channel, "rejected", result.getReason().name(), null);
+            }
+        } else {
+            timer = result.getValue() ? acceptedAnswers.get(channel) : duplicateAnswers.get(channel);
+        }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time it took to build the state of a game.
+     *
+     * @param game the game
+     * @param startNanos the start, as returned by {@link System#nanoTime()}
+     */
+    public void recordGameState(Game game, long startNanos) {
+        Timer timer = gameIdTags ? gameStateTimer(game.getId()) : gameStateTimer;
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a join attempt.
+     *
+     * @param result the result of the join
+     */
+    public void recordJoin(CommandResult<?> result) {
+        Counter counter = result.isAccepted() ? acceptedJoins : rejectedJoins.get(result.getReason());
+        if (counter == null) {
+            counter = joinCounter("rejected", result.getReason().name());
+        }
+        counter.increment();
+    }
+
+    private Timer answerTimer(Channel channel, String result, String reason, String gameId) {
+        return Timer.builder(ANSWERS_METER)
+                .description("Answer submissions")
+                .tags(withGameId(Tags.of("channel", channel.name().toLowerCase(), "result", result, "reason", reason), gameId))
+                .register(meterRegistry);
+    }
+
+    private Timer gameStateTimer(String gameId) {
+        return Timer.builder(GAME_STATE_METER)
+                .description("Building the game state that is broadcast to all players")
+                .tags(withGameId(Tags.empty(), gameId))
+                .register(meterRegistry);
+    }
+
+    private Counter joinCounter(String result, String reason) {
+        return Counter.builder(JOINS_METER)
+                .description("Players joining a quiz")
+                .tags("result", result, "reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static Tags withGameId(Tags tags, String gameId) {
+        return gameId == null ? tags : tags.and("gameId", gameId);
+    }
+}
@@ -1,21 +1,32 @@
 package ch.zuhlke.camp.kwiz.application;
 
 import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import ch.zuhlke.camp.kwiz.domain.AnswerCount;
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
 import ch.zuhlke.camp.kwiz.domain.Game;
+import ch.zuhlke.camp.kwiz.domain.GameClock;
 import ch.zuhlke.camp.kwiz.domain.GameEngine;
 import ch.zuhlke.camp.kwiz.domain.GameStatus;
 import ch.zuhlke.camp.kwiz.domain.PlayerInGame;
 import ch.zuhlke.camp.kwiz.domain.PlayerSubmission;
 import ch.zuhlke.camp.kwiz.domain.Question;
 import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
 import ch.zuhlke.camp.kwiz.domain.Round;
 import ch.zuhlke.camp.kwiz.events.TimerElapsedEvent;
+import ch.zuhlke.camp.kwiz.infrastructure.AnswerTrace;
+import ch.zuhlke.camp.kwiz.infrastructure.AnswerTracer;
+import ch.zuhlke.camp.kwiz.infrastructure.FlightRecorderEvents;
 import ch.zuhlke.camp.kwiz.infrastructure.GameTimerScheduler;
 import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
@@ -29,13 +40,50 @@ public class GameOrchestrationService {
     private final InMemoryGameRepository gameRepository;
     private final WebSocketController webSocketController;
     private final GameTimerScheduler gameTimerScheduler;
+    private final boolean gradeOnClose;
+    private final GameClock gameClock;
+    private final LatencyCompensationService latencyCompensationService;
+    private final AnswerDedupCache answerDedupCache;
+    private final GameMetrics gameMetrics;
+    private final AnswerTracer answerTracer;
 
     public GameOrchestrationService(InMemoryGameRepository gameRepository, 
                                    WebSocketController webSocketController,
                                    GameTimerScheduler gameTimerScheduler) {
+        this(gameRepository, webSocketController, gameTimerScheduler, false, GameClock.system(),
+                LatencyCompensationService.disabled(), AnswerDedupCache.unpublished(), GameMetrics.unpublished(),
+                AnswerTracer.disabled());
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param gradeOnClose whether new games grade all answers when the question closes instead of on submission
+     * @param gameClock the clock used by new games to measure answer times
+     * @param latencyCompensationService the service that validates answer times reported by clients
+     * @param answerDedupCache the outcomes of recent submissions, by idempotency key
+     * @param gameMetrics the meters of answer submissions and game state updates
+     * @param answerTracer traces answer submissions until the resulting game state is written to all sessions
+     */
+    @Autowired
+    public GameOrchestrationService(InMemoryGameRepository gameRepository,
+                                   WebSocketController webSocketController,
+                                   GameTimerScheduler gameTimerScheduler,
+                                   @Value("${kwiz.grading.grade-on-close:false}") boolean gradeOnClose,
+                                   GameClock gameClock,
+                                   LatencyCompensationService latencyCompensationService,
+                                   AnswerDedupCache answerDedupCache,
+                                   GameMetrics gameMetrics,
+                                   AnswerTracer answerTracer) {
         this.gameRepository = gameRepository;
         this.webSocketController = webSocketController;
         this.gameTimerScheduler = gameTimerScheduler;
+        this.gradeOnClose = gradeOnClose;
+        this.gameClock = gameClock;
+        this.latencyCompensationService = latencyCompensationService;
+        this.answerDedupCache = answerDedupCache;
+        this.gameMetrics = gameMetrics;
+        this.answerTracer = answerTracer;
     }
 
     /**
@@ -51,7 +99,7 @@ public class GameOrchestrationService {
         }
 
         // Create a new game
-        Game game = new Game(quiz.getId(), "notimplemented");
+        Game game = new Game(quiz.getId(), "notimplemented", gradeOnClose, gameClock);
 
         // Add existing players from the quiz to the game
         for (var player : quiz.getPlayers()) {
@@ -84,27 +132,171 @@ public class GameOrchestrationService {
      * @throws IllegalStateException if the game is not accepting answers
      */
     public void submitPlayerAnswer(String gameId, String playerId, String questionId, String answerText) {
-        Game game = getGameById(gameId);
-
-        try {
-            // Attempt to record the player's answer
-            game.acceptPlayerAnswer(playerId, questionId, answerText);
+        submitPlayerAnswer(gameId, playerId, questionId, answerText, null);
+    }
 
-            // Save the updated game state
-            gameRepository.save(game);
+    /**
+     * Submits a player's answer for a question in a game, together with the answer time measured by the client.
+     * The client's answer time is only used if latency compensation is enabled, and only within the
+     * bounds given by the player's round-trip time.
+     *
+     * @param gameId the ID of the game
+     * @param playerId the ID of the player submitting the answer
+     * @param questionId the ID of the question being answered
+     * @param answerText the text of the answer
+     * @param clientAnswerTimeMs the time from showing the question to answering it, as measured by the client, or null
+     * @throws IllegalArgumentException if the game, player, or question does not exist
+     * @throws IllegalStateException if the game is not accepting answers
+     */
+    public void submitPlayerAnswer(String gameId, String playerId, String questionId, String answerText, Double clientAnswerTimeMs) {
+        submitPlayerAnswer(gameId, null, playerId, questionId, answerText, clientAnswerTimeMs);
+    }
 
-            // Broadcast the updated game state
-            broadcastGameState(game);
+    /**
+     * Submits a player's answer for a question in a game at most once per submission ID, and confirms
+     * it on the player's answer topic. A retry of an earlier submission gets the outcome of the earlier
+     * submission, without the game being changed or broadcast again.
+     *
+     * @param gameId the ID of the game
+     * @param submissionId the ID the client assigned to this submission, used as idempotency key, or null
+     * @param playerId the ID of the player submitting the answer
+     * @param questionId the ID of the question being answered
+     * @param answerText the text of the answer
+     * @param clientAnswerTimeMs the time from showing the question to answering it, as measured by the client, or null
+     * @throws IllegalArgumentException if the game, player, or question does not exist
+     * @throws IllegalStateException if the game is not accepting answers
+     */
+    public void submitPlayerAnswer(String gameId, String submissionId, String playerId, String questionId,
+                                   String answerText, Double clientAnswerTimeMs) {
+        trySubmitPlayerAnswer(gameId, submissionId, playerId, questionId, answerText, clientAnswerTimeMs).orElseThrow();
+    }
 
+    /**
+     * Submits a player's answer like {@link #submitPlayerAnswer(String, String, String, String, String, Double)},
+     * but reports a rejected answer as a result instead of throwing an exception.
+     *
+     * @param gameId the ID of the game
+     * @param submissionId the ID the client assigned to this submission, used as idempotency key, or null
+     * @param playerId the ID of the player submitting the answer
+     * @param questionId the ID of the question being answered
+     * @param answerText the text of the answer
+     * @param clientAnswerTimeMs the time from showing the question to answering it, as measured by the client, or null
+     * @return the result, with the value true if the answer was recorded, or false if this submission had already been recorded before
+     */
+    public CommandResult<Boolean> trySubmitPlayerAnswer(String gameId, String submissionId, String playerId, String questionId,
+                                                        String answerText, Double clientAnswerTimeMs) {
+        long start = System.nanoTime();
+        FlightRecorderEvents.AnswerSubmission event = new FlightRecorderEvents.AnswerSubmission();
+        event.begin();
+        CommandResult<Boolean> previousResult = answerDedupCache.lookup(gameId, playerId, submissionId);
+        if (previousResult != null) {
+            // The player has already been notified that the answer was accepted
+            CommandResult<Boolean> result = CommandResult.accepted(false);
+            gameMetrics.recordAnswer(GameMetrics.Channel.REST, gameId, result, start);
+            commit(event, GameMetrics.Channel.REST, gameId, result);
+            return result;
+        }
+
+        AnswerTrace trace = answerTracer.start("rest", gameId, playerId);
+        CommandResult<Boolean> result = recordNewPlayerAnswer(gameId, submissionId, playerId, questionId, answerText,
+                clientAnswerTimeMs, trace);
+        answerTracer.finish(trace);
+        if (result.isAccepted()) {
             // Send a confirmation to the player
             webSocketController.sendPlayerAnswerConfirmation(gameId, playerId, questionId);
-        } catch (IllegalArgumentException | IllegalStateException e) {
+        } else {
             // Send an error message to the player
-            webSocketController.sendPlayerAnswerError(gameId, playerId, questionId, e.getMessage());
-            throw e; // Re-throw the exception for the caller to handle
+            webSocketController.sendPlayerAnswerError(gameId, playerId, questionId, result.getMessage());
+        }
+        gameMetrics.recordAnswer(GameMetrics.Channel.REST, gameId, result, start);
+        commit(event, GameMetrics.Channel.REST, gameId, result);
+        return result;
+    }
+
+    /**
+     * Records a player's answer received over the player's WebSocket session. Unlike
+     * {@link #trySubmitPlayerAnswer}, nothing is sent to the player's answer topic; the caller
+     * replies to the session directly.
+     *
+     * @param gameId the ID of the game
+     * @param submissionId the ID the client assigned to this submission, used as idempotency key, or null
+     * @param playerId the ID of the player submitting the answer
+     * @param questionId the ID of the question being answered
+     * @param answerText the text of the answer
+     * @param clientAnswerTimeMs the time from showing the question to answering it, as measured by the client, or null
+     * @return the result, with the value true if the answer was recorded, or false if this submission had already been recorded before
+     */
+    public CommandResult<Boolean> tryRecordPlayerAnswer(String gameId, String submissionId, String playerId, String questionId,
+                                                        String answerText, Double clientAnswerTimeMs) {
+        long start = System.nanoTime();
+        FlightRecorderEvents.AnswerSubmission event = new FlightRecorderEvents.AnswerSubmission();
+        event.begin();
+        CommandResult<Boolean> previousResult = answerDedupCache.lookup(gameId, playerId, submissionId);
+        CommandResult<Boolean> result;
+        if (previousResult != null) {
+            // The submission has already been accepted, so the retry is a duplicate
+            result = CommandResult.accepted(false);
+        } else {
+            AnswerTrace trace = answerTracer.start("stomp", gameId, playerId);
+            result = recordNewPlayerAnswer(gameId, submissionId, playerId, questionId, answerText, clientAnswerTimeMs,
+                    trace);
+            answerTracer.finish(trace);
+        }
+        gameMetrics.recordAnswer(GameMetrics.Channel.STOMP, gameId, result, start);
+        commit(event, GameMetrics.Channel.STOMP, gameId, result);
+        return result;
+    }
+
+    private void commit(FlightRecorderEvents.AnswerSubmission event, GameMetrics.Channel channel, String gameId,
+                        CommandResult<Boolean> result) {
+        event.end();
+        // The fields are only filled in while a recording is running
+        if (event.shouldCommit()) {
+            event.gameId = gameId;
+            event.channel = channel.name().toLowerCase();
+            event.result = !result.isAccepted() ? "rejected" : result.getValue() ? "accepted" : "duplicate";
+            event.reason = result.isAccepted() ? null : result.getReason().name();
+            event.players = gameRepository.findById(gameId).map(game -> game.getPlayers().size()).orElse(0);
+            event.commit();
         }
     }
 
+    private CommandResult<Boolean> recordNewPlayerAnswer(String gameId, String submissionId, String playerId, String questionId,
+                                                         String answerText, Double clientAnswerTimeMs, AnswerTrace trace) {
+        Game game = gameRepository.findById(gameId).orElse(null);
+        if (game == null) {
+            return CommandResult.rejected(RejectionReason.GAME_NOT_FOUND, "No game found with ID: " + gameId);
+        }
+
+        // Attempt to record the player's answer
+        long clientAnswerTimeMicros = clientAnswerTimeMs != null && clientAnswerTimeMs >= 0
+                ? Math.round(clientAnswerTimeMs * 1_000)
+                : -1;
+        if (trace != null) {
+            trace.domainStarted();
+        }
+        CommandResult<Boolean> result = game.tryAcceptPlayerAnswer(submissionId, playerId, questionId, answerText,
+                clientAnswerTimeMicros, latencyCompensationService.getMaxCompensationMicros(playerId));
+        if (trace != null) {
+            trace.domainEnded();
+        }
+        answerDedupCache.record(gameId, playerId, submissionId, result);
+        if (!result.isAccepted() || !result.getValue()) {
+            // A rejected answer, or a retry of an answer that was already recorded, changes nothing
+            return result;
+        }
+
+        // Save the updated game state
+        gameRepository.save(game);
+
+        // Broadcast the updated game state
+        if (trace != null) {
+            trace.serializeStarted();
+        }
+        broadcastGameState(game, trace);
+        return result;
+    }
+
     /**
      * Allows an admin to manually close the current question.
      *
@@ -145,6 +337,8 @@ public class GameOrchestrationService {
         } else if (game.getStatus() == GameStatus.GAME_OVER) {
             // If the game is over, unregister it from the scheduler
             gameTimerScheduler.unregisterGame(gameId);
+            latencyCompensationService.forgetPlayers(game.getPlayers().keySet());
+            answerDedupCache.forgetGame(gameId);
         }
 
         broadcastGameState(game);
@@ -238,8 +432,18 @@ public class GameOrchestrationService {
      * @param game the game whose state to broadcast
      */
     private void broadcastGameState(Game game) {
+        broadcastGameState(game, null);
+    }
+
+    /**
+     * Broadcasts the current game state to all connected clients, with the trace of the answer that changed it.
+     *
+     * @param game the game whose state to broadcast
+     * @param trace the trace of the answer submission, or null
+     */
+    private void broadcastGameState(Game game, AnswerTrace trace) {
         GameStateDTO gameState = createGameStateDTO(game);
-        webSocketController.broadcastGameState(game.getId(), gameState);
+        webSocketController.broadcastGameState(game.getId(), gameState, trace);
     }
 
     /**
@@ -249,22 +453,21 @@ public class GameOrchestrationService {
      * @return a GameStateDTO
      */
     private GameStateDTO createGameStateDTO(Game game) {
+        long start = System.nanoTime();
+        FlightRecorderEvents.GameStateCreation event = new FlightRecorderEvents.GameStateCreation();
+        event.begin();
         Question currentQuestion = game.getCurrentQuestion();
         Round currentRound = game.getCurrentRound();
 
         // Get player submissions for the current question
         List<PlayerSubmission> currentQuestionSubmissions = new ArrayList<>();
         if (currentQuestion != null) {
-            currentQuestionSubmissions = game.getPlayerSubmissions().stream()
-                    .filter(submission -> currentQuestion.getId().equals(submission.getQuestionId()))
-                    .collect(Collectors.toList());
+            currentQuestionSubmissions = game.getCurrentQuestionSubmissions();
         }
 
         // Calculate how many players have answered the current question
         int playersAnswered = currentQuestionSubmissions.size();
 
-        long questionStartTime = game.getCurrentQuestionStartTime();
-
         // Create player answer DTOs (without including the actual answers)
         List<PlayerAnswerDTO> playerAnswers = new ArrayList<>();
         if (!currentQuestionSubmissions.isEmpty()) {
@@ -273,8 +476,8 @@ public class GameOrchestrationService {
                     .map(submission -> {
                         PlayerInGame player = players.get(submission.getPlayerId());
                         String playerName = player != null ? player.getDisplayName() : "Unknown";
-                        long answerTimeMs = submission.getSubmittedAtTimestamp() - questionStartTime;
-                        return new PlayerAnswerDTO(submission.getPlayerId(), playerName, answerTimeMs);
+                        return new PlayerAnswerDTO(submission.getPlayerId(), playerName,
+                                Duration.of(submission.getAnswerTimeMicros(), ChronoUnit.MICROS));
                     })
                     .collect(Collectors.toList());
         }
@@ -282,28 +485,33 @@ public class GameOrchestrationService {
         // Calculate the fastest answer time (if any)
         Long fastestAnswerTime = null;
         if (!currentQuestionSubmissions.isEmpty()) {
-            // Find the earliest submission timestamp
-
-            fastestAnswerTime = currentQuestionSubmissions.stream()
-                    .mapToLong(submission -> submission.getSubmittedAtTimestamp() - questionStartTime)
-                    .min()
-                    .orElse(0);
+            // Find the fastest submission, ties are broken by arrival
+            PlayerSubmission fastestSubmission = currentQuestionSubmissions.stream()
+                    .min(PlayerSubmission.FASTEST_FIRST)
+                    .orElseThrow();
 
             // Convert to seconds
-            fastestAnswerTime = fastestAnswerTime / 1000;
+            fastestAnswerTime = fastestSubmission.getAnswerTimeMicros() / 1_000_000;
         }
 
         // Determine if we should show the correct answer
         // Show it when all players have answered or time is up
         String correctAnswerToShow = null;
+        List<AnswerCountDTO> answerDistribution = null;
         if (currentQuestion != null && 
             (!game.isAcceptingAnswers() || playersAnswered == game.getPlayers().size())) {
             // Get the first correct answer from the question
             correctAnswerToShow = currentQuestion.getCorrectAnswers().isEmpty() ? 
                 "No correct answer defined" : currentQuestion.getCorrectAnswers().get(0);
+
+            // Reveal what the players answered together with the correct answer
+            answerDistribution = new ArrayList<>();
+            for (AnswerCount answerCount : game.getCurrentQuestionAnswerDistribution()) {
+                answerDistribution.add(new AnswerCountDTO(answerCount.getAnswer(), answerCount.getCount()));
+            }
         }
 
-        return new GameStateDTO(
+        GameStateDTO gameState = new GameStateDTO(
                 game.getId(),
                 game.getQuizDefinitionId(),
                 game.getStatus(),
@@ -319,8 +527,18 @@ public class GameOrchestrationService {
                 playersAnswered,
                 playerAnswers,
                 fastestAnswerTime,
-                correctAnswerToShow
+                correctAnswerToShow,
+                answerDistribution
         );
+        gameMetrics.recordGameState(game, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = game.getId();
+            event.players = gameState.getPlayers().size();
+            event.answers = playersAnswered;
+            event.commit();
+        }
+        return gameState;
     }
 
     /**
@@ -341,6 +559,7 @@ public class GameOrchestrationService {
         private final List<PlayerAnswerDTO> playerAnswers;
         private final Long fastestAnswerTime;
         private final String correctAnswer; // Added field for correct answer
+        private final List<AnswerCountDTO> answerDistribution; // only revealed together with the correct answer
 
         public GameStateDTO(String gameId, String quizDefinitionId, GameStatus status,
                            String currentRoundId, String currentRoundName,
@@ -349,6 +568,18 @@ public class GameOrchestrationService {
                            List<PlayerDTO> players, int playersAnswered, 
                            List<PlayerAnswerDTO> playerAnswers, Long fastestAnswerTime,
                            String correctAnswer) {
+            this(gameId, quizDefinitionId, status, currentRoundId, currentRoundName, currentQuestionId,
+                    currentQuestionText, remainingSeconds, acceptingAnswers, players, playersAnswered,
+                    playerAnswers, fastestAnswerTime, correctAnswer, null);
+        }
+
+        public GameStateDTO(String gameId, String quizDefinitionId, GameStatus status,
+                           String currentRoundId, String currentRoundName,
+                           String currentQuestionId, String currentQuestionText,
+                           int remainingSeconds, boolean acceptingAnswers,
+                           List<PlayerDTO> players, int playersAnswered,
+                           List<PlayerAnswerDTO> playerAnswers, Long fastestAnswerTime,
+                           String correctAnswer, List<AnswerCountDTO> answerDistribution) {
             this.gameId = gameId;
             this.quizDefinitionId = quizDefinitionId;
             this.status = status;
@@ -363,6 +594,7 @@ public class GameOrchestrationService {
             this.playerAnswers = playerAnswers;
             this.fastestAnswerTime = fastestAnswerTime;
             this.correctAnswer = correctAnswer;
+            this.answerDistribution = answerDistribution;
         }
 
         public String getGameId() {
@@ -413,6 +645,11 @@ public class GameOrchestrationService {
             return playerAnswers;
         }
 
+        /**
+         * Returns the answer time of the fastest answer to the current question.
+         *
+         * @return the answer time in whole seconds, or null if nobody has answered yet
+         */
         public Long getFastestAnswerTime() {
             return fastestAnswerTime;
         }
@@ -420,6 +657,10 @@ public class GameOrchestrationService {
         public String getCorrectAnswer() {
             return correctAnswer;
         }
+
+        public List<AnswerCountDTO> getAnswerDistribution() {
+            return answerDistribution;
+        }
     }
 
     /**
@@ -451,16 +692,24 @@ public class GameOrchestrationService {
 
     /**
      * DTO for transferring player answer information to clients without revealing the actual answer.
+     * The answer time is published in microseconds as "answerTimeMicros".
      */
     public static class PlayerAnswerDTO {
         private final String playerId;
         private final String playerName;
-        private final long answerTimeMs;
-
-        public PlayerAnswerDTO(String playerId, String playerName, long answerTimeMs) {
+        private final long answerTimeMicros;
+
+        /**
+         * Creates a new PlayerAnswerDTO.
+         *
+         * @param playerId the ID of the player
+         * @param playerName the name of the player
+         * @param answerTime the time from the start of the question to the answer
+         */
+        public PlayerAnswerDTO(String playerId, String playerName, Duration answerTime) {
             this.playerId = playerId;
             this.playerName = playerName;
-            this.answerTimeMs = answerTimeMs;
+            this.answerTimeMicros = answerTime.toNanos() / 1_000;
         }
 
         public String getPlayerId() {
@@ -471,8 +720,29 @@ public class GameOrchestrationService {
             return playerName;
         }
 
-        public long getAnswerTimeMs() {
-            return answerTimeMs;
+        public long getAnswerTimeMicros() {
+            return answerTimeMicros;
+        }
+    }
+
+    /**
+     * DTO for transferring how many players gave an answer to clients.
+     */
+    public static class AnswerCountDTO {
+        private final String answer;
+        private final int count;
+
+        public AnswerCountDTO(String answer, int count) {
+            this.answer = answer;
+            this.count = count;
+        }
+
+        public String getAnswer() {
+            return answer;
+        }
+
+        public int getCount() {
+            return count;
         }
     }
 
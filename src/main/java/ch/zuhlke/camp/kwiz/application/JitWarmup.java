@@ -0,0 +1,275 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import ch.zuhlke.camp.kwiz.domain.GameClock;
+import ch.zuhlke.camp.kwiz.domain.GameEngine;
+import ch.zuhlke.camp.kwiz.domain.GameStatus;
+import ch.zuhlke.camp.kwiz.domain.GradingPolicy;
+import ch.zuhlke.camp.kwiz.domain.Player;
+import ch.zuhlke.camp.kwiz.domain.Question;
+import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.domain.Round;
+import ch.zuhlke.camp.kwiz.infrastructure.AnswerTracer;
+import ch.zuhlke.camp.kwiz.infrastructure.GameTimerScheduler;
+import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import ch.zuhlke.camp.kwiz.infrastructure.MessagingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JitWarmup plays synthetic games before the application accepts traffic, so that the first real quiz after
+ * a deploy runs on compiled hot paths instead of the interpreter.
+ * <p>
+ * Each iteration plays one game through its own {@link GameEngine}, {@link GameOrchestrationService},
+ * repository, timer scheduler and {@link WebSocketController}: players join, answer every question over the
+ * REST and the STOMP path (graded with every grading policy, with some retries), the timer ticks and the admin
+ * closes and advances the questions. Every game state is converted to JSON with the message converter of the
+ * broker, but sent to a channel that drops it. None of these objects is a bean, so the warm-up leaves no quizzes,
+ * games, timers, messages or meters behind in the application.
+ * <p>
+ * The iterations stop once the median duration of the last {@code window} iterations is within
+ * {@code tolerance} of the window before, or after {@code maxIterations} or {@code maxDurationMs}. As an
+ * {@link ApplicationRunner}, the warm-up runs before the readiness state changes to accepting traffic, so
+ * {@code /actuator/health/readiness} reports UP only afterwards. Its result is reported by the "warmup" health
+ * indicator. The warm-up is opt-in with {@code kwiz.warmup.enabled=true}.
+ */
+@Component("warmup")
+@ConditionalOnProperty(name = "kwiz.warmup.enabled", havingValue = "true")
+public class JitWarmup implements ApplicationRunner, HealthIndicator {
+    private static final Logger log = LoggerFactory.getLogger(JitWarmup.class);
+    private static final String ADMIN_ID = "notimplemented";
+    private static final List<GradingPolicy> GRADING_POLICIES = List.of(
+            GradingPolicy.normalized(),
+            GradingPolicy.exact(),
+            GradingPolicy.fuzzy(),
+            GradingPolicy.numeric(0.5),
+            GradingPolicy.multipleChoice(List.of("A", "B", "C", "D")));
+    private static final List<String> CORRECT_ANSWERS = List.of("Bern", "Bern", "Zurich", "42", "B");
+    private static final List<String> WRONG_ANSWERS = List.of("Basel", "bern", "Zurch", "41", "C");
+
+    private final MessageConverter messageConverter;
+    private final GameClock gameClock;
+    private final int maxIterations;
+    private final int players;
+    private final int questions;
+    private final int window;
+    private final double tolerance;
+    private final long maxDurationMs;
+
+    private volatile Result result;
+
+    /**
+     * Creates the warm-up.
+     *
+     * @param messagingTemplate the template whose message converter serializes the game states
+     * @param gameClock the clock used by the games
+     * @param maxIterations the maximum number of games played
+     * @param players the players per game
+     * @param questions the questions per game
+     * @param window the number of iterations whose median is compared with the window before
+     * @param tolerance the relative difference of the medians of two windows below which latency is stable
+     * @param maxDurationMs the maximum duration of the warm-up
+     */
+    @Autowired
+    public JitWarmup(SimpMessagingTemplate messagingTemplate,
+                     GameClock gameClock,
+                     @Value("${kwiz.warmup.max-iterations:500}") int maxIterations,
+                     @Value("${kwiz.warmup.players:20}") int players,
+                     @Value("${kwiz.warmup.questions:5}") int questions,
+                     @Value("${kwiz.warmup.window:10}") int window,
+                     @Value("${kwiz.warmup.tolerance:0.1}") double tolerance,
+                     @Value("${kwiz.warmup.max-duration-ms:30000}") long maxDurationMs) {
+        this(messagingTemplate.getMessageConverter(), gameClock, maxIterations, players, questions, window,
+                tolerance, maxDurationMs);
+    }
+
+    JitWarmup(MessageConverter messageConverter, GameClock gameClock, int maxIterations, int players,
+              int questions, int window, double tolerance, long maxDurationMs) {
+        if (window < 1 || maxIterations < 2 * window) {
+            throw new IllegalArgumentException("The maximum iterations must be at least two windows of at least one iteration");
+        }
+        this.messageConverter = messageConverter;
+        this.gameClock = gameClock;
+        this.maxIterations = maxIterations;
+        this.players = players;
+        this.questions = questions;
+        this.window = window;
+        this.tolerance = tolerance;
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Result warmupResult = warmUp();
+        log.info("JIT warm-up {} after {} iterations in {} ms: {} ms for the first game, {} ms per game at the end",
+                warmupResult.stabilized() ? "stabilized" : "stopped without stabilizing", warmupResult.iterations(),
+                warmupResult.durationMs(), warmupResult.firstIterationMs(), warmupResult.stableIterationMs());
+    }
+
+    /**
+     * Plays games until their duration is stable.
+     *
+     * @return the result
+     */
+    Result warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMs * 1_000_000;
+        List<Long> durations = new ArrayList<>();
+        boolean stabilized = false;
+        while (durations.isEmpty() || durations.size() < maxIterations && System.nanoTime() < deadline) {
+            long iterationStart = System.nanoTime();
+            playGame(durations.size());
+            durations.add(System.nanoTime() - iterationStart);
+            if (durations.size() >= 2 * window && isStable(durations)) {
+                stabilized = true;
+                break;
+            }
+        }
+
+        int iterations = durations.size();
+        result = new Result(stabilized, iterations, (System.nanoTime() - start) / 1_000_000,
+                toMillis(durations.get(0)),
+                toMillis(median(durations.subList(Math.max(iterations - window, 0), iterations))));
+        return result;
+    }
+
+    private boolean isStable(List<Long> durations) {
+        int size = durations.size();
+        long previous = median(durations.subList(size - 2 * window, size - window));
+        long current = median(durations.subList(size - window, size));
+        return Math.abs(current - previous) <= previous * tolerance;
+    }
+
+    private static long median(List<Long> durations) {
+        long[] sorted = durations.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    /**
+     * Plays one game with objects of its own, so that nothing is left behind in the application.
+     */
+    private void playGame(int iteration) {
+        InMemoryGameRepository gameRepository = new InMemoryGameRepository();
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true);
+        messagingTemplate.setMessageConverter(messageConverter);
+        WebSocketController webSocketController = new WebSocketController(messagingTemplate, MessagingMetrics.unpublished());
+        GameTimerScheduler gameTimerScheduler = new GameTimerScheduler(event -> { }, gameRepository);
+        GameOrchestrationService orchestrationService = new GameOrchestrationService(gameRepository,
+                webSocketController, gameTimerScheduler, false, gameClock, LatencyCompensationService.disabled(),
+                AnswerDedupCache.unpublished(), GameMetrics.unpublished(), AnswerTracer.disabled());
+        GameEngine gameEngine = new GameEngine(webSocketController, orchestrationService,
+                new GameEngineRecorder(GameMetrics.unpublished()));
+
+        String quizId = "warmup-" + iteration;
+        gameEngine.createQuiz(quizId, "Warm-up " + iteration, players + 1);
+        Quiz quiz = gameEngine.getQuizById(quizId);
+        List<String> playerIds = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            Player player = gameEngine.addPlayerToQuiz(quizId, "Player " + i);
+            playerIds.add(player.getId());
+        }
+        webSocketController.flushRosterChanges();
+
+        // The quiz starts with a default round, whose question is graded like the first policy
+        Round round = gameEngine.addRoundToQuiz(quizId, "Warm-up");
+        Map<String, Integer> policyByQuestionId = new HashMap<>();
+        for (int i = 0; i < questions; i++) {
+            int policy = i % GRADING_POLICIES.size();
+            Question question = gameEngine.addQuestionToRound(quizId, round.getId(), "Question " + i,
+                    List.of(CORRECT_ANSWERS.get(policy)), 30, GRADING_POLICIES.get(policy));
+            policyByQuestionId.put(question.getId(), policy);
+        }
+        gameEngine.startQuiz(quizId);
+
+        String gameId = quiz.getCurrentGameId();
+        int questionNumber = 0;
+        GameOrchestrationService.GameStateDTO state = orchestrationService.getGameSnapshot(gameId);
+        while (state.getStatus() != GameStatus.GAME_OVER) {
+            if (state.getStatus() == GameStatus.QUESTION_ACTIVE) {
+                String questionId = state.getCurrentQuestionId();
+                answerQuestion(orchestrationService, gameId, questionId, policyByQuestionId.getOrDefault(questionId, 0),
+                        playerIds, questionNumber++);
+                orchestrationService.handleGameTick(gameId);
+                orchestrationService.adminCloseCurrentQuestion(gameId, ADMIN_ID);
+            } else if (state.getStatus() == GameStatus.ROUND_COMPLETED) {
+                orchestrationService.adminStartNextRound(gameId, ADMIN_ID);
+            } else {
+                orchestrationService.adminAdvanceToNextQuestion(gameId, ADMIN_ID);
+            }
+            state = orchestrationService.getGameSnapshot(gameId);
+        }
+    }
+
+    private static void answerQuestion(GameOrchestrationService orchestrationService, String gameId, String questionId,
+                                       int policy, List<String> playerIds, int questionNumber) {
+        for (int i = 0; i < playerIds.size(); i++) {
+            String playerId = playerIds.get(i);
+            String answer = i % 3 == 0 ? WRONG_ANSWERS.get(policy) : CORRECT_ANSWERS.get(policy);
+            String submissionId = gameId + "-" + questionNumber + "-" + i;
+            // Alternate between the REST and the STOMP path, and retry some submissions
+            if (i % 2 == 0) {
+                orchestrationService.trySubmitPlayerAnswer(gameId, submissionId, playerId, questionId, answer, null);
+            } else {
+                orchestrationService.tryRecordPlayerAnswer(gameId, submissionId, playerId, questionId, answer, 1_000.0);
+            }
+            if (i % 5 == 0) {
+                orchestrationService.tryRecordPlayerAnswer(gameId, submissionId, playerId, questionId, answer, null);
+            }
+        }
+    }
+
+    /**
+     * Reports UNKNOWN while the warm-up runs, and UP with its result afterwards.
+     *
+     * @return the health
+     */
+    @Override
+    public Health health() {
+        Result warmupResult = result;
+        if (warmupResult == null) {
+            return Health.unknown().withDetail("state", "running").build();
+        }
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("stabilized", warmupResult.stabilized());
+        details.put("iterations", warmupResult.iterations());
+        details.put("durationMs", warmupResult.durationMs());
+        details.put("firstIterationMs", warmupResult.firstIterationMs());
+        details.put("stableIterationMs", warmupResult.stableIterationMs());
+        return Health.up().withDetails(details).build();
+    }
+
+    /**
+     * The result of the warm-up.
+     *
+     * @param stabilized whether the duration of the games stabilized before a limit was reached
+     * @param iterations the number of games played
+     * @param durationMs the duration of the warm-up
+     * @param firstIterationMs the duration of the first game
+     * @param stableIterationMs the median duration of the games in the last window
+     */
+    record Result(boolean stabilized, int iterations, long durationMs, double firstIterationMs,
+                  double stableIterationMs) {
+    }
+}
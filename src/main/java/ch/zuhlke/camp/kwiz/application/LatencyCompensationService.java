@@ -0,0 +1,207 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import ch.zuhlke.camp.kwiz.domain.Game;
+import ch.zuhlke.camp.kwiz.domain.GameClock;
+import ch.zuhlke.camp.kwiz.domain.GameStatus;
+import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LatencyCompensationService measures the round-trip time (RTT) of every player's connection,
+ * so that answer times reported by clients can be validated before they are used for scoring.
+ * <p>
+ * While compensation is enabled, every player of a running game is pinged periodically over
+ * STOMP. The server only trusts its own clock: it remembers when each ping was sent, and
+ * the client merely echoes the ping ID. The RTT is smoothed like TCP does (7/8 old, 1/8 new).
+ * <p>
+ * A player is pinged on the STOMP session that registered for the player last, and only pongs from
+ * that session count, so a player that reconnects takes over its pings from the old session.
+ * Players are not authenticated, so the server trusts a session with the player ID it registers for:
+ * a client that claims another player can delay that player's pongs, but the compensation this earns
+ * or costs is capped by {@code kwiz.latency-compensation.max-compensation-ms}.
+ */
+@Service
+public class LatencyCompensationService {
+    private static final long PING_EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final InMemoryGameRepository gameRepository;
+    private final WebSocketController webSocketController;
+    private final GameClock gameClock;
+    private final boolean enabled;
+    private final long slackMicros;
+    private final long maxCompensationMicros;
+
+    private final AtomicLong nextPingId = new AtomicLong();
+    private final Map<Long, PendingPing> pendingPings = new ConcurrentHashMap<>();
+    private final Map<String, Long> smoothedRttMicrosByPlayerId = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionIdsByPlayerId = new ConcurrentHashMap<>();
+
+    public LatencyCompensationService(InMemoryGameRepository gameRepository,
+                                      WebSocketController webSocketController,
+                                      GameClock gameClock,
+                                      @Value("${kwiz.latency-compensation.enabled:false}") boolean enabled,
+                                      @Value("${kwiz.latency-compensation.slack-ms:50}") long slackMs,
+                                      @Value("${kwiz.latency-compensation.max-compensation-ms:1000}") long maxCompensationMs) {
+        this.gameRepository = gameRepository;
+        this.webSocketController = webSocketController;
+        this.gameClock = gameClock;
+        this.enabled = enabled;
+        this.slackMicros = TimeUnit.MILLISECONDS.toMicros(slackMs);
+        this.maxCompensationMicros = TimeUnit.MILLISECONDS.toMicros(maxCompensationMs);
+    }
+
+    /**
+     * Returns a service with compensation disabled.
+     *
+     * @return the disabled service
+     */
+    static LatencyCompensationService disabled() {
+        return new LatencyCompensationService(null, null, GameClock.system(), false, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Pings every player of every running game.
+     * This method is called automatically by Spring's scheduling mechanism.
+     */
+    @Scheduled(fixedDelayString = "${kwiz.latency-compensation.ping-interval-ms:2000}")
+    public void sendPings() {
+        if (!enabled) {
+            return;
+        }
+
+        long now = gameClock.nanoTime();
+        pendingPings.values().removeIf(ping -> now - ping.sentAtNanos > PING_EXPIRY_NANOS);
+
+        for (Game game : gameRepository.findAll()) {
+            if (game.getStatus() == GameStatus.LOBBY || game.getStatus() == GameStatus.GAME_OVER) {
+                continue;
+            }
+            for (String playerId : game.getPlayers().keySet()) {
+                String sessionId = sessionIdsByPlayerId.get(playerId);
+                if (sessionId == null) {
+                    continue;
+                }
+                long pingId = nextPingId.incrementAndGet();
+                pendingPings.put(pingId, new PendingPing(playerId, sessionId, gameClock.nanoTime()));
+                webSocketController.sendLatencyPing(sessionId, game.getId(), pingId);
+            }
+        }
+    }
+
+    /**
+     * Links a player of a game to the STOMP session that answers the player's pings.
+     * A registration replaces the session the player registered before, e.g. after a reconnect.
+     * Registrations for unknown players are ignored.
+     *
+     * @param gameId the ID of the game
+     * @param playerId the ID of the player
+     * @param sessionId the ID of the STOMP session
+     */
+    public void registerSession(String gameId, String playerId, String sessionId) {
+        if (!enabled || gameId == null || playerId == null || sessionId == null) {
+            return;
+        }
+
+        boolean isPlayer = gameRepository.findById(gameId)
+                .map(game -> game.getPlayers().containsKey(playerId))
+                .orElse(false);
+        if (isPlayer) {
+            sessionIdsByPlayerId.put(playerId, sessionId);
+        }
+    }
+
+    /**
+     * Unlinks the players of a STOMP session, e.g. when it disconnects.
+     *
+     * @param sessionId the ID of the STOMP session
+     */
+    public void forgetSession(String sessionId) {
+        sessionIdsByPlayerId.values().removeIf(registered -> registered.equals(sessionId));
+    }
+
+    /**
+     * Records the answer to a ping and updates the round-trip time of the pinged player.
+     * Unknown or expired pings, pings sent to another session, and pings of a session that the player
+     * has since replaced, are ignored.
+     *
+     * @param sessionId the ID of the STOMP session that answered
+     * @param pingId the ID of the ping
+     */
+    public void recordPong(String sessionId, long pingId) {
+        if (!enabled || sessionId == null) {
+            return;
+        }
+
+        PendingPing ping = pendingPings.get(pingId);
+        if (ping == null || !ping.sessionId.equals(sessionId)
+                || !sessionId.equals(sessionIdsByPlayerId.get(ping.playerId)) || !pendingPings.remove(pingId, ping)) {
+            return;
+        }
+
+        long rttMicros = (gameClock.nanoTime() - ping.sentAtNanos) / 1_000;
+        smoothedRttMicrosByPlayerId.merge(ping.playerId, rttMicros,
+                (smoothed, sample) -> smoothed + (sample - smoothed) / 8);
+    }
+
+    /**
+     * Returns the smoothed round-trip time of a player's connection.
+     *
+     * @param playerId the ID of the player
+     * @return the round-trip time in microseconds, or -1 if it has not been measured
+     */
+    public long getRttMicros(String playerId) {
+        return smoothedRttMicrosByPlayerId.getOrDefault(playerId, -1L);
+    }
+
+    /**
+     * Returns how much lower than the measured answer time the answer time reported by a player may be.
+     * This is the player's round-trip time plus some slack for jitter, capped so that a player cannot
+     * gain much by delaying pongs on purpose.
+     *
+     * @param playerId the ID of the player
+     * @return the maximum compensation in microseconds, or 0 if compensation is disabled or the RTT is unknown
+     */
+    public long getMaxCompensationMicros(String playerId) {
+        long rttMicros = getRttMicros(playerId);
+        if (!enabled || rttMicros < 0) {
+            return 0;
+        }
+        return Math.min(rttMicros + slackMicros, maxCompensationMicros);
+    }
+
+    /**
+     * Forgets the round-trip times and sessions of the given players, e.g. when their game is over.
+     *
+     * @param playerIds the IDs of the players
+     */
+    public void forgetPlayers(Iterable<String> playerIds) {
+        for (String playerId : playerIds) {
+            smoothedRttMicrosByPlayerId.remove(playerId);
+            sessionIdsByPlayerId.remove(playerId);
+        }
+    }
+
+    private static class PendingPing {
+        private final String playerId;
+        private final String sessionId;
+        private final long sentAtNanos;
+
+        private PendingPing(String playerId, String sessionId, long sentAtNanos) {
+            this.playerId = playerId;
+            this.sessionId = sessionId;
+            this.sentAtNanos = sentAtNanos;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ch.zuhlke.camp.kwiz.config;
+
+import ch.zuhlke.camp.kwiz.domain.EntityIds;
+import ch.zuhlke.camp.kwiz.domain.IdGenerator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * Sets the generator of the entity IDs in {@link EntityIds} once all singletons have been created, which is
+ * before the application takes requests or runs its application runners.
+ */
+public class EntityIdsInitializer implements SmartInitializingSingleton {
+    private final IdGenerator idGenerator;
+
+    public EntityIdsInitializer(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        EntityIds.setGenerator(idGenerator);
+    }
+}
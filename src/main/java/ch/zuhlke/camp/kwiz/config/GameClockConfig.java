@@ -0,0 +1,30 @@
+package ch.zuhlke.camp.kwiz.config;
+
+import ch.zuhlke.camp.kwiz.domain.GameClock;
+import ch.zuhlke.camp.kwiz.domain.ManualGameClock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the clock that games use to measure answer times.
+ */
+@Configuration
+public class GameClockConfig {
+
+    /**
+     * Configures the game clock.
+     * The "manual" mode uses a clock that never moves on its own, so that every answer
+     * scores full points; it is meant for reproducible end-to-end tests and load tests only.
+     *
+     * @param mode "system" (default) or "manual"
+     * @return the game clock
+     */
+    @Bean
+    public GameClock gameClock(@Value("${kwiz.clock.mode:system}") String mode) {
+        if ("manual".equalsIgnoreCase(mode)) {
+            return new ManualGameClock(System.currentTimeMillis());
+        }
+        return GameClock.system();
+    }
+}
@@ -0,0 +1,58 @@
+package ch.zuhlke.camp.kwiz.config;
+
+import ch.zuhlke.camp.kwiz.domain.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the generator of the IDs of games, rounds, questions and players.
+ */
+@Configuration
+public class IdGeneratorConfig {
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    /**
+     * Configures the ID generator.
+     * The "compact" mode creates time-ordered 22 character IDs without locks; IDs of instances with different
+     * node IDs never collide, so set a distinct node ID per instance when running more than one. Without a node ID,
+     * a random one is used and a warning is logged, or the startup fails if a node ID is required.
+     *
+     * @param mode "compact" (default) or "uuid"
+     * @param nodeId the node ID of this instance from 0 to 65535, or -1 for a random one
+     * @param requireNodeId whether the startup fails if the compact mode has no node ID
+     * @return the ID generator
+     */
+    @Bean
+    public IdGenerator idGenerator(@Value("${kwiz.ids.mode:compact}") String mode,
+                                   @Value("${kwiz.ids.node-id:-1}") int nodeId,
+                                   @Value("${kwiz.ids.require-node-id:false}") boolean requireNodeId) {
+        if ("uuid".equalsIgnoreCase(mode)) {
+            return IdGenerator.uuid();
+        }
+        if (nodeId >= 0) {
+            return IdGenerator.compact(nodeId);
+        }
+        if (requireNodeId) {
+            throw new IllegalStateException(
+                    "kwiz.ids.node-id must be set to a distinct node ID per instance, or kwiz.ids.mode to uuid");
+        }
+        log.warn("No kwiz.ids.node-id set, using a random node ID. When running more than one instance, "
+                + "set a distinct node ID per instance or kwiz.ids.mode=uuid, as instances with the same node ID "
+                + "can create the same IDs");
+        return IdGenerator.compact();
+    }
+
+    /**
+     * Makes the entities use the ID generator.
+     *
+     * @param idGenerator the ID generator
+     * @return the initializer
+     */
+    @Bean
+    public EntityIdsInitializer entityIdsInitializer(IdGenerator idGenerator) {
+        return new EntityIdsInitializer(idGenerator);
+    }
+}
@@ -0,0 +1,70 @@
+package ch.zuhlke.camp.kwiz.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes the OpenAPI document to a file and exits, in the "openapi-export" profile.
+ * <p>
+ * The release build runs the application in this profile ({@code ./gradlew generateOpenApiDocs}), so that the
+ * document is packaged as the static file "/openapi.json" and the "prod" profile does not need to scan the controllers.
+ * The document is fetched from the running application, so it is exactly what springdoc generates at runtime,
+ * except that the server URL of the export is removed.
+ */
+@Component
+@Profile("openapi-export")
+public class OpenApiExporter implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(OpenApiExporter.class);
+
+    private final Environment environment;
+    private final ConfigurableApplicationContext context;
+
+    public OpenApiExporter(Environment environment, ConfigurableApplicationContext context) {
+        this.environment = environment;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException, InterruptedException {
+        int port = environment.getRequiredProperty("local.server.port", Integer.class);
+        String path = environment.getProperty("springdoc.api-docs.path", "/v3/api-docs");
+        Path file = Paths.get(environment.getRequiredProperty("kwiz.openapi.export-file"));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Fetching the OpenAPI document failed with status " + response.statusCode());
+        }
+
+        // The server URL is the one of this export, clients use the server they loaded the document from
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode document = (ObjectNode) objectMapper.readTree(response.body());
+        document.remove("servers");
+
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), document);
+        log.info("OpenAPI document written to {}", file.toAbsolutePath());
+
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,59 @@
+package ch.zuhlke.camp.kwiz.config;
+
+import ch.zuhlke.camp.kwiz.application.AnswerDedupCache;
+import ch.zuhlke.camp.kwiz.application.GameMetrics;
+import ch.zuhlke.camp.kwiz.application.GameOrchestrationService;
+import ch.zuhlke.camp.kwiz.application.LatencyCompensationService;
+import ch.zuhlke.camp.kwiz.controller.AnswerController;
+import ch.zuhlke.camp.kwiz.controller.GameController;
+import ch.zuhlke.camp.kwiz.controller.LatencyController;
+import ch.zuhlke.camp.kwiz.controller.LobbyController;
+import ch.zuhlke.camp.kwiz.controller.QuizController;
+import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import ch.zuhlke.camp.kwiz.domain.GameEngine;
+import ch.zuhlke.camp.kwiz.infrastructure.AnswerTracer;
+import ch.zuhlke.camp.kwiz.infrastructure.GameTimerScheduler;
+import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import ch.zuhlke.camp.kwiz.infrastructure.MessagingMetrics;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the startup of the application.
+ * <p>
+ * The "prod" profile initializes beans lazily, so that a new instance is ready sooner when scaling out.
+ * The beans of the game itself are still created at startup: otherwise the first joins and answers would
+ * wait for them, and their scheduled tasks (game timers, roster batches, latency pings) would not run
+ * until something uses them.
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Excludes the beans of the hot paths from lazy initialization.
+     *
+     * @return the filter
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter hotPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                GameEngine.class,
+                GameOrchestrationService.class,
+                GameTimerScheduler.class,
+                InMemoryGameRepository.class,
+                WebSocketController.class,
+                AnswerController.class,
+                GameController.class,
+                LatencyController.class,
+                LobbyController.class,
+                QuizController.class,
+                LatencyCompensationService.class,
+                AnswerDedupCache.class,
+                GameMetrics.class,
+                MessagingMetrics.class,
+                AnswerTracer.class,
+                // Sets the generator of the entity IDs, which must happen before the first request
+                EntityIdsInitializer.class);
+    }
+}
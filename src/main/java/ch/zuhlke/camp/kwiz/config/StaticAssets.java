@@ -0,0 +1,285 @@
+package ch.zuhlke.camp.kwiz.config;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.util.UriUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * StaticAssets holds the files of the frontend in memory, so that they are not read from the jar for every request.
+ * <p>
+ * All files below the location are loaded once. A file is served in the best encoding the client accepts:
+ * brotli or gzip if the build has written a smaller ".br" or ".gz" file next to it, and gzip compressed at load time
+ * for other text files. Every encoding has its own strong ETag, a hash of its content.
+ * <p>
+ * Files with a content hash in their name, like "main.3f2a1b9c4d5e6f70.js", never change, so clients may cache them
+ * for a year without asking again. All other files, in particular index.html, which refers to the hashed files of the
+ * current build, are revalidated with their ETag on every use.
+ */
+class StaticAssets {
+    static final String INDEX = "index.html";
+    static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    // Hashes added by the Angular CLI: 16 or 20 hex characters with webpack, 8 characters with esbuild
+    private static final Pattern FINGERPRINTED = Pattern.compile(".+[.-]([0-9a-f]{16,20}|[0-9A-Z]{8})\\.[A-Za-z0-9]+");
+    private static final Set<String> COMPRESSIBLE = Set.of("html", "js", "mjs", "css", "json", "map", "svg", "txt", "xml", "ico");
+    private static final int MIN_COMPRESSIBLE_BYTES = 1024;
+
+    private final Map<String, Asset> assets;
+
+    private StaticAssets(Map<String, Asset> assets) {
+        this.assets = assets;
+    }
+
+    /**
+     * Loads all files below a location.
+     *
+     * @param location the location, e.g. "classpath:/web/"
+     * @return the assets, which are empty if the location does not exist
+     */
+    static StaticAssets load(String location) {
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        try {
+            String base;
+            try {
+                base = resolver.getResource(location).getURL().toString();
+            } catch (FileNotFoundException e) {
+                // No frontend has been built, e.g. in tests
+                return new StaticAssets(Map.of());
+            }
+
+            Map<String, byte[]> files = new HashMap<>();
+            Map<String, Long> lastModified = new HashMap<>();
+            for (Resource resource : resolver.getResources(location + "**")) {
+                String url = resource.getURL().toString();
+                if (!resource.isReadable() || url.endsWith("/") || !url.startsWith(base)) {
+                    continue;
+                }
+                String path = UriUtils.decode(url.substring(base.length()), StandardCharsets.UTF_8);
+                try (InputStream inputStream = resource.getInputStream()) {
+                    files.put(path, StreamUtils.copyToByteArray(inputStream));
+                }
+                lastModified.put(path, resource.lastModified());
+            }
+
+            Map<String, Asset> assets = new ConcurrentHashMap<>();
+            files.forEach((path, content) -> {
+                // Precompressed files are encodings of the file without the extension
+                if (isPrecompressed(path) && files.containsKey(path.substring(0, path.length() - 3))) {
+                    return;
+                }
+                byte[] brotli = smallerOf(files.get(path + ".br"), content);
+                byte[] gzip = smallerOf(files.containsKey(path + ".gz") ? files.get(path + ".gz") : gzip(path, content), content);
+                assets.put(path, new Asset(path, content, gzip, brotli, lastModified.get(path)));
+            });
+            return new StaticAssets(assets);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load the static assets from " + location, e);
+        }
+    }
+
+    private static boolean isPrecompressed(String path) {
+        return path.endsWith(".br") || path.endsWith(".gz");
+    }
+
+    @Nullable
+    private static byte[] gzip(String path, byte[] content) {
+        String extension = path.substring(path.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        if (content.length < MIN_COMPRESSIBLE_BYTES || !COMPRESSIBLE.contains(extension)) {
+            return null;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Nullable
+    private static byte[] smallerOf(@Nullable byte[] encoded, byte[] content) {
+        return encoded != null && encoded.length < content.length ? encoded : null;
+    }
+
+    /**
+     * Returns a file in the best encoding the client accepts.
+     *
+     * @param path the path of the file relative to the location, e.g. "main.3f2a1b9c4d5e6f70.js"
+     * @param acceptEncoding the Accept-Encoding header of the request, or null
+     * @return the file, or null if there is no such file
+     */
+    @Nullable
+    AssetResource resolve(String path, @Nullable String acceptEncoding) {
+        Asset asset = assets.get(path);
+        if (asset == null) {
+            return null;
+        }
+        if (asset.brotli != null && accepts(acceptEncoding, "br")) {
+            return asset.brotli;
+        }
+        if (asset.gzip != null && accepts(acceptEncoding, "gzip")) {
+            return asset.gzip;
+        }
+        return asset.identity;
+    }
+
+    /**
+     * Checks whether an Accept-Encoding header accepts a content coding: the coding, or else "*", must be listed
+     * without a quality value or with a quality value above 0 (e.g. "br;q=0" refuses brotli).
+     *
+     * @param acceptEncoding the Accept-Encoding header, or null
+     * @param coding the content coding, e.g. "br"
+     * @return true if the coding is accepted
+     */
+    static boolean accepts(@Nullable String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String element : acceptEncoding.split(",")) {
+            int semicolon = element.indexOf(';');
+            String name = (semicolon < 0 ? element : element.substring(0, semicolon)).trim();
+            boolean acceptable = semicolon < 0 || quality(element.substring(semicolon + 1)) > 0;
+            if (name.equalsIgnoreCase(coding)) {
+                return acceptable;
+            }
+            if (name.equals("*")) {
+                wildcard = acceptable;
+            }
+        }
+        return wildcard;
+    }
+
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            int equals = parameter.indexOf('=');
+            if (equals >= 0 && parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    // A malformed quality value does not accept the coding
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the number of files.
+     *
+     * @return the number of files
+     */
+    int size() {
+        return assets.size();
+    }
+
+    private static final class Asset {
+        private final AssetResource identity;
+        private final AssetResource gzip;
+        private final AssetResource brotli;
+
+        private Asset(String path, byte[] content, @Nullable byte[] gzip, @Nullable byte[] brotli, long lastModified) {
+            String filename = path.substring(path.lastIndexOf('/') + 1);
+            String cacheControl = FINGERPRINTED.matcher(filename).matches() ? IMMUTABLE : REVALIDATE;
+            boolean encoded = gzip != null || brotli != null;
+            this.identity = new AssetResource(content, filename, null, encoded, cacheControl, lastModified);
+            this.gzip = gzip != null ? new AssetResource(gzip, filename, "gzip", true, cacheControl, lastModified) : null;
+            this.brotli = brotli != null ? new AssetResource(brotli, filename, "br", true, cacheControl, lastModified) : null;
+        }
+    }
+
+    /**
+     * One encoding of a file, with the headers to send it with.
+     */
+    static final class AssetResource extends ByteArrayResource implements HttpResource {
+        private final String filename;
+        private final String etag;
+        private final long lastModified;
+        private final HttpHeaders responseHeaders;
+
+        private AssetResource(byte[] content, String filename, @Nullable String contentEncoding, boolean vary,
+                              String cacheControl, long lastModified) {
+            super(content, filename);
+            this.filename = filename;
+            this.etag = hash(content);
+            this.lastModified = lastModified;
+            this.responseHeaders = new HttpHeaders();
+            responseHeaders.setCacheControl(cacheControl);
+            if (contentEncoding != null) {
+                responseHeaders.set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            }
+            if (vary) {
+                responseHeaders.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            }
+        }
+
+        private static String hash(byte[] content) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Returns the name of the file, which determines the content type also for compressed encodings.
+         */
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns the strong ETag of this encoding, without quotes.
+         *
+         * @return the ETag
+         */
+        String getEtag() {
+            return etag;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            return responseHeaders;
+        }
+    }
+}
@@ -1,26 +1,46 @@
 package ch.zuhlke.camp.kwiz.config;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
 
-import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Configuration for serving the Angular frontend from Spring Boot.
+ * <p>
+ * The files of the frontend are held in memory by {@link StaticAssets}, which loads them at startup, so that
+ * hundreds of players opening the quiz at once do not read the same bundles from the jar over and over.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private static final String LOCATION = "classpath:/web/";
+
+    private final StaticAssets staticAssets;
+
+    public WebConfig() {
+        this(StaticAssets.load(LOCATION));
+    }
+
+    WebConfig(StaticAssets staticAssets) {
+        this.staticAssets = staticAssets;
+    }
 
     /**
      * Configure resource handlers to serve static resources and forward Angular routes to index.html.
      * This ensures that:
      * 1. API requests are handled by the appropriate controllers
-     * 2. Static resources (JS, CSS, images) are served directly
+     * 2. Static resources (JS, CSS, images) are served directly from memory, compressed if the client accepts it
      * 3. All other requests are forwarded to index.html for Angular's router to handle
+     * <p>
+     * Every response has a strong ETag, so unchanged files are answered with 304 Not Modified.
      *
      * @param registry the ResourceHandlerRegistry to configure
      */
@@ -30,27 +50,29 @@ public class WebConfig implements WebMvcConfigurer {
 
         // Handle root URL without any slash
         registry.addResourceHandler("")
-                .addResourceLocations("classpath:/web/")
-                .resourceChain(true)
-                .addResolver(new PathResourceResolver() {
+                .addResourceLocations(LOCATION)
+                .setEtagGenerator(etagGenerator())
+                .resourceChain(false)
+                .addResolver(new StaticAssetResolver() {
                     @Override
-                    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+                    protected Resource resolve(String resourcePath, @Nullable String acceptEncoding) {
                         // For root URL, always return index.html
-                        return new ClassPathResource("/web/index.html");
+                        return staticAssets.resolve(StaticAssets.INDEX, acceptEncoding);
                     }
                 });
 
         // Then, serve static resources directly
         registry.addResourceHandler("/**", "", ".")
-                .addResourceLocations("classpath:/web/")
-                .resourceChain(true)
-                .addResolver(new PathResourceResolver() {
+                .addResourceLocations(LOCATION)
+                .setEtagGenerator(etagGenerator())
+                .resourceChain(false)
+                .addResolver(new StaticAssetResolver() {
                     @Override
-                    protected Resource getResource(String resourcePath, Resource location) throws IOException {
-                        Resource resource = location.createRelative(resourcePath);
+                    protected Resource resolve(String resourcePath, @Nullable String acceptEncoding) {
+                        Resource resource = staticAssets.resolve(resourcePath, acceptEncoding);
 
-                        // If the resource exists and is readable, serve it directly
-                        if (resource.exists() && resource.isReadable()) {
+                        // If the resource exists, serve it directly
+                        if (resource != null) {
                             return resource;
                         }
 
@@ -58,21 +80,48 @@ public class WebConfig implements WebMvcConfigurer {
                         // Forward to index.html for Angular's router to handle
 
                         // Handle API requests, files with extensions, and direct requests to index.html
-                        if (resourcePath.startsWith("api/") || 
-                            resourcePath.contains(".") || 
-                            resourcePath.equals("index.html")) {
+                        if (resourcePath.startsWith("api/") ||
+                            resourcePath.contains(".") ||
+                            resourcePath.equals(StaticAssets.INDEX)) {
                             return null; // Let the next resource handler handle it
                         }
 
-                        // Explicitly handle root URL without trailing slash (empty resourcePath)
-                        // as well as other Angular routes
-                        if (resourcePath.isEmpty() || !resourcePath.contains(".")) {
-                            return new ClassPathResource("/web/index.html");
-                        }
-
-                        // Forward to index.html for Angular routing
-                        return new ClassPathResource("/web/index.html");
+                        // Forward the root URL without trailing slash (empty resourcePath)
+                        // as well as other Angular routes to the cached index.html
+                        return staticAssets.resolve(StaticAssets.INDEX, acceptEncoding);
                     }
                 });
     }
+
+    private static Function<Resource, String> etagGenerator() {
+        return resource -> resource instanceof StaticAssets.AssetResource asset ? asset.getEtag() : null;
+    }
+
+    /**
+     * Resolves resources from the {@link StaticAssets} instead of the resource locations.
+     */
+    private abstract static class StaticAssetResolver extends AbstractResourceResolver {
+
+        @Override
+        protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                                   List<? extends Resource> locations, ResourceResolverChain chain) {
+            return resolve(requestPath, request != null ? request.getHeader(HttpHeaders.ACCEPT_ENCODING) : null);
+        }
+
+        @Override
+        protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                                ResourceResolverChain chain) {
+            return resolve(resourceUrlPath, null) != null ? resourceUrlPath : null;
+        }
+
+        /**
+         * Resolves a resource.
+         *
+         * @param resourcePath the path of the resource relative to the location
+         * @param acceptEncoding the Accept-Encoding header of the request, or null
+         * @return the resource, or null if there is none
+         */
+        @Nullable
+        protected abstract Resource resolve(String resourcePath, @Nullable String acceptEncoding);
+    }
 }
@@ -1,6 +1,9 @@
 package ch.zuhlke.camp.kwiz.config;
 
+import ch.zuhlke.camp.kwiz.infrastructure.AnswerTracer;
+import ch.zuhlke.camp.kwiz.infrastructure.MessagingMetrics;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -13,14 +16,41 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final MessagingMetrics messagingMetrics;
+    private final AnswerTracer answerTracer;
+
+    public WebSocketConfig(MessagingMetrics messagingMetrics, AnswerTracer answerTracer) {
+        this.messagingMetrics = messagingMetrics;
+        this.answerTracer = answerTracer;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker to send messages to clients
-        // on destinations prefixed with /topic
-        config.enableSimpleBroker("/topic");
+        // on destinations prefixed with /topic (broadcasts) and /queue (replies to a single session)
+        config.enableSimpleBroker("/topic", "/queue");
         
         // Set prefix for messages from clients to application
         config.setApplicationDestinationPrefixes("/app");
+
+        // Clients subscribe to "/user/queue/..." to receive the replies addressed to their session
+        config.setUserDestinationPrefix("/user");
+
+        // Mark when traced game states reach the broker
+        config.configureBrokerChannel().interceptors(answerTracer.brokerInterceptor());
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Stamp messages from clients with the time they were received, to trace the wait for a handler thread
+        registration.interceptors(answerTracer.inboundInterceptor());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Measure the size of every message written to a client session,
+        // and when the copies of traced game states are written
+        registration.interceptors(messagingMetrics.outboundInterceptor(), answerTracer.outboundInterceptor());
     }
 
     @Override
@@ -0,0 +1,110 @@
+package ch.zuhlke.camp.kwiz.controller;
+
+import ch.zuhlke.camp.kwiz.application.GameOrchestrationService;
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Controller for answers submitted over the players' WebSocket connection.
+ * This is the same operation as {@code POST /api/games/{gameId}/answers}, but it reuses the
+ * STOMP session every player already holds, and replies with a receipt to the submitting
+ * session only.
+ */
+@Controller
+public class AnswerController {
+
+    private final GameOrchestrationService gameOrchestrationService;
+
+    public AnswerController(GameOrchestrationService gameOrchestrationService) {
+        this.gameOrchestrationService = gameOrchestrationService;
+    }
+
+    /**
+     * Receives an answer sent to "/app/game/{gameId}/answer" and replies with a receipt on
+     * "/user/queue/answers". The receipt status is "accepted" for a new answer, "duplicate" for
+     * a retry of an answer that was already accepted, and "rejected" otherwise. A rejected receipt
+     * carries the reason (e.g. "NOT_ACCEPTING_ANSWERS") and a message.
+     *
+     * @param gameId the ID of the game
+     * @param command the answer
+     * @return the receipt
+     */
+    @MessageMapping("/game/{gameId}/answer")
+    @SendToUser(value = "/queue/answers", broadcast = false)
+    public Map<String, Object> submitAnswer(@DestinationVariable String gameId, @Payload AnswerCommand command) {
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("type", "answerReceipt");
+        receipt.put("gameId", gameId);
+        receipt.put("questionId", command.getQuestionId());
+        receipt.put("submissionId", command.getSubmissionId());
+
+        CommandResult<Boolean> result = gameOrchestrationService.tryRecordPlayerAnswer(gameId, command.getSubmissionId(),
+                command.getPlayerId(), command.getQuestionId(), command.getAnswer(), command.getClientAnswerTimeMs());
+        if (result.isAccepted()) {
+            receipt.put("status", result.getValue() ? "accepted" : "duplicate");
+        } else {
+            receipt.put("status", "rejected");
+            receipt.put("reason", result.getReason().name());
+            receipt.put("message", result.getMessage());
+        }
+        return receipt;
+    }
+
+    /**
+     * Message object for an answer submitted over WebSocket.
+     */
+    public static class AnswerCommand {
+        private String submissionId;
+        private String playerId;
+        private String questionId;
+        private String answer;
+        private Double clientAnswerTimeMs;
+
+        public String getSubmissionId() {
+            return submissionId;
+        }
+
+        public void setSubmissionId(String submissionId) {
+            this.submissionId = submissionId;
+        }
+
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public void setPlayerId(String playerId) {
+            this.playerId = playerId;
+        }
+
+        public String getQuestionId() {
+            return questionId;
+        }
+
+        public void setQuestionId(String questionId) {
+            this.questionId = questionId;
+        }
+
+        public String getAnswer() {
+            return answer;
+        }
+
+        public void setAnswer(String answer) {
+            this.answer = answer;
+        }
+
+        public Double getClientAnswerTimeMs() {
+            return clientAnswerTimeMs;
+        }
+
+        public void setClientAnswerTimeMs(Double clientAnswerTimeMs) {
+            this.clientAnswerTimeMs = clientAnswerTimeMs;
+        }
+    }
+}
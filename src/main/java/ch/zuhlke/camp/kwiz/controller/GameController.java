@@ -2,16 +2,21 @@ package ch.zuhlke.camp.kwiz.controller;
 
 import ch.zuhlke.camp.kwiz.application.GameOrchestrationService;
 import ch.zuhlke.camp.kwiz.application.GameOrchestrationService.GameStateDTO;
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
 import ch.zuhlke.camp.kwiz.domain.Quiz;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * REST controller for game-related operations.
  */
@@ -44,16 +49,33 @@ public class GameController {
      * @param playerId the ID of the player submitting the answer
      * @param questionId the ID of the question being answered
      * @param answerText the text of the answer
-     * @return a success message
+     * @param clientAnswerTimeMs the answer time measured by the client, used if latency compensation is enabled
+     * @param submissionId the ID the client assigned to this submission; a retry with the same ID is only recorded once
+     * @param idempotencyKey alternative to {@code submissionId} as a standard header
+     * @return the status "accepted", or "duplicate" for a retry of an answer that was already recorded;
+     *         or the error and the rejection reason, with status 404 for an unknown game or player,
+     *         and 409 if the answer is late, for another question, or the player has already answered
      */
     @PostMapping("/{gameId}/answers")
-    public ResponseEntity<String> submitAnswer(
+    public ResponseEntity<Map<String, Object>> submitAnswer(
             @PathVariable String gameId,
             @RequestParam String playerId,
             @RequestParam String questionId,
-            @RequestParam String answerText) {
-        gameOrchestrationService.submitPlayerAnswer(gameId, playerId, questionId, answerText);
-        return ResponseEntity.ok("Answer submitted successfully");
+            @RequestParam String answerText,
+            @RequestParam(required = false) Double clientAnswerTimeMs,
+            @RequestParam(required = false) String submissionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        String key = idempotencyKey != null ? idempotencyKey : submissionId;
+        CommandResult<Boolean> result = gameOrchestrationService.trySubmitPlayerAnswer(gameId, key, playerId, questionId,
+                answerText, clientAnswerTimeMs);
+        if (!result.isAccepted()) {
+            return RejectionResponses.toResponse(result);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", result.getValue() ? "accepted" : "duplicate");
+        response.put("message", "Answer submitted successfully");
+        return ResponseEntity.ok(response);
     }
 
     /**
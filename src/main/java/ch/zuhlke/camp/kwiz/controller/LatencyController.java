@@ -0,0 +1,92 @@
+package ch.zuhlke.camp.kwiz.controller;
+
+import ch.zuhlke.camp.kwiz.application.LatencyCompensationService;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+/**
+ * Controller for the WebSocket messages used to measure the latency of player connections.
+ * Pongs are attributed to the player whose pings the sending STOMP session registered for.
+ */
+@Controller
+public class LatencyController {
+
+    private final LatencyCompensationService latencyCompensationService;
+
+    public LatencyController(LatencyCompensationService latencyCompensationService) {
+        this.latencyCompensationService = latencyCompensationService;
+    }
+
+    /**
+     * Registers the STOMP session for the pings of a player, which it then receives on "/user/queue/latency".
+     *
+     * @param gameId the ID of the game
+     * @param registration the player to ping
+     * @param sessionId the ID of the STOMP session
+     */
+    @MessageMapping("/game/{gameId}/latency/register")
+    public void registerForPings(@DestinationVariable String gameId, @Payload LatencyRegistration registration,
+                                 @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        latencyCompensationService.registerSession(gameId, registration.getPlayerId(), sessionId);
+    }
+
+    /**
+     * Receives the echo of a ping sent to "/user/queue/latency".
+     *
+     * @param pong the echoed ping
+     * @param sessionId the ID of the STOMP session that echoed it
+     */
+    @MessageMapping("/latency/pong")
+    public void handlePong(@Payload PongMessage pong,
+                           @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        if (pong.getPingId() != null) {
+            latencyCompensationService.recordPong(sessionId, pong.getPingId());
+        }
+    }
+
+    /**
+     * Stops pinging the players of a disconnected session.
+     *
+     * @param event the disconnect event
+     */
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        latencyCompensationService.forgetSession(event.getSessionId());
+    }
+
+    /**
+     * Message object for the registration of a session for the pings of a player.
+     */
+    public static class LatencyRegistration {
+        private String playerId;
+
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public void setPlayerId(String playerId) {
+            this.playerId = playerId;
+        }
+    }
+
+    /**
+     * Message object for the echo of a ping.
+     */
+    public static class PongMessage {
+        private Long pingId;
+
+        public Long getPingId() {
+            return pingId;
+        }
+
+        public void setPingId(Long pingId) {
+            this.pingId = pingId;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ch.zuhlke.camp.kwiz.controller;
+
+import ch.zuhlke.camp.kwiz.domain.GameEngine;
+import ch.zuhlke.camp.kwiz.domain.Quiz;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+/**
+ * Controller for WebSocket subscriptions to the quiz lobby.
+ * The lobby topic only carries incremental roster events; the full roster is
+ * sent once to each client when it subscribes here.
+ */
+@Controller
+public class LobbyController {
+
+    private final GameEngine gameEngine;
+    private final WebSocketController webSocketController;
+
+    public LobbyController(GameEngine gameEngine, WebSocketController webSocketController) {
+        this.gameEngine = gameEngine;
+        this.webSocketController = webSocketController;
+    }
+
+    /**
+     * Returns the full roster of a quiz to the subscribing client only.
+     * Clients subscribe to "/app/quiz/{quizId}/roster" when they enter the lobby,
+     * and again whenever they detect a gap in the roster versions of "/topic/quiz/{quizId}/updates".
+     *
+     * @param quizId the ID of the quiz
+     * @return the roster snapshot
+     * @throws IllegalArgumentException if no quiz with the given ID exists
+     */
+    @SubscribeMapping("/quiz/{quizId}/roster")
+    public Map<String, Object> subscribeToRoster(@DestinationVariable String quizId) {
+        Quiz quiz = gameEngine.getQuizById(quizId);
+        if (quiz == null) {
+            throw new IllegalArgumentException("No quiz found with ID: " + quizId);
+        }
+
+        // Hold the quiz lock, so that the players and the roster version match
+        synchronized (quiz) {
+            return webSocketController.createRosterSnapshot(quiz);
+        }
+    }
+}
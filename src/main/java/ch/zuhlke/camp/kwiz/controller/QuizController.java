@@ -1,9 +1,13 @@
 package ch.zuhlke.camp.kwiz.controller;
 
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
 import ch.zuhlke.camp.kwiz.domain.GameEngine;
+import ch.zuhlke.camp.kwiz.domain.GradingMode;
+import ch.zuhlke.camp.kwiz.domain.GradingPolicy;
 import ch.zuhlke.camp.kwiz.domain.Player;
 import ch.zuhlke.camp.kwiz.domain.Question;
 import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
 import ch.zuhlke.camp.kwiz.domain.Round;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -102,27 +107,63 @@ public class QuizController {
                     @ApiResponse(responseCode = "200", description = "Player added successfully"),
                     @ApiResponse(responseCode = "404", description = "Quiz not found"),
                     @ApiResponse(responseCode = "400", description = "Invalid request"),
-                    @ApiResponse(responseCode = "409", description = "Quiz has already started or maximum number of players reached")
+                    @ApiResponse(responseCode = "409", description = "Quiz has already started, maximum number of players reached, or player name taken")
             }
     )
     @PostMapping("/{quizId}/players")
     public ResponseEntity<Map<String, Object>> joinQuiz(
             @PathVariable String quizId,
             @RequestBody JoinQuizRequest request) {
+        CommandResult<Player> result = gameEngine.tryAddPlayerToQuiz(quizId, request.getPlayerName());
+        if (!result.isAccepted()) {
+            Map<String, Object> error = RejectionResponses.toBody(result);
+            if (result.getReason() == RejectionReason.PLAYER_NAME_REQUIRED) {
+                error.put("needsPlayerName", true);
+                error.put("quizId", quizId);
+            }
+            return ResponseEntity.status(RejectionResponses.httpStatus(result.getReason())).body(error);
+        }
+
+        Player player = result.getValue();
+        Map<String, Object> response = new HashMap<>();
+        response.put("quizId", quizId);
+        response.put("playerId", player.getId());
+        response.put("playerName", player.getName());
+        response.put("redirectUrl", "/waiting-room/" + quizId);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Removes a player from a quiz.
+     *
+     * @param quizId the ID of the quiz to leave
+     * @param playerId the ID of the player leaving the quiz
+     * @return the removed player
+     */
+    @Operation(
+            summary = "Leave a quiz",
+            description = "Removes the player with the specified ID from the quiz. This is only allowed if the quiz has not started yet.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Player removed successfully"),
+                    @ApiResponse(responseCode = "404", description = "Quiz or player not found"),
+                    @ApiResponse(responseCode = "409", description = "Quiz has already started")
+            }
+    )
+    @DeleteMapping("/{quizId}/players/{playerId}")
+    public ResponseEntity<Map<String, Object>> leaveQuiz(
+            @PathVariable String quizId,
+            @PathVariable String playerId) {
         try {
-            Player player = gameEngine.addPlayerToQuiz(quizId, request.getPlayerName());
+            Player player = gameEngine.removePlayerFromQuiz(quizId, playerId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("quizId", quizId);
             response.put("playerId", player.getId());
             response.put("playerName", player.getName());
-            response.put("redirectUrl", "/waiting-room/" + quizId);
 
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
-            if (e.getMessage().contains("Player name cannot be empty")) {
-                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage(), "needsPlayerName", true, "quizId", quizId));
-            }
             return ResponseEntity.notFound().build();
         } catch (IllegalStateException e) {
             return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
@@ -321,6 +362,7 @@ public class QuizController {
             description = "Allows a participant to submit a question to a quiz. This is only allowed if the quiz has not started yet.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Question submitted successfully"),
+                    @ApiResponse(responseCode = "400", description = "Invalid grading settings"),
                     @ApiResponse(responseCode = "404", description = "Quiz or player not found"),
                     @ApiResponse(responseCode = "409", description = "Quiz has already started")
             }
@@ -336,13 +378,23 @@ public class QuizController {
                 return ResponseEntity.badRequest().body(Map.of("error", "A round ID is required for submitting a question"));
             }
 
+            // Reject invalid grading settings before they are mistaken for a missing quiz or player
+            GradingPolicy gradingPolicy;
+            try {
+                gradingPolicy = toGradingPolicy(request);
+                gradingPolicy.validate(request.getCorrectAnswers());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+
             Question question = gameEngine.submitParticipantQuestion(
                     quizId,
                     playerId,
                     request.getRoundId(),
                     request.getQuestionText(),
                     request.getCorrectAnswers(),
-                    request.getTimeLimit()
+                    request.getTimeLimit(),
+                    gradingPolicy
             );
 
             Map<String, Object> response = new HashMap<>();
@@ -350,6 +402,7 @@ public class QuizController {
             response.put("questionText", question.getText());
             response.put("correctAnswers", question.getCorrectAnswers());
             response.put("timeLimit", question.getTimeLimit());
+            response.put("gradingMode", question.getGradingPolicy().getMode().name());
             if (request.getRoundId() != null) {
                 response.put("roundId", request.getRoundId());
             }
@@ -362,6 +415,25 @@ public class QuizController {
         }
     }
 
+    /**
+     * Creates the grading policy from the optional grading settings of a request.
+     *
+     * @param request the request
+     * @return the grading policy, or the default policy if no grading mode is given
+     * @throws IllegalArgumentException if the grading mode is unknown or a setting is invalid
+     */
+    private GradingPolicy toGradingPolicy(SubmitQuestionRequest request) {
+        GradingMode mode = null;
+        if (request.getGradingMode() != null && !request.getGradingMode().isBlank()) {
+            try {
+                mode = GradingMode.valueOf(request.getGradingMode().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown grading mode: " + request.getGradingMode());
+            }
+        }
+        return GradingPolicy.of(mode, request.getMaxEditDistance(), request.getNumericTolerance(), request.getOptions());
+    }
+
     /**
      * Gets all questions submitted by a specific player in a quiz.
      *
@@ -392,6 +464,7 @@ public class QuizController {
                         questionMap.put("questionText", question.getText());
                         questionMap.put("correctAnswers", question.getCorrectAnswers());
                         questionMap.put("timeLimit", question.getTimeLimit());
+                        questionMap.put("gradingMode", question.getGradingPolicy().getMode().name());
                         questionMap.put("roundId", questionWithRound.getRoundId());
                         questionMap.put("roundName", questionWithRound.getRoundName());
                         return questionMap;
@@ -425,27 +498,22 @@ public class QuizController {
     public ResponseEntity<Map<String, Object>> updateMaxPlayers(
             @PathVariable String quizId,
             @RequestBody UpdateMaxPlayersRequest request) {
-        try {
-            Quiz quiz = gameEngine.updateMaxPlayers(quizId, request.getMaxPlayers());
+        CommandResult<Quiz> result = gameEngine.tryUpdateMaxPlayers(quizId, request.getMaxPlayers());
+        if (!result.isAccepted()) {
+            return RejectionResponses.toResponse(result);
+        }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("quizId", quiz.getId());
-            response.put("quizName", quiz.getName());
-            response.put("maxPlayers", quiz.getMaxPlayers());
-            response.put("started", quiz.isStarted());
-            response.put("ended", quiz.isEnded());
-            response.put("playerCount", quiz.getPlayers().size());
-            response.put("currentGameId", quiz.getCurrentGameId());
+        Quiz quiz = result.getValue();
+        Map<String, Object> response = new HashMap<>();
+        response.put("quizId", quiz.getId());
+        response.put("quizName", quiz.getName());
+        response.put("maxPlayers", quiz.getMaxPlayers());
+        response.put("started", quiz.isStarted());
+        response.put("ended", quiz.isEnded());
+        response.put("playerCount", quiz.getPlayers().size());
+        response.put("currentGameId", quiz.getCurrentGameId());
 
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            if (e.getMessage().contains("New maximum players cannot be less than current player count")) {
-                return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
-            }
-            return ResponseEntity.notFound().build();
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
-        }
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -471,6 +539,10 @@ public class QuizController {
         private List<String> correctAnswers;
         private int timeLimit;
         private String roundId;
+        private String gradingMode; // optional, see GradingMode
+        private Integer maxEditDistance; // optional, FUZZY only
+        private Double numericTolerance; // optional, NUMERIC only
+        private List<String> options; // MULTIPLE_CHOICE only
 
         public String getQuestionText() {
             return questionText;
@@ -503,5 +575,37 @@ public class QuizController {
         public void setRoundId(String roundId) {
             this.roundId = roundId;
         }
+
+        public String getGradingMode() {
+            return gradingMode;
+        }
+
+        public void setGradingMode(String gradingMode) {
+            this.gradingMode = gradingMode;
+        }
+
+        public Integer getMaxEditDistance() {
+            return maxEditDistance;
+        }
+
+        public void setMaxEditDistance(Integer maxEditDistance) {
+            this.maxEditDistance = maxEditDistance;
+        }
+
+        public Double getNumericTolerance() {
+            return numericTolerance;
+        }
+
+        public void setNumericTolerance(Double numericTolerance) {
+            this.numericTolerance = numericTolerance;
+        }
+
+        public List<String> getOptions() {
+            return options;
+        }
+
+        public void setOptions(List<String> options) {
+            this.options = options;
+        }
     }
 }
@@ -0,0 +1,55 @@
+package ch.zuhlke.camp.kwiz.controller;
+
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps rejected commands to HTTP responses.
+ */
+final class RejectionResponses {
+
+    private RejectionResponses() {
+    }
+
+    /**
+     * Returns the HTTP status code for a rejection reason.
+     *
+     * @param reason the rejection reason
+     * @return the status code
+     */
+    static int httpStatus(RejectionReason reason) {
+        return switch (reason) {
+            case QUIZ_NOT_FOUND, GAME_NOT_FOUND, PLAYER_NOT_FOUND -> 404;
+            case PLAYER_NAME_REQUIRED -> 400;
+            case QUIZ_ALREADY_STARTED, QUIZ_FULL, PLAYER_NAME_TAKEN, MAX_PLAYERS_BELOW_PLAYER_COUNT,
+                 NOT_ACCEPTING_ANSWERS, QUESTION_NOT_CURRENT, ALREADY_ANSWERED, SUBMISSION_ID_CONFLICT -> 409;
+        };
+    }
+
+    /**
+     * Creates the response for a rejected command, with the message as "error" and the reason as "reason".
+     *
+     * @param result the rejected command
+     * @return the response
+     */
+    static ResponseEntity<Map<String, Object>> toResponse(CommandResult<?> result) {
+        return ResponseEntity.status(httpStatus(result.getReason())).body(toBody(result));
+    }
+
+    /**
+     * Creates the body of the response for a rejected command.
+     *
+     * @param result the rejected command
+     * @return the response body
+     */
+    static Map<String, Object> toBody(CommandResult<?> result) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", result.getMessage());
+        body.put("reason", result.getReason().name());
+        return body;
+    }
+}
@@ -2,12 +2,25 @@ package ch.zuhlke.camp.kwiz.controller;
 
 import ch.zuhlke.camp.kwiz.application.GameOrchestrationService.GameStateDTO;
 import ch.zuhlke.camp.kwiz.domain.Player;
+import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.infrastructure.AnswerTrace;
+import ch.zuhlke.camp.kwiz.infrastructure.AnswerTracer;
+import ch.zuhlke.camp.kwiz.infrastructure.FlightRecorderEvents;
+import ch.zuhlke.camp.kwiz.infrastructure.MessagingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Controller;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -17,41 +30,193 @@ import java.util.stream.Collectors;
 public class WebSocketController {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final MessagingMetrics messagingMetrics;
+
+    // Roster events waiting for the next batch flush, per quiz ID
+    private final Map<String, PendingRosterChanges> pendingRosterChanges = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
 
     public WebSocketController(SimpMessagingTemplate messagingTemplate) {
+        this(messagingTemplate, MessagingMetrics.unpublished());
+    }
+
+    @Autowired
+    public WebSocketController(SimpMessagingTemplate messagingTemplate, MessagingMetrics messagingMetrics) {
         this.messagingTemplate = messagingTemplate;
+        this.messagingMetrics = messagingMetrics;
     }
 
     /**
-     * Sends a quiz update to all clients subscribed to the quiz topic.
+     * Sends a quiz status update (player count, capacity, start state) to all clients
+     * subscribed to the quiz topic. The player roster itself is not part of this message;
+     * roster changes are sent as incremental events, see {@link #sendPlayerJoined}.
+     * Pending roster events of the quiz are flushed first, so clients never see a status
+     * that is newer than the roster they know.
      *
      * @param quizId the ID of the quiz
      * @param playerCount the current player count
      * @param maxPlayers the maximum number of players allowed
      * @param started whether the quiz has started
-     * @param players the list of players in the quiz
+     * @param gameId the ID of the game started for the quiz, or null
      */
-    public void sendQuizUpdate(String quizId, int playerCount, int maxPlayers, boolean started, List<Player> players, String gameId) {
+    public void sendQuizUpdate(String quizId, int playerCount, int maxPlayers, boolean started, String gameId) {
+        flushRosterChanges(quizId);
+
         Map<String, Object> message = new HashMap<>();
+        message.put("type", "quizStatus");
         message.put("quizId", quizId);
         message.put("playerCount", playerCount);
         message.put("maxPlayers", maxPlayers);
         message.put("started", started);
         message.put("currentGameId", gameId);
 
-        // Convert players to a list of maps with id and name
-        List<Map<String, String>> playersList = players.stream()
-                .map(player -> {
-                    Map<String, String> playerMap = new HashMap<>();
-                    playerMap.put("id", player.getId());
-                    playerMap.put("name", player.getName());
-                    return playerMap;
-                })
-                .collect(Collectors.toList());
+        send(quizUpdatesDestination(quizId), message);
+    }
+
+    /**
+     * Creates the full roster snapshot of a quiz. The snapshot is sent to a client when it
+     * subscribes to the lobby (or re-subscribes to resync after missing a roster version).
+     * The caller must hold the quiz lock, so that players and version are consistent.
+     *
+     * @param quiz the quiz
+     * @return the roster snapshot message
+     */
+    public Map<String, Object> createRosterSnapshot(Quiz quiz) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("type", "rosterSnapshot");
+        message.put("quizId", quiz.getId());
+        message.put("version", quiz.getRosterVersion());
+        message.put("playerCount", quiz.getPlayers().size());
+        message.put("maxPlayers", quiz.getMaxPlayers());
+        message.put("started", quiz.isStarted());
+        message.put("currentGameId", quiz.getCurrentGameId());
 
+        List<Map<String, String>> playersList = quiz.getPlayers().stream()
+                .map(this::toPlayerMap)
+                .collect(Collectors.toList());
         message.put("players", playersList);
+        return message;
+    }
+
+    /**
+     * Queues a "playerJoined" event for the quiz lobby. Events are not sent immediately;
+     * all events of a quiz arriving within one batch window are sent as a single frame.
+     * The caller must hold the quiz lock, so that events are queued in version order.
+     *
+     * @param quizId the ID of the quiz
+     * @param player the player who joined
+     * @param rosterVersion the roster version after the join
+     * @param playerCount the player count after the join
+     */
+    public void sendPlayerJoined(String quizId, Player player, long rosterVersion, int playerCount) {
+        queueRosterEvent(quizId, "playerJoined", player, rosterVersion, playerCount);
+    }
 
-        messagingTemplate.convertAndSend("/topic/quiz/" + quizId + "/updates", message);
+    /**
+     * Queues a "playerLeft" event for the quiz lobby, see {@link #sendPlayerJoined}.
+     *
+     * @param quizId the ID of the quiz
+     * @param player the player who left
+     * @param rosterVersion the roster version after the player left
+     * @param playerCount the player count after the player left
+     */
+    public void sendPlayerLeft(String quizId, Player player, long rosterVersion, int playerCount) {
+        queueRosterEvent(quizId, "playerLeft", player, rosterVersion, playerCount);
+    }
+
+    /**
+     * Sends all queued roster events, one frame per quiz.
+     * This method is called automatically by Spring's scheduling mechanism once per batch window.
+     */
+    @Scheduled(fixedDelayString = "${kwiz.lobby.batch-window-ms:100}")
+    public void flushRosterChanges() {
+        for (String quizId : pendingRosterChanges.keySet()) {
+            flushRosterChanges(quizId);
+        }
+    }
+
+    /**
+     * Sends the queued roster events of a single quiz as one "rosterDelta" frame.
+     * The frame contains the version range it covers, so clients can detect gaps and resync.
+     *
+     * @param quizId the ID of the quiz
+     */
+    void flushRosterChanges(String quizId) {
+        // Flushes are serialized, so frames of a quiz are always sent in version order
+        synchronized (flushLock) {
+            PendingRosterChanges pending = pendingRosterChanges.remove(quizId);
+            if (pending == null) {
+                return;
+            }
+
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "rosterDelta");
+            message.put("quizId", quizId);
+            message.put("fromVersion", pending.fromVersion);
+            message.put("version", pending.version);
+            message.put("playerCount", pending.playerCount);
+            message.put("events", pending.events);
+
+            send(quizUpdatesDestination(quizId), message);
+        }
+    }
+
+    private void queueRosterEvent(String quizId, String type, Player player, long rosterVersion, int playerCount) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", type);
+        event.put("version", rosterVersion);
+        event.put("player", toPlayerMap(player));
+
+        // compute() is atomic per key, so an event is either part of a batch that is
+        // still pending or starts a new one - it can never be added to a flushed batch
+        pendingRosterChanges.compute(quizId, (id, pending) -> {
+            if (pending == null) {
+                pending = new PendingRosterChanges(rosterVersion - 1);
+            }
+            pending.events.add(event);
+            pending.version = rosterVersion;
+            pending.playerCount = playerCount;
+            return pending;
+        });
+    }
+
+    private Map<String, String> toPlayerMap(Player player) {
+        Map<String, String> playerMap = new HashMap<>();
+        playerMap.put("id", player.getId());
+        playerMap.put("name", player.getName());
+        return playerMap;
+    }
+
+    private void send(String destination, Object message) {
+        send(destination, message, null);
+    }
+
+    private void send(String destination, Object message, AnswerTrace trace) {
+        messagingMetrics.timeSend(destination, () -> {
+            if (trace != null) {
+                messagingTemplate.convertAndSend(destination, message, AnswerTracer.messageHeaders(trace));
+            } else {
+                messagingTemplate.convertAndSend(destination, message);
+            }
+        });
+    }
+
+    private static String quizUpdatesDestination(String quizId) {
+        return "/topic/quiz/" + quizId + "/updates";
+    }
+
+    /**
+     * Roster events of one quiz that have not been sent yet.
+     */
+    private static class PendingRosterChanges {
+        private final long fromVersion;
+        private final List<Map<String, Object>> events = new ArrayList<>();
+        private long version;
+        private int playerCount;
+
+        PendingRosterChanges(long fromVersion) {
+            this.fromVersion = fromVersion;
+        }
     }
 
     /**
@@ -61,7 +226,37 @@ public class WebSocketController {
      * @param gameState the current state of the game
      */
     public void broadcastGameState(String gameId, GameStateDTO gameState) {
-        messagingTemplate.convertAndSend("/topic/game/" + gameId + "/state", gameState);
+        broadcastGameState(gameId, gameState, null);
+    }
+
+    /**
+     * Broadcasts the current game state, like {@link #broadcastGameState(String, GameStateDTO)}, and carries the
+     * trace of the answer that changed it to the sessions.
+     *
+     * @param gameId the ID of the game
+     * @param gameState the current state of the game
+     * @param trace the trace of the answer submission, or null
+     */
+    public void broadcastGameState(String gameId, GameStateDTO gameState, AnswerTrace trace) {
+        FlightRecorderEvents.GameStateBroadcast event = new FlightRecorderEvents.GameStateBroadcast();
+        event.begin();
+        send("/topic/game/" + gameId + "/state", gameState, trace);
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = gameId;
+            event.players = gameState.getPlayers().size();
+            event.payloadBytes = payloadBytes(gameState);
+            event.commit();
+        }
+    }
+
+    /**
+     * Serializes a message again to measure its size, so this is only done while a recording is running.
+     */
+    private int payloadBytes(Object message) {
+        MessageConverter converter = messagingTemplate.getMessageConverter();
+        Message<?> converted = converter != null ? converter.toMessage(message, null) : null;
+        return converted != null && converted.getPayload() instanceof byte[] payload ? payload.length : -1;
     }
 
     /**
@@ -77,7 +272,7 @@ public class WebSocketController {
         message.put("questionId", questionId);
         message.put("status", "confirmed");
 
-        messagingTemplate.convertAndSend("/topic/game/" + gameId + "/player/" + playerId + "/answer", message);
+        send("/topic/game/" + gameId + "/player/" + playerId + "/answer", message);
     }
 
     /**
@@ -95,6 +290,29 @@ public class WebSocketController {
         message.put("status", "error");
         message.put("message", errorMessage);
 
-        messagingTemplate.convertAndSend("/topic/game/" + gameId + "/player/" + playerId + "/answer", message);
+        send("/topic/game/" + gameId + "/player/" + playerId + "/answer", message);
+    }
+
+    /**
+     * Sends a latency probe to the STOMP session of a single player, which receives it on "/user/queue/latency".
+     * The client echoes the ping ID to "/app/latency/pong", which lets the server measure the round-trip time
+     * of the player's connection.
+     *
+     * @param sessionId the ID of the STOMP session of the player
+     * @param gameId the ID of the game
+     * @param pingId the ID of the ping
+     */
+    public void sendLatencyPing(String sessionId, String gameId, long pingId) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("type", "ping");
+        message.put("gameId", gameId);
+        message.put("pingId", pingId);
+
+        // Without a user principal, the session ID header addresses the single session
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingMetrics.timeSend("/user/queue/latency", () -> messagingTemplate.convertAndSendToUser(
+                sessionId, "/queue/latency", message, headers.getMessageHeaders()));
     }
 }
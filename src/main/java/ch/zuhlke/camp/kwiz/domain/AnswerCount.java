@@ -0,0 +1,59 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.Objects;
+
+/**
+ * AnswerCount is a value object that represents how many players gave one answer to a question.
+ * Answers that are equal after normalization are counted together.
+ */
+public class AnswerCount {
+    private final String answer;
+    private final int count;
+
+    /**
+     * Creates a new AnswerCount.
+     *
+     * @param answer the answer, in the spelling most players used
+     * @param count  the number of players who gave the answer
+     */
+    public AnswerCount(String answer, int count) {
+        this.answer = answer;
+        this.count = count;
+    }
+
+    /**
+     * Returns the answer, in the spelling most players used.
+     *
+     * @return the answer
+     */
+    public String getAnswer() {
+        return answer;
+    }
+
+    /**
+     * Returns the number of players who gave the answer.
+     *
+     * @return the count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AnswerCount that = (AnswerCount) o;
+        return count == that.count && Objects.equals(answer, that.answer);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(answer, count);
+    }
+
+    @Override
+    public String toString() {
+        return answer + "=" + count;
+    }
+}
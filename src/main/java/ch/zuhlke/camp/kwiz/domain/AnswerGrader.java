@@ -0,0 +1,17 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+/**
+ * Decides whether a submitted answer is correct.
+ * Graders are compiled once per question from its {@link GradingPolicy} and its correct answers,
+ * so that grading a submission does as little work as possible. Graders are immutable and thread-safe.
+ */
+public interface AnswerGrader {
+
+    /**
+     * Checks whether the given answer is correct.
+     *
+     * @param answer the submitted answer, may be null
+     * @return true if the answer is correct, false otherwise
+     */
+    boolean isCorrect(String answer);
+}
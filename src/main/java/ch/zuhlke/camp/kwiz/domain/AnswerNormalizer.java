@@ -0,0 +1,162 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Normalizes free-text answers into a canonical form, so that answers can be compared
+ * with a plain equality check or a hash lookup.
+ * <p>
+ * Normalization applies, in this order:
+ * <ol>
+ *     <li>Unicode compatibility decomposition (NFKD), so ligatures and full-width characters match their plain form</li>
+ *     <li>removal of diacritics ("Zürich" becomes "zurich")</li>
+ *     <li>Unicode case folding ("STRASSE" and "Straße" both become "strasse")</li>
+ *     <li>removal of punctuation and symbols ("U.S.A." becomes "usa"); dashes and connectors count as whitespace</li>
+ *     <li>except in numbers: a decimal point or thousands separator between digits and a sign or point
+ *     before the digits of a number are kept, so "3.14", "1,000", "-40" and ".5" keep their meaning</li>
+ *     <li>collapsing of whitespace runs into a single space and trimming</li>
+ * </ol>
+ * Pure ASCII input, which is the common case, takes a fast path that skips the Unicode
+ * decomposition and returns the input itself if it is already normalized.
+ */
+public final class AnswerNormalizer {
+
+    private AnswerNormalizer() {
+    }
+
+    /**
+     * Normalizes the given text.
+     *
+     * @param text the text to normalize, may be null
+     * @return the normalized text, or an empty string if the text is null or has no letters or digits
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return isAscii(text) ? normalizeAscii(text) : normalizeUnicode(text);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalizeAscii(String text) {
+        if (isNormalizedAscii(text)) {
+            return text;
+        }
+
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                pendingSpace = appendPendingSpace(normalized, pendingSpace);
+                normalized.append((char) (c + ('a' - 'A')));
+            } else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                pendingSpace = appendPendingSpace(normalized, pendingSpace);
+                normalized.append(c);
+            } else if (isNumericMark(text, i, previous(normalized, pendingSpace))) {
+                pendingSpace = appendPendingSpace(normalized, pendingSpace);
+                normalized.append(c);
+            } else if (isAsciiSeparator(c)) {
+                pendingSpace = true;
+            }
+            // Any other punctuation or symbol is dropped
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isNormalizedAscii(String text) {
+        char previous = ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean wordChar = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || isNumericMark(text, i, previous);
+            if (!wordChar && !(c == ' ' && previous != ' ')) {
+                return false;
+            }
+            previous = c;
+        }
+        return previous != ' ' || text.isEmpty();
+    }
+
+    private static boolean isAsciiSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B
+                || c == '-' || c == '_' || c == '/';
+    }
+
+    /**
+     * Checks whether the '.', ',' or '-' at the given index belongs to a number: it must be followed
+     * by a digit, and either follow a digit (a decimal point, thousands separator or range) or, for
+     * a point or sign, start a word.
+     *
+     * @param text the text
+     * @param index the index of the character to check
+     * @param previous the last character kept before it, or a space at the start of a word
+     * @return true if the character is kept
+     */
+    private static boolean isNumericMark(CharSequence text, int index, char previous) {
+        char c = text.charAt(index);
+        if ((c != '.' && c != ',' && c != '-') || index + 1 == text.length() || !isDigit(text.charAt(index + 1))) {
+            return false;
+        }
+        return isDigit(previous) || (previous == ' ' && c != ',');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static char previous(StringBuilder normalized, boolean pendingSpace) {
+        return pendingSpace || normalized.isEmpty() ? ' ' : normalized.charAt(normalized.length() - 1);
+    }
+
+    private static String normalizeUnicode(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); ) {
+            int codePoint = decomposed.codePointAt(i);
+            if (isNumericMark(decomposed, i, previous(normalized, pendingSpace))) {
+                pendingSpace = appendPendingSpace(normalized, pendingSpace);
+                normalized.append(decomposed.charAt(i++));
+                continue;
+            }
+            i += Character.charCount(codePoint);
+
+            switch (Character.getType(codePoint)) {
+                case Character.NON_SPACING_MARK, Character.COMBINING_SPACING_MARK, Character.ENCLOSING_MARK -> {
+                    // Diacritics are dropped
+                }
+                case Character.SPACE_SEPARATOR, Character.LINE_SEPARATOR, Character.PARAGRAPH_SEPARATOR,
+                     Character.DASH_PUNCTUATION, Character.CONNECTOR_PUNCTUATION -> pendingSpace = true;
+                default -> {
+                    if (Character.isLetterOrDigit(codePoint)) {
+                        pendingSpace = appendPendingSpace(normalized, pendingSpace);
+                        normalized.appendCodePoint(codePoint);
+                    } else if (Character.isWhitespace(codePoint)) {
+                        pendingSpace = true;
+                    }
+                    // Any other punctuation or symbol is dropped
+                }
+            }
+        }
+
+        // Upper-casing first applies the full case mappings (e.g. "ß" becomes "SS"), lower-casing then folds them
+        return normalized.toString().toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean appendPendingSpace(StringBuilder normalized, boolean pendingSpace) {
+        if (pendingSpace && !normalized.isEmpty()) {
+            normalized.append(' ');
+        }
+        return false;
+    }
+}
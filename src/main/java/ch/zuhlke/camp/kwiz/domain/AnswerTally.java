@@ -0,0 +1,100 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AnswerTally interns the answers to one question and counts them as they arrive.
+ * <p>
+ * In a pub quiz most players type one of a handful of answers. Every distinct answer text is
+ * stored once, and all submissions with that text share the same String. Texts that are equal
+ * after {@link AnswerNormalizer normalization}, like "Minecraft" and "minecraft!", are counted
+ * as one answer, so the distribution of answers is known at any time without scanning the
+ * submissions. A text is only normalized the first time it is seen.
+ * <p>
+ * The tally is not thread-safe; it is guarded by the game that owns it.
+ */
+final class AnswerTally {
+    private final Map<String, Text> texts = new HashMap<>();
+    private final Map<String, Answer> answersByNormalizedText = new HashMap<>();
+    private final List<Answer> answers = new ArrayList<>(); // in the order in which they were first given
+
+    /**
+     * Counts an answer.
+     *
+     * @param answerText the text of the answer, may be null
+     * @return the interned text, equal to the given text
+     */
+    String add(String answerText) {
+        Text text = texts.get(answerText);
+        if (text == null) {
+            Answer answer = answersByNormalizedText.computeIfAbsent(AnswerNormalizer.normalize(answerText), normalized -> {
+                Answer newAnswer = new Answer();
+                answers.add(newAnswer);
+                return newAnswer;
+            });
+            text = new Text(answerText, answer);
+            texts.put(answerText, text);
+        }
+        text.count++;
+        text.answer.count(text);
+        return text.value;
+    }
+
+    /**
+     * Returns the number of distinct answers after normalization.
+     *
+     * @return the number of distinct answers
+     */
+    int size() {
+        return answers.size();
+    }
+
+    /**
+     * Returns how many players gave each answer, the most common answer first.
+     * Answers given equally often are ordered by when they were first given.
+     *
+     * @return the answer counts
+     */
+    List<AnswerCount> distribution() {
+        List<AnswerCount> distribution = new ArrayList<>(answers.size());
+        for (Answer answer : answers) {
+            String spelling = answer.mostCommonText.value;
+            distribution.add(new AnswerCount(spelling != null ? spelling : "", answer.count));
+        }
+        // The sort is stable, so equal counts keep the order in which they were first given
+        distribution.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+        return distribution;
+    }
+
+    /**
+     * A distinct answer text.
+     */
+    private static final class Text {
+        private final String value;
+        private final Answer answer;
+        private int count;
+
+        private Text(String value, Answer answer) {
+            this.value = value;
+            this.answer = answer;
+        }
+    }
+
+    /**
+     * All texts that are equal after normalization.
+     */
+    private static final class Answer {
+        private Text mostCommonText;
+        private int count;
+
+        private void count(Text text) {
+            count++;
+            if (mostCommonText == null || text.count > mostCommonText.count) {
+                mostCommonText = text;
+            }
+        }
+    }
+}
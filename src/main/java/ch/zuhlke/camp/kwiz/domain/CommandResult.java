@@ -0,0 +1,110 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.Objects;
+
+/**
+ * The result of a command that can be rejected as part of the normal game flow.
+ * <p>
+ * Expected rejections, like an answer arriving a moment too late, happen thousands of times
+ * when many players answer at once. Returning them as a result with a {@link RejectionReason}
+ * avoids creating an exception with a stack trace for each of them, and lets callers map the
+ * reason to a precise response. Callers that prefer exceptions use {@link #orElseThrow()}.
+ *
+ * @param <T> the type of the value of an accepted command
+ */
+public final class CommandResult<T> {
+    private final T value;
+    private final RejectionReason reason;
+    private final String message;
+
+    private CommandResult(T value, RejectionReason reason, String message) {
+        this.value = value;
+        this.reason = reason;
+        this.message = message;
+    }
+
+    /**
+     * Creates the result of an accepted command.
+     *
+     * @param value the value of the command, may be null
+     * @return the result
+     */
+    public static <T> CommandResult<T> accepted(T value) {
+        return new CommandResult<>(value, null, null);
+    }
+
+    /**
+     * Creates the result of a rejected command.
+     *
+     * @param reason the reason for the rejection
+     * @param message a message describing the rejection
+     * @return the result
+     */
+    public static <T> CommandResult<T> rejected(RejectionReason reason, String message) {
+        return new CommandResult<>(null, Objects.requireNonNull(reason), message);
+    }
+
+    public boolean isAccepted() {
+        return reason == null;
+    }
+
+    /**
+     * Returns the value of an accepted command.
+     *
+     * @return the value, or null if the command was rejected
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the reason for a rejection.
+     *
+     * @return the reason, or null if the command was accepted
+     */
+    public RejectionReason getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns the message describing a rejection.
+     *
+     * @return the message, or null if the command was accepted
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the rejection of this result with another value type.
+     *
+     * @return this result
+     * @throws IllegalStateException if the command was accepted
+     */
+    @SuppressWarnings("unchecked")
+    public <U> CommandResult<U> asRejection() {
+        if (isAccepted()) {
+            throw new IllegalStateException("Command was accepted");
+        }
+        return (CommandResult<U>) this;
+    }
+
+    /**
+     * Returns the value of an accepted command, or throws the exception matching the rejection.
+     *
+     * @return the value
+     * @throws IllegalStateException if the command was rejected because of the current state
+     * @throws IllegalArgumentException if the command was rejected because of its arguments
+     */
+    public T orElseThrow() {
+        if (reason == null) {
+            return value;
+        }
+        throw reason.isStateConflict() ? new IllegalStateException(message) : new IllegalArgumentException(message);
+    }
+
+    @Override
+    public String toString() {
+        return isAccepted() ? "Accepted[" + value + "]" : "Rejected[" + reason + ": " + message + "]";
+    }
+}
@@ -0,0 +1,106 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CompactIdGenerator creates 128-bit IDs that are ordered by creation time, without locks and without drawing on
+ * {@link SecureRandom} for every ID.
+ * <p>
+ * An ID consists of
+ * <ul>
+ *     <li>48 bits: the wall clock time in milliseconds</li>
+ *     <li>16 bits: the node ID</li>
+ *     <li>20 bits: the lane of the creating thread, handed out once per thread</li>
+ *     <li>44 bits: a counter of the lane, which starts at a random value and is incremented for every ID</li>
+ * </ul>
+ * and is encoded in base62 as a fixed-length string of {@value #ID_LENGTH} characters, whose alphabetical order is
+ * the numerical order, so IDs sort by creation time across threads to the millisecond, and within a thread exactly.
+ * <p>
+ * IDs are unique: within a node, two threads only share a lane after over a million threads have been started, and
+ * a lane's counter repeats only after 2<sup>44</sup> IDs; a wall clock set back therefore only breaks the order.
+ * Nodes with different node IDs never create the same ID. Nodes with the same (e.g. random) node ID collide only if
+ * two threads create IDs in the same millisecond with the same lane and counter, which the random counter starts
+ * make unlikely.
+ */
+final class CompactIdGenerator implements IdGenerator {
+    static final int ID_LENGTH = 22;
+    static final int MAX_NODE_ID = 0xFFFF;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final int COUNTER_BITS = 44;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final int LANE_MASK = (1 << 20) - 1;
+
+    private final int nodeId;
+    private final AtomicInteger nextLane;
+    private final ThreadLocal<Lane> lanes;
+
+    CompactIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nextLane = new AtomicInteger(ThreadLocalRandom.current().nextInt());
+        this.lanes = ThreadLocal.withInitial(() -> new Lane(nextLane.getAndIncrement() & LANE_MASK,
+                ThreadLocalRandom.current().nextLong()));
+    }
+
+    static int randomNodeId() {
+        return new SecureRandom().nextInt(MAX_NODE_ID + 1);
+    }
+
+    int getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String nextId() {
+        Lane lane = lanes.get();
+        long high = System.currentTimeMillis() << 16 | nodeId;
+        long low = (long) lane.lane << COUNTER_BITS | lane.counter++ & COUNTER_MASK;
+        return encode(high, low);
+    }
+
+    /**
+     * Encodes a 128-bit number in base62, with leading zeros.
+     *
+     * @param high the upper 64 bits
+     * @param low the lower 64 bits
+     * @return the {@value #ID_LENGTH} characters
+     */
+    static String encode(long high, long low) {
+        // Divide the number, as four unsigned 32-bit digits, by 62 for every character
+        long d0 = high >>> 32;
+        long d1 = high & 0xFFFFFFFFL;
+        long d2 = low >>> 32;
+        long d3 = low & 0xFFFFFFFFL;
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            long remainder = d0 % 62;
+            d0 /= 62;
+            long dividend = remainder << 32 | d1;
+            d1 = dividend / 62;
+            dividend = dividend % 62 << 32 | d2;
+            d2 = dividend / 62;
+            dividend = dividend % 62 << 32 | d3;
+            d3 = dividend / 62;
+            chars[i] = ALPHABET[(int) (dividend % 62)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * The state of a thread, which only that thread reads and writes.
+     */
+    private static final class Lane {
+        private final int lane;
+        private long counter;
+
+        private Lane(int lane, long counter) {
+            this.lane = lane;
+            this.counter = counter;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+/**
+ * Bounded Damerau-Levenshtein distance (optimal string alignment variant).
+ * <p>
+ * Only the diagonal band of width {@code 2 * maxDistance + 1} of the dynamic programming
+ * matrix is computed, and the computation stops as soon as every cell of a row exceeds
+ * {@code maxDistance}. The cost is therefore O(length * maxDistance) in the worst case,
+ * and usually much less for answers that are clearly wrong.
+ */
+final class EditDistance {
+
+    private EditDistance() {
+    }
+
+    /**
+     * Computes the edit distance between two strings, counting insertions, deletions,
+     * substitutions and transpositions of adjacent characters as one edit each.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @param maxDistance the largest distance of interest
+     * @return the distance, or {@code maxDistance + 1} if the distance is larger than {@code maxDistance}
+     */
+    static int boundedDistance(CharSequence a, CharSequence b, int maxDistance) {
+        int lengthA = a.length();
+        int lengthB = b.length();
+        int tooFar = maxDistance + 1;
+        if (Math.abs(lengthA - lengthB) > maxDistance) {
+            return tooFar;
+        }
+        if (lengthA == 0 || lengthB == 0) {
+            return Math.max(lengthA, lengthB);
+        }
+
+        int[] beforePrevious = new int[lengthB + 1];
+        int[] previous = new int[lengthB + 1];
+        int[] current = new int[lengthB + 1];
+        for (int j = 0; j <= lengthB; j++) {
+            previous[j] = j <= maxDistance ? j : tooFar;
+        }
+
+        for (int i = 1; i <= lengthA; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(lengthB, i + maxDistance);
+
+            // Cells just outside the band count as too far
+            current[0] = i <= maxDistance ? i : tooFar;
+            current[from - 1] = from == 1 ? current[0] : tooFar;
+            int rowMinimum = current[from - 1];
+
+            char charA = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                char charB = b.charAt(j - 1);
+                int cost = charA == charB ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && charA == b.charAt(j - 2) && a.charAt(i - 2) == charB) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = Math.min(distance, tooFar);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (to < lengthB) {
+                current[to + 1] = tooFar;
+            }
+
+            // Distances never decrease from one row to the next, so stop early
+            if (rowMinimum > maxDistance) {
+                return tooFar;
+            }
+
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        return previous[lengthB];
+    }
+}
@@ -0,0 +1,41 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+/**
+ * EntityIds hands out the IDs of new entities from the configured {@link IdGenerator}.
+ * <p>
+ * Entities are created with {@code new} all over the application, so the generator is held here instead of being
+ * passed to every constructor. The application sets it once at startup, before it takes requests.
+ */
+public final class EntityIds {
+    private static volatile IdGenerator generator = IdGenerator.compact();
+
+    private EntityIds() {
+    }
+
+    /**
+     * Returns a new ID from the configured generator.
+     *
+     * @return the ID
+     */
+    public static String next() {
+        return generator.nextId();
+    }
+
+    /**
+     * Sets the generator of the IDs of new entities.
+     *
+     * @param idGenerator the generator
+     */
+    public static void setGenerator(IdGenerator idGenerator) {
+        generator = idGenerator;
+    }
+
+    /**
+     * Returns the generator of the IDs of new entities.
+     *
+     * @return the generator
+     */
+    public static IdGenerator getGenerator() {
+        return generator;
+    }
+}
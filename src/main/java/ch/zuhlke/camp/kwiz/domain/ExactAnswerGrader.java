@@ -0,0 +1,23 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Grades answers by exact equality with one of the correct answers.
+ */
+class ExactAnswerGrader implements AnswerGrader {
+    private final Set<String> correctAnswers;
+
+    ExactAnswerGrader(List<String> correctAnswers) {
+        this.correctAnswers = new HashSet<>(correctAnswers);
+        this.correctAnswers.removeIf(Objects::isNull);
+    }
+
+    @Override
+    public boolean isCorrect(String answer) {
+        return answer != null && correctAnswers.contains(answer);
+    }
+}
@@ -0,0 +1,73 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.List;
+
+/**
+ * Grades answers by their edit distance to the correct answers after normalization,
+ * so that typos such as "minecraf" or "Mine craft" for "Minecraft" are accepted.
+ * <p>
+ * A submission is first checked with an exact hash lookup, and only compared character by
+ * character with the correct answers whose length is within the allowed distance.
+ */
+class FuzzyAnswerGrader implements AnswerGrader {
+    private final NormalizedAnswerGrader exactMatches;
+    private final String[] normalizedAnswers;
+    private final int[] maxDistances;
+
+    /**
+     * @param correctAnswers the correct answers
+     * @param maxEditDistance the maximum number of edits, or a negative number to derive it from the length of each answer
+     */
+    FuzzyAnswerGrader(List<String> correctAnswers, int maxEditDistance) {
+        this.exactMatches = new NormalizedAnswerGrader(correctAnswers);
+        this.normalizedAnswers = exactMatches.getNormalizedAnswers().toArray(new String[0]);
+        this.maxDistances = new int[normalizedAnswers.length];
+        for (int i = 0; i < normalizedAnswers.length; i++) {
+            maxDistances[i] = maxEditDistance >= 0 ? maxEditDistance : defaultMaxDistance(normalizedAnswers[i].length());
+        }
+    }
+
+    /**
+     * Derives the number of allowed edits from the length of the correct answer.
+     * Short answers must match exactly, since a single edit would already accept a different word.
+     *
+     * @param length the length of the normalized correct answer
+     * @return the maximum number of edits
+     */
+    static int defaultMaxDistance(int length) {
+        if (length <= 3) {
+            return 0;
+        }
+        if (length <= 7) {
+            return 1;
+        }
+        if (length <= 14) {
+            return 2;
+        }
+        return 3;
+    }
+
+    @Override
+    public boolean isCorrect(String answer) {
+        if (answer == null) {
+            return false;
+        }
+
+        String normalized = AnswerNormalizer.normalize(answer);
+        if (exactMatches.isCorrect(answer, normalized)) {
+            return true;
+        }
+        if (normalized.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < normalizedAnswers.length; i++) {
+            int maxDistance = maxDistances[i];
+            if (maxDistance > 0
+                    && Math.abs(normalizedAnswers[i].length() - normalized.length()) <= maxDistance
+                    && EditDistance.boundedDistance(normalized, normalizedAnswers[i], maxDistance) <= maxDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
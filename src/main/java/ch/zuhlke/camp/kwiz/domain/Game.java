@@ -1,25 +1,46 @@
 package ch.zuhlke.camp.kwiz.domain;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.stream.IntStream;
 
 /**
  * Game is an aggregate root that represents a running instance of a quiz.
  * It manages the game flow and state, including the current round, current question,
  * timer, player submissions, and game status.
+ * <p>
+ * When the game starts, every player and question is assigned a dense integer slot, and the
+ * submissions are stored column by column in a {@link SubmissionLog} that refers to them by slot.
+ * {@link PlayerSubmission} objects are only created when submissions are read. The answers to the
+ * current question are interned and counted by an {@link AnswerTally}.
  */
 public class Game {
+    /**
+     * Number of submissions from which grading on close is spread over all cores.
+     */
+    static final int PARALLEL_GRADING_THRESHOLD = 2048;
+
     private final String id;
     private final String quizDefinitionId;
     private final Map<String, PlayerInGame> players;
     private final List<Round> rounds;
-    private final List<PlayerSubmission> playerSubmissions;
+    private final SubmissionLog submissions;
     private final String adminId;
+    private final boolean gradeOnClose;
+    private final GameClock clock;
+    private final Map<String, Integer> playerSlots; // assigned when the game starts
+    private final Map<String, Integer> questionSlots; // assigned when the game starts, or when a question is added later
+    private final List<String> questionIdsBySlot;
+    private final BitSet currentQuestionAnsweredPlayerSlots;
+    private final Map<String, String> playerIdsBySubmissionId; // client-supplied submission IDs of answers to the current question
+
+    private String[] playerIdsBySlot;
+    private PlayerInGame[] playersBySlot;
 
     private int currentRoundIndex;
     private int currentQuestionIndex;
@@ -27,6 +48,11 @@ public class Game {
     private boolean isAcceptingAnswers;
     private GameStatus status;
     private long currentQuestionStartTime;
+    private long currentQuestionStartNanos; // monotonic, used to measure answer times
+    private int currentQuestionSlot;
+    private AnswerTally currentQuestionAnswers;
+    private int currentQuestionFirstSubmissionIndex; // submissions of the current question are stored contiguously from here
+    private int firstUngradedSubmissionIndex; // only used when grading on close
 
     /**
      * Creates a new Game instance based on a quiz definition.
@@ -35,12 +61,47 @@ public class Game {
      * @param adminId the ID of the admin who controls this game
      */
     public Game(String quizDefinitionId, String adminId) {
-        this.id = UUID.randomUUID().toString();
+        this(quizDefinitionId, adminId, false);
+    }
+
+    /**
+     * Creates a new Game instance based on a quiz definition.
+     * If the game grades on close, answers are only recorded while a question is active,
+     * and all answers to the question are graded in one batch when it closes.
+     *
+     * @param quizDefinitionId the ID of the Quiz template/setup this game is based on
+     * @param adminId the ID of the admin who controls this game
+     * @param gradeOnClose whether answers are graded when the question closes instead of on submission
+     */
+    public Game(String quizDefinitionId, String adminId, boolean gradeOnClose) {
+        this(quizDefinitionId, adminId, gradeOnClose, GameClock.system());
+    }
+
+    /**
+     * Creates a new Game instance based on a quiz definition, measuring time with the given clock.
+     *
+     * @param quizDefinitionId the ID of the Quiz template/setup this game is based on
+     * @param adminId the ID of the admin who controls this game
+     * @param gradeOnClose whether answers are graded when the question closes instead of on submission
+     * @param clock the clock used to measure answer times
+     */
+    public Game(String quizDefinitionId, String adminId, boolean gradeOnClose, GameClock clock) {
+        this.id = EntityIds.next();
         this.quizDefinitionId = quizDefinitionId;
         this.players = new HashMap<>();
         this.rounds = new ArrayList<>();
-        this.playerSubmissions = new ArrayList<>();
+        this.submissions = new SubmissionLog();
         this.adminId = adminId;
+        this.gradeOnClose = gradeOnClose;
+        this.clock = clock;
+        this.playerSlots = new HashMap<>();
+        this.questionSlots = new HashMap<>();
+        this.questionIdsBySlot = new ArrayList<>();
+        this.currentQuestionAnsweredPlayerSlots = new BitSet();
+        this.playerIdsBySubmissionId = new HashMap<>();
+        this.playerIdsBySlot = new String[0];
+        this.playersBySlot = new PlayerInGame[0];
+        this.currentQuestionAnswers = new AnswerTally();
         this.currentRoundIndex = 0;
         this.currentQuestionIndex = 0;
         this.currentQuestionRemainingSeconds = 0;
@@ -85,12 +146,63 @@ public class Game {
     }
 
     /**
-     * Returns an unmodifiable list of player submissions in this game.
+     * Returns a copy of all player submissions in this game, in the order in which they were submitted.
      *
      * @return the player submissions list
      */
-    public List<PlayerSubmission> getPlayerSubmissions() {
-        return Collections.unmodifiableList(playerSubmissions);
+    public synchronized List<PlayerSubmission> getPlayerSubmissions() {
+        return copySubmissions(0, submissions.size());
+    }
+
+    /**
+     * Returns a copy of the submissions for the current question, in the order in which they were submitted.
+     *
+     * @return the submissions for the current question
+     */
+    public synchronized List<PlayerSubmission> getCurrentQuestionSubmissions() {
+        return copySubmissions(currentQuestionFirstSubmissionIndex, submissions.size());
+    }
+
+    /**
+     * Returns how many players gave each answer to the current question, the most common answer first.
+     * Answers that are equal after normalization are counted together. The counts are kept up to date
+     * as answers arrive, so this does not scan the submissions.
+     *
+     * @return the answer counts for the current question
+     */
+    public synchronized List<AnswerCount> getCurrentQuestionAnswerDistribution() {
+        return currentQuestionAnswers.distribution();
+    }
+
+    private List<PlayerSubmission> copySubmissions(int from, int to) {
+        List<PlayerSubmission> copy = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            copy.add(toPlayerSubmission(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Creates the value object for a stored submission. The arrival order of a submission within
+     * the game is its index in the log.
+     *
+     * @param index the index of the submission
+     * @return the submission
+     */
+    private PlayerSubmission toPlayerSubmission(int index) {
+        return new PlayerSubmission(playerIdsBySlot[submissions.getPlayerSlot(index)],
+                questionIdsBySlot.get(submissions.getQuestionSlot(index)), submissions.getAnswerText(index),
+                submissions.getSubmittedAtTimestamp(index), submissions.getAnswerTimeMicros(index), index,
+                submissions.isCorrect(index), submissions.isGraded(index));
+    }
+
+    /**
+     * Returns whether answers are graded when the question closes instead of on submission.
+     *
+     * @return true if the game grades on close, false otherwise
+     */
+    public boolean isGradeOnClose() {
+        return gradeOnClose;
     }
 
     /**
@@ -189,7 +301,7 @@ public class Game {
      * @param displayName the display name of the player
      * @throws IllegalStateException if the game is not in the LOBBY status
      */
-    public void addPlayer(String playerId, String displayName) {
+    public synchronized void addPlayer(String playerId, String displayName) {
         if (status != GameStatus.LOBBY) {
             throw new IllegalStateException("Cannot add player after game has started");
         }
@@ -207,7 +319,7 @@ public class Game {
      * @param gameRounds the rounds for this game
      * @throws IllegalStateException if the game is not in the LOBBY status or if there are no rounds
      */
-    public void startGame(List<Round> gameRounds) {
+    public synchronized void startGame(List<Round> gameRounds) {
         if (status != GameStatus.LOBBY) {
             throw new IllegalStateException("Game has already started");
         }
@@ -222,6 +334,7 @@ public class Game {
 
         this.rounds.clear();
         this.rounds.addAll(gameRounds);
+        assignSlots();
 
         // Set up the first round and question
         currentRoundIndex = 0;
@@ -231,12 +344,44 @@ public class Game {
         startCurrentQuestion();
     }
 
+    /**
+     * Assigns a slot to every player, and to every question of the rounds, in the order in which they are asked.
+     */
+    private void assignSlots() {
+        playerIdsBySlot = new String[players.size()];
+        playersBySlot = new PlayerInGame[players.size()];
+        for (PlayerInGame player : players.values()) {
+            int slot = playerSlots.size();
+            playerSlots.put(player.getPlayerId(), slot);
+            playerIdsBySlot[slot] = player.getPlayerId();
+            playersBySlot[slot] = player;
+        }
+        for (Round round : rounds) {
+            for (Question question : round.getQuestions()) {
+                questionSlot(question);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of a question, assigning the next one if the question has none yet.
+     *
+     * @param question the question
+     * @return the slot of the question
+     */
+    private int questionSlot(Question question) {
+        return questionSlots.computeIfAbsent(question.getId(), questionId -> {
+            questionIdsBySlot.add(questionId);
+            return questionIdsBySlot.size() - 1;
+        });
+    }
+
     /**
      * Sets up the current question, resets the timer, and starts accepting answers.
      *
      * @throws IllegalStateException if there is no current question
      */
-    public void startCurrentQuestion() {
+    public synchronized void startCurrentQuestion() {
         Question currentQuestion = getCurrentQuestion();
         if (currentQuestion == null) {
             throw new IllegalStateException("No current question available");
@@ -252,7 +397,16 @@ public class Game {
         status = GameStatus.QUESTION_ACTIVE;
 
         // Record the question start time
-        currentQuestionStartTime = System.currentTimeMillis();
+        currentQuestionStartTime = clock.currentTimeMillis();
+        currentQuestionStartNanos = clock.nanoTime();
+
+        // Submissions for this question are appended from here on
+        currentQuestionSlot = questionSlot(currentQuestion);
+        currentQuestionAnsweredPlayerSlots.clear();
+        playerIdsBySubmissionId.clear();
+        currentQuestionAnswers = new AnswerTally();
+        currentQuestionFirstSubmissionIndex = submissions.size();
+        firstUngradedSubmissionIndex = submissions.size();
 
         // Activate the current round if it's not already active
         Round currentRound = getCurrentRound();
@@ -271,53 +425,208 @@ public class Game {
      * @throws IllegalArgumentException if the player or question does not exist
      */
     public void acceptPlayerAnswer(String playerId, String questionId, String answerText) {
+        acceptPlayerAnswer(playerId, questionId, answerText, -1, 0);
+    }
+
+    /**
+     * Accepts a player's answer for the current question, compensating for network latency.
+     * <p>
+     * The answer time measured by the server includes the time it took the question to reach
+     * the player and the answer to reach the server. The answer time reported by the client
+     * excludes both, but cannot be trusted blindly, so it is only accepted within
+     * {@code maxCompensationMicros} below the measured answer time, and never above it.
+     *
+     * @param playerId the ID of the player submitting the answer
+     * @param questionId the ID of the question being answered
+     * @param answerText the text of the answer
+     * @param clientAnswerTimeMicros the answer time measured by the client in microseconds, or a negative number if unknown
+     * @param maxCompensationMicros the largest accepted difference between the measured and the reported answer time,
+     *                              usually the round-trip time of the player's connection plus some slack
+     * @throws IllegalStateException if the game is not accepting answers
+     * @throws IllegalArgumentException if the player or question does not exist
+     */
+    public void acceptPlayerAnswer(String playerId, String questionId, String answerText,
+                                   long clientAnswerTimeMicros, long maxCompensationMicros) {
+        acceptPlayerAnswer(null, playerId, questionId, answerText, clientAnswerTimeMicros, maxCompensationMicros);
+    }
+
+    /**
+     * Accepts a player's answer for the current question at most once per submission ID.
+     * <p>
+     * Clients that retry a submission (e.g. after a reconnect) send the same submission ID again.
+     * A retry of an answer that has already been accepted is ignored while the question is active,
+     * so the client can treat it as a success. Submission IDs are only kept for the current question,
+     * so a retry after the question has closed is rejected like any other late answer.
+     *
+     * @param submissionId the ID the client assigned to this submission, or null if the submission is not retried
+     * @param playerId the ID of the player submitting the answer
+     * @param questionId the ID of the question being answered
+     * @param answerText the text of the answer
+     * @param clientAnswerTimeMicros the answer time measured by the client in microseconds, or a negative number if unknown
+     * @param maxCompensationMicros the largest accepted difference between the measured and the reported answer time
+     * @return true if the answer was accepted, false if this submission had already been accepted before
+     * @throws IllegalStateException if the game is not accepting answers
+     * @throws IllegalArgumentException if the player or question does not exist, or the submission ID belongs to another player
+     */
+    public boolean acceptPlayerAnswer(String submissionId, String playerId, String questionId, String answerText,
+                                      long clientAnswerTimeMicros, long maxCompensationMicros) {
+        return tryAcceptPlayerAnswer(submissionId, playerId, questionId, answerText, clientAnswerTimeMicros, maxCompensationMicros)
+                .orElseThrow();
+    }
+
+    /**
+     * Accepts a player's answer for the current question at most once per submission ID, like
+     * {@link #acceptPlayerAnswer(String, String, String, String, long, long)}, but reports a
+     * rejected answer as a result instead of throwing an exception.
+     *
+     * @param submissionId the ID the client assigned to this submission, or null if the submission is not retried
+     * @param playerId the ID of the player submitting the answer
+     * @param questionId the ID of the question being answered
+     * @param answerText the text of the answer
+     * @param clientAnswerTimeMicros the answer time measured by the client in microseconds, or a negative number if unknown
+     * @param maxCompensationMicros the largest accepted difference between the measured and the reported answer time
+     * @return the result, with the value true if the answer was accepted, or false if this submission had already been accepted before
+     */
+    public synchronized CommandResult<Boolean> tryAcceptPlayerAnswer(String submissionId, String playerId, String questionId,
+                                                                     String answerText, long clientAnswerTimeMicros,
+                                                                     long maxCompensationMicros) {
         if (!isAcceptingAnswers) {
-            throw new IllegalStateException("Game is not currently accepting answers");
+            return CommandResult.rejected(RejectionReason.NOT_ACCEPTING_ANSWERS, "Game is not currently accepting answers");
+        }
+
+        String submittingPlayerId = submissionId != null ? playerIdsBySubmissionId.get(submissionId) : null;
+        if (submittingPlayerId != null) {
+            if (!submittingPlayerId.equals(playerId)) {
+                return CommandResult.rejected(RejectionReason.SUBMISSION_ID_CONFLICT,
+                        "Submission with ID " + submissionId + " belongs to another player");
+            }
+            return CommandResult.accepted(false);
         }
 
-        if (!players.containsKey(playerId)) {
-            throw new IllegalArgumentException("Player with ID " + playerId + " does not exist in this game");
+        Integer playerSlot = playerSlots.get(playerId);
+        if (playerSlot == null) {
+            return CommandResult.rejected(RejectionReason.PLAYER_NOT_FOUND,
+                    "Player with ID " + playerId + " does not exist in this game");
         }
 
         Question currentQuestion = getCurrentQuestion();
         if (currentQuestion == null || !currentQuestion.getId().equals(questionId)) {
-            throw new IllegalArgumentException("Question with ID " + questionId + " is not the current question");
+            return CommandResult.rejected(RejectionReason.QUESTION_NOT_CURRENT,
+                    "Question with ID " + questionId + " is not the current question");
         }
 
         // Check if the player has already submitted an answer for this question
-        boolean hasAlreadySubmitted = playerSubmissions.stream()
-                .anyMatch(submission -> submission.getPlayerId().equals(playerId) && 
-                         submission.getQuestionId().equals(questionId));
+        if (currentQuestionAnsweredPlayerSlots.get(playerSlot)) {
+            return CommandResult.rejected(RejectionReason.ALREADY_ANSWERED,
+                    "Player has already submitted an answer for this question");
+        }
+        currentQuestionAnsweredPlayerSlots.set(playerSlot);
+        if (submissionId != null) {
+            playerIdsBySubmissionId.put(submissionId, playerId);
+        }
+
+        // Measure the answer time on the monotonic clock, and derive the wall clock timestamp from it,
+        // so that both stay consistent even if the wall clock jumps during the question
+        long measuredAnswerTimeMicros = Math.max(0, (clock.nanoTime() - currentQuestionStartNanos) / 1_000);
+        long submittedAtTimestamp = currentQuestionStartTime + measuredAnswerTimeMicros / 1_000;
+        long answerTimeMicros = compensateLatency(measuredAnswerTimeMicros, clientAnswerTimeMicros, maxCompensationMicros);
+
+        // Identical answers share one String, and every answer is counted for the answer distribution
+        String internedAnswerText = currentQuestionAnswers.add(answerText);
 
-        if (hasAlreadySubmitted) {
-            throw new IllegalStateException("Player has already submitted an answer for this question");
+        // When grading on close, only record the answer; it is graded when the question closes
+        if (gradeOnClose) {
+            submissions.add(playerSlot, currentQuestionSlot, submittedAtTimestamp, answerTimeMicros,
+                    internedAnswerText, false, false);
+            return CommandResult.accepted(true);
         }
 
         // Check if the answer is correct
-        boolean isCorrect = currentQuestion.isCorrectAnswer(answerText);
+        boolean isCorrect = currentQuestion.isCorrectAnswer(internedAnswerText);
 
-        // Create a new submission
-        PlayerSubmission submission = new PlayerSubmission(playerId, questionId, answerText, isCorrect);
-        playerSubmissions.add(submission);
+        // Record the submission
+        submissions.add(playerSlot, currentQuestionSlot, submittedAtTimestamp, answerTimeMicros,
+                internedAnswerText, true, isCorrect);
 
         // If the answer is correct, calculate and add points to the player's score
         if (isCorrect) {
-            PlayerInGame player = players.get(playerId);
+            awardPoints(playerSlot, answerTimeMicros);
+        }
+        return CommandResult.accepted(true);
+    }
+
+    /**
+     * Bounds the answer time reported by a client by the answer time measured by the server.
+     *
+     * @param measuredAnswerTimeMicros the answer time measured by the server
+     * @param clientAnswerTimeMicros the answer time reported by the client, or a negative number if unknown
+     * @param maxCompensationMicros the largest accepted difference between both
+     * @return the answer time to score with
+     */
+    static long compensateLatency(long measuredAnswerTimeMicros, long clientAnswerTimeMicros, long maxCompensationMicros) {
+        if (clientAnswerTimeMicros < 0 || maxCompensationMicros <= 0) {
+            return measuredAnswerTimeMicros;
+        }
+        long earliest = Math.max(0, measuredAnswerTimeMicros - maxCompensationMicros);
+        return Math.min(measuredAnswerTimeMicros, Math.max(earliest, clientAnswerTimeMicros));
+    }
+
+    /**
+     * Adds the points for a correct submission to the player's score.
+     *
+     * @param playerSlot the slot of the player who submitted the answer
+     * @param answerTimeMicros the answer time of the submission
+     */
+    private void awardPoints(int playerSlot, long answerTimeMicros) {
+        PlayerInGame player = playersBySlot[playerSlot];
+
+        // Calculate points based on answer time
+        int points = calculatePoints(answerTimeMicros);
+
+        player.addPoints(points);
+    }
+
+    /**
+     * Grades all ungraded submissions for the current question in one batch and updates the scores.
+     * The answers are first checked in a tight loop over the batch, which is spread over all cores
+     * for very large games; the submissions and scores are then updated in a single pass.
+     * Does nothing unless the game grades on close.
+     */
+    private void gradePendingSubmissions() {
+        int from = firstUngradedSubmissionIndex;
+        int to = submissions.size();
+        if (!gradeOnClose || from >= to) {
+            return;
+        }
 
-            // Calculate points based on answer time
-            // Max points is 100, and 1 point is deducted per microsecond
-            long answerTimeMs = submission.getSubmittedAtTimestamp() - currentQuestionStartTime;
-            int points = calculatePoints(answerTimeMs);
+        Question currentQuestion = getCurrentQuestion();
+        String[] answers = new String[to - from];
+        for (int i = 0; i < answers.length; i++) {
+            answers[i] = submissions.getAnswerText(from + i);
+        }
 
-            player.addPoints(points);
+        // Graders are immutable, so the answers can be checked in parallel
+        boolean[] correct = new boolean[answers.length];
+        IntStream indexes = IntStream.range(0, answers.length);
+        if (answers.length >= PARALLEL_GRADING_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> correct[i] = currentQuestion.isCorrectAnswer(answers[i]));
+
+        for (int i = 0; i < answers.length; i++) {
+            submissions.grade(from + i, correct[i]);
+            if (correct[i]) {
+                awardPoints(submissions.getPlayerSlot(from + i), submissions.getAnswerTimeMicros(from + i));
+            }
         }
+        firstUngradedSubmissionIndex = to;
     }
 
     /**
      * Decrements the question timer by one second.
      * If the timer reaches 0, stops accepting answers and updates the game status.
      */
-    public void decrementQuestionTimer() {
+    public synchronized void decrementQuestionTimer() {
         if (status != GameStatus.QUESTION_ACTIVE) {
             return; // Only decrement if a question is active
         }
@@ -329,6 +638,7 @@ public class Game {
             if (currentQuestionRemainingSeconds == 0) {
                 isAcceptingAnswers = false;
                 status = GameStatus.QUESTION_CLOSED;
+                gradePendingSubmissions();
             }
         }
     }
@@ -340,7 +650,7 @@ public class Game {
      * @throws IllegalArgumentException if the adminId does not match the game's adminId
      * @throws IllegalStateException if the game is not in the QUESTION_ACTIVE status
      */
-    public void adminCloseCurrentQuestion(String adminId) {
+    public synchronized void adminCloseCurrentQuestion(String adminId) {
         if (!this.adminId.equals(adminId)) {
             throw new IllegalArgumentException("Only the game admin can close the current question");
         }
@@ -351,6 +661,7 @@ public class Game {
 
         isAcceptingAnswers = false;
         status = GameStatus.QUESTION_CLOSED;
+        gradePendingSubmissions();
     }
 
     /**
@@ -362,7 +673,7 @@ public class Game {
      * @throws IllegalArgumentException if the adminId does not match the game's adminId
      * @throws IllegalStateException if the game is not in the QUESTION_CLOSED status
      */
-    public void adminProceedToNextQuestion(String adminId) {
+    public synchronized void adminProceedToNextQuestion(String adminId) {
         if (!this.adminId.equals(adminId)) {
             throw new IllegalArgumentException("Only the game admin can proceed to the next question");
         }
@@ -411,7 +722,7 @@ public class Game {
      * @throws IllegalArgumentException if the adminId does not match the game's adminId
      * @throws IllegalStateException if the game is not in the ROUND_COMPLETED status
      */
-    public void adminStartNextRound(String adminId) {
+    public synchronized void adminStartNextRound(String adminId) {
         if (!this.adminId.equals(adminId)) {
             throw new IllegalArgumentException("Only the game admin can start the next round");
         }
@@ -443,15 +754,15 @@ public class Game {
      * Maximum points (100) are awarded when answering immediately.
      * Minimum points (1) are awarded when answering at the last moment.
      * 
-     * @param answerTimeMs the time taken to answer in milliseconds
+     * @param answerTimeMicros the time taken to answer in microseconds
      * @return the calculated points (minimum 1 if correct)
      */
-    private int calculatePoints(long answerTimeMs) {
-        // Get the total time available for the current question in milliseconds
-        int totalTimeMs = getCurrentQuestion().getTimeLimit() * 1000;
+    private int calculatePoints(long answerTimeMicros) {
+        // Get the total time available for the current question in microseconds
+        long totalTimeMicros = getCurrentQuestion().getTimeLimit() * 1_000_000L;
 
         // Calculate the percentage of time left
-        double percentageTimeLeft = 1.0 - ((double) answerTimeMs / totalTimeMs);
+        double percentageTimeLeft = 1.0 - ((double) answerTimeMicros / totalTimeMicros);
 
         // Calculate points based on percentage of time left (0-100 scale)
         int points = (int) Math.round(percentageTimeLeft * 100);
@@ -0,0 +1,35 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+/**
+ * Source of time for games.
+ * <p>
+ * Answer latencies are measured with the monotonic {@link #nanoTime()}, which cannot jump when the
+ * wall clock is adjusted (e.g. by NTP). The wall clock is only used to timestamp events for display.
+ * Use {@link #system()} in production and {@link ManualGameClock} in tests and benchmarks.
+ */
+public interface GameClock {
+
+    /**
+     * Returns the current value of a monotonic clock in nanoseconds.
+     * Only differences between two values are meaningful.
+     *
+     * @return the monotonic time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Returns the current wall clock time.
+     *
+     * @return the time in milliseconds since epoch
+     */
+    long currentTimeMillis();
+
+    /**
+     * Returns the clock backed by {@link System#nanoTime()} and {@link System#currentTimeMillis()}.
+     *
+     * @return the system clock
+     */
+    static GameClock system() {
+        return SystemGameClock.INSTANCE;
+    }
+}
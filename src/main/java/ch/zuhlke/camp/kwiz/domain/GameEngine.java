@@ -2,6 +2,7 @@ package ch.zuhlke.camp.kwiz.domain;
 
 import ch.zuhlke.camp.kwiz.application.GameOrchestrationService;
 import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -21,11 +22,25 @@ public class GameEngine {
     private final Map<String, Quiz> quizzes;
     private final WebSocketController webSocketController;
     private final GameOrchestrationService gameOrchestrationService;
+    private final GameEngineObserver observer;
 
     public GameEngine(WebSocketController webSocketController, GameOrchestrationService gameOrchestrationService) {
+        this(webSocketController, gameOrchestrationService, GameEngineObserver.none());
+    }
+
+    /**
+     * Creates the game engine.
+     *
+     * @param observer the observer of the quizzes and joins, e.g. to publish metrics
+     */
+    @Autowired
+    public GameEngine(WebSocketController webSocketController, GameOrchestrationService gameOrchestrationService,
+                      GameEngineObserver observer) {
         this.gameOrchestrationService = gameOrchestrationService;
         this.quizzes = new ConcurrentHashMap<>();
         this.webSocketController = webSocketController;
+        this.observer = observer;
+        observer.quizzesRegistered(quizzes::values);
     }
 
     /**
@@ -72,26 +87,72 @@ public class GameEngine {
      * @throws IllegalStateException    if the quiz has already started
      */
     public Player addPlayerToQuiz(String quizId, String playerName) {
+        return tryAddPlayerToQuiz(quizId, playerName).orElseThrow();
+    }
+
+    /**
+     * Adds a player to a quiz, like {@link #addPlayerToQuiz(String, String)}, but reports a
+     * rejected join as a result instead of throwing an exception.
+     *
+     * @param quizId the ID of the quiz to add the player to
+     * @param playerName the name of the player
+     * @return the result, with the added player as value
+     */
+    public CommandResult<Player> tryAddPlayerToQuiz(String quizId, String playerName) {
+        GameEngineObserver.JoinObservation observation = observer.joinStarted(quizId);
+        CommandResult<Player> result = addPlayer(quizId, playerName);
+        observation.joinEnded(result, getQuizById(quizId));
+        return result;
+    }
+
+    private CommandResult<Player> addPlayer(String quizId, String playerName) {
         Quiz quiz = getQuizById(quizId);
         if (quiz == null) {
-            throw new IllegalArgumentException("No quiz found with ID: " + quizId);
+            return CommandResult.rejected(RejectionReason.QUIZ_NOT_FOUND, "No quiz found with ID: " + quizId);
         }
 
         if (quiz.isStarted()) {
-            throw new IllegalStateException("Cannot add player to a quiz that has already started");
+            return CommandResult.rejected(RejectionReason.QUIZ_ALREADY_STARTED,
+                    "Cannot add player to a quiz that has already started");
         }
 
         if (playerName == null || playerName.trim().isEmpty()) {
-            throw new IllegalArgumentException("Player name cannot be empty");
+            return CommandResult.rejected(RejectionReason.PLAYER_NAME_REQUIRED, "Player name cannot be empty");
         }
 
         Player player = new Player(playerName);
-        quiz.addPlayer(player);
 
-        // Send WebSocket message with updated quiz information
-        webSocketController.sendQuizUpdate(quizId, quiz.getPlayers().size(), quiz.getMaxPlayers(), quiz.isStarted(), quiz.getPlayers(), quiz.getCurrentGameId());
+        // Queue the join event while holding the quiz lock, so events are queued in roster version order
+        synchronized (quiz) {
+            CommandResult<Player> result = quiz.tryAddPlayer(player);
+            if (result.isAccepted()) {
+                webSocketController.sendPlayerJoined(quizId, player, quiz.getRosterVersion(), quiz.getPlayers().size());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Removes a player from a quiz.
+     *
+     * @param quizId   the ID of the quiz to remove the player from
+     * @param playerId the ID of the player to remove
+     * @return the removed player
+     * @throws IllegalArgumentException if no quiz with the given ID exists, or no player with the given ID exists
+     * @throws IllegalStateException    if the quiz has already started
+     */
+    public Player removePlayerFromQuiz(String quizId, String playerId) {
+        Quiz quiz = getQuizById(quizId);
+        if (quiz == null) {
+            throw new IllegalArgumentException("No quiz found with ID: " + quizId);
+        }
 
-        return player;
+        // Queue the leave event while holding the quiz lock, so events are queued in roster version order
+        synchronized (quiz) {
+            Player player = quiz.removePlayer(playerId);
+            webSocketController.sendPlayerLeft(quizId, player, quiz.getRosterVersion(), quiz.getPlayers().size());
+            return player;
+        }
     }
 
     /**
@@ -110,7 +171,7 @@ public class GameEngine {
         quiz.start();
 
         // Send WebSocket message with updated quiz information
-        webSocketController.sendQuizUpdate(quizId, quiz.getPlayers().size(), quiz.getMaxPlayers(), quiz.isStarted(), quiz.getPlayers(), quiz.getCurrentGameId());
+        webSocketController.sendQuizUpdate(quizId, quiz.getPlayers().size(), quiz.getMaxPlayers(), quiz.isStarted(), quiz.getCurrentGameId());
     }
 
     /**
@@ -165,21 +226,37 @@ public class GameEngine {
      * @throws IllegalStateException    if the round is active or completed
      */
     public Question addQuestionToRound(String quizId, String roundId, String questionText, List<String> correctAnswers, int timeLimit) {
+        return addQuestionToRound(quizId, roundId, questionText, correctAnswers, timeLimit, GradingPolicy.normalized());
+    }
+
+    /**
+     * Adds a question to a round, graded with the given policy.
+     *
+     * @param quizId       the ID of the quiz containing the round
+     * @param roundId      the ID of the round to add the question to
+     * @param questionText the text of the question
+     * @param correctAnswers the list of correct answers
+     * @param timeLimit    the time limit for the question in seconds
+     * @param gradingPolicy the policy used to grade the answers
+     * @return the created question
+     * @throws IllegalArgumentException if no quiz with the given ID exists, no round with the given ID exists,
+     *                                  or the correct answers do not fit the grading policy
+     * @throws IllegalStateException    if the round is active or completed
+     */
+    public Question addQuestionToRound(String quizId, String roundId, String questionText, List<String> correctAnswers, int timeLimit, GradingPolicy gradingPolicy) {
         Quiz quiz = getQuizById(quizId);
         if (quiz == null) {
             throw new IllegalArgumentException("No quiz found with ID: " + quizId);
         }
 
-        Round round = quiz.getRounds().stream()
-                .filter(r -> r.getId().equals(roundId))
-                .findFirst()
+        Round round = quiz.findRoundById(roundId)
                 .orElseThrow(() -> new IllegalArgumentException("No round found with ID: " + roundId));
 
         if (round.isActive() || round.isCompleted()) {
             throw new IllegalStateException("Cannot add question to an active or completed round");
         }
 
-        Question question = new Question(questionText, correctAnswers, timeLimit);
+        Question question = new Question(questionText, correctAnswers, timeLimit, null, gradingPolicy);
         round.addQuestion(question);
         return question;
     }
@@ -204,16 +281,11 @@ public class GameEngine {
             throw new IllegalStateException("Cannot submit answer to a quiz that has not started or has ended");
         }
 
-        Player player = quiz.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
+        Player player = quiz.findPlayerById(playerId)
                 .orElseThrow(() -> new IllegalArgumentException("No player found with ID: " + playerId));
 
         // Find the question to check if the answer is correct
-        Question question = quiz.getRounds().stream()
-                .flatMap(round -> round.getQuestions().stream())
-                .filter(q -> q.getId().equals(questionId))
-                .findFirst()
+        Question question = quiz.findQuestionById(questionId)
                 .orElseThrow(() -> new IllegalArgumentException("No question found with ID: " + questionId));
 
         player.submitAnswer(questionId, answerText);
@@ -241,6 +313,27 @@ public class GameEngine {
      * @throws IllegalStateException if the quiz has already started
      */
     public Question submitParticipantQuestion(String quizId, String playerId, String roundId, String questionText, List<String> correctAnswers, int timeLimit) {
+        return submitParticipantQuestion(quizId, playerId, roundId, questionText, correctAnswers, timeLimit, GradingPolicy.normalized());
+    }
+
+    /**
+     * Allows a participant to submit a question to a quiz, graded with the given policy.
+     * The question will be added to the specified round.
+     * This is only allowed if the quiz has not started yet.
+     *
+     * @param quizId the ID of the quiz to add the question to
+     * @param playerId the ID of the player submitting the question
+     * @param roundId the ID of the round to add the question to
+     * @param questionText the text of the question
+     * @param correctAnswers the list of correct answers
+     * @param timeLimit the time limit for the question in seconds
+     * @param gradingPolicy the policy used to grade the answers
+     * @return the created question
+     * @throws IllegalArgumentException if no quiz with the given ID exists, no player with the given ID exists, no round with the given ID exists,
+     *                                  or the correct answers do not fit the grading policy
+     * @throws IllegalStateException if the quiz has already started
+     */
+    public Question submitParticipantQuestion(String quizId, String playerId, String roundId, String questionText, List<String> correctAnswers, int timeLimit, GradingPolicy gradingPolicy) {
         Quiz quiz = getQuizById(quizId);
         if (quiz == null) {
             throw new IllegalArgumentException("No quiz found with ID: " + quizId);
@@ -250,19 +343,15 @@ public class GameEngine {
             throw new IllegalStateException("Cannot submit questions after the quiz has started");
         }
 
-        Player player = quiz.getPlayers().stream()
-                .filter(p -> p.getId().equals(playerId))
-                .findFirst()
+        Player player = quiz.findPlayerById(playerId)
                 .orElseThrow(() -> new IllegalArgumentException("No player found with ID: " + playerId));
 
         // Find the specified round
-        Round round = quiz.getRounds().stream()
-                .filter(r -> r.getId().equals(roundId))
-                .findFirst()
+        Round round = quiz.findRoundById(roundId)
                 .orElseThrow(() -> new IllegalArgumentException("No round found with ID: " + roundId));
 
         // Add the question to the round with the player ID as the submitter
-        Question question = new Question(questionText, correctAnswers, timeLimit, playerId);
+        Question question = new Question(questionText, correctAnswers, timeLimit, playerId, gradingPolicy);
         round.addQuestion(question);
         return question;
     }
@@ -305,44 +394,33 @@ public class GameEngine {
      * @throws IllegalArgumentException if the new maximum is less than the current number of players
      */
     public Quiz updateMaxPlayers(String quizId, int maxPlayers) {
+        return tryUpdateMaxPlayers(quizId, maxPlayers).orElseThrow();
+    }
+
+    /**
+     * Updates the maximum number of players allowed in a quiz, like {@link #updateMaxPlayers(String, int)},
+     * but reports a rejected update as a result instead of throwing an exception.
+     *
+     * @param quizId the ID of the quiz to update
+     * @param maxPlayers the new maximum number of players
+     * @return the result, with the updated quiz as value
+     */
+    public CommandResult<Quiz> tryUpdateMaxPlayers(String quizId, int maxPlayers) {
         Quiz quiz = getQuizById(quizId);
         if (quiz == null) {
-            throw new IllegalArgumentException("No quiz found with ID: " + quizId);
-        }
-
-        if (quiz.isStarted()) {
-            throw new IllegalStateException("Cannot update maximum players after quiz has started");
+            return CommandResult.rejected(RejectionReason.QUIZ_NOT_FOUND, "No quiz found with ID: " + quizId);
         }
 
-        if (maxPlayers < quiz.getPlayers().size()) {
-            throw new IllegalArgumentException("New maximum players cannot be less than current player count");
+        // Update the capacity in place; the quiz checks it atomically against concurrent joins
+        CommandResult<Integer> result = quiz.tryUpdateMaxPlayers(maxPlayers);
+        if (!result.isAccepted()) {
+            return result.asRejection();
         }
 
-        // Create a new quiz with the updated maxPlayers, without adding default player and round
-        Quiz updatedQuiz = new Quiz(quiz.getId(), quiz.getName(), maxPlayers, false);
-
-        // Copy over the existing players
-        for (Player player : quiz.getPlayers()) {
-            updatedQuiz.addPlayer(player);
-        }
-
-        // Copy over the existing rounds
-        for (Round round : quiz.getRounds()) {
-            updatedQuiz.addRound(round);
-        }
-
-        // Copy over the current game ID if it exists
-        if (quiz.getCurrentGameId() != null) {
-            updatedQuiz.setCurrentGameId(quiz.getCurrentGameId());
-        }
-
-        // Replace the old quiz in the map
-        quizzes.put(quizId, updatedQuiz);
-
         // Send WebSocket message with updated quiz information
-        webSocketController.sendQuizUpdate(quizId, updatedQuiz.getPlayers().size(), updatedQuiz.getMaxPlayers(), updatedQuiz.isStarted(), updatedQuiz.getPlayers(), updatedQuiz.getCurrentGameId());
+        webSocketController.sendQuizUpdate(quizId, quiz.getPlayers().size(), quiz.getMaxPlayers(), quiz.isStarted(), quiz.getCurrentGameId());
 
-        return updatedQuiz;
+        return CommandResult.accepted(quiz);
     }
 
     /**
@@ -360,9 +438,7 @@ public class GameEngine {
         }
 
         // Verify the player exists in the quiz
-        boolean playerExists = quiz.getPlayers().stream()
-                .anyMatch(p -> p.getId().equals(playerId));
-        if (!playerExists) {
+        if (quiz.findPlayerById(playerId).isEmpty()) {
             throw new IllegalArgumentException("No player found with ID: " + playerId);
         }
 
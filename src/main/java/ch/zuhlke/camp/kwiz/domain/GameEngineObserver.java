@@ -0,0 +1,59 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Observer of the {@link GameEngine}, which is told about the quizzes of the engine and the players joining them.
+ * <p>
+ * The application implements it to publish metrics and diagnostic events, so the domain does not depend on them.
+ */
+public interface GameEngineObserver {
+
+    /**
+     * Returns an observer that ignores everything.
+     *
+     * @return the observer
+     */
+    static GameEngineObserver none() {
+        return new GameEngineObserver() {
+            @Override
+            public void quizzesRegistered(Supplier<Collection<Quiz>> quizzes) {
+            }
+
+            @Override
+            public JoinObservation joinStarted(String quizId) {
+                return (result, quiz) -> { };
+            }
+        };
+    }
+
+    /**
+     * Called once when the game engine is created.
+     *
+     * @param quizzes supplies all quizzes of the engine
+     */
+    void quizzesRegistered(Supplier<Collection<Quiz>> quizzes);
+
+    /**
+     * Called when a player starts to join a quiz.
+     *
+     * @param quizId the ID of the quiz
+     * @return the observation of the join, which is ended once the join has been accepted or rejected
+     */
+    JoinObservation joinStarted(String quizId);
+
+    /**
+     * Observation of one join.
+     */
+    interface JoinObservation {
+
+        /**
+         * Called when the join has been accepted or rejected.
+         *
+         * @param result the result of the join
+         * @param quiz the quiz, or null if it does not exist
+         */
+        void joinEnded(CommandResult<Player> result, Quiz quiz);
+    }
+}
@@ -0,0 +1,32 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+/**
+ * The ways in which a submitted answer can be compared with the correct answers of a question.
+ */
+public enum GradingMode {
+    /**
+     * The answer must equal one of the correct answers exactly, including case and whitespace.
+     */
+    EXACT,
+
+    /**
+     * The answer must equal one of the correct answers after normalization with {@link AnswerNormalizer}.
+     */
+    NORMALIZED,
+
+    /**
+     * The answer may differ from one of the correct answers by a small number of typos
+     * (insertions, deletions, substitutions or swaps of adjacent characters) after normalization.
+     */
+    FUZZY,
+
+    /**
+     * The answer must be a number within a tolerance of one of the correct answers.
+     */
+    NUMERIC,
+
+    /**
+     * The answer must pick one of the correct options, either by its text or by its letter or number.
+     */
+    MULTIPLE_CHOICE
+}
@@ -0,0 +1,177 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * GradingPolicy is a value object that describes how the answers to a question are graded.
+ * It is compiled into an {@link AnswerGrader} together with the correct answers of the question.
+ */
+public final class GradingPolicy {
+    private static final GradingPolicy EXACT = new GradingPolicy(GradingMode.EXACT, -1, 0, Collections.emptyList());
+    private static final GradingPolicy NORMALIZED = new GradingPolicy(GradingMode.NORMALIZED, -1, 0, Collections.emptyList());
+
+    private final GradingMode mode;
+    private final int maxEditDistance; // FUZZY only, negative to derive it from the answer length
+    private final double numericTolerance; // NUMERIC only
+    private final List<String> options; // MULTIPLE_CHOICE only
+
+    private GradingPolicy(GradingMode mode, int maxEditDistance, double numericTolerance, List<String> options) {
+        this.mode = mode;
+        this.maxEditDistance = maxEditDistance;
+        this.numericTolerance = numericTolerance;
+        this.options = Collections.unmodifiableList(new ArrayList<>(options));
+    }
+
+    /**
+     * Answers must match a correct answer exactly.
+     */
+    public static GradingPolicy exact() {
+        return EXACT;
+    }
+
+    /**
+     * Answers must match a correct answer ignoring case, whitespace, punctuation and diacritics.
+     * This is the default policy.
+     */
+    public static GradingPolicy normalized() {
+        return NORMALIZED;
+    }
+
+    /**
+     * Answers may contain typos; the number of allowed edits grows with the length of the correct answer.
+     */
+    public static GradingPolicy fuzzy() {
+        return new GradingPolicy(GradingMode.FUZZY, -1, 0, Collections.emptyList());
+    }
+
+    /**
+     * Answers may differ from a correct answer by at most the given number of edits.
+     *
+     * @param maxEditDistance the maximum number of edits
+     * @throws IllegalArgumentException if the maximum number of edits is negative
+     */
+    public static GradingPolicy fuzzy(int maxEditDistance) {
+        if (maxEditDistance < 0) {
+            throw new IllegalArgumentException("Maximum edit distance must not be negative");
+        }
+        return new GradingPolicy(GradingMode.FUZZY, maxEditDistance, 0, Collections.emptyList());
+    }
+
+    /**
+     * Answers must be numbers within the given tolerance of a correct answer.
+     *
+     * @param tolerance the largest accepted absolute difference
+     * @throws IllegalArgumentException if the tolerance is negative
+     */
+    public static GradingPolicy numeric(double tolerance) {
+        if (tolerance < 0 || Double.isNaN(tolerance)) {
+            throw new IllegalArgumentException("Numeric tolerance must not be negative");
+        }
+        return new GradingPolicy(GradingMode.NUMERIC, -1, tolerance, Collections.emptyList());
+    }
+
+    /**
+     * Answers must pick one of the correct options by text, letter or position.
+     *
+     * @param options all options, in the order in which they are shown
+     * @throws IllegalArgumentException if there are no options
+     */
+    public static GradingPolicy multipleChoice(List<String> options) {
+        if (options == null || options.isEmpty()) {
+            throw new IllegalArgumentException("Multiple-choice questions need at least one option");
+        }
+        return new GradingPolicy(GradingMode.MULTIPLE_CHOICE, -1, 0, options);
+    }
+
+    /**
+     * Creates a policy from its individual settings, e.g. from a request.
+     * Settings that do not apply to the given mode are ignored.
+     *
+     * @param mode the grading mode, or null for the default
+     * @param maxEditDistance the maximum number of edits for FUZZY, or null to derive it from the answer length
+     * @param numericTolerance the tolerance for NUMERIC, or null for an exact match
+     * @param options the options for MULTIPLE_CHOICE
+     * @return the policy
+     * @throws IllegalArgumentException if a setting is invalid for the given mode
+     */
+    public static GradingPolicy of(GradingMode mode, Integer maxEditDistance, Double numericTolerance, List<String> options) {
+        if (mode == null) {
+            return normalized();
+        }
+        return switch (mode) {
+            case EXACT -> exact();
+            case NORMALIZED -> normalized();
+            case FUZZY -> maxEditDistance == null ? fuzzy() : fuzzy(maxEditDistance);
+            case NUMERIC -> numeric(numericTolerance == null ? 0 : numericTolerance);
+            case MULTIPLE_CHOICE -> multipleChoice(options);
+        };
+    }
+
+    /**
+     * Compiles this policy and the given correct answers into a grader.
+     *
+     * @param correctAnswers the correct answers of the question
+     * @return the grader
+     * @throws IllegalArgumentException if the correct answers do not fit this policy
+     */
+    AnswerGrader compile(List<String> correctAnswers) {
+        return switch (mode) {
+            case EXACT -> new ExactAnswerGrader(correctAnswers);
+            case NORMALIZED -> new NormalizedAnswerGrader(correctAnswers);
+            case FUZZY -> new FuzzyAnswerGrader(correctAnswers, maxEditDistance);
+            case NUMERIC -> new NumericAnswerGrader(correctAnswers, numericTolerance);
+            case MULTIPLE_CHOICE -> new MultipleChoiceAnswerGrader(correctAnswers, options);
+        };
+    }
+
+    /**
+     * Checks that the given correct answers fit this policy, e.g. that they are options of a multiple-choice question.
+     *
+     * @param correctAnswers the correct answers of the question
+     * @throws IllegalArgumentException if the correct answers do not fit this policy
+     */
+    public void validate(List<String> correctAnswers) {
+        if (correctAnswers == null) {
+            throw new IllegalArgumentException("Correct answers are required");
+        }
+        compile(correctAnswers);
+    }
+
+    public GradingMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the maximum number of edits for FUZZY, or a negative number if it is derived from the answer length.
+     */
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    public double getNumericTolerance() {
+        return numericTolerance;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GradingPolicy that = (GradingPolicy) o;
+        return maxEditDistance == that.maxEditDistance
+                && Double.compare(numericTolerance, that.numericTolerance) == 0
+                && mode == that.mode
+                && Objects.equals(options, that.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, maxEditDistance, numericTolerance, options);
+    }
+}
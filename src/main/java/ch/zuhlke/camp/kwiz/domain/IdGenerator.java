@@ -0,0 +1,49 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.UUID;
+
+/**
+ * Source of the IDs of games, rounds, questions and players.
+ * <p>
+ * The entities take their IDs from {@link EntityIds}, which uses a {@link #compact()} generator unless the
+ * application configures another one. {@link #uuid()} is the former random UUID generator.
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns a new ID, which is unique among all IDs of this generator.
+     *
+     * @return the ID
+     */
+    String nextId();
+
+    /**
+     * Returns the generator of random (version 4) UUIDs, which draws on the shared {@link java.security.SecureRandom}
+     * for every ID and creates 36 character strings.
+     *
+     * @return the UUID generator
+     */
+    static IdGenerator uuid() {
+        return () -> UUID.randomUUID().toString();
+    }
+
+    /**
+     * Returns a generator of time-ordered 22 character IDs for the given node. IDs of generators with different
+     * node IDs never collide.
+     *
+     * @param nodeId the ID of this node, from 0 to {@value CompactIdGenerator#MAX_NODE_ID}
+     * @return the compact generator
+     */
+    static IdGenerator compact(int nodeId) {
+        return new CompactIdGenerator(nodeId);
+    }
+
+    /**
+     * Returns a generator of time-ordered 22 character IDs with a random node ID.
+     *
+     * @return the compact generator
+     */
+    static IdGenerator compact() {
+        return new CompactIdGenerator(CompactIdGenerator.randomNodeId());
+    }
+}
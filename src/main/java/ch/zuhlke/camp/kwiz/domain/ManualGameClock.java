@@ -0,0 +1,61 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.time.Duration;
+
+/**
+ * GameClock that only moves when it is advanced explicitly, so that answer times
+ * and points are reproducible in tests and benchmarks. It is thread-safe.
+ */
+public class ManualGameClock implements GameClock {
+    private long nanoTime;
+    private final long startMillis;
+
+    /**
+     * Creates a clock that starts at the given wall clock time.
+     *
+     * @param startMillis the wall clock time in milliseconds since epoch
+     */
+    public ManualGameClock(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Creates a clock that starts at the epoch.
+     */
+    public ManualGameClock() {
+        this(0);
+    }
+
+    @Override
+    public synchronized long nanoTime() {
+        return nanoTime;
+    }
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        return startMillis + nanoTime / 1_000_000;
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param duration the duration to move forward by
+     * @throws IllegalArgumentException if the duration is negative
+     */
+    public synchronized void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("A clock cannot move backwards");
+        }
+        nanoTime += duration.toNanos();
+    }
+
+    /**
+     * Moves the clock forward by the given number of microseconds.
+     *
+     * @param micros the number of microseconds
+     * @throws IllegalArgumentException if the number of microseconds is negative
+     */
+    public void advanceMicros(long micros) {
+        advance(Duration.ofNanos(micros * 1_000));
+    }
+}
@@ -0,0 +1,78 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grades multiple-choice answers. The answer may name an option by its text, or, e.g. when the
+ * host reads the options out, by its letter ("a", "B)") or by its position ("2").
+ * <p>
+ * The answer is resolved to one option in a fixed order: the text of an option first, and only
+ * if no option has that text, a letter, and then a position. So with the options "3", "2" and "1",
+ * the answer "3" always names the option "3", not the third option.
+ */
+class MultipleChoiceAnswerGrader implements AnswerGrader {
+    private final Map<String, Integer> optionIndexesByText;
+    private final boolean[] correctOptions;
+
+    MultipleChoiceAnswerGrader(List<String> correctAnswers, List<String> options) {
+        if (options == null || options.isEmpty()) {
+            throw new IllegalArgumentException("Multiple-choice questions need at least one option");
+        }
+        if (options.size() > 26) {
+            throw new IllegalArgumentException("Multiple-choice questions support at most 26 options");
+        }
+
+        this.optionIndexesByText = new HashMap<>();
+        for (int i = 0; i < options.size(); i++) {
+            // If two options have the same text, the first one is named by it
+            optionIndexesByText.putIfAbsent(AnswerNormalizer.normalize(options.get(i)), i);
+        }
+
+        this.correctOptions = new boolean[options.size()];
+        for (String correctAnswer : correctAnswers) {
+            Integer index = optionIndexesByText.get(AnswerNormalizer.normalize(correctAnswer));
+            if (index == null) {
+                throw new IllegalArgumentException("Correct answer is not one of the options: " + correctAnswer);
+            }
+            correctOptions[index] = true;
+        }
+    }
+
+    @Override
+    public boolean isCorrect(String answer) {
+        if (answer == null) {
+            return false;
+        }
+        String normalized = AnswerNormalizer.normalize(answer);
+        if (normalized.isEmpty()) {
+            return false;
+        }
+        int index = resolveOption(normalized);
+        return index >= 0 && correctOptions[index];
+    }
+
+    /**
+     * Resolves a normalized answer to the index of the option it names.
+     *
+     * @param normalized the normalized answer
+     * @return the index of the option, or -1 if the answer names no option
+     */
+    private int resolveOption(String normalized) {
+        Integer index = optionIndexesByText.get(normalized);
+        if (index != null) {
+            return index;
+        }
+        if (normalized.length() == 1 && normalized.charAt(0) >= 'a' && normalized.charAt(0) < 'a' + correctOptions.length) {
+            return normalized.charAt(0) - 'a';
+        }
+        if (normalized.length() <= 2 && normalized.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            int position = Integer.parseInt(normalized);
+            if (position >= 1 && position <= correctOptions.length) {
+                return position - 1;
+            }
+        }
+        return -1;
+    }
+}
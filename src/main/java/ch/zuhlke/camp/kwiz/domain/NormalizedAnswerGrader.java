@@ -0,0 +1,67 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Grades answers by equality with one of the correct answers after normalization with {@link AnswerNormalizer}.
+ * The correct answers are normalized once, so grading a submission is a single normalization and a hash lookup.
+ */
+class NormalizedAnswerGrader implements AnswerGrader {
+    private final Set<String> normalizedAnswers;
+    private final Set<String> literalAnswers; // correct answers without any letters or digits, e.g. "?!"
+
+    NormalizedAnswerGrader(List<String> correctAnswers) {
+        this.normalizedAnswers = new HashSet<>();
+        this.literalAnswers = new HashSet<>();
+
+        // Answers that consist only of punctuation or symbols would normalize to an empty string,
+        // so they are kept literally (trimmed and lower-cased) instead
+        for (String correctAnswer : correctAnswers) {
+            if (correctAnswer == null) {
+                continue;
+            }
+            String normalized = AnswerNormalizer.normalize(correctAnswer);
+            if (normalized.isEmpty()) {
+                literalAnswers.add(toLiteral(correctAnswer));
+            } else {
+                normalizedAnswers.add(normalized);
+            }
+        }
+    }
+
+    @Override
+    public boolean isCorrect(String answer) {
+        if (answer == null) {
+            return false;
+        }
+        return isCorrect(answer, AnswerNormalizer.normalize(answer));
+    }
+
+    /**
+     * Grades an answer that has already been normalized.
+     *
+     * @param answer the answer, not null
+     * @param normalized the answer normalized with {@link AnswerNormalizer}
+     * @return true if the answer is correct
+     */
+    boolean isCorrect(String answer, String normalized) {
+        if (!normalized.isEmpty()) {
+            return normalizedAnswers.contains(normalized);
+        }
+        return !literalAnswers.isEmpty() && literalAnswers.contains(toLiteral(answer));
+    }
+
+    /**
+     * Returns the normalized correct answers.
+     */
+    Set<String> getNormalizedAnswers() {
+        return normalizedAnswers;
+    }
+
+    private static String toLiteral(String answer) {
+        return answer.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,97 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grades numeric answers, accepting any number within a tolerance of one of the correct answers.
+ * Thousands separators (apostrophes, underscores and spaces) are ignored, and a single comma is
+ * accepted as decimal separator, so "1'000", "1 000" and "3,14" are understood.
+ * Correct answers that are not numbers are graded with {@link NormalizedAnswerGrader} instead.
+ */
+class NumericAnswerGrader implements AnswerGrader {
+    private final double[] correctValues;
+    private final double tolerance;
+    private final NormalizedAnswerGrader textAnswers;
+
+    NumericAnswerGrader(List<String> correctAnswers, double tolerance) {
+        if (tolerance < 0 || Double.isNaN(tolerance)) {
+            throw new IllegalArgumentException("Numeric tolerance must not be negative");
+        }
+
+        List<String> nonNumericAnswers = new ArrayList<>();
+        double[] values = new double[correctAnswers.size()];
+        int count = 0;
+        for (String correctAnswer : correctAnswers) {
+            double value = parse(correctAnswer);
+            if (Double.isNaN(value)) {
+                nonNumericAnswers.add(correctAnswer);
+            } else {
+                values[count++] = value;
+            }
+        }
+
+        this.correctValues = Arrays.copyOf(values, count);
+        this.tolerance = tolerance;
+        this.textAnswers = nonNumericAnswers.isEmpty() ? null : new NormalizedAnswerGrader(nonNumericAnswers);
+    }
+
+    @Override
+    public boolean isCorrect(String answer) {
+        double value = parse(answer);
+        if (!Double.isNaN(value)) {
+            for (double correctValue : correctValues) {
+                if (Math.abs(value - correctValue) <= tolerance) {
+                    return true;
+                }
+            }
+        }
+        return textAnswers != null && textAnswers.isCorrect(answer);
+    }
+
+    /**
+     * Parses a number in the formats described in the class comment.
+     *
+     * @param text the text to parse, may be null
+     * @return the number, or NaN if the text is not a finite number
+     */
+    static double parse(String text) {
+        if (text == null) {
+            return Double.NaN;
+        }
+
+        StringBuilder number = new StringBuilder(text.length());
+        int commas = 0;
+        boolean hasDot = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == 'e' || c == 'E') {
+                number.append(c);
+            } else if (c == '.') {
+                hasDot = true;
+                number.append(c);
+            } else if (c == ',') {
+                commas++;
+                number.append(c);
+            } else if (c != '\'' && c != '_' && c != '’' && !Character.isWhitespace(c) && !Character.isSpaceChar(c)) {
+                return Double.NaN;
+            }
+        }
+
+        // A single comma without a dot is a decimal separator, anything else is a thousands separator
+        String digits = commas == 1 && !hasDot
+                ? number.toString().replace(',', '.')
+                : number.toString().replace(",", "");
+        if (digits.isEmpty()) {
+            return Double.NaN;
+        }
+
+        try {
+            double value = Double.parseDouble(digits);
+            return Double.isFinite(value) ? value : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package ch.zuhlke.camp.kwiz.domain;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Player is an entity that represents a player in a quiz.
@@ -15,7 +14,7 @@ public class Player {
     private final Map<String, Answer> answers; // questionId -> Answer
 
     public Player(String name) {
-        this.id = UUID.randomUUID().toString();
+        this.id = EntityIds.next();
         this.name = name;
         this.answers = new HashMap<>();
     }
@@ -1,6 +1,7 @@
 package ch.zuhlke.camp.kwiz.domain;
 
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.Objects;
 
 /**
@@ -9,11 +10,22 @@ import java.util.Objects;
  * including whether it is correct.
  */
 public class PlayerSubmission {
+    /**
+     * Orders submissions from the fastest to the slowest answer.
+     * Answers with the same answer time are ordered by arrival.
+     */
+    public static final Comparator<PlayerSubmission> FASTEST_FIRST = Comparator
+            .comparingLong(PlayerSubmission::getAnswerTimeMicros)
+            .thenComparingLong(PlayerSubmission::getSequence);
+
     private final String playerId;
     private final String questionId;
     private final String submittedAnswerText;
     private final long submittedAtTimestamp;
+    private final long answerTimeMicros; // from the start of the question (possibly latency-compensated), -1 if unknown
+    private final long sequence; // arrival order within the game
     private final boolean isCorrect;
+    private final boolean graded;
 
     /**
      * Creates a new PlayerSubmission with the given details.
@@ -28,7 +40,10 @@ public class PlayerSubmission {
         this.questionId = questionId;
         this.submittedAnswerText = submittedAnswerText;
         this.submittedAtTimestamp = Instant.now().toEpochMilli();
+        this.answerTimeMicros = -1;
+        this.sequence = 0;
         this.isCorrect = isCorrect;
+        this.graded = true;
     }
 
     /**
@@ -42,11 +57,36 @@ public class PlayerSubmission {
      */
     public PlayerSubmission(String playerId, String questionId, String submittedAnswerText, 
                            long submittedAtTimestamp, boolean isCorrect) {
+        this(playerId, questionId, submittedAnswerText, submittedAtTimestamp, -1, 0, isCorrect, true);
+    }
+
+    /**
+     * Creates a new PlayerSubmission with the given details, including the precise answer time.
+     *
+     * @param playerId           the ID of the player who submitted the answer
+     * @param questionId         the ID of the question being answered
+     * @param submittedAnswerText the text of the submitted answer
+     * @param submittedAtTimestamp the timestamp when the answer was submitted
+     * @param answerTimeMicros   the time from the start of the question to the answer in microseconds
+     * @param sequence           the arrival order of the submission within the game
+     * @param isCorrect          whether the answer is correct
+     */
+    public PlayerSubmission(String playerId, String questionId, String submittedAnswerText,
+                           long submittedAtTimestamp, long answerTimeMicros, long sequence, boolean isCorrect) {
+        this(playerId, questionId, submittedAnswerText, submittedAtTimestamp, answerTimeMicros, sequence, isCorrect, true);
+    }
+
+    PlayerSubmission(String playerId, String questionId, String submittedAnswerText,
+                     long submittedAtTimestamp, long answerTimeMicros, long sequence,
+                     boolean isCorrect, boolean graded) {
         this.playerId = playerId;
         this.questionId = questionId;
         this.submittedAnswerText = submittedAnswerText;
         this.submittedAtTimestamp = submittedAtTimestamp;
+        this.answerTimeMicros = answerTimeMicros;
+        this.sequence = sequence;
         this.isCorrect = isCorrect;
+        this.graded = graded;
     }
 
     /**
@@ -85,22 +125,55 @@ public class PlayerSubmission {
         return submittedAtTimestamp;
     }
 
+    /**
+     * Returns the time from the start of the question to the answer, measured with a monotonic clock.
+     * If latency compensation is enabled, this is the validated answer time reported by the client.
+     *
+     * @return the answer time in microseconds, or -1 if it is unknown
+     */
+    public long getAnswerTimeMicros() {
+        return answerTimeMicros;
+    }
+
+    /**
+     * Returns the arrival order of the submission within its game.
+     * Used to break ties between answers with the same answer time.
+     *
+     * @return the sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
     /**
      * Returns whether the answer is correct.
      *
-     * @return true if the answer is correct, false otherwise
+     * @return true if the answer is correct, false otherwise (also if it has not been graded yet)
      */
     public boolean isCorrect() {
         return isCorrect;
     }
 
+    /**
+     * Returns whether the answer has been graded.
+     * Answers are graded on submission, or when the question closes if the game grades on close.
+     *
+     * @return true if the answer has been graded, false otherwise
+     */
+    public boolean isGraded() {
+        return graded;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         PlayerSubmission that = (PlayerSubmission) o;
         return submittedAtTimestamp == that.submittedAtTimestamp &&
+               answerTimeMicros == that.answerTimeMicros &&
+               sequence == that.sequence &&
                isCorrect == that.isCorrect &&
+               graded == that.graded &&
                Objects.equals(playerId, that.playerId) &&
                Objects.equals(questionId, that.questionId) &&
                Objects.equals(submittedAnswerText, that.submittedAnswerText);
@@ -108,6 +181,6 @@ public class PlayerSubmission {
 
     @Override
     public int hashCode() {
-        return Objects.hash(playerId, questionId, submittedAnswerText, submittedAtTimestamp, isCorrect);
+        return Objects.hash(playerId, questionId, submittedAnswerText, submittedAtTimestamp, answerTimeMicros, sequence, isCorrect, graded);
     }
 }
\ No newline at end of file
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Question is an entity that represents a question in a quiz.
@@ -13,20 +12,35 @@ public class Question {
     private final String id;
     private final String text;
     private final List<String> correctAnswers;
+    private final GradingPolicy gradingPolicy;
+    private final AnswerGrader grader; // compiled once from the grading policy and the correct answers
     private final int timeLimit; // in seconds
     private String submitterId; // ID of the player who submitted this question
 
     public Question(String text, List<String> correctAnswers, int timeLimit) {
-        this.id = UUID.randomUUID().toString();
-        this.text = text;
-        this.correctAnswers = new ArrayList<>(correctAnswers);
-        this.timeLimit = timeLimit;
+        this(text, correctAnswers, timeLimit, null, GradingPolicy.normalized());
     }
 
     public Question(String text, List<String> correctAnswers, int timeLimit, String submitterId) {
-        this.id = UUID.randomUUID().toString();
+        this(text, correctAnswers, timeLimit, submitterId, GradingPolicy.normalized());
+    }
+
+    /**
+     * Creates a new Question instance.
+     *
+     * @param text the text of the question
+     * @param correctAnswers the list of correct answers
+     * @param timeLimit the time limit in seconds
+     * @param submitterId the ID of the player who submitted the question, or null if it was added by the host
+     * @param gradingPolicy the policy used to grade the answers
+     * @throws IllegalArgumentException if the correct answers do not fit the grading policy
+     */
+    public Question(String text, List<String> correctAnswers, int timeLimit, String submitterId, GradingPolicy gradingPolicy) {
+        this.id = EntityIds.next();
         this.text = text;
         this.correctAnswers = new ArrayList<>(correctAnswers);
+        this.gradingPolicy = gradingPolicy != null ? gradingPolicy : GradingPolicy.normalized();
+        this.grader = this.gradingPolicy.compile(this.correctAnswers);
         this.timeLimit = timeLimit;
         this.submitterId = submitterId;
     }
@@ -51,9 +65,19 @@ public class Question {
         return submitterId;
     }
 
+    public GradingPolicy getGradingPolicy() {
+        return gradingPolicy;
+    }
+
+    /**
+     * Checks whether the given answer matches one of the correct answers, according to the grading policy.
+     * The default policy ignores differences in case, whitespace, punctuation and diacritics.
+     *
+     * @param answer the submitted answer
+     * @return true if the answer is correct, false otherwise (including for a null answer)
+     */
     public boolean isCorrectAnswer(String answer) {
-        return correctAnswers.stream()
-                .anyMatch(correctAnswer -> correctAnswer.equalsIgnoreCase(answer.trim()));
+        return grader.isCorrect(answer);
     }
 
     @Override
@@ -3,7 +3,11 @@ package ch.zuhlke.camp.kwiz.domain;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Quiz is an aggregate root in our domain model.
@@ -12,12 +16,17 @@ import java.util.Objects;
 public class Quiz {
     private final String id;
     private final String name;
-    private final int maxPlayers;
-    private final List<Player> players;
+    private volatile int maxPlayers;
+    private final List<Player> players; // in join order
+    private final Map<String, Player> playersById;
+    private final Map<String, Player> playersByNormalizedName;
     private final List<Round> rounds;
-    private boolean started;
-    private boolean ended;
+    private final Map<String, Round> roundsById;
+    private final Map<String, Question> questionsById;
+    private volatile boolean started;
+    private volatile boolean ended;
     private String currentGameId;
+    private long rosterVersion; // incremented on every join or leave
 
     public Quiz(String id, String name, int maxPlayers) {
         this(id, name, maxPlayers, true);
@@ -36,7 +45,11 @@ public class Quiz {
         this.name = name;
         this.maxPlayers = maxPlayers;
         this.players = new ArrayList<>();
+        this.playersById = new ConcurrentHashMap<>();
+        this.playersByNormalizedName = new ConcurrentHashMap<>();
         this.rounds = new ArrayList<>();
+        this.roundsById = new ConcurrentHashMap<>();
+        this.questionsById = new ConcurrentHashMap<>();
         this.started = false;
         this.ended = false;
         this.currentGameId = null;
@@ -64,14 +77,79 @@ public class Quiz {
         return maxPlayers;
     }
 
+    /**
+     * Updates the maximum number of players allowed in the quiz.
+     * The update is atomic with respect to concurrent joins, so the capacity can never
+     * drop below the number of players that have joined.
+     *
+     * @param maxPlayers the new maximum number of players
+     * @throws IllegalStateException if the quiz has already started
+     * @throws IllegalArgumentException if the new maximum is less than the current number of players
+     */
+    public void updateMaxPlayers(int maxPlayers) {
+        tryUpdateMaxPlayers(maxPlayers).orElseThrow();
+    }
+
+    /**
+     * Updates the maximum number of players allowed in the quiz, like {@link #updateMaxPlayers(int)},
+     * but reports a rejected update as a result instead of throwing an exception.
+     *
+     * @param maxPlayers the new maximum number of players
+     * @return the result, with the new maximum number of players as value
+     */
+    public synchronized CommandResult<Integer> tryUpdateMaxPlayers(int maxPlayers) {
+        if (isStarted()) {
+            return CommandResult.rejected(RejectionReason.QUIZ_ALREADY_STARTED,
+                    "Cannot update maximum players after quiz has started");
+        }
+
+        if (maxPlayers < players.size()) {
+            return CommandResult.rejected(RejectionReason.MAX_PLAYERS_BELOW_PLAYER_COUNT,
+                    "New maximum players cannot be less than current player count");
+        }
+
+        this.maxPlayers = maxPlayers;
+        return CommandResult.accepted(maxPlayers);
+    }
+
     public List<Player> getPlayers() {
         return Collections.unmodifiableList(players);
     }
 
+    /**
+     * Finds a player of this quiz by ID.
+     *
+     * @param playerId the ID of the player
+     * @return an Optional containing the player if found, or an empty Optional if not found
+     */
+    public Optional<Player> findPlayerById(String playerId) {
+        return playerId == null ? Optional.empty() : Optional.ofNullable(playersById.get(playerId));
+    }
+
     public List<Round> getRounds() {
         return Collections.unmodifiableList(rounds);
     }
 
+    /**
+     * Finds a round of this quiz by ID.
+     *
+     * @param roundId the ID of the round
+     * @return an Optional containing the round if found, or an empty Optional if not found
+     */
+    public Optional<Round> findRoundById(String roundId) {
+        return roundId == null ? Optional.empty() : Optional.ofNullable(roundsById.get(roundId));
+    }
+
+    /**
+     * Finds a question in any round of this quiz by ID.
+     *
+     * @param questionId the ID of the question
+     * @return an Optional containing the question if found, or an empty Optional if not found
+     */
+    public Optional<Question> findQuestionById(String questionId) {
+        return questionId == null ? Optional.empty() : Optional.ofNullable(questionsById.get(questionId));
+    }
+
     public boolean isStarted() {
         return started;
     }
@@ -80,6 +158,17 @@ public class Quiz {
         return ended;
     }
 
+    /**
+     * Returns the version of the player roster.
+     * The version is incremented every time a player joins or leaves the quiz,
+     * so clients can detect missed roster changes.
+     *
+     * @return the current roster version
+     */
+    public synchronized long getRosterVersion() {
+        return rosterVersion;
+    }
+
     public String getCurrentGameId() {
         return currentGameId;
     }
@@ -90,29 +179,104 @@ public class Quiz {
 
 
     public void addPlayer(Player player) {
+        tryAddPlayer(player).orElseThrow();
+    }
+
+    /**
+     * Adds a player to the quiz, like {@link #addPlayer(Player)}, but reports a rejected
+     * join as a result instead of throwing an exception.
+     *
+     * @param player the player to add
+     * @return the result, with the added player as value
+     */
+    public synchronized CommandResult<Player> tryAddPlayer(Player player) {
         if (isStarted()) {
-            throw new IllegalStateException("Cannot add player after quiz has started");
+            return CommandResult.rejected(RejectionReason.QUIZ_ALREADY_STARTED, "Cannot add player after quiz has started");
         }
 
         if (players.size() >= maxPlayers) {
-            throw new IllegalStateException("Maximum number of players reached");
+            return CommandResult.rejected(RejectionReason.QUIZ_FULL, "Maximum number of players reached");
         }
 
-        if (players.stream().anyMatch(p -> p.getName().equals(player.getName()))) {
-            throw new IllegalArgumentException("Player name must be unique");
+        String normalizedName = normalizeName(player.getName());
+        if (playersByNormalizedName.containsKey(normalizedName)) {
+            return CommandResult.rejected(RejectionReason.PLAYER_NAME_TAKEN, "Player name must be unique");
         }
 
         players.add(player);
+        playersById.put(player.getId(), player);
+        playersByNormalizedName.put(normalizedName, player);
+        rosterVersion++;
+        return CommandResult.accepted(player);
+    }
+
+    /**
+     * Removes a player from the quiz.
+     *
+     * @param playerId the ID of the player to remove
+     * @return the removed player
+     * @throws IllegalStateException if the quiz has already started
+     * @throws IllegalArgumentException if no player with the given ID is part of the quiz
+     */
+    public synchronized Player removePlayer(String playerId) {
+        if (isStarted()) {
+            throw new IllegalStateException("Cannot remove player after quiz has started");
+        }
+
+        Player player = findPlayerById(playerId)
+                .orElseThrow(() -> new IllegalArgumentException("No player found with ID: " + playerId));
+
+        players.remove(player);
+        playersById.remove(playerId);
+        playersByNormalizedName.remove(normalizeName(player.getName()));
+        rosterVersion++;
+        return player;
+    }
+
+    /**
+     * Normalizes a player name for the uniqueness check, so that names differing only
+     * in case or surrounding whitespace are considered the same.
+     *
+     * @param name the player name
+     * @return the normalized name
+     */
+    private static String normalizeName(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
     }
 
-    public void addRound(Round round) {
+    /**
+     * Adds a round. Rounds, and the questions of rounds that are part of this quiz, are changed under the
+     * lock of the quiz, so a snapshot that holds the lock is consistent.
+     *
+     * @param round the round to add
+     */
+    public synchronized void addRound(Round round) {
         if (isStarted()) {
             throw new IllegalStateException("Cannot add round after quiz has started");
         }
         rounds.add(round);
+        roundsById.put(round.getId(), round);
+
+        // Index the questions the round already has; questions added later are indexed by the round itself
+        synchronized (round) {
+            round.attachTo(this);
+            for (Question question : round.getQuestions()) {
+                indexQuestion(question);
+            }
+        }
+    }
+
+    /**
+     * Adds a question to the question index. Called by {@link Round#addQuestion}
+     * for rounds that are part of this quiz.
+     *
+     * @param question the question to index
+     */
+    void indexQuestion(Question question) {
+        questionsById.put(question.getId(), question);
     }
 
-    public void start() {
+    public synchronized void start() {
         if (rounds.isEmpty()) {
             throw new IllegalStateException("Cannot start quiz without rounds");
         }
@@ -124,7 +288,7 @@ public class Quiz {
         this.started = true;
     }
 
-    public void end() {
+    public synchronized void end() {
         if (!isStarted()) {
             throw new IllegalStateException("Cannot end quiz that hasn't started");
         }
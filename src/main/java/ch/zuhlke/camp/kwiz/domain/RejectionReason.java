@@ -0,0 +1,36 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+/**
+ * The reasons why a command can be rejected as part of the normal game flow,
+ * e.g. an answer arriving after the question has closed.
+ */
+public enum RejectionReason {
+    QUIZ_NOT_FOUND(false),
+    GAME_NOT_FOUND(false),
+    PLAYER_NOT_FOUND(false),
+    QUIZ_ALREADY_STARTED(true),
+    QUIZ_FULL(true),
+    PLAYER_NAME_REQUIRED(false),
+    PLAYER_NAME_TAKEN(false),
+    MAX_PLAYERS_BELOW_PLAYER_COUNT(false),
+    NOT_ACCEPTING_ANSWERS(true),
+    QUESTION_NOT_CURRENT(false),
+    ALREADY_ANSWERED(true),
+    SUBMISSION_ID_CONFLICT(false);
+
+    private final boolean stateConflict;
+
+    RejectionReason(boolean stateConflict) {
+        this.stateConflict = stateConflict;
+    }
+
+    /**
+     * Returns whether the command was rejected because of the current state of the quiz or game,
+     * rather than because of its arguments. This decides which exception a throwing caller gets.
+     *
+     * @return true for a conflict with the current state, false for an invalid argument
+     */
+    public boolean isStateConflict() {
+        return stateConflict;
+    }
+}
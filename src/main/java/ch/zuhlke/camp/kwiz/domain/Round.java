@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Round is an entity that represents a round in a quiz.
@@ -16,9 +15,10 @@ public class Round {
     private final List<Question> questions;
     private boolean active;
     private boolean completed;
+    private volatile Quiz quiz; // the quiz indexing the questions of this round, if any
 
     public Round(String name) {
-        this.id = UUID.randomUUID().toString();
+        this.id = EntityIds.next();
         this.name = name;
         this.questions = new ArrayList<>();
         this.active = false;
@@ -45,11 +45,60 @@ public class Round {
         return completed;
     }
 
+    /**
+     * Adds a question. The questions of a round that is part of a quiz are changed under the lock of the
+     * quiz, and then of the round, so a snapshot that holds the quiz lock sees all of its rounds unchanged.
+     *
+     * @param question the question to add
+     */
     public void addQuestion(Question question) {
+        while (true) {
+            Quiz owner = quiz;
+            if (owner == null) {
+                if (tryAddQuestion(question, null)) {
+                    return;
+                }
+            } else {
+                synchronized (owner) {
+                    if (tryAddQuestion(question, owner)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a question, unless the round has been added to a quiz since the caller looked.
+     *
+     * @param question the question to add
+     * @param owner the quiz whose lock the caller holds, or null
+     * @return false if the round belongs to another quiz than the given one
+     */
+    private synchronized boolean tryAddQuestion(Question question, Quiz owner) {
+        if (quiz != owner) {
+            return false;
+        }
         if (isActive() || isCompleted()) {
             throw new IllegalStateException("Cannot add questions to an active or completed round");
         }
         questions.add(question);
+
+        // Keep the question index of the owning quiz up to date
+        if (owner != null) {
+            owner.indexQuestion(question);
+        }
+        return true;
+    }
+
+    /**
+     * Attaches this round to the quiz that indexes its questions.
+     * The caller holds the lock of the quiz and of this round.
+     *
+     * @param quiz the quiz this round was added to
+     */
+    void attachTo(Quiz quiz) {
+        this.quiz = quiz;
     }
 
     public void activate() {
@@ -0,0 +1,129 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * SubmissionLog stores the submissions of a game column by column, in growable primitive arrays,
+ * instead of as one {@link PlayerSubmission} object per answer.
+ * <p>
+ * Players and questions are referred to by the dense slots their game assigned to them, and the
+ * answer texts are interned per question by an {@link AnswerTally}, so submissions with the same
+ * answer share one String. A submission takes 29 bytes plus its share of the distinct answers,
+ * instead of well over 100 bytes for a submission object with its own answer string, and a pass
+ * over one column, like grading all answers, reads contiguous memory.
+ * <p>
+ * Submissions are indexed in the order in which they were added. The log is not thread-safe; it is
+ * guarded by the game that owns it.
+ */
+final class SubmissionLog {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte GRADED = 1;
+    private static final byte CORRECT = 1 << 1;
+
+    private int[] playerSlots = new int[INITIAL_CAPACITY];
+    private int[] questionSlots = new int[INITIAL_CAPACITY];
+    private long[] submittedAtTimestamps = new long[INITIAL_CAPACITY];
+    private long[] answerTimesMicros = new long[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private String[] answerTexts = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Appends a submission.
+     *
+     * @param playerSlot the slot of the player who submitted the answer
+     * @param questionSlot the slot of the question being answered
+     * @param submittedAtTimestamp the timestamp when the answer was submitted
+     * @param answerTimeMicros the time from the start of the question to the answer in microseconds
+     * @param answerText the interned text of the answer, may be null
+     * @param graded whether the answer has been graded
+     * @param correct whether the answer is correct, ignored unless it has been graded
+     * @return the index of the submission
+     */
+    int add(int playerSlot, int questionSlot, long submittedAtTimestamp, long answerTimeMicros,
+            String answerText, boolean graded, boolean correct) {
+        if (size == playerSlots.length) {
+            grow();
+        }
+        int index = size++;
+        playerSlots[index] = playerSlot;
+        questionSlots[index] = questionSlot;
+        submittedAtTimestamps[index] = submittedAtTimestamp;
+        answerTimesMicros[index] = answerTimeMicros;
+        flags[index] = flags(graded, correct);
+        answerTexts[index] = answerText;
+        return index;
+    }
+
+    private static byte flags(boolean graded, boolean correct) {
+        return (byte) (graded ? (correct ? GRADED | CORRECT : GRADED) : 0);
+    }
+
+    private void grow() {
+        int capacity = playerSlots.length * 2;
+        playerSlots = Arrays.copyOf(playerSlots, capacity);
+        questionSlots = Arrays.copyOf(questionSlots, capacity);
+        submittedAtTimestamps = Arrays.copyOf(submittedAtTimestamps, capacity);
+        answerTimesMicros = Arrays.copyOf(answerTimesMicros, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        answerTexts = Arrays.copyOf(answerTexts, capacity);
+    }
+
+    /**
+     * Grades a submission.
+     *
+     * @param index the index of the submission
+     * @param correct whether the answer is correct
+     */
+    void grade(int index, boolean correct) {
+        flags[checkIndex(index)] = flags(true, correct);
+    }
+
+    /**
+     * Returns the number of submissions.
+     *
+     * @return the number of submissions
+     */
+    int size() {
+        return size;
+    }
+
+    int getPlayerSlot(int index) {
+        return playerSlots[checkIndex(index)];
+    }
+
+    int getQuestionSlot(int index) {
+        return questionSlots[checkIndex(index)];
+    }
+
+    long getSubmittedAtTimestamp(int index) {
+        return submittedAtTimestamps[checkIndex(index)];
+    }
+
+    long getAnswerTimeMicros(int index) {
+        return answerTimesMicros[checkIndex(index)];
+    }
+
+    boolean isGraded(int index) {
+        return (flags[checkIndex(index)] & GRADED) != 0;
+    }
+
+    boolean isCorrect(int index) {
+        return (flags[checkIndex(index)] & CORRECT) != 0;
+    }
+
+    /**
+     * Returns the answer text of a submission.
+     *
+     * @param index the index of the submission
+     * @return the answer text, or null if the answer had none
+     */
+    String getAnswerText(int index) {
+        return answerTexts[checkIndex(index)];
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+}
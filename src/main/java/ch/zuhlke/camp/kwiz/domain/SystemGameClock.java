@@ -0,0 +1,21 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+/**
+ * GameClock backed by the system clocks.
+ */
+final class SystemGameClock implements GameClock {
+    static final SystemGameClock INSTANCE = new SystemGameClock();
+
+    private SystemGameClock() {
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,175 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AnswerTrace follows one answer submission from receiving it to writing the resulting game state
+ * to the sessions of all players and the host. It records when each stage starts and ends:
+ * <ol>
+ *     <li>queue wait: the STOMP message waits for a thread of the inbound channel (STOMP only)</li>
+ *     <li>domain: the game records and grades the answer</li>
+ *     <li>serialize: the game state is built and converted to JSON, until it reaches the broker</li>
+ *     <li>fan-out: the broker queues a copy for every subscribed session, until the last one is written</li>
+ * </ol>
+ * The trace travels with the broadcast as the {@value #HEADER} message header, which the broker copies to the
+ * message of every session. It is not a native header, so it is never written to the clients.
+ * <p>
+ * A trace is complete once it has been sealed after the broadcast and all queued copies have been written.
+ * Traces without broadcast, e.g. of rejected answers, are dropped.
+ */
+public class AnswerTrace {
+    /**
+     * The message header that carries the trace.
+     */
+    public static final String HEADER = "kwizAnswerTrace";
+
+    private final AnswerTracer tracer;
+    private final long id;
+    private final String channel;
+    private final String gameId;
+    private final String playerId;
+    private final long startEpochMillis;
+    private final long receivedNanos;
+    private final long startNanos;
+
+    // The stages before the broadcast are marked on the submitting thread; the fan-out is marked by the threads of
+    // the broker and the outbound channel, one per session, so it is tracked without locking
+    private volatile long domainStartNanos;
+    private volatile long domainEndNanos;
+    private volatile long serializeStartNanos;
+    private final AtomicLong brokerNanos = new AtomicLong();
+    private final AtomicLong lastDeliveryNanos = new AtomicLong();
+    private final AtomicInteger deliveries = new AtomicInteger();
+    // Queued copies that have not been written yet, plus one until the trace is sealed
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    AnswerTrace(AnswerTracer tracer, long id, String channel, String gameId, String playerId,
+                long receivedNanos, long startNanos) {
+        this.tracer = tracer;
+        this.id = id;
+        this.channel = channel;
+        this.gameId = gameId;
+        this.playerId = playerId;
+        this.startEpochMillis = System.currentTimeMillis();
+        this.receivedNanos = receivedNanos;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Marks the start of recording the answer in the game.
+     */
+    public void domainStarted() {
+        domainStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of recording the answer in the game.
+     */
+    public void domainEnded() {
+        domainEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the start of building the game state.
+     */
+    public void serializeStarted() {
+        serializeStartNanos = System.nanoTime();
+    }
+
+    void brokerReached() {
+        brokerNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    void deliveryQueued() {
+        pending.incrementAndGet();
+    }
+
+    void delivered() {
+        lastDeliveryNanos.accumulateAndGet(System.nanoTime(), Math::max);
+        deliveries.incrementAndGet();
+        if (pending.decrementAndGet() == 0) {
+            complete();
+        }
+    }
+
+    /**
+     * Marks that the broadcast has been handed to the broker, so all copies for the sessions are queued.
+     */
+    void seal() {
+        if (pending.decrementAndGet() == 0) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        if (brokerNanos.get() == 0 || !completed.compareAndSet(false, true)) {
+            return;
+        }
+        // Without subscribers, the fan-out ends at the broker
+        lastDeliveryNanos.compareAndSet(0, brokerNanos.get());
+        tracer.complete(this);
+    }
+
+    boolean isBroadcast() {
+        return brokerNanos.get() != 0;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public int getDeliveries() {
+        return deliveries.get();
+    }
+
+    public long getQueueWaitNanos() {
+        return startNanos - receivedNanos;
+    }
+
+    public long getDomainNanos() {
+        return domainEndNanos - domainStartNanos;
+    }
+
+    public long getSerializeNanos() {
+        return brokerNanos.get() - serializeStartNanos;
+    }
+
+    public long getFanOutNanos() {
+        return lastDeliveryNanos.get() - brokerNanos.get();
+    }
+
+    public long getTotalNanos() {
+        return lastDeliveryNanos.get() - receivedNanos;
+    }
+
+    long getDomainStartOffsetNanos() {
+        return domainStartNanos - receivedNanos;
+    }
+
+    long getSerializeStartOffsetNanos() {
+        return serializeStartNanos - receivedNanos;
+    }
+
+    long getBrokerOffsetNanos() {
+        return brokerNanos.get() - receivedNanos;
+    }
+}
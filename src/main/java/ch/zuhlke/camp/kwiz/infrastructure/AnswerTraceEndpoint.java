@@ -0,0 +1,39 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Custom actuator endpoint to expose the recent answer traces of {@link AnswerTracer}.
+ * It shows the 50th and 99th percentile of the time from receiving an answer to writing the game state
+ * to the last session, whether the 99th percentile is within the SLO, and the spans of the latest traces.
+ */
+@Component
+@Endpoint(id = "answertraces")
+public class AnswerTraceEndpoint {
+    static final int DEFAULT_LIMIT = 20;
+
+    private final AnswerTracer answerTracer;
+
+    public AnswerTraceEndpoint(AnswerTracer answerTracer) {
+        this.answerTracer = answerTracer;
+    }
+
+    /**
+     * Returns the summary and the latest traces.
+     *
+     * @param limit the maximum number of traces, or null for {@value #DEFAULT_LIMIT}
+     * @return the summary with the traces
+     */
+    @ReadOperation
+    public Map<String, Object> answerTraces(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>(answerTracer.summary());
+        result.put("latest", answerTracer.recentTraces(limit != null ? Math.max(limit, 0) : DEFAULT_LIMIT));
+        return result;
+    }
+}
@@ -0,0 +1,353 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AnswerTracer traces answer submissions from receiving them to writing the resulting game state to all sessions,
+ * see {@link AnswerTrace}. Completed traces are
+ * <ul>
+ *     <li>recorded in the {@value #STAGE_METER} timer, tagged with the {@code stage} ("queue-wait", "domain",
+ *     "serialize" or "fan-out"), and the {@value #TOTAL_METER} timer, which has the SLO
+ *     {@code kwiz.tracing.slo-ms} as a bucket</li>
+ *     <li>kept in memory, the last {@code kwiz.tracing.buffer-size} traces, see {@link AnswerTraceEndpoint}</li>
+ *     <li>appended to {@code kwiz.tracing.export-file} as one JSON object per line, if set</li>
+ * </ul>
+ * Only the share {@code kwiz.tracing.sample-rate} of the submissions is traced.
+ * No external collector is needed.
+ */
+@Component
+public class AnswerTracer {
+    private static final Logger log = LoggerFactory.getLogger(AnswerTracer.class);
+    static final String STAGE_METER = "kwiz.answer.trace.stage";
+    static final String TOTAL_METER = "kwiz.answer.trace.total";
+    private static final String RECEIVED_HEADER = "kwizReceivedNanos";
+
+    // When the inbound message that is handled on this thread was received
+    private static final ThreadLocal<Long> inboundReceivedNanos = new ThreadLocal<>();
+
+    private final double sampleRate;
+    private final Duration slo;
+    private final int bufferSize;
+    private final Path exportFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong traceIds = new AtomicLong();
+    private final Deque<AnswerTrace> recentTraces = new ArrayDeque<>();
+    private final Timer queueWaitTimer;
+    private final Timer domainTimer;
+    private final Timer serializeTimer;
+    private final Timer fanOutTimer;
+    private final Timer totalTimer;
+    private BufferedWriter exportWriter;
+
+    public AnswerTracer(MeterRegistry meterRegistry,
+                        @Value("${kwiz.tracing.sample-rate:0.01}") double sampleRate,
+                        @Value("${kwiz.tracing.slo-ms:250}") long sloMs,
+                        @Value("${kwiz.tracing.buffer-size:1000}") int bufferSize,
+                        @Value("${kwiz.tracing.export-file:}") String exportFile) {
+        this.sampleRate = sampleRate;
+        this.slo = Duration.ofMillis(sloMs);
+        this.bufferSize = bufferSize;
+        this.exportFile = exportFile == null || exportFile.isBlank() ? null : Paths.get(exportFile);
+        this.queueWaitTimer = stageTimer(meterRegistry, "queue-wait");
+        this.domainTimer = stageTimer(meterRegistry, "domain");
+        this.serializeTimer = stageTimer(meterRegistry, "serialize");
+        this.fanOutTimer = stageTimer(meterRegistry, "fan-out");
+        this.totalTimer = Timer.builder(TOTAL_METER)
+                .description("Time from receiving an answer to writing the resulting game state to the last session")
+                .serviceLevelObjectives(slo)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a tracer that does not trace any submission.
+     *
+     * @return the tracer
+     */
+    public static AnswerTracer disabled() {
+        return new AnswerTracer(new SimpleMeterRegistry(), 0, 250, 0, null);
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder(STAGE_METER)
+                .description("Stages of answer submissions, from receiving the answer to writing the game state")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts tracing a submission, if it is sampled. If the submission arrived over STOMP, the trace starts
+     * when the message was received, so it includes the wait for a thread of the inbound channel.
+     *
+     * @param channel the transport the answer was submitted over, "rest" or "stomp"
+     * @param gameId the ID of the game
+     * @param playerId the ID of the player
+     * @return the trace, or null if the submission is not traced
+     */
+    public AnswerTrace start(String channel, String gameId, String playerId) {
+        if (sampleRate <= 0 || sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Long receivedNanos = inboundReceivedNanos.get();
+        return new AnswerTrace(this, traceIds.incrementAndGet(), channel, gameId, playerId,
+                receivedNanos != null ? receivedNanos : now, now);
+    }
+
+    /**
+     * Ends the part of a trace on the thread of the submission. The trace completes when all
+     * sessions have been written to.
+     *
+     * @param trace the trace, or null
+     */
+    public void finish(AnswerTrace trace) {
+        if (trace != null) {
+            trace.seal();
+        }
+    }
+
+    /**
+     * Returns the headers of a message that carries a trace to the broker.
+     *
+     * @param trace the trace
+     * @return the headers, which are not sent to clients
+     */
+    public static Map<String, Object> messageHeaders(AnswerTrace trace) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setHeader(AnswerTrace.HEADER, trace);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    /**
+     * Returns an interceptor for the client inbound channel that stamps every message with the time it was received.
+     *
+     * @return the interceptor
+     */
+    public ChannelInterceptor inboundInterceptor() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+                if (accessor != null && accessor.isMutable() && accessor.getMessageType() == SimpMessageType.MESSAGE) {
+                    accessor.setHeader(RECEIVED_HEADER, System.nanoTime());
+                }
+                return message;
+            }
+
+            @Override
+            public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+                if (message.getHeaders().get(RECEIVED_HEADER) instanceof Long receivedNanos) {
+                    inboundReceivedNanos.set(receivedNanos);
+                }
+                return message;
+            }
+
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                            Exception ex) {
+                inboundReceivedNanos.remove();
+            }
+        };
+    }
+
+    /**
+     * Returns an interceptor for the broker channel that marks when a traced game state has been serialized.
+     *
+     * @return the interceptor
+     */
+    public ChannelInterceptor brokerInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (message.getHeaders().get(AnswerTrace.HEADER) instanceof AnswerTrace trace) {
+                    trace.brokerReached();
+                }
+                return message;
+            }
+        };
+    }
+
+    /**
+     * Returns an interceptor for the client outbound channel that tracks the copies of a traced game state
+     * until they are written to the sessions.
+     *
+     * @return the interceptor
+     */
+    public ChannelInterceptor outboundInterceptor() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (message.getHeaders().get(AnswerTrace.HEADER) instanceof AnswerTrace trace) {
+                    trace.deliveryQueued();
+                }
+                return message;
+            }
+
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                            Exception ex) {
+                if (message.getHeaders().get(AnswerTrace.HEADER) instanceof AnswerTrace trace) {
+                    trace.delivered();
+                }
+            }
+        };
+    }
+
+    void complete(AnswerTrace trace) {
+        if (trace.getChannel().equals("stomp")) {
+            queueWaitTimer.record(trace.getQueueWaitNanos(), TimeUnit.NANOSECONDS);
+        }
+        domainTimer.record(trace.getDomainNanos(), TimeUnit.NANOSECONDS);
+        serializeTimer.record(trace.getSerializeNanos(), TimeUnit.NANOSECONDS);
+        fanOutTimer.record(trace.getFanOutNanos(), TimeUnit.NANOSECONDS);
+        totalTimer.record(trace.getTotalNanos(), TimeUnit.NANOSECONDS);
+
+        if (bufferSize > 0) {
+            synchronized (recentTraces) {
+                if (recentTraces.size() == bufferSize) {
+                    recentTraces.removeFirst();
+                }
+                recentTraces.addLast(trace);
+            }
+        }
+        if (exportFile != null) {
+            export(trace);
+        }
+    }
+
+    private synchronized void export(AnswerTrace trace) {
+        try {
+            if (exportWriter == null) {
+                Path directory = exportFile.toAbsolutePath().getParent();
+                if (directory != null) {
+                    Files.createDirectories(directory);
+                }
+                exportWriter = Files.newBufferedWriter(exportFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            exportWriter.write(objectMapper.writeValueAsString(toMap(trace)));
+            exportWriter.newLine();
+            exportWriter.flush();
+        } catch (IOException e) {
+            // Tracing must never fail a game
+            log.warn("Error exporting answer trace to {}", exportFile, e);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (exportWriter != null) {
+            exportWriter.close();
+            exportWriter = null;
+        }
+    }
+
+    /**
+     * Returns the most recent completed traces, newest first.
+     *
+     * @param limit the maximum number of traces
+     * @return the traces, with their spans
+     */
+    public List<Map<String, Object>> recentTraces(int limit) {
+        List<AnswerTrace> traces;
+        synchronized (recentTraces) {
+            traces = new ArrayList<>(recentTraces);
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = traces.size() - 1; i >= 0 && result.size() < limit; i--) {
+            result.add(toMap(traces.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Summarizes the total latency of the traces in memory and compares its 99th percentile with the SLO.
+     *
+     * @return the summary
+     */
+    public Map<String, Object> summary() {
+        long[] totals;
+        synchronized (recentTraces) {
+            totals = recentTraces.stream().mapToLong(AnswerTrace::getTotalNanos).sorted().toArray();
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("sampleRate", sampleRate);
+        summary.put("sloMs", slo.toMillis());
+        summary.put("traces", totals.length);
+        if (totals.length > 0) {
+            double p99Ms = percentile(totals, 0.99) / 1_000_000.0;
+            summary.put("p50Ms", percentile(totals, 0.50) / 1_000_000.0);
+            summary.put("p99Ms", p99Ms);
+            summary.put("maxMs", totals[totals.length - 1] / 1_000_000.0);
+            summary.put("withinSlo", p99Ms <= slo.toMillis());
+        }
+        return summary;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        // Nearest rank
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static Map<String, Object> toMap(AnswerTrace trace) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        if (trace.getChannel().equals("stomp")) {
+            spans.add(span("queue-wait", 0, trace.getQueueWaitNanos()));
+        }
+        spans.add(span("domain", trace.getDomainStartOffsetNanos(), trace.getDomainNanos()));
+        spans.add(span("serialize", trace.getSerializeStartOffsetNanos(), trace.getSerializeNanos()));
+        spans.add(span("fan-out", trace.getBrokerOffsetNanos(), trace.getFanOutNanos()));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", trace.getId());
+        map.put("channel", trace.getChannel());
+        map.put("gameId", trace.getGameId());
+        map.put("playerId", trace.getPlayerId());
+        map.put("startEpochMillis", trace.getStartEpochMillis());
+        map.put("deliveries", trace.getDeliveries());
+        map.put("totalMicros", TimeUnit.NANOSECONDS.toMicros(trace.getTotalNanos()));
+        map.put("spans", spans);
+        return map;
+    }
+
+    private static Map<String, Object> span(String name, long startOffsetNanos, long durationNanos) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("name", name);
+        span.put("startMicros", TimeUnit.NANOSECONDS.toMicros(startOffsetNanos));
+        span.put("durationMicros", TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        return span;
+    }
+}
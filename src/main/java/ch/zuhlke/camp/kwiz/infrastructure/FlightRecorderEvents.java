@@ -0,0 +1,147 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * FlightRecorderEvents contains the Java Flight Recorder events of the hot paths of a game.
+ * <p>
+ * The events are emitted with the usual pattern:
+ * <pre>
+ * AnswerSubmission event = new AnswerSubmission();
+ * event.begin();
+ * ... // the measured work
+ * event.end();
+ * if (event.shouldCommit()) {
+ *     event.gameId = gameId; // only computed if the event is recorded
+ *     event.commit();
+ * }
+ * </pre>
+ * Without a running recording, {@code shouldCommit()} is false and the JIT removes the allocation of the event,
+ * so the events stay in production code. Stack traces are not recorded, which keeps the events small as well.
+ * Recordings are started and dumped with {@link FlightRecordingEndpoint}.
+ */
+public final class FlightRecorderEvents {
+    static final String CATEGORY = "Kwiz";
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * An answer submission, from receiving it to the reply to the player.
+     */
+    @Name("ch.zuhlke.camp.kwiz.AnswerSubmission")
+    @Label("Answer Submission")
+    @Category({CATEGORY, "Answers"})
+    @StackTrace(false)
+    public static final class AnswerSubmission extends Event {
+        @Label("Game ID")
+        public String gameId;
+
+        @Label("Channel")
+        @Description("The transport the answer was submitted over: \"rest\" or \"stomp\"")
+        public String channel;
+
+        @Label("Result")
+        @Description("\"accepted\", \"duplicate\" or \"rejected\"")
+        public String result;
+
+        @Label("Rejection Reason")
+        public String reason;
+
+        @Label("Players")
+        @Description("Players in the game")
+        public int players;
+    }
+
+    /**
+     * Building the game state that is broadcast to all players.
+     */
+    @Name("ch.zuhlke.camp.kwiz.GameStateCreation")
+    @Label("Game State Creation")
+    @Category({CATEGORY, "Game State"})
+    @StackTrace(false)
+    public static final class GameStateCreation extends Event {
+        @Label("Game ID")
+        public String gameId;
+
+        @Label("Players")
+        @Description("Players in the game")
+        public int players;
+
+        @Label("Answers")
+        @Description("Answers to the current question")
+        public int answers;
+    }
+
+    /**
+     * Broadcasting the game state, which includes the JSON serialization and the fan-out to all subscribed sessions.
+     */
+    @Name("ch.zuhlke.camp.kwiz.GameStateBroadcast")
+    @Label("Game State Broadcast")
+    @Category({CATEGORY, "Game State"})
+    @StackTrace(false)
+    public static final class GameStateBroadcast extends Event {
+        @Label("Game ID")
+        public String gameId;
+
+        @Label("Players")
+        @Description("Players in the game")
+        public int players;
+
+        @Label("Payload Size")
+        @Description("Size of the serialized game state sent to every session")
+        @DataAmount
+        public int payloadBytes;
+    }
+
+    /**
+     * A tick of the game timers, for all active games.
+     */
+    @Name("ch.zuhlke.camp.kwiz.TimerTick")
+    @Label("Game Timer Tick")
+    @Category({CATEGORY, "Timer"})
+    @StackTrace(false)
+    public static final class TimerTick extends Event {
+        @Label("Registered Games")
+        public int games;
+
+        @Label("Active Questions")
+        @Description("Games with an active question, for which a timer event was published")
+        public int activeQuestions;
+
+        @Label("Lag")
+        @Description("Delay of the tick behind its schedule, in nanoseconds")
+        @Timespan
+        public long lagNanos;
+    }
+
+    /**
+     * A player joining a quiz.
+     */
+    @Name("ch.zuhlke.camp.kwiz.PlayerJoin")
+    @Label("Player Join")
+    @Category({CATEGORY, "Lobby"})
+    @StackTrace(false)
+    public static final class PlayerJoin extends Event {
+        @Label("Quiz ID")
+        public String quizId;
+
+        @Label("Result")
+        @Description("\"accepted\" or \"rejected\"")
+        public String result;
+
+        @Label("Rejection Reason")
+        public String reason;
+
+        @Label("Players")
+        @Description("Players in the quiz after the join")
+        public int players;
+    }
+}
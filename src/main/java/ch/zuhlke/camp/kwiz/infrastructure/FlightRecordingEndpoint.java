@@ -0,0 +1,162 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Custom actuator endpoint to record the {@link FlightRecorderEvents} with Java Flight Recorder:
+ * <ul>
+ *     <li>{@code POST /actuator/flightrecording} starts a recording, with the JFR settings "default" (the default)
+ *     or "profile", and optionally a maximum age in seconds</li>
+ *     <li>{@code GET /actuator/flightrecording} shows whether a recording is running</li>
+ *     <li>{@code DELETE /actuator/flightrecording} stops the recording and dumps it to a file in
+ *     {@code kwiz.jfr.directory} on the server, which can be opened with JDK Mission Control or {@code jfr print}</li>
+ * </ul>
+ * Only one recording runs at a time. Recordings are always bounded by {@code kwiz.jfr.max-size-mb} and by
+ * {@code kwiz.jfr.max-age-seconds}, which is also the longest maximum age a client may ask for, so a recording
+ * that is never stopped cannot fill the disk.
+ * <p>
+ * The endpoint is not exposed over HTTP by default, as it is not secured; the "diagnostics" profile exposes it.
+ */
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+    private static final String RECORDING_NAME = "kwiz";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    static final long DEFAULT_MAX_SIZE_MB = 100;
+    static final long DEFAULT_MAX_AGE_SECONDS = 600;
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final Duration maxAge;
+    private Recording recording;
+
+    public FlightRecordingEndpoint(String directory) {
+        this(directory, DEFAULT_MAX_SIZE_MB, DEFAULT_MAX_AGE_SECONDS);
+    }
+
+    @Autowired
+    public FlightRecordingEndpoint(@Value("${kwiz.jfr.directory:${java.io.tmpdir}}") String directory,
+                                   @Value("${kwiz.jfr.max-size-mb:" + DEFAULT_MAX_SIZE_MB + "}") long maxSizeMb,
+                                   @Value("${kwiz.jfr.max-age-seconds:" + DEFAULT_MAX_AGE_SECONDS + "}") long maxAgeSeconds) {
+        if (maxSizeMb <= 0 || maxAgeSeconds <= 0) {
+            throw new IllegalArgumentException("The maximum size and age of flight recordings must be positive");
+        }
+        this.directory = Paths.get(directory);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+    }
+
+    /**
+     * Shows whether a recording is running.
+     *
+     * @return the state of the recording
+     */
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", recording != null);
+        if (recording != null) {
+            status.put("id", recording.getId());
+            status.put("startTime", String.valueOf(recording.getStartTime()));
+            status.put("maxAgeSeconds", recording.getMaxAge().toSeconds());
+            status.put("maxSizeBytes", recording.getMaxSize());
+        }
+        status.put("directory", directory.toAbsolutePath().toString());
+        return status;
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param settings the JFR settings, "default" or "profile", or null for "default"
+     * @param maxAgeSeconds how long events are kept, at most {@code kwiz.jfr.max-age-seconds}, or null for that maximum
+     * @return the state of the recording; or status 409 if a recording is already running,
+     *         or status 400 for unknown settings or a maximum age out of range
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable String settings,
+                                                                       @Nullable Long maxAgeSeconds) {
+        if (recording != null) {
+            return new WebEndpointResponse<>(Map.of("error", "A recording is already running"), 409);
+        }
+        if (maxAgeSeconds != null && (maxAgeSeconds <= 0 || maxAgeSeconds > maxAge.toSeconds())) {
+            return new WebEndpointResponse<>(Map.of("error", "maxAgeSeconds must be between 1 and " + maxAge.toSeconds()),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown settings: " + settings),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName(RECORDING_NAME);
+        newRecording.setToDisk(true);
+        newRecording.setMaxSize(maxSizeBytes);
+        newRecording.setMaxAge(maxAgeSeconds != null ? Duration.ofSeconds(maxAgeSeconds) : maxAge);
+        newRecording.enable(FlightRecorderEvents.AnswerSubmission.class);
+        newRecording.enable(FlightRecorderEvents.GameStateCreation.class);
+        newRecording.enable(FlightRecorderEvents.GameStateBroadcast.class);
+        newRecording.enable(FlightRecorderEvents.TimerTick.class);
+        newRecording.enable(FlightRecorderEvents.PlayerJoin.class);
+        newRecording.start();
+        recording = newRecording;
+        return new WebEndpointResponse<>(status());
+    }
+
+    /**
+     * Stops the recording and dumps it to a file.
+     *
+     * @return the path and size of the file; or status 404 if no recording is running
+     * @throws IOException if the recording cannot be written
+     */
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> stop() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(Map.of("error", "No recording is running"),
+                    WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+
+        try {
+            recording.stop();
+            Files.createDirectories(directory);
+            Path file = directory.resolve("kwiz-" + FILE_TIMESTAMP.format(Instant.now()) + "-" + recording.getId() + ".jfr");
+            recording.dump(file);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("file", file.toAbsolutePath().toString());
+            result.put("bytes", Files.size(file));
+            return new WebEndpointResponse<>(result);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+}
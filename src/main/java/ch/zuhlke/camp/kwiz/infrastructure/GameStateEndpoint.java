@@ -1,28 +1,62 @@
 package ch.zuhlke.camp.kwiz.infrastructure;
 
-import ch.zuhlke.camp.kwiz.application.GameOrchestrationService;
 import ch.zuhlke.camp.kwiz.domain.Game;
 import ch.zuhlke.camp.kwiz.domain.GameEngine;
+import ch.zuhlke.camp.kwiz.domain.GameStatus;
+import ch.zuhlke.camp.kwiz.domain.Question;
 import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.domain.Round;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Custom actuator endpoint to expose the game state.
- * This endpoint provides information about all quizzes, rounds, questions, and players.
+ * <p>
+ * {@code /actuator/gamestate} returns how many quizzes and games there are in each state.
+ * {@code /actuator/gamestate/quizzes} and {@code /actuator/gamestate/games} return the quizzes or games
+ * themselves, ordered by ID, one page at a time:
+ * <ul>
+ *     <li>{@code status}: only "lobby", "active" or "over" items</li>
+ *     <li>{@code cursor}: the {@code nextCursor} of the previous page</li>
+ *     <li>{@code limit}: the page size, {@value #DEFAULT_LIMIT} by default and at most {@value #MAX_LIMIT}</li>
+ *     <li>{@code summary}: if true, only counts instead of players, rounds and questions</li>
+ *     <li>{@code format}: "ndjson" streams all items (or up to {@code limit}) as one JSON object per line</li>
+ * </ul>
+ * Each item is a snapshot taken while holding the lock of its quiz or game, so it is consistent in itself,
+ * and only one item at a time is built while streaming.
  */
 @Component
 @Endpoint(id = "gamestate")
 public class GameStateEndpoint {
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final List<String> STATUSES = List.of("lobby", "active", "over");
 
     private final InMemoryGameRepository gameRepository;
     private final GameEngine gameEngine;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     public GameStateEndpoint(InMemoryGameRepository gameRepository, GameEngine gameEngine) {
         this.gameRepository = gameRepository;
@@ -30,114 +64,205 @@ public class GameStateEndpoint {
     }
 
     /**
-     * Provides a comprehensive view of the application state including all quizzes,
-     * rounds, questions, and players.
+     * Counts the quizzes and games in each state.
      *
-     * @return A map containing the application state
+     * @return the total and the count per status ("lobby", "active" and "over") of quizzes and of games
      */
     @ReadOperation
     public Map<String, Object> gameState() {
         Map<String, Object> state = new HashMap<>();
-        
-        // Get all quizzes
-        List<Quiz> quizzes = gameEngine.getQuizzes();
-        List<Map<String, Object>> quizzesList = quizzes.stream()
-                .map(this::mapQuizToDto)
-                .collect(Collectors.toList());
-        state.put("quizzes", quizzesList);
-        
-        // Get all active games
-        List<Game> games = gameRepository.findAll();
-        List<Map<String, Object>> gamesList = games.stream()
-                .map(this::mapGameToDto)
-                .collect(Collectors.toList());
-        state.put("games", gamesList);
-        
+        state.put("quizzes", countByStatus(gameEngine.getQuizzes().stream().map(this::quizStatus).toList()));
+        state.put("games", countByStatus(gameRepository.findAll().stream().map(game -> gameStatus(game.getStatus())).toList()));
         return state;
     }
-    
-    private Map<String, Object> mapQuizToDto(Quiz quiz) {
-        Map<String, Object> quizDto = new HashMap<>();
-        quizDto.put("id", quiz.getId());
-        quizDto.put("name", quiz.getName());
-        quizDto.put("maxPlayers", quiz.getMaxPlayers());
-        quizDto.put("started", quiz.isStarted());
-        quizDto.put("ended", quiz.isEnded());
-        
-        // Map players
-        List<Map<String, Object>> playersList = quiz.getPlayers().stream()
-                .map(player -> {
-                    Map<String, Object> playerDto = new HashMap<>();
-                    playerDto.put("id", player.getId());
-                    playerDto.put("name", player.getName());
-                    return playerDto;
-                })
-                .collect(Collectors.toList());
-        quizDto.put("players", playersList);
-        
-        // Map rounds
-        List<Map<String, Object>> roundsList = quiz.getRounds().stream()
-                .map(round -> {
-                    Map<String, Object> roundDto = new HashMap<>();
-                    roundDto.put("id", round.getId());
-                    roundDto.put("name", round.getName());
-                    roundDto.put("active", round.isActive());
-                    roundDto.put("completed", round.isCompleted());
-                    
-                    // Map questions
-                    List<Map<String, Object>> questionsList = round.getQuestions().stream()
-                            .map(question -> {
-                                Map<String, Object> questionDto = new HashMap<>();
-                                questionDto.put("id", question.getId());
-                                questionDto.put("text", question.getText());
-                                questionDto.put("timeLimit", question.getTimeLimit());
-                                return questionDto;
-                            })
-                            .collect(Collectors.toList());
-                    roundDto.put("questions", questionsList);
-                    
-                    return roundDto;
-                })
-                .collect(Collectors.toList());
-        quizDto.put("rounds", roundsList);
-        
-        return quizDto;
+
+    /**
+     * Returns one page of quizzes or games, or streams them as NDJSON.
+     *
+     * @param collection "quizzes" or "games"
+     * @param status only return items with this status ("lobby", "active" or "over"), or null for all
+     * @param cursor only return items with an ID after this one, or null to start at the first item
+     * @param limit the maximum number of items, or null for the default
+     * @param summary whether to leave out players, rounds and questions
+     * @param format "ndjson" to stream the items, or null for a JSON page
+     * @return the page with the items and the cursor of the next page (null on the last page), or the NDJSON stream;
+     *         or status 400 for invalid parameters
+     */
+    @ReadOperation(produces = {"application/vnd.spring-boot.actuator.v3+json", "application/json", NDJSON})
+    public WebEndpointResponse<Object> collection(@Selector String collection,
+                                                  @Nullable String status,
+                                                  @Nullable String cursor,
+                                                  @Nullable Integer limit,
+                                                  @Nullable Boolean summary,
+                                                  @Nullable String format) {
+        if (status != null && !STATUSES.contains(status)) {
+            return badRequest("Unknown status: " + status + ", expected one of " + STATUSES);
+        }
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            return badRequest("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        boolean streaming = "ndjson".equals(format);
+        if (format != null && !streaming) {
+            return badRequest("Unknown format: " + format + ", expected ndjson");
+        }
+        boolean summaryOnly = Boolean.TRUE.equals(summary);
+
+        return switch (collection) {
+            case "quizzes" -> respond(select(gameEngine.getQuizzes(), Quiz::getId, this::quizStatus, status, cursor),
+                    quiz -> quizSnapshot(quiz, summaryOnly), Quiz::getId, limit, streaming);
+            case "games" -> respond(select(gameRepository.findAll(), Game::getId, game -> gameStatus(game.getStatus()), status, cursor),
+                    game -> gameSnapshot(game, summaryOnly), Game::getId, limit, streaming);
+            default -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        };
     }
-    
-    private Map<String, Object> mapGameToDto(Game game) {
-        Map<String, Object> gameDto = new HashMap<>();
-        gameDto.put("id", game.getId());
-        gameDto.put("quizDefinitionId", game.getQuizDefinitionId());
-        gameDto.put("adminId", game.getAdminId());
-        gameDto.put("status", game.getStatus());
-        gameDto.put("currentRoundIndex", game.getCurrentRoundIndex());
-        gameDto.put("currentQuestionIndex", game.getCurrentQuestionIndex());
-        gameDto.put("currentQuestionRemainingSeconds", game.getCurrentQuestionRemainingSeconds());
-        gameDto.put("acceptingAnswers", game.isAcceptingAnswers());
-        
-        // Map players
-        List<Map<String, Object>> playersList = game.getPlayers().values().stream()
-                .map(player -> {
-                    Map<String, Object> playerDto = new HashMap<>();
-                    playerDto.put("playerId", player.getPlayerId());
-                    playerDto.put("displayName", player.getDisplayName());
-                    playerDto.put("score", player.getScore());
-                    return playerDto;
-                })
+
+    /**
+     * Returns the items after the cursor with the given status, ordered by ID.
+     * Only references are copied and sorted here; the items are not read yet.
+     */
+    private static <T> List<T> select(List<T> items, Function<T, String> id, Function<T, String> statusOf,
+                                      String status, String cursor) {
+        return items.stream()
+                .filter(item -> cursor == null || id.apply(item).compareTo(cursor) > 0)
+                .filter(item -> status == null || status.equals(statusOf.apply(item)))
+                .sorted(Comparator.comparing(id))
                 .collect(Collectors.toList());
-        gameDto.put("players", playersList);
-        
-        // Map rounds
-        List<Map<String, Object>> roundsList = game.getRounds().stream()
+    }
+
+    private <T> WebEndpointResponse<Object> respond(List<T> items, Function<T, Map<String, Object>> snapshot,
+                                                    Function<T, String> id, Integer limit, boolean streaming) {
+        if (streaming) {
+            List<T> streamed = limit == null ? items : items.subList(0, Math.min(limit, items.size()));
+            InputStream lines = new NdjsonInputStream<>(streamed.iterator(), snapshot, objectMapper);
+            return new WebEndpointResponse<>(new InputStreamResource(lines), WebEndpointResponse.STATUS_OK,
+                    MimeType.valueOf(NDJSON));
+        }
+
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        List<T> page = items.subList(0, Math.min(pageSize, items.size()));
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", page.stream().map(snapshot).toList());
+        response.put("nextCursor", items.size() > page.size() ? id.apply(page.get(page.size() - 1)) : null);
+        return new WebEndpointResponse<>(response);
+    }
+
+    private static WebEndpointResponse<Object> badRequest(String error) {
+        return new WebEndpointResponse<>(Map.of("error", error), WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+
+    private static Map<String, Object> countByStatus(List<String> statuses) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("total", statuses.size());
+        for (String status : STATUSES) {
+            counts.put(status, statuses.stream().filter(status::equals).count());
+        }
+        return counts;
+    }
+
+    private String quizStatus(Quiz quiz) {
+        if (!quiz.isStarted()) {
+            return "lobby";
+        }
+        if (quiz.isEnded()) {
+            return "over";
+        }
+        // A started quiz is over when its game is over
+        String gameId = quiz.getCurrentGameId();
+        return gameId != null && gameRepository.findById(gameId)
+                .map(game -> game.getStatus() == GameStatus.GAME_OVER)
+                .orElse(false) ? "over" : "active";
+    }
+
+    private static String gameStatus(GameStatus status) {
+        return switch (status) {
+            case LOBBY -> "lobby";
+            case GAME_OVER -> "over";
+            default -> "active";
+        };
+    }
+
+    private Map<String, Object> quizSnapshot(Quiz quiz, boolean summary) {
+        String status = quizStatus(quiz);
+        // Joins, leaves and changes of the rounds and their questions hold the quiz lock, so the snapshot is consistent
+        synchronized (quiz) {
+            Map<String, Object> quizDto = new HashMap<>();
+            quizDto.put("id", quiz.getId());
+            quizDto.put("name", quiz.getName());
+            quizDto.put("status", status);
+            quizDto.put("maxPlayers", quiz.getMaxPlayers());
+            quizDto.put("started", quiz.isStarted());
+            quizDto.put("ended", quiz.isEnded());
+            quizDto.put("currentGameId", quiz.getCurrentGameId());
+            quizDto.put("playerCount", quiz.getPlayers().size());
+            quizDto.put("roundCount", quiz.getRounds().size());
+            if (summary) {
+                return quizDto;
+            }
+
+            // Map players
+            List<Map<String, Object>> playersList = quiz.getPlayers().stream()
+                    .map(player -> {
+                        Map<String, Object> playerDto = new HashMap<>();
+                        playerDto.put("id", player.getId());
+                        playerDto.put("name", player.getName());
+                        return playerDto;
+                    })
+                    .collect(Collectors.toList());
+            quizDto.put("players", playersList);
+            quizDto.put("rounds", mapRounds(quiz.getRounds()));
+            return quizDto;
+        }
+    }
+
+    private Map<String, Object> gameSnapshot(Game game, boolean summary) {
+        // All changes of a game hold the game lock, so the snapshot is consistent
+        synchronized (game) {
+            Map<String, Object> gameDto = new HashMap<>();
+            gameDto.put("id", game.getId());
+            gameDto.put("quizDefinitionId", game.getQuizDefinitionId());
+            gameDto.put("adminId", game.getAdminId());
+            gameDto.put("status", game.getStatus());
+            gameDto.put("currentRoundIndex", game.getCurrentRoundIndex());
+            gameDto.put("currentQuestionIndex", game.getCurrentQuestionIndex());
+            gameDto.put("currentQuestionRemainingSeconds", game.getCurrentQuestionRemainingSeconds());
+            gameDto.put("acceptingAnswers", game.isAcceptingAnswers());
+            gameDto.put("playerCount", game.getPlayers().size());
+            gameDto.put("roundCount", game.getRounds().size());
+            if (summary) {
+                return gameDto;
+            }
+
+            // Map players
+            List<Map<String, Object>> playersList = game.getPlayers().values().stream()
+                    .map(player -> {
+                        Map<String, Object> playerDto = new HashMap<>();
+                        playerDto.put("playerId", player.getPlayerId());
+                        playerDto.put("displayName", player.getDisplayName());
+                        playerDto.put("score", player.getScore());
+                        return playerDto;
+                    })
+                    .collect(Collectors.toList());
+            gameDto.put("players", playersList);
+            gameDto.put("rounds", mapRounds(game.getRounds()));
+            return gameDto;
+        }
+    }
+
+    private static List<Map<String, Object>> mapRounds(List<Round> rounds) {
+        return rounds.stream()
                 .map(round -> {
                     Map<String, Object> roundDto = new HashMap<>();
                     roundDto.put("id", round.getId());
                     roundDto.put("name", round.getName());
                     roundDto.put("active", round.isActive());
                     roundDto.put("completed", round.isCompleted());
-                    
-                    // Map questions
-                    List<Map<String, Object>> questionsList = round.getQuestions().stream()
+
+                    // Map questions, copied under the round lock that guards them
+                    List<Question> questions;
+                    synchronized (round) {
+                        questions = new ArrayList<>(round.getQuestions());
+                    }
+                    List<Map<String, Object>> questionsList = questions.stream()
                             .map(question -> {
                                 Map<String, Object> questionDto = new HashMap<>();
                                 questionDto.put("id", question.getId());
@@ -147,12 +272,64 @@ public class GameStateEndpoint {
                             })
                             .collect(Collectors.toList());
                     roundDto.put("questions", questionsList);
-                    
+
                     return roundDto;
                 })
                 .collect(Collectors.toList());
-        gameDto.put("rounds", roundsList);
-        
-        return gameDto;
     }
-}
\ No newline at end of file
+
+    /**
+     * Serializes one item at a time, when the response writer asks for more bytes,
+     * so the whole state is never held in memory.
+     */
+    static class NdjsonInputStream<T> extends InputStream {
+        private final Iterator<T> items;
+        private final Function<T, Map<String, Object>> snapshot;
+        private final ObjectMapper objectMapper;
+        private byte[] line = new byte[0];
+        private int position;
+
+        NdjsonInputStream(Iterator<T> items, Function<T, Map<String, Object>> snapshot, ObjectMapper objectMapper) {
+            this.items = items;
+            this.snapshot = snapshot;
+            this.objectMapper = objectMapper;
+        }
+
+        private boolean fill() {
+            while (position == line.length) {
+                if (!items.hasNext()) {
+                    return false;
+                }
+                try {
+                    byte[] json = objectMapper.writeValueAsBytes(snapshot.apply(items.next()));
+                    line = new byte[json.length + 1];
+                    System.arraycopy(json, 0, line, 0, json.length);
+                    line[json.length] = '\n';
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() {
+            return fill() ? line[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
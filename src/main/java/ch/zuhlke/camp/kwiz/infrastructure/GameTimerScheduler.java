@@ -3,6 +3,10 @@ package ch.zuhlke.camp.kwiz.infrastructure;
 import ch.zuhlke.camp.kwiz.domain.Game;
 import ch.zuhlke.camp.kwiz.domain.GameStatus;
 import ch.zuhlke.camp.kwiz.events.TimerElapsedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -11,23 +15,49 @@ import org.springframework.stereotype.Component;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GameTimerScheduler is responsible for managing the timers for active games.
  * It periodically publishes TimerElapsedEvent for each active game.
+ * <p>
+ * How late each tick starts compared to its schedule is recorded in the {@value #TICK_LAG_METER} timer,
+ * and how long it takes to process all games in the {@value #TICK_DURATION_METER} timer. A growing lag
+ * means that the question timers of all games run slow.
  */
 @Component
 @EnableScheduling
 public class GameTimerScheduler {
+    static final String TICK_LAG_METER = "kwiz.timer.tick.lag";
+    static final String TICK_DURATION_METER = "kwiz.timer.tick.duration";
+    private static final long TICK_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final ApplicationEventPublisher eventPublisher;
     private final InMemoryGameRepository gameRepository;
+    private final Timer tickLag;
+    private final Timer tickDuration;
+
+    // When the next tick is due, or 0 before the first tick
+    private long nextTickDueNanos;
 
     // Map to track which games have active timers
     private final ConcurrentMap<String, Boolean> activeGameTimers = new ConcurrentHashMap<>();
 
     public GameTimerScheduler(ApplicationEventPublisher eventPublisher, InMemoryGameRepository gameRepository) {
+        this(eventPublisher, gameRepository, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public GameTimerScheduler(ApplicationEventPublisher eventPublisher, InMemoryGameRepository gameRepository,
+                              MeterRegistry meterRegistry) {
         this.eventPublisher = eventPublisher;
         this.gameRepository = gameRepository;
+        this.tickLag = Timer.builder(TICK_LAG_METER)
+                .description("Delay of game timer ticks behind their schedule")
+                .register(meterRegistry);
+        this.tickDuration = Timer.builder(TICK_DURATION_METER)
+                .description("Time to process a game timer tick for all active games")
+                .register(meterRegistry);
     }
 
     /**
@@ -54,13 +84,21 @@ public class GameTimerScheduler {
      */
     @Scheduled(fixedRate = 1000) // Run every 1000 milliseconds (1 second)
     public void updateGameTimers() {
+        FlightRecorderEvents.TimerTick event = new FlightRecorderEvents.TimerTick();
+        event.begin();
+        long start = System.nanoTime();
+        long lag = recordTickLag(start);
+        int activeQuestions = 0;
+
         // Process all registered games
         for (String gameId : activeGameTimers.keySet()) {
             try {
                 // Get the game from the repository
-                gameRepository.findById(gameId).ifPresent(game -> {
+                Game game = gameRepository.findById(gameId).orElse(null);
+                if (game != null) {
                     // Only process games with active questions
                     if (game.getStatus() == GameStatus.QUESTION_ACTIVE) {
+                        activeQuestions++;
                         // Publish a TimerElapsedEvent instead of directly calling GameOrchestrationService
                         eventPublisher.publishEvent(new TimerElapsedEvent(this, gameId, gameId));
 
@@ -69,12 +107,40 @@ public class GameTimerScheduler {
                             unregisterGame(gameId);
                         }
                     }
-                });
+                }
             } catch (Exception e) {
                 // Log the error but continue processing other games
                 System.err.println("Error updating timer for game " + gameId + ": " + e.getMessage());
             }
         }
+        tickDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        event.end();
+        if (event.shouldCommit()) {
+            event.games = activeGameTimers.size();
+            event.activeQuestions = activeQuestions;
+            event.lagNanos = lag;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records how late a tick starts.
+     *
+     * @param now the start of the tick
+     * @return the lag in nanoseconds
+     */
+    private long recordTickLag(long now) {
+        long lag = 0;
+        if (nextTickDueNanos != 0) {
+            lag = Math.max(now - nextTickDueNanos, 0);
+            tickLag.record(lag, TimeUnit.NANOSECONDS);
+            // After a stall of more than one period, measure the following ticks against the new schedule
+            nextTickDueNanos = lag > TICK_PERIOD_NANOS ? now : nextTickDueNanos;
+        } else {
+            nextTickDueNanos = now;
+        }
+        nextTickDueNanos += TICK_PERIOD_NANOS;
+        return lag;
     }
 
     /**
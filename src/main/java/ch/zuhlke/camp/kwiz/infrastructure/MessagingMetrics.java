@@ -0,0 +1,120 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessagingMetrics publishes the meters of the STOMP messages sent to clients:
+ * <ul>
+ *     <li>{@value #SEND_METER}: timer of handing a message to the broker, which includes the fan-out
+ *     to every subscribed session</li>
+ *     <li>{@value #OUTBOUND_BYTES_METER}: size of every message written to a client session, so a broadcast
+ *     to 1,000 players counts 1,000 times</li>
+ * </ul>
+ * Both are tagged with the {@code destination} kind, e.g. "game-state" for "/topic/game/{gameId}/state",
+ * never with the destination itself, which would create time series per game and player.
+ */
+@Component
+public class MessagingMetrics {
+    static final String SEND_METER = "kwiz.messaging.send";
+    static final String OUTBOUND_BYTES_METER = "kwiz.messaging.outbound.bytes";
+
+    private final MeterRegistry meterRegistry;
+    // There are only a few destination kinds, so the meters are cached by kind
+    private final Map<String, Timer> sendTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> outboundBytes = new ConcurrentHashMap<>();
+
+    public MessagingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns metrics that are not published.
+     *
+     * @return the metrics
+     */
+    public static MessagingMetrics unpublished() {
+        return new MessagingMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Sends a message and records how long it took.
+     *
+     * @param destination the destination of the message
+     * @param send sends the message
+     */
+    public void timeSend(String destination, Runnable send) {
+        long start = System.nanoTime();
+        send.run();
+        sendTimers.computeIfAbsent(destinationKind(destination), kind -> Timer.builder(SEND_METER)
+                        .description("Handing a message to the broker, including the fan-out to all subscribers")
+                        .tag("destination", kind)
+                        .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns an interceptor for the client outbound channel that records the size of every message.
+     *
+     * @return the interceptor
+     */
+    public ChannelInterceptor outboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (message.getPayload() instanceof byte[] payload
+                        && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                    outboundBytes.computeIfAbsent(destinationKind(destination), kind -> DistributionSummary.builder(OUTBOUND_BYTES_METER)
+                                    .description("Size of the messages written to client sessions")
+                                    .baseUnit("bytes")
+                                    .tag("destination", kind)
+                                    .register(meterRegistry))
+                            .record(payload.length);
+                }
+                return message;
+            }
+        };
+    }
+
+    /**
+     * Maps a destination to its kind, which does not contain any IDs.
+     *
+     * @param destination the destination, e.g. "/topic/game/{gameId}/state"
+     * @return the kind, e.g. "game-state"; or "other" for unknown destinations
+     */
+    static String destinationKind(String destination) {
+        if (destination == null) {
+            return "other";
+        }
+        if (destination.startsWith("/topic/game/")) {
+            if (destination.endsWith("/state")) {
+                return "game-state";
+            }
+            if (destination.endsWith("/answer")) {
+                return "player-answer";
+            }
+        } else if (destination.startsWith("/topic/quiz/") && destination.endsWith("/updates")) {
+            return "quiz-updates";
+        } else if (destination.startsWith("/user/queue/answers") || destination.startsWith("/queue/answers")) {
+            return "answer-receipt";
+        } else if (destination.startsWith("/user/queue/latency") || destination.startsWith("/queue/latency")) {
+            return "player-ping";
+        } else if (destination.startsWith("/app/quiz/") && destination.endsWith("/roster")) {
+            return "roster-snapshot";
+        }
+        return "other";
+    }
+}
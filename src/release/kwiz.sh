@@ -0,0 +1,12 @@
+#!/bin/sh
+# Starts Kwiz from the extracted release with the class data sharing archive that was trained at build time.
+# If the archive does not match the JVM or the jar (e.g. after a JDK update), the JVM ignores it and
+# writes a new one when it exits, so the next start uses a matching archive again.
+APP_DIR=$(cd "$(dirname "$0")" && pwd)
+
+export SPRING_PROFILES_ACTIVE="${SPRING_PROFILES_ACTIVE:-prod}"
+
+exec java $JAVA_OPTS \
+    -XX:SharedArchiveFile="$APP_DIR/kwiz.jsa" \
+    -XX:+AutoCreateSharedArchive \
+    -jar "$APP_DIR/kwiz.jar" "$@"
@@ -0,0 +1,101 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerDedupCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnswerDedupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AnswerDedupCache(meterRegistry, 2);
+    }
+
+    @Test
+    void shouldReturnOriginalOutcomeOfRetry() {
+        // Given
+        cache.record("game1", "player1", "key1", CommandResult.accepted(true));
+
+        // When/Then
+        assertTrue(cache.lookup("game1", "player1", "key1").isAccepted());
+        assertNull(cache.lookup("game1", "player1", "key3"));
+        assertNull(cache.lookup("game2", "player1", "key1"));
+        assertNull(cache.lookup("game1", "player1", null));
+    }
+
+    @Test
+    void shouldKeepFirstOutcomeAndIgnoreKeysOfOtherPlayers() {
+        // Given
+        cache.record("game1", "player1", "key1", CommandResult.accepted(true));
+        cache.record("game1", "player2", "key1", CommandResult.rejected(RejectionReason.SUBMISSION_ID_CONFLICT,
+                "Submission belongs to another player"));
+
+        // When/Then
+        assertTrue(cache.lookup("game1", "player1", "key1").isAccepted());
+        assertNull(cache.lookup("game1", "player2", "key1"));
+    }
+
+    @Test
+    void shouldNotRememberRejections() {
+        // Given
+        cache.record("game1", "player1", "key1", CommandResult.rejected(RejectionReason.NOT_ACCEPTING_ANSWERS,
+                "Game is not currently accepting answers"));
+
+        // When
+        cache.record("game1", "player1", "key1", CommandResult.accepted(true));
+
+        // Then
+        assertTrue(cache.lookup("game1", "player1", "key1").isAccepted());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedOutcome() {
+        // Given
+        cache.record("game1", "player1", "key1", CommandResult.accepted(true));
+        cache.record("game1", "player2", "key2", CommandResult.accepted(true));
+        cache.lookup("game1", "player1", "key1");
+
+        // When
+        cache.record("game1", "player3", "key3", CommandResult.accepted(true));
+
+        // Then
+        assertNotNull(cache.lookup("game1", "player1", "key1"));
+        assertNull(cache.lookup("game1", "player2", "key2"));
+        assertNotNull(cache.lookup("game1", "player3", "key3"));
+    }
+
+    @Test
+    void shouldForgetGame() {
+        // Given
+        cache.record("game1", "player1", "key1", CommandResult.accepted(true));
+
+        // When
+        cache.forgetGame("game1");
+
+        // Then
+        assertNull(cache.lookup("game1", "player1", "key1"));
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        // Given
+        cache.record("game1", "player1", "key1", CommandResult.accepted(true));
+
+        // When
+        cache.lookup("game1", "player1", "key1");
+        cache.lookup("game1", "player1", "key1");
+        cache.lookup("game1", "player1", "key2");
+
+        // Then
+        assertEquals(2.0, meterRegistry.get(AnswerDedupCache.LOOKUPS_METER).tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get(AnswerDedupCache.LOOKUPS_METER).tag("result", "miss").counter().count());
+    }
+}
@@ -0,0 +1,106 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
+import ch.zuhlke.camp.kwiz.domain.Game;
+import ch.zuhlke.camp.kwiz.domain.Player;
+import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
+import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryGameRepository gameRepository;
+    private GameMetrics gameMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gameRepository = new InMemoryGameRepository();
+        gameMetrics = new GameMetrics(meterRegistry, gameRepository, false);
+    }
+
+    @Test
+    void shouldRecordAnswersByChannelResultAndReason() {
+        // When
+        long start = System.nanoTime();
+        gameMetrics.recordAnswer(GameMetrics.Channel.REST, "game1", CommandResult.accepted(true), start);
+        gameMetrics.recordAnswer(GameMetrics.Channel.STOMP, "game1", CommandResult.accepted(false), start);
+        gameMetrics.recordAnswer(GameMetrics.Channel.STOMP, "game1",
+                CommandResult.rejected(RejectionReason.NOT_ACCEPTING_ANSWERS, "Game is not currently accepting answers"), start);
+
+        // Then
+        assertEquals(1, meterRegistry.get(GameMetrics.ANSWERS_METER)
+                .tags("channel", "rest", "result", "accepted", "reason", "none").timer().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.ANSWERS_METER)
+                .tags("channel", "stomp", "result", "duplicate", "reason", "none").timer().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.ANSWERS_METER)
+                .tags("channel", "stomp", "result", "rejected", "reason", "NOT_ACCEPTING_ANSWERS").timer().count());
+        assertTrue(meterRegistry.find(GameMetrics.ANSWERS_METER).tagKeys("gameId").timers().isEmpty());
+    }
+
+    @Test
+    void shouldTagAnswersWithGameIdOnlyIfEnabled() {
+        // Given
+        meterRegistry = new SimpleMeterRegistry();
+        gameMetrics = new GameMetrics(meterRegistry, gameRepository, true);
+
+        // When
+        gameMetrics.recordAnswer(GameMetrics.Channel.REST, "game1", CommandResult.accepted(true), System.nanoTime());
+
+        // Then
+        assertEquals(1, meterRegistry.get(GameMetrics.ANSWERS_METER)
+                .tags("gameId", "game1", "result", "accepted").timer().count());
+        assertTrue(meterRegistry.find(GameMetrics.ANSWERS_METER).tag("result", "duplicate").timers().isEmpty());
+    }
+
+    @Test
+    void shouldCountJoins() {
+        // When
+        gameMetrics.recordJoin(CommandResult.accepted(new Player("Alice")));
+        gameMetrics.recordJoin(CommandResult.rejected(RejectionReason.QUIZ_FULL, "Quiz is full"));
+
+        // Then
+        assertEquals(1, meterRegistry.get(GameMetrics.JOINS_METER).tags("result", "accepted").counter().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.JOINS_METER).tags("reason", "QUIZ_FULL").counter().count());
+    }
+
+    @Test
+    void shouldOnlyRegisterMetersOfReasonsThePathCanProduce() {
+        // Then
+        assertTrue(meterRegistry.find(GameMetrics.ANSWERS_METER).tag("reason", "QUIZ_FULL").timers().isEmpty());
+        assertTrue(meterRegistry.find(GameMetrics.JOINS_METER).tag("reason", "ALREADY_ANSWERED").counters().isEmpty());
+
+        // When
+        gameMetrics.recordJoin(CommandResult.rejected(RejectionReason.ALREADY_ANSWERED, "Unexpected"));
+
+        // Then
+        assertEquals(1, meterRegistry.get(GameMetrics.JOINS_METER).tags("reason", "ALREADY_ANSWERED").counter().count());
+    }
+
+    @Test
+    void shouldGaugeLiveGamesAndPlayers() {
+        // Given
+        Game game = new Game("quiz1", "admin");
+        game.addPlayer("player1", "Alice");
+        game.addPlayer("player2", "Bob");
+        gameRepository.save(game);
+
+        Quiz lobby = new Quiz("quiz2", "Lobby Quiz", 10);
+        lobby.addPlayer(new Player("Carol"));
+        gameMetrics.registerQuizGauges(() -> List.of(lobby));
+
+        // Then
+        assertEquals(1, meterRegistry.get(GameMetrics.LIVE_GAMES_METER).gauge().value());
+        assertEquals(1, meterRegistry.get(GameMetrics.LOBBY_QUIZZES_METER).gauge().value());
+        assertEquals(2, meterRegistry.get(GameMetrics.LIVE_PLAYERS_METER).tag("state", "game").gauge().value());
+        assertEquals(1, meterRegistry.get(GameMetrics.LIVE_PLAYERS_METER).tag("state", "lobby").gauge().value());
+    }
+}
@@ -1,6 +1,7 @@
 package ch.zuhlke.camp.kwiz.application;
 
 import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
 import ch.zuhlke.camp.kwiz.domain.Game;
 import ch.zuhlke.camp.kwiz.domain.GameEngine;
 import ch.zuhlke.camp.kwiz.domain.GameStatus;
@@ -155,6 +156,49 @@ class GameOrchestrationServiceTest {
         verify(gameRepository, never()).save(game);
     }
 
+    @Test
+    void testRetriedSubmissionReturnsOriginalOutcomeWithoutTouchingGame() {
+        // Submit an answer and retry it with the same idempotency key
+        gameOrchestrationService.submitPlayerAnswer(gameId, "submission1", playerId, question.getId(), "4", null);
+        gameOrchestrationService.submitPlayerAnswer(gameId, "submission1", playerId, question.getId(), "4", null);
+
+        // Verify the retry neither looked up the game nor broadcast it again
+        verify(gameRepository, times(1)).findById(gameId);
+        verify(gameRepository, times(1)).save(game);
+        verify(webSocketController, times(1)).broadcastGameState(eq(gameId), any(GameOrchestrationService.GameStateDTO.class));
+        verify(webSocketController, times(1)).sendPlayerAnswerConfirmation(gameId, playerId, question.getId());
+        assertEquals(1, game.getPlayerSubmissions().size());
+    }
+
+    @Test
+    void testRetriedRejectedSubmissionIsCheckedAgain() {
+        // Submit an answer while the game is not accepting answers
+        game.adminCloseCurrentQuestion(adminId);
+        assertThrows(IllegalStateException.class, () ->
+                gameOrchestrationService.submitPlayerAnswer(gameId, "submission1", playerId, question.getId(), "4", null));
+
+        // Retry it and verify the game is asked again, as a rejection may be transient
+        Exception exception = assertThrows(IllegalStateException.class, () ->
+                gameOrchestrationService.submitPlayerAnswer(gameId, "submission1", playerId, question.getId(), "4", null));
+        assertEquals("Game is not currently accepting answers", exception.getMessage());
+        verify(webSocketController, times(2)).sendPlayerAnswerError(eq(gameId), eq(playerId), eq(question.getId()), anyString());
+        verify(gameRepository, times(2)).findById(gameId);
+    }
+
+    @Test
+    void testRetriedAcceptedSubmissionSucceedsAfterQuestionClosed() {
+        // Submit an answer and close the question
+        gameOrchestrationService.submitPlayerAnswer(gameId, "submission1", playerId, question.getId(), "4", null);
+        game.adminCloseCurrentQuestion(adminId);
+
+        // Verify the retry is answered from the cache as a duplicate
+        CommandResult<Boolean> result = gameOrchestrationService.trySubmitPlayerAnswer(gameId, "submission1", playerId,
+                question.getId(), "4", null);
+        assertTrue(result.isAccepted());
+        assertFalse(result.getValue());
+        assertEquals(1, game.getPlayerSubmissions().size());
+    }
+
     @Test
     void testAdminCloseCurrentQuestion() {
         // Call the service method
@@ -291,5 +335,22 @@ class GameOrchestrationServiceTest {
         assertEquals(playerId, gameState.getPlayers().get(0).getPlayerId());
         assertEquals(playerName, gameState.getPlayers().get(0).getDisplayName());
         assertEquals(0, gameState.getPlayers().get(0).getScore());
+        assertNull(gameState.getAnswerDistribution());
+    }
+
+    @Test
+    void testGetGameSnapshotRevealsAnswerDistributionWithCorrectAnswer() {
+        // Answer and close the question
+        game.acceptPlayerAnswer(playerId, question.getId(), "4");
+        game.adminCloseCurrentQuestion(adminId);
+
+        // Call the service method
+        GameOrchestrationService.GameStateDTO gameState = gameOrchestrationService.getGameSnapshot(gameId);
+
+        // Verify the answer distribution is revealed
+        assertEquals("4", gameState.getCorrectAnswer());
+        assertEquals(1, gameState.getAnswerDistribution().size());
+        assertEquals("4", gameState.getAnswerDistribution().get(0).getAnswer());
+        assertEquals(1, gameState.getAnswerDistribution().get(0).getCount());
     }
 }
@@ -0,0 +1,67 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.domain.ManualGameClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JitWarmupTest {
+
+    private static JitWarmup warmup(int maxIterations, int window, double tolerance, long maxDurationMs) {
+        return new JitWarmup(new MappingJackson2MessageConverter(), new ManualGameClock(0), maxIterations, 3, 6,
+                window, tolerance, maxDurationMs);
+    }
+
+    @Test
+    void shouldStopOnceTwoWindowsAgree() {
+        // Given
+        JitWarmup warmup = warmup(50, 2, 100.0, 60_000);
+
+        // When
+        JitWarmup.Result result = warmup.warmUp();
+
+        // Then
+        assertTrue(result.stabilized());
+        assertEquals(4, result.iterations());
+        assertTrue(result.firstIterationMs() > 0);
+    }
+
+    @Test
+    void shouldPlayAtLeastOneGameWithoutStabilizing() {
+        // Given
+        JitWarmup warmup = warmup(50, 2, 100.0, 0);
+
+        // When
+        JitWarmup.Result result = warmup.warmUp();
+
+        // Then
+        assertFalse(result.stabilized());
+        assertEquals(1, result.iterations());
+        assertEquals(result.firstIterationMs(), result.stableIterationMs());
+    }
+
+    @Test
+    void shouldReportResultAsHealth() {
+        // Given
+        JitWarmup warmup = warmup(50, 2, 100.0, 60_000);
+        assertEquals(Status.UNKNOWN, warmup.health().getStatus());
+
+        // When
+        warmup.warmUp();
+        Health health = warmup.health();
+
+        // Then
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(true, health.getDetails().get("stabilized"));
+        assertEquals(4, health.getDetails().get("iterations"));
+    }
+
+    @Test
+    void shouldRejectWindowsLargerThanHalfTheIterations() {
+        assertThrows(IllegalArgumentException.class, () -> warmup(3, 2, 0.1, 60_000));
+        assertThrows(IllegalArgumentException.class, () -> warmup(10, 0, 0.1, 60_000));
+    }
+}
@@ -0,0 +1,190 @@
+package ch.zuhlke.camp.kwiz.application;
+
+import ch.zuhlke.camp.kwiz.controller.WebSocketController;
+import ch.zuhlke.camp.kwiz.domain.Game;
+import ch.zuhlke.camp.kwiz.domain.ManualGameClock;
+import ch.zuhlke.camp.kwiz.domain.Question;
+import ch.zuhlke.camp.kwiz.domain.Round;
+import ch.zuhlke.camp.kwiz.infrastructure.InMemoryGameRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatencyCompensationServiceTest {
+    @Mock
+    private InMemoryGameRepository gameRepository;
+
+    @Mock
+    private WebSocketController webSocketController;
+
+    private ManualGameClock clock;
+    private LatencyCompensationService service;
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualGameClock();
+        service = new LatencyCompensationService(gameRepository, webSocketController, clock, true, 50, 1000);
+
+        // Create a running game with one player
+        game = new Game("quiz123", "admin123");
+        game.addPlayer("player1", "Player 1");
+        Round round = new Round("Round 1");
+        round.addQuestion(new Question("What is 2+2?", Collections.singletonList("4"), 30));
+        game.startGame(Collections.singletonList(round));
+    }
+
+    @Test
+    void shouldMeasureRoundTripTimeFromPingToPong() {
+        // Arrange
+        when(gameRepository.findAll()).thenReturn(List.of(game));
+        registerPlayer1();
+
+        // Act
+        service.sendPings();
+        clock.advance(Duration.ofMillis(120));
+        service.recordPong("session1", capturePingId());
+
+        // Assert
+        assertEquals(120_000, service.getRttMicros("player1"));
+        assertEquals(170_000, service.getMaxCompensationMicros("player1"));
+    }
+
+    @Test
+    void shouldSmoothRoundTripTime() {
+        // Arrange
+        when(gameRepository.findAll()).thenReturn(List.of(game));
+        registerPlayer1();
+        service.sendPings();
+        clock.advance(Duration.ofMillis(100));
+        service.recordPong("session1", capturePingId());
+
+        // Act
+        clearInvocations(webSocketController);
+        service.sendPings();
+        clock.advance(Duration.ofMillis(900));
+        service.recordPong("session1", capturePingId());
+
+        // Assert: a single slow sample only moves the estimate by 1/8 of the difference
+        assertEquals(200_000, service.getRttMicros("player1"));
+    }
+
+    @Test
+    void shouldCapCompensation() {
+        // Arrange
+        when(gameRepository.findAll()).thenReturn(List.of(game));
+        registerPlayer1();
+        service.sendPings();
+        clock.advance(Duration.ofSeconds(5));
+
+        // Act
+        service.recordPong("session1", capturePingId());
+
+        // Assert
+        assertEquals(1_000_000, service.getMaxCompensationMicros("player1"));
+    }
+
+    @Test
+    void shouldIgnorePongsFromOtherSessionsOrUnknownPings() {
+        // Arrange
+        when(gameRepository.findAll()).thenReturn(List.of(game));
+        registerPlayer1();
+        service.sendPings();
+        long pingId = capturePingId();
+
+        // Act
+        service.recordPong("session2", pingId);
+        service.recordPong("session1", pingId + 1);
+
+        // Assert
+        assertEquals(-1, service.getRttMicros("player1"));
+        assertEquals(0, service.getMaxCompensationMicros("player1"));
+
+        // Act: the ping is still answered by its own session
+        clock.advance(Duration.ofMillis(80));
+        service.recordPong("session1", pingId);
+
+        // Assert
+        assertEquals(80_000, service.getRttMicros("player1"));
+    }
+
+    @Test
+    void shouldOnlyPingPlayersOnTheSessionThatRegisteredLast() {
+        // Arrange
+        when(gameRepository.findAll()).thenReturn(List.of(game));
+        registerPlayer1();
+
+        // Act
+        service.registerSession(game.getId(), "player1", "session2");
+        service.registerSession(game.getId(), "player2", "session2");
+        service.sendPings();
+
+        // Assert
+        verify(webSocketController).sendLatencyPing(eq("session2"), eq(game.getId()), anyLong());
+        verifyNoMoreInteractions(webSocketController);
+
+        // Act: the replaced session disconnecting does not unlink the player
+        clearInvocations(webSocketController);
+        service.forgetSession("session1");
+        service.sendPings();
+
+        // Assert
+        verify(webSocketController).sendLatencyPing(eq("session2"), eq(game.getId()), anyLong());
+        verifyNoMoreInteractions(webSocketController);
+    }
+
+    @Test
+    void shouldIgnorePongsOfAReplacedSession() {
+        // Arrange
+        when(gameRepository.findAll()).thenReturn(List.of(game));
+        registerPlayer1();
+        service.sendPings();
+        long pingId = capturePingId();
+
+        // Act
+        service.registerSession(game.getId(), "player1", "session2");
+        service.recordPong("session1", pingId);
+
+        // Assert
+        assertEquals(-1, service.getRttMicros("player1"));
+    }
+
+    @Test
+    void shouldNotPingWhenDisabled() {
+        // Arrange
+        LatencyCompensationService disabledService =
+                new LatencyCompensationService(gameRepository, webSocketController, clock, false, 50, 1000);
+
+        // Act
+        disabledService.sendPings();
+
+        // Assert
+        verifyNoInteractions(gameRepository, webSocketController);
+        assertEquals(0, disabledService.getMaxCompensationMicros("player1"));
+    }
+
+    private void registerPlayer1() {
+        when(gameRepository.findById(game.getId())).thenReturn(Optional.of(game));
+        service.registerSession(game.getId(), "player1", "session1");
+    }
+
+    private long capturePingId() {
+        ArgumentCaptor<Long> pingId = ArgumentCaptor.forClass(Long.class);
+        verify(webSocketController).sendLatencyPing(eq("session1"), eq(game.getId()), pingId.capture());
+        return pingId.getValue();
+    }
+}
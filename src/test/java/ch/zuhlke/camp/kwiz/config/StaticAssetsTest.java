@@ -0,0 +1,121 @@
+package ch.zuhlke.camp.kwiz.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticAssetsTest {
+    private static final String BUNDLE = "main.0123456789abcdef.js";
+
+    private StaticAssets staticAssets;
+
+    @BeforeEach
+    void setUp() {
+        staticAssets = StaticAssets.load("classpath:/static-assets/");
+    }
+
+    @Test
+    void shouldLoadFilesButNotTheirPrecompressedEncodings() {
+        assertEquals(3, staticAssets.size());
+        assertNotNull(staticAssets.resolve("assets/styles.css", null));
+        assertNull(staticAssets.resolve(BUNDLE + ".br", null));
+        assertNull(staticAssets.resolve("missing.js", null));
+    }
+
+    @Test
+    void shouldPreferPrecompressedBrotliOverGzip() throws IOException {
+        // When
+        StaticAssets.AssetResource brotli = staticAssets.resolve(BUNDLE, "gzip, deflate, br");
+
+        // Then
+        assertEquals("fake brotli", brotli.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("br", brotli.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BUNDLE, brotli.getFilename());
+    }
+
+    @Test
+    void shouldSkipEncodingsWithQualityZero() {
+        // When
+        StaticAssets.AssetResource noBrotli = staticAssets.resolve(BUNDLE, "br;q=0, gzip");
+        StaticAssets.AssetResource noEncoding = staticAssets.resolve(BUNDLE, "gzip; q=0.0, br;q=0");
+        StaticAssets.AssetResource wildcard = staticAssets.resolve(BUNDLE, "*;q=0.5, br;q=0");
+
+        // Then
+        assertEquals("gzip", noBrotli.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(noEncoding.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", wildcard.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void shouldParseAcceptEncodingTokens() {
+        assertTrue(StaticAssets.accepts("gzip, deflate, br;q=0.5", "br"));
+        assertTrue(StaticAssets.accepts("BR", "br"));
+        assertTrue(StaticAssets.accepts("*", "br"));
+        assertFalse(StaticAssets.accepts("brotli, x-br", "br"));
+        assertFalse(StaticAssets.accepts("br;q=0.000", "br"));
+        assertFalse(StaticAssets.accepts("br;q=abc", "br"));
+        assertFalse(StaticAssets.accepts("*, br;q=0", "br"));
+        assertFalse(StaticAssets.accepts(null, "gzip"));
+    }
+
+    @Test
+    void shouldCompressTextWithGzipWhenNoPrecompressedGzipExists() throws IOException {
+        // When
+        StaticAssets.AssetResource gzip = staticAssets.resolve(BUNDLE, "gzip");
+        StaticAssets.AssetResource identity = staticAssets.resolve(BUNDLE, null);
+
+        // Then
+        assertEquals("gzip", gzip.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzip.contentLength() < identity.contentLength());
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzip.getByteArray()))) {
+            assertArrayEquals(identity.getByteArray(), inputStream.readAllBytes());
+        }
+        assertNull(identity.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, identity.getResponseHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    @Test
+    void shouldServeSmallFilesUncompressed() {
+        // When
+        StaticAssets.AssetResource styles = staticAssets.resolve("assets/styles.css", "gzip, br");
+
+        // Then
+        assertNull(styles.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(styles.getResponseHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    @Test
+    void shouldCacheFingerprintedFilesForeverAndRevalidateOthers() {
+        assertEquals(StaticAssets.IMMUTABLE, staticAssets.resolve(BUNDLE, null).getResponseHeaders().getCacheControl());
+        assertEquals(StaticAssets.REVALIDATE,
+                staticAssets.resolve(StaticAssets.INDEX, null).getResponseHeaders().getCacheControl());
+        assertEquals(StaticAssets.REVALIDATE,
+                staticAssets.resolve("assets/styles.css", null).getResponseHeaders().getCacheControl());
+    }
+
+    @Test
+    void shouldTagEveryEncodingWithItsOwnStableEtag() {
+        // When
+        String identity = staticAssets.resolve(BUNDLE, null).getEtag();
+        String gzip = staticAssets.resolve(BUNDLE, "gzip").getEtag();
+        String brotli = staticAssets.resolve(BUNDLE, "br").getEtag();
+
+        // Then
+        assertNotEquals(identity, gzip);
+        assertNotEquals(identity, brotli);
+        assertNotEquals(gzip, brotli);
+        assertEquals(identity, StaticAssets.load("classpath:/static-assets/").resolve(BUNDLE, null).getEtag());
+    }
+
+    @Test
+    void shouldBeEmptyWithoutLocation() {
+        assertEquals(0, StaticAssets.load("classpath:/no-such-location/").size());
+    }
+}
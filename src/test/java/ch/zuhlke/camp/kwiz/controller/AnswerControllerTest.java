@@ -0,0 +1,87 @@
+package ch.zuhlke.camp.kwiz.controller;
+
+import ch.zuhlke.camp.kwiz.application.GameOrchestrationService;
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AnswerControllerTest {
+
+    @Mock
+    private GameOrchestrationService gameOrchestrationService;
+
+    private AnswerController answerController;
+
+    private final String gameId = "game123";
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        answerController = new AnswerController(gameOrchestrationService);
+    }
+
+    @Test
+    void submitAnswer_shouldAcceptNewAnswer() {
+        // Arrange
+        AnswerController.AnswerCommand command = command("submission1");
+        when(gameOrchestrationService.tryRecordPlayerAnswer(gameId, "submission1", "player1", "question1", "4", 1234.5))
+                .thenReturn(CommandResult.accepted(true));
+
+        // Act
+        Map<String, Object> receipt = answerController.submitAnswer(gameId, command);
+
+        // Assert
+        assertEquals("answerReceipt", receipt.get("type"));
+        assertEquals("accepted", receipt.get("status"));
+        assertEquals("submission1", receipt.get("submissionId"));
+        assertEquals("question1", receipt.get("questionId"));
+    }
+
+    @Test
+    void submitAnswer_shouldReportRetriedAnswerAsDuplicate() {
+        // Arrange
+        AnswerController.AnswerCommand command = command("submission1");
+        when(gameOrchestrationService.tryRecordPlayerAnswer(gameId, "submission1", "player1", "question1", "4", 1234.5))
+                .thenReturn(CommandResult.accepted(false));
+
+        // Act
+        Map<String, Object> receipt = answerController.submitAnswer(gameId, command);
+
+        // Assert
+        assertEquals("duplicate", receipt.get("status"));
+    }
+
+    @Test
+    void submitAnswer_shouldRejectAnswerWhenGameIsNotAcceptingAnswers() {
+        // Arrange
+        AnswerController.AnswerCommand command = command("submission1");
+        when(gameOrchestrationService.tryRecordPlayerAnswer(gameId, "submission1", "player1", "question1", "4", 1234.5))
+                .thenReturn(CommandResult.rejected(RejectionReason.NOT_ACCEPTING_ANSWERS, "Game is not currently accepting answers"));
+
+        // Act
+        Map<String, Object> receipt = answerController.submitAnswer(gameId, command);
+
+        // Assert
+        assertEquals("rejected", receipt.get("status"));
+        assertEquals("NOT_ACCEPTING_ANSWERS", receipt.get("reason"));
+        assertEquals("Game is not currently accepting answers", receipt.get("message"));
+    }
+
+    private static AnswerController.AnswerCommand command(String submissionId) {
+        AnswerController.AnswerCommand command = new AnswerController.AnswerCommand();
+        command.setSubmissionId(submissionId);
+        command.setPlayerId("player1");
+        command.setQuestionId("question1");
+        command.setAnswer("4");
+        command.setClientAnswerTimeMs(1234.5);
+        return command;
+    }
+}
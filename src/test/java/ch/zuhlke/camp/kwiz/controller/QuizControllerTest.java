@@ -1,8 +1,10 @@
 package ch.zuhlke.camp.kwiz.controller;
 
+import ch.zuhlke.camp.kwiz.domain.CommandResult;
 import ch.zuhlke.camp.kwiz.domain.GameEngine;
 import ch.zuhlke.camp.kwiz.domain.Player;
 import ch.zuhlke.camp.kwiz.domain.Quiz;
+import ch.zuhlke.camp.kwiz.domain.RejectionReason;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -41,7 +43,7 @@ class QuizControllerTest {
         Quiz quiz = mock(Quiz.class);
         Quiz updatedQuiz = mock(Quiz.class);
         
-        when(gameEngine.updateMaxPlayers(quizId, newMaxPlayers)).thenReturn(updatedQuiz);
+        when(gameEngine.tryUpdateMaxPlayers(quizId, newMaxPlayers)).thenReturn(CommandResult.accepted(updatedQuiz));
         when(updatedQuiz.getId()).thenReturn(quizId);
         when(updatedQuiz.getName()).thenReturn(quizName);
         when(updatedQuiz.getMaxPlayers()).thenReturn(newMaxPlayers);
@@ -70,7 +72,7 @@ class QuizControllerTest {
         assertEquals(0, responseBody.get("playerCount"));
         assertNull(responseBody.get("currentGameId"));
         
-        verify(gameEngine).updateMaxPlayers(quizId, newMaxPlayers);
+        verify(gameEngine).tryUpdateMaxPlayers(quizId, newMaxPlayers);
     }
     
     @Test
@@ -79,8 +81,8 @@ class QuizControllerTest {
         String quizId = "nonexistent";
         int newMaxPlayers = 10;
         
-        when(gameEngine.updateMaxPlayers(quizId, newMaxPlayers))
-            .thenThrow(new IllegalArgumentException("No quiz found with ID: " + quizId));
+        when(gameEngine.tryUpdateMaxPlayers(quizId, newMaxPlayers))
+            .thenReturn(CommandResult.rejected(RejectionReason.QUIZ_NOT_FOUND, "No quiz found with ID: " + quizId));
         
         QuizController.UpdateMaxPlayersRequest request = new QuizController.UpdateMaxPlayersRequest();
         request.setMaxPlayers(newMaxPlayers);
@@ -92,7 +94,7 @@ class QuizControllerTest {
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         
-        verify(gameEngine).updateMaxPlayers(quizId, newMaxPlayers);
+        verify(gameEngine).tryUpdateMaxPlayers(quizId, newMaxPlayers);
     }
     
     @Test
@@ -101,8 +103,8 @@ class QuizControllerTest {
         String quizId = "quiz123";
         int newMaxPlayers = 10;
         
-        when(gameEngine.updateMaxPlayers(quizId, newMaxPlayers))
-            .thenThrow(new IllegalStateException("Cannot update maximum players after quiz has started"));
+        when(gameEngine.tryUpdateMaxPlayers(quizId, newMaxPlayers))
+            .thenReturn(CommandResult.rejected(RejectionReason.QUIZ_ALREADY_STARTED, "Cannot update maximum players after quiz has started"));
         
         QuizController.UpdateMaxPlayersRequest request = new QuizController.UpdateMaxPlayersRequest();
         request.setMaxPlayers(newMaxPlayers);
@@ -118,7 +120,7 @@ class QuizControllerTest {
         assertNotNull(responseBody);
         assertEquals("Cannot update maximum players after quiz has started", responseBody.get("error"));
         
-        verify(gameEngine).updateMaxPlayers(quizId, newMaxPlayers);
+        verify(gameEngine).tryUpdateMaxPlayers(quizId, newMaxPlayers);
     }
     
     @Test
@@ -127,8 +129,9 @@ class QuizControllerTest {
         String quizId = "quiz123";
         int newMaxPlayers = 2;
         
-        when(gameEngine.updateMaxPlayers(quizId, newMaxPlayers))
-            .thenThrow(new IllegalArgumentException("New maximum players cannot be less than current player count"));
+        when(gameEngine.tryUpdateMaxPlayers(quizId, newMaxPlayers))
+            .thenReturn(CommandResult.rejected(RejectionReason.MAX_PLAYERS_BELOW_PLAYER_COUNT,
+                    "New maximum players cannot be less than current player count"));
         
         QuizController.UpdateMaxPlayersRequest request = new QuizController.UpdateMaxPlayersRequest();
         request.setMaxPlayers(newMaxPlayers);
@@ -144,6 +147,44 @@ class QuizControllerTest {
         assertNotNull(responseBody);
         assertEquals("New maximum players cannot be less than current player count", responseBody.get("error"));
         
-        verify(gameEngine).updateMaxPlayers(quizId, newMaxPlayers);
+        verify(gameEngine).tryUpdateMaxPlayers(quizId, newMaxPlayers);
     }
-}
\ No newline at end of file
+
+    @Test
+    void joinQuiz_shouldReturnConflictWhenPlayerNameIsTaken() {
+        // Arrange
+        String quizId = "quiz123";
+        when(gameEngine.tryAddPlayerToQuiz(quizId, "Player A"))
+            .thenReturn(CommandResult.rejected(RejectionReason.PLAYER_NAME_TAKEN, "Player name must be unique"));
+
+        QuizController.JoinQuizRequest request = new QuizController.JoinQuizRequest();
+        request.setPlayerName("Player A");
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = quizController.joinQuiz(quizId, request);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("PLAYER_NAME_TAKEN", response.getBody().get("reason"));
+        assertEquals("Player name must be unique", response.getBody().get("error"));
+    }
+
+    @Test
+    void joinQuiz_shouldAskForPlayerNameWhenEmpty() {
+        // Arrange
+        String quizId = "quiz123";
+        when(gameEngine.tryAddPlayerToQuiz(quizId, ""))
+            .thenReturn(CommandResult.rejected(RejectionReason.PLAYER_NAME_REQUIRED, "Player name cannot be empty"));
+
+        QuizController.JoinQuizRequest request = new QuizController.JoinQuizRequest();
+        request.setPlayerName("");
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = quizController.joinQuiz(quizId, request);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(true, response.getBody().get("needsPlayerName"));
+        assertEquals(quizId, response.getBody().get("quizId"));
+    }
+}
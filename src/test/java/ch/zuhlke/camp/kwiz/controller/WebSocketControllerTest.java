@@ -0,0 +1,139 @@
+package ch.zuhlke.camp.kwiz.controller;
+
+import ch.zuhlke.camp.kwiz.domain.Player;
+import ch.zuhlke.camp.kwiz.domain.Quiz;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WebSocketControllerTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private WebSocketController webSocketController;
+
+    private final String quizId = "quiz123";
+    private final String destination = "/topic/quiz/quiz123/updates";
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        webSocketController = new WebSocketController(messagingTemplate);
+    }
+
+    @Test
+    void sendPlayerJoined_shouldNotSendBeforeFlush() {
+        // Act
+        webSocketController.sendPlayerJoined(quizId, new Player("Player A"), 1, 1);
+
+        // Assert
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushRosterChanges_shouldSendJoinBurstAsSingleFrame() {
+        // Arrange
+        for (int i = 1; i <= 50; i++) {
+            webSocketController.sendPlayerJoined(quizId, new Player("Player " + i), i, i);
+        }
+
+        // Act
+        webSocketController.flushRosterChanges();
+
+        // Assert
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq(destination), captor.capture());
+
+        Map<String, Object> message = captor.getValue();
+        assertEquals("rosterDelta", message.get("type"));
+        assertEquals(0L, message.get("fromVersion"));
+        assertEquals(50L, message.get("version"));
+        assertEquals(50, message.get("playerCount"));
+
+        List<Map<String, Object>> events = (List<Map<String, Object>>) message.get("events");
+        assertEquals(50, events.size());
+        assertEquals("playerJoined", events.get(0).get("type"));
+        assertEquals(1L, events.get(0).get("version"));
+        assertFalse(message.containsKey("players"), "Delta frames must not carry the full roster");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushRosterChanges_shouldStartNewBatchAfterFlush() {
+        // Arrange
+        Player player = new Player("Player A");
+        webSocketController.sendPlayerJoined(quizId, player, 1, 1);
+        webSocketController.flushRosterChanges();
+
+        // Act
+        webSocketController.sendPlayerLeft(quizId, player, 2, 0);
+        webSocketController.flushRosterChanges();
+
+        // Assert
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(destination), captor.capture());
+
+        Map<String, Object> second = captor.getAllValues().get(1);
+        assertEquals(1L, second.get("fromVersion"));
+        assertEquals(2L, second.get("version"));
+        List<Map<String, Object>> events = (List<Map<String, Object>>) second.get("events");
+        assertEquals("playerLeft", events.get(0).get("type"));
+    }
+
+    @Test
+    void flushRosterChanges_shouldSendNothingWithoutPendingEvents() {
+        // Act
+        webSocketController.flushRosterChanges();
+
+        // Assert
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendQuizUpdate_shouldFlushPendingRosterEventsFirst() {
+        // Arrange
+        webSocketController.sendPlayerJoined(quizId, new Player("Player A"), 1, 1);
+
+        // Act
+        webSocketController.sendQuizUpdate(quizId, 1, 10, true, "game123");
+
+        // Assert
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(destination), captor.capture());
+        assertEquals("rosterDelta", captor.getAllValues().get(0).get("type"));
+        assertEquals("quizStatus", captor.getAllValues().get(1).get("type"));
+        assertEquals("game123", captor.getAllValues().get(1).get("currentGameId"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createRosterSnapshot_shouldContainFullRosterAndVersion() {
+        // Arrange
+        Quiz quiz = new Quiz(quizId, "Test Quiz", 10, false);
+        quiz.addPlayer(new Player("Player A"));
+        quiz.addPlayer(new Player("Player B"));
+
+        // Act
+        Map<String, Object> snapshot = webSocketController.createRosterSnapshot(quiz);
+
+        // Assert
+        assertEquals("rosterSnapshot", snapshot.get("type"));
+        assertEquals(2L, snapshot.get("version"));
+        assertEquals(2, ((List<Map<String, String>>) snapshot.get("players")).size());
+    }
+}
@@ -0,0 +1,85 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerTallyTest {
+
+    @Test
+    void shouldShareOneStringPerDistinctText() {
+        // Given
+        AnswerTally tally = new AnswerTally();
+
+        // When
+        String first = tally.add(new String("Minecraft"));
+        String second = tally.add(new String("Minecraft"));
+
+        // Then
+        assertEquals("Minecraft", first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void shouldCountTextsThatAreEqualAfterNormalizationTogether() {
+        // Given
+        AnswerTally tally = new AnswerTally();
+
+        // When
+        tally.add("minecraft!");
+        tally.add("Tetris");
+        tally.add("Minecraft");
+        tally.add("Minecraft");
+        tally.add(" MINECRAFT ");
+
+        // Then
+        assertEquals(2, tally.size());
+        assertEquals(List.of(new AnswerCount("Minecraft", 4), new AnswerCount("Tetris", 1)), tally.distribution());
+    }
+
+    @Test
+    void shouldCountDifferentNumbersApart() {
+        // Given
+        AnswerTally tally = new AnswerTally();
+
+        // When
+        tally.add("3.14");
+        tally.add("314");
+        tally.add("-40");
+        tally.add("40");
+
+        // Then
+        assertEquals(4, tally.size());
+    }
+
+    @Test
+    void shouldOrderEquallyCommonAnswersByFirstArrival() {
+        // Given
+        AnswerTally tally = new AnswerTally();
+
+        // When
+        tally.add("Snake");
+        tally.add("Pub Quiz");
+        tally.add("Tetris");
+        tally.add("Tetris");
+
+        // Then
+        assertEquals(List.of(new AnswerCount("Tetris", 2), new AnswerCount("Snake", 1), new AnswerCount("Pub Quiz", 1)),
+                tally.distribution());
+    }
+
+    @Test
+    void shouldCountMissingAndBlankAnswersAsEmpty() {
+        // Given
+        AnswerTally tally = new AnswerTally();
+
+        // When
+        assertNull(tally.add(null));
+        tally.add("?");
+
+        // Then
+        assertEquals(List.of(new AnswerCount("", 2)), tally.distribution());
+    }
+}
@@ -0,0 +1,102 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactIdGeneratorTest {
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private static BigInteger decode(String id) {
+        BigInteger value = BigInteger.ZERO;
+        for (char c : id.toCharArray()) {
+            value = value.multiply(BigInteger.valueOf(62)).add(BigInteger.valueOf(ALPHABET.indexOf(c)));
+        }
+        return value;
+    }
+
+    @Test
+    void shouldEncode128BitsInFixedLengthBase62() {
+        assertEquals("0000000000000000000000", CompactIdGenerator.encode(0, 0));
+        assertEquals("000000000000000000000z", CompactIdGenerator.encode(0, 61));
+        assertEquals("0000000000000000000010", CompactIdGenerator.encode(0, 62));
+        assertEquals(BigInteger.TWO.pow(128).subtract(BigInteger.ONE), decode(CompactIdGenerator.encode(-1, -1)));
+        assertEquals(new BigInteger("123456789abcdef0fedcba9876543210", 16),
+                decode(CompactIdGenerator.encode(0x123456789abcdef0L, 0xfedcba9876543210L)));
+    }
+
+    @Test
+    void shouldCreateOrderedIdsWithTimeAndNode() {
+        // Given
+        IdGenerator generator = IdGenerator.compact(42);
+        long before = System.currentTimeMillis();
+
+        // When
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Then
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+        }
+        BigInteger id = decode(ids.get(0));
+        assertEquals(CompactIdGenerator.ID_LENGTH, ids.get(0).length());
+        assertEquals(42, id.shiftRight(64).intValue() & 0xFFFF);
+        long millis = id.shiftRight(80).longValueExact();
+        assertTrue(millis >= before && millis <= System.currentTimeMillis());
+    }
+
+    @Test
+    void shouldCreateUniqueIdsOnManyThreads() throws Exception {
+        // Given
+        IdGenerator generator = IdGenerator.compact(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void shouldRejectNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> IdGenerator.compact(-1));
+        assertThrows(IllegalArgumentException.class, () -> IdGenerator.compact(65536));
+    }
+
+    @Test
+    void shouldGiveEntitiesIdsOfTheConfiguredGenerator() {
+        IdGenerator previous = EntityIds.getGenerator();
+        try {
+            EntityIds.setGenerator(() -> "fixed");
+            assertEquals("fixed", new Player("Alice").getId());
+        } finally {
+            EntityIds.setGenerator(previous);
+        }
+        assertEquals(CompactIdGenerator.ID_LENGTH, new Player("Bob").getId().length());
+    }
+}
@@ -6,8 +6,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -247,6 +256,37 @@ class GameEngineTest {
         assertTrue(exception.getMessage().contains("No round found with ID"));
     }
 
+    @Test
+    void shouldTellTheObserverAboutQuizzesAndJoins() {
+        // Given
+        List<Supplier<Collection<Quiz>>> registeredQuizzes = new ArrayList<>();
+        List<CommandResult<Player>> joins = new ArrayList<>();
+        GameEngine observedEngine = new GameEngine(Mockito.mock(WebSocketController.class),
+                Mockito.mock(GameOrchestrationService.class), new GameEngineObserver() {
+                    @Override
+                    public void quizzesRegistered(Supplier<Collection<Quiz>> quizzes) {
+                        registeredQuizzes.add(quizzes);
+                    }
+
+                    @Override
+                    public JoinObservation joinStarted(String quizId) {
+                        return (result, quiz) -> joins.add(result);
+                    }
+                });
+        Quiz quiz = observedEngine.createQuiz("quiz123", "Test Quiz", 5);
+
+        // When
+        observedEngine.tryAddPlayerToQuiz("quiz123", "Player A");
+        observedEngine.tryAddPlayerToQuiz("nonexistent", "Player B");
+
+        // Then
+        assertEquals(1, registeredQuizzes.size());
+        assertTrue(registeredQuizzes.get(0).get().contains(quiz));
+        assertEquals(2, joins.size());
+        assertTrue(joins.get(0).isAccepted());
+        assertEquals(RejectionReason.QUIZ_NOT_FOUND, joins.get(1).getReason());
+    }
+
     @Test
     void shouldNotAddPlayerWithEmptyName() {
         // Given
@@ -355,4 +395,110 @@ class GameEngineTest {
             gameEngine.updateMaxPlayers(quizId, newMaxPlayers);
         });
     }
+
+    @Test
+    void shouldUpdateMaxPlayersOnSameQuizInstance() {
+        // Given
+        String quizId = "quiz123";
+        Quiz quiz = gameEngine.createQuiz(quizId, "Test Quiz", 5);
+
+        // When
+        Quiz updatedQuiz = gameEngine.updateMaxPlayers(quizId, 10);
+
+        // Then
+        assertSame(quiz, updatedQuiz);
+        assertSame(quiz, gameEngine.getQuizById(quizId));
+    }
+
+    @Test
+    void shouldNotLoseJoinsWhileMaxPlayersIsUpdatedConcurrently() throws Exception {
+        // Given
+        String quizId = "quiz123";
+        gameEngine.createQuiz(quizId, "Test Quiz", 1000);
+        int joiners = 8;
+        int joinsPerThread = 100;
+        ConcurrentLinkedQueue<Player> joinedPlayers = new ConcurrentLinkedQueue<>();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(joiners + 2);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < joiners; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < joinsPerThread; i++) {
+                        joinedPlayers.add(gameEngine.addPlayerToQuiz(quizId, "Player " + thread + "-" + i));
+                    }
+                    return null;
+                }));
+            }
+            for (int t = 0; t < 2; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < 500; i++) {
+                        gameEngine.updateMaxPlayers(quizId, 1000 + thread + i % 3);
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        Quiz quiz = gameEngine.getQuizById(quizId);
+        assertEquals(joiners * joinsPerThread + 1, quiz.getPlayers().size()); // plus the default player
+        for (Player player : joinedPlayers) {
+            assertTrue(quiz.findPlayerById(player.getId()).isPresent());
+        }
+    }
+
+    @Test
+    void shouldRemovePlayerFromQuiz() {
+        // Given
+        String quizId = "quiz123";
+        Quiz quiz = gameEngine.createQuiz(quizId, "Test Quiz", 5);
+        Player player = gameEngine.addPlayerToQuiz(quizId, "Player A");
+
+        // When
+        Player removedPlayer = gameEngine.removePlayerFromQuiz(quizId, player.getId());
+
+        // Then
+        assertEquals(player, removedPlayer);
+        assertFalse(quiz.getPlayers().contains(player));
+    }
+
+    @Test
+    void shouldNotRemovePlayerWhenPlayerDoesNotExist() {
+        // Given
+        String quizId = "quiz123";
+        gameEngine.createQuiz(quizId, "Test Quiz", 5);
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> {
+            gameEngine.removePlayerFromQuiz(quizId, "nonexistent");
+        });
+    }
+
+    @Test
+    void shouldIncrementRosterVersionOnJoinAndLeave() {
+        // Given
+        String quizId = "quiz123";
+        Quiz quiz = gameEngine.createQuiz(quizId, "Test Quiz", 5);
+        long initialVersion = quiz.getRosterVersion();
+
+        // When
+        Player player = gameEngine.addPlayerToQuiz(quizId, "Player A");
+        gameEngine.removePlayerFromQuiz(quizId, player.getId());
+
+        // Then
+        assertEquals(initialVersion + 2, quiz.getRosterVersion());
+    }
 }
@@ -3,6 +3,8 @@ package ch.zuhlke.camp.kwiz.domain;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -102,32 +104,32 @@ class GameTest {
 
     @Test
     void testPointCalculationBasedOnTimeLeft() {
-        // Create a game with a question that has a 10-second time limit
-        Game testGame = new Game("quiz123", adminId);
+        // Test case 1: Answer immediately (should get 100 points)
+        assertEquals(100, pointsForAnswerAfter(Duration.ZERO), "Answering immediately should award 100 points");
+
+        // Test case 2: Answer after half the time (should get 50 points)
+        assertEquals(50, pointsForAnswerAfter(Duration.ofSeconds(5)), "Answering after half the time should award 50 points");
+
+        // Test case 3: Answer at the last moment (should get minimum 1 point)
+        assertEquals(1, pointsForAnswerAfter(Duration.ofMillis(9999)), "Answering at the last moment should award 1 point");
+    }
+
+    /**
+     * Helper method to answer a 10-second question correctly after the given time, using a manual clock
+     */
+    private int pointsForAnswerAfter(Duration answerTime) {
+        ManualGameClock clock = new ManualGameClock();
+        Game testGame = new Game("quiz123", adminId, false, clock);
         testGame.addPlayer(playerId, playerName);
 
         Round testRound = new Round("Test Round");
         Question testQuestion = new Question("Test Question", Collections.singletonList("correct"), 10);
         testRound.addQuestion(testQuestion);
-
-        // Start the game
         testGame.startGame(Collections.singletonList(testRound));
 
-        // Get the current question start time
-        long startTime = testGame.getCurrentQuestionStartTime();
-
-        // Test case 1: Answer immediately (should get close to 100 points)
-        // We can't directly manipulate the timestamp, so we'll use reflection to access the private calculatePoints method
-        int pointsImmediate = calculatePointsWithReflection(testGame, 0);
-        assertEquals(100, pointsImmediate, "Answering immediately should award 100 points");
-
-        // Test case 2: Answer after half the time (should get around 50 points)
-        int pointsHalfTime = calculatePointsWithReflection(testGame, 5000);
-        assertEquals(50, pointsHalfTime, "Answering after half the time should award 50 points");
-
-        // Test case 3: Answer at the last moment (should get minimum 1 point)
-        int pointsLastMoment = calculatePointsWithReflection(testGame, 9999);
-        assertEquals(1, pointsLastMoment, "Answering at the last moment should award 1 point");
+        clock.advance(answerTime);
+        testGame.acceptPlayerAnswer(playerId, testQuestion.getId(), "correct");
+        return testGame.getPlayers().get(playerId).getScore();
     }
 
     @Test
@@ -142,23 +144,6 @@ class GameTest {
         assertEquals(0, game.getPlayers().get(playerId).getScore(), "Incorrect answers should award 0 points regardless of timing");
     }
 
-    /**
-     * Helper method to calculate points using reflection to access the private calculatePoints method
-     */
-    private int calculatePointsWithReflection(Game game, long answerTimeMs) {
-        try {
-            // Get the calculatePoints method
-            java.lang.reflect.Method calculatePointsMethod = Game.class.getDeclaredMethod("calculatePoints", long.class);
-            calculatePointsMethod.setAccessible(true);
-
-            // Call the method and return the result
-            return (int) calculatePointsMethod.invoke(game, answerTimeMs);
-        } catch (Exception e) {
-            fail("Failed to call calculatePoints method via reflection: " + e.getMessage());
-            return 0;
-        }
-    }
-
     @Test
     void testAcceptPlayerAnswerIncorrect() {
         // Start the game
@@ -307,4 +292,282 @@ class GameTest {
         // Verify the game is over
         assertEquals(GameStatus.GAME_OVER, game.getStatus());
     }
+
+    @Test
+    void testGradeOnCloseOnlyRecordsAnswersWhileQuestionIsActive() {
+        // Create a game that grades on close
+        Game gradeOnCloseGame = new Game("quiz123", adminId, true);
+        gradeOnCloseGame.addPlayer(playerId, playerName);
+        gradeOnCloseGame.startGame(Collections.singletonList(round));
+
+        // Submit a correct answer
+        gradeOnCloseGame.acceptPlayerAnswer(playerId, question.getId(), "4");
+
+        // Verify the submission was recorded but not graded yet
+        assertEquals(1, gradeOnCloseGame.getPlayerSubmissions().size());
+        assertFalse(gradeOnCloseGame.getPlayerSubmissions().get(0).isGraded());
+        assertEquals(0, gradeOnCloseGame.getPlayers().get(playerId).getScore());
+
+        // Verify a second answer from the same player is still rejected
+        assertThrows(IllegalStateException.class, () -> {
+            gradeOnCloseGame.acceptPlayerAnswer(playerId, question.getId(), "5");
+        });
+    }
+
+    @Test
+    void testGradeOnCloseGradesAnswersWhenAdminClosesQuestion() {
+        // Create a game that grades on close with two players
+        Game gradeOnCloseGame = new Game("quiz123", adminId, true);
+        gradeOnCloseGame.addPlayer(playerId, playerName);
+        gradeOnCloseGame.addPlayer("player456", "Other Player");
+        gradeOnCloseGame.startGame(Collections.singletonList(round));
+        gradeOnCloseGame.acceptPlayerAnswer(playerId, question.getId(), "4");
+        gradeOnCloseGame.acceptPlayerAnswer("player456", question.getId(), "5");
+
+        // Close the question
+        gradeOnCloseGame.adminCloseCurrentQuestion(adminId);
+
+        // Verify all submissions were graded and the scores updated
+        List<PlayerSubmission> submissions = gradeOnCloseGame.getPlayerSubmissions();
+        assertTrue(submissions.get(0).isGraded());
+        assertTrue(submissions.get(0).isCorrect());
+        assertTrue(submissions.get(1).isGraded());
+        assertFalse(submissions.get(1).isCorrect());
+        assertTrue(gradeOnCloseGame.getPlayers().get(playerId).getScore() > 0);
+        assertEquals(0, gradeOnCloseGame.getPlayers().get("player456").getScore());
+    }
+
+    @Test
+    void testGradeOnCloseGradesAnswersWhenTimerExpires() {
+        // Create a game that grades on close
+        Game gradeOnCloseGame = new Game("quiz123", adminId, true);
+        gradeOnCloseGame.addPlayer(playerId, playerName);
+        gradeOnCloseGame.startGame(Collections.singletonList(round));
+        gradeOnCloseGame.acceptPlayerAnswer(playerId, question.getId(), "4");
+
+        // Let the timer run out
+        for (int i = 0; i < 10; i++) {
+            gradeOnCloseGame.decrementQuestionTimer();
+        }
+
+        // Verify the submission was graded
+        assertEquals(GameStatus.QUESTION_CLOSED, gradeOnCloseGame.getStatus());
+        assertTrue(gradeOnCloseGame.getPlayerSubmissions().get(0).isCorrect());
+        assertTrue(gradeOnCloseGame.getPlayers().get(playerId).getScore() > 0);
+    }
+
+    @Test
+    void testGradeOnCloseGradesLargeBatchInParallel() {
+        // Create a game that grades on close with more players than the parallel threshold
+        Game gradeOnCloseGame = new Game("quiz123", adminId, true);
+        int playerCount = Game.PARALLEL_GRADING_THRESHOLD + 100;
+        for (int i = 0; i < playerCount; i++) {
+            gradeOnCloseGame.addPlayer("player" + i, "Player " + i);
+        }
+        gradeOnCloseGame.startGame(Collections.singletonList(round));
+
+        // Every other player answers correctly
+        for (int i = 0; i < playerCount; i++) {
+            gradeOnCloseGame.acceptPlayerAnswer("player" + i, question.getId(), i % 2 == 0 ? "4" : "5");
+        }
+
+        // Close the question
+        gradeOnCloseGame.adminCloseCurrentQuestion(adminId);
+
+        // Verify every submission was graded correctly
+        List<PlayerSubmission> submissions = gradeOnCloseGame.getPlayerSubmissions();
+        assertEquals(playerCount, submissions.size());
+        for (int i = 0; i < playerCount; i++) {
+            assertTrue(submissions.get(i).isGraded());
+            assertEquals(i % 2 == 0, submissions.get(i).isCorrect());
+            assertEquals(i % 2 == 0, gradeOnCloseGame.getPlayers().get("player" + i).getScore() > 0);
+        }
+    }
+
+    @Test
+    void testCurrentQuestionSubmissionsOnlyContainCurrentQuestion() {
+        // Create a round with two questions
+        Round twoQuestionRound = new Round("Round 1");
+        Question question1 = new Question("Question 1", Collections.singletonList("A"), 10);
+        Question question2 = new Question("Question 2", Collections.singletonList("B"), 10);
+        twoQuestionRound.addQuestion(question1);
+        twoQuestionRound.addQuestion(question2);
+        game.startGame(Collections.singletonList(twoQuestionRound));
+
+        // Answer the first question and move on
+        game.acceptPlayerAnswer(playerId, question1.getId(), "A");
+        game.adminCloseCurrentQuestion(adminId);
+        game.adminProceedToNextQuestion(adminId);
+
+        // Verify the current question has no submissions yet, and the player can answer it
+        assertTrue(game.getCurrentQuestionSubmissions().isEmpty());
+        game.acceptPlayerAnswer(playerId, question2.getId(), "B");
+        assertEquals(1, game.getCurrentQuestionSubmissions().size());
+        assertEquals(question2.getId(), game.getCurrentQuestionSubmissions().get(0).getQuestionId());
+        assertEquals(2, game.getPlayerSubmissions().size());
+    }
+
+    @Test
+    void testAnswerTimeIsMeasuredInMicrosecondsOnTheGameClock() {
+        // Create a game with a manual clock
+        ManualGameClock clock = new ManualGameClock(1_000_000L);
+        Game clockGame = new Game("quiz123", adminId, false, clock);
+        clockGame.addPlayer(playerId, playerName);
+        clockGame.startGame(Collections.singletonList(round));
+
+        // Answer after 1.234567 seconds
+        clock.advanceMicros(1_234_567);
+        clockGame.acceptPlayerAnswer(playerId, question.getId(), "4");
+
+        // Verify the answer time and the derived wall clock timestamp
+        PlayerSubmission submission = clockGame.getPlayerSubmissions().get(0);
+        assertEquals(1_234_567, submission.getAnswerTimeMicros());
+        assertEquals(1_000_000L, clockGame.getCurrentQuestionStartTime());
+        assertEquals(1_001_234L, submission.getSubmittedAtTimestamp());
+    }
+
+    @Test
+    void testTiesAreBrokenByArrivalOrder() {
+        // Create a game with a manual clock and three players
+        ManualGameClock clock = new ManualGameClock();
+        Game clockGame = new Game("quiz123", adminId, false, clock);
+        clockGame.addPlayer("player1", "Player 1");
+        clockGame.addPlayer("player2", "Player 2");
+        clockGame.addPlayer("player3", "Player 3");
+        clockGame.startGame(Collections.singletonList(round));
+
+        // Two players answer at the same microsecond, a third one earlier
+        clock.advanceMicros(500);
+        clockGame.acceptPlayerAnswer("player1", question.getId(), "4");
+        clockGame.acceptPlayerAnswer("player2", question.getId(), "4");
+        List<PlayerSubmission> submissions = new ArrayList<>(clockGame.getPlayerSubmissions());
+        submissions.add(0, new PlayerSubmission("player3", question.getId(), "4", 0, 100, 99, true));
+
+        // Sort fastest first
+        submissions.sort(PlayerSubmission.FASTEST_FIRST);
+
+        // Verify the faster answer comes first, and the tie is broken by arrival
+        assertEquals("player3", submissions.get(0).getPlayerId());
+        assertEquals("player1", submissions.get(1).getPlayerId());
+        assertEquals("player2", submissions.get(2).getPlayerId());
+        assertTrue(submissions.get(1).getSequence() < submissions.get(2).getSequence());
+        assertEquals(clockGame.getPlayers().get("player1").getScore(), clockGame.getPlayers().get("player2").getScore());
+    }
+
+    @Test
+    void testLatencyCompensationUsesClientAnswerTimeWithinBounds() {
+        // Create a game with a manual clock
+        ManualGameClock clock = new ManualGameClock();
+        Game clockGame = new Game("quiz123", adminId, false, clock);
+        clockGame.addPlayer("player1", "Player 1");
+        clockGame.addPlayer("player2", "Player 2");
+        clockGame.startGame(Collections.singletonList(round));
+
+        // Both answers arrive after 2 seconds; the clients report 1.8 and 0.5 seconds, with 300 ms of allowed compensation
+        clock.advance(Duration.ofSeconds(2));
+        clockGame.acceptPlayerAnswer("player1", question.getId(), "4", 1_800_000, 300_000);
+        clockGame.acceptPlayerAnswer("player2", question.getId(), "4", 500_000, 300_000);
+
+        // Verify the plausible client time is used, and the implausible one is bounded
+        assertEquals(1_800_000, clockGame.getPlayerSubmissions().get(0).getAnswerTimeMicros());
+        assertEquals(1_700_000, clockGame.getPlayerSubmissions().get(1).getAnswerTimeMicros());
+    }
+
+    @Test
+    void testLatencyCompensationNeverExceedsMeasuredAnswerTime() {
+        // When/Then
+        assertEquals(2_000_000, Game.compensateLatency(2_000_000, 3_000_000, 300_000));
+        assertEquals(2_000_000, Game.compensateLatency(2_000_000, -1, 300_000));
+        assertEquals(2_000_000, Game.compensateLatency(2_000_000, 1_000_000, 0));
+        assertEquals(0, Game.compensateLatency(100_000, 0, 300_000));
+    }
+
+    @Test
+    void testRetriedSubmissionIsRecordedOnlyOnce() {
+        // Start the game and submit an answer with a submission ID
+        game.startGame(Collections.singletonList(round));
+        assertTrue(game.acceptPlayerAnswer("submission1", playerId, question.getId(), "4", -1, 0));
+        int score = game.getPlayers().get(playerId).getScore();
+
+        // Retry the same submission while the question is active
+        assertFalse(game.acceptPlayerAnswer("submission1", playerId, question.getId(), "4", -1, 0));
+
+        // Verify a retry after the question has been closed is rejected as late
+        game.adminCloseCurrentQuestion(adminId);
+        assertEquals(RejectionReason.NOT_ACCEPTING_ANSWERS,
+                game.tryAcceptPlayerAnswer("submission1", playerId, question.getId(), "4", -1, 0).getReason());
+
+        // Verify the answer was recorded and scored once
+        assertEquals(1, game.getPlayerSubmissions().size());
+        assertEquals(score, game.getPlayers().get(playerId).getScore());
+    }
+
+    @Test
+    void testSubmissionIdCannotBeReusedByAnotherPlayer() {
+        // Start the game and submit an answer with a submission ID
+        game.addPlayer("player2", "Player 2");
+        game.startGame(Collections.singletonList(round));
+        game.acceptPlayerAnswer("submission1", playerId, question.getId(), "4", -1, 0);
+
+        // Verify another player cannot claim the same submission
+        assertThrows(IllegalArgumentException.class,
+                () -> game.acceptPlayerAnswer("submission1", "player2", question.getId(), "4", -1, 0));
+        assertEquals(1, game.getPlayerSubmissions().size());
+    }
+
+    @Test
+    void testRejectedAnswersAreReportedWithReason() {
+        // Start the game and answer once
+        game.startGame(Collections.singletonList(round));
+        assertTrue(game.tryAcceptPlayerAnswer(null, playerId, question.getId(), "4", -1, 0).getValue());
+
+        // Verify the expected rejections are reported as results
+        assertEquals(RejectionReason.ALREADY_ANSWERED,
+                game.tryAcceptPlayerAnswer(null, playerId, question.getId(), "4", -1, 0).getReason());
+        assertEquals(RejectionReason.PLAYER_NOT_FOUND,
+                game.tryAcceptPlayerAnswer(null, "unknown", question.getId(), "4", -1, 0).getReason());
+        assertEquals(RejectionReason.QUESTION_NOT_CURRENT,
+                game.tryAcceptPlayerAnswer(null, playerId, "other", "4", -1, 0).getReason());
+        game.adminCloseCurrentQuestion(adminId);
+        CommandResult<Boolean> late = game.tryAcceptPlayerAnswer(null, playerId, question.getId(), "4", -1, 0);
+        assertFalse(late.isAccepted());
+        assertEquals(RejectionReason.NOT_ACCEPTING_ANSWERS, late.getReason());
+        assertEquals("Game is not currently accepting answers", late.getMessage());
+
+        // Verify the throwing variant still throws the matching exception
+        assertThrows(IllegalStateException.class, () -> game.acceptPlayerAnswer(playerId, question.getId(), "4"));
+        assertEquals(1, game.getPlayerSubmissions().size());
+    }
+
+    @Test
+    void testAnswerDistributionCountsAnswersToCurrentQuestion() {
+        // Create a round with two questions and a second player
+        Round twoQuestionRound = new Round("Round 1");
+        Question question1 = new Question("What is 2+2?", Collections.singletonList("4"), 10);
+        Question question2 = new Question("Which game?", Collections.singletonList("Minecraft"), 10);
+        twoQuestionRound.addQuestion(question1);
+        twoQuestionRound.addQuestion(question2);
+        game.addPlayer("player456", "Other Player");
+        game.addPlayer("player789", "Third Player");
+        game.startGame(Collections.singletonList(twoQuestionRound));
+
+        // Answer the first question
+        game.acceptPlayerAnswer(playerId, question1.getId(), "4");
+        game.acceptPlayerAnswer("player456", question1.getId(), "5");
+        game.acceptPlayerAnswer("player789", question1.getId(), "4");
+        assertEquals(List.of(new AnswerCount("4", 2), new AnswerCount("5", 1)),
+                game.getCurrentQuestionAnswerDistribution());
+        assertSame(game.getPlayerSubmissions().get(0).getSubmittedAnswerText(),
+                game.getPlayerSubmissions().get(2).getSubmittedAnswerText());
+
+        // Move on to the second question
+        game.adminCloseCurrentQuestion(adminId);
+        game.adminProceedToNextQuestion(adminId);
+        assertTrue(game.getCurrentQuestionAnswerDistribution().isEmpty());
+
+        // Verify differently typed answers are counted together
+        game.acceptPlayerAnswer(playerId, question2.getId(), "minecraft");
+        game.acceptPlayerAnswer("player456", question2.getId(), "Minecraft!");
+        assertEquals(List.of(new AnswerCount("minecraft", 2)), game.getCurrentQuestionAnswerDistribution());
+    }
 }
@@ -0,0 +1,166 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradingPolicyTest {
+
+    @Test
+    void shouldUseNormalizedGradingByDefault() {
+        // Given
+        Question question = new Question("Capital of Switzerland?", Collections.singletonList("Bern"), 10);
+
+        // When/Then
+        assertEquals(GradingMode.NORMALIZED, question.getGradingPolicy().getMode());
+        assertTrue(question.isCorrectAnswer(" BERN "));
+    }
+
+    @Test
+    void shouldGradeExactly() {
+        // Given
+        Question question = question(List.of("Bern"), GradingPolicy.exact());
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("Bern"));
+        assertFalse(question.isCorrectAnswer("bern"));
+        assertFalse(question.isCorrectAnswer(" Bern"));
+        assertFalse(question.isCorrectAnswer(null));
+    }
+
+    @Test
+    void shouldAcceptTyposWhenGradingFuzzy() {
+        // Given
+        Question question = question(List.of("Minecraft"), GradingPolicy.fuzzy());
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("Minecraft"));
+        assertTrue(question.isCorrectAnswer("minecraf"));
+        assertTrue(question.isCorrectAnswer("Mine craft"));
+        assertTrue(question.isCorrectAnswer("Minceraft")); // swapped letters count as one edit
+        assertFalse(question.isCorrectAnswer("Tetris"));
+        assertFalse(question.isCorrectAnswer("Mine"));
+        assertFalse(question.isCorrectAnswer(""));
+    }
+
+    @Test
+    void shouldRequireExactMatchForShortAnswersWhenGradingFuzzy() {
+        // Given
+        Question question = question(List.of("Cat"), GradingPolicy.fuzzy());
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("cat"));
+        assertFalse(question.isCorrectAnswer("car"));
+    }
+
+    @Test
+    void shouldRespectExplicitMaxEditDistance() {
+        // Given
+        Question strict = question(List.of("Minecraft"), GradingPolicy.fuzzy(0));
+        Question lenient = question(List.of("Cat"), GradingPolicy.fuzzy(1));
+
+        // When/Then
+        assertFalse(strict.isCorrectAnswer("minecraf"));
+        assertTrue(lenient.isCorrectAnswer("car"));
+        assertThrows(IllegalArgumentException.class, () -> GradingPolicy.fuzzy(-1));
+    }
+
+    @Test
+    void shouldComputeBoundedEditDistance() {
+        // When/Then
+        assertEquals(0, EditDistance.boundedDistance("kitten", "kitten", 2));
+        assertEquals(1, EditDistance.boundedDistance("kitten", "kiten", 2));
+        assertEquals(1, EditDistance.boundedDistance("kitten", "iktten", 2));
+        assertEquals(2, EditDistance.boundedDistance("kitten", "sittin", 2));
+        assertEquals(3, EditDistance.boundedDistance("kitten", "sitting", 2)); // exceeds the bound
+        assertEquals(3, EditDistance.boundedDistance("kitten", "xxxxxxxxxx", 2));
+        assertEquals(2, EditDistance.boundedDistance("", "ab", 2));
+    }
+
+    @Test
+    void shouldAcceptNumbersWithinTolerance() {
+        // Given
+        Question question = question(List.of("1000"), GradingPolicy.numeric(5));
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("1000"));
+        assertTrue(question.isCorrectAnswer("1'003"));
+        assertTrue(question.isCorrectAnswer("995.5"));
+        assertTrue(question.isCorrectAnswer(" 1 000 "));
+        assertFalse(question.isCorrectAnswer("1006"));
+        assertFalse(question.isCorrectAnswer("about 1000"));
+        assertFalse(question.isCorrectAnswer(null));
+    }
+
+    @Test
+    void shouldAcceptDecimalCommaWhenGradingNumeric() {
+        // Given
+        Question question = question(List.of("3.14"), GradingPolicy.numeric(0.01));
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("3,14"));
+        assertTrue(question.isCorrectAnswer("3.141"));
+        assertFalse(question.isCorrectAnswer("3.2"));
+        assertThrows(IllegalArgumentException.class, () -> GradingPolicy.numeric(-1));
+    }
+
+    @Test
+    void shouldAcceptMultipleChoiceByTextLetterOrPosition() {
+        // Given
+        List<String> options = Arrays.asList("Snake", "Minecraft", "Tetris", "Pub Quiz");
+        Question question = question(List.of("Minecraft"), GradingPolicy.multipleChoice(options));
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("minecraft"));
+        assertTrue(question.isCorrectAnswer("B"));
+        assertTrue(question.isCorrectAnswer("b)"));
+        assertTrue(question.isCorrectAnswer("2"));
+        assertFalse(question.isCorrectAnswer("A"));
+        assertFalse(question.isCorrectAnswer("Tetris"));
+    }
+
+    @Test
+    void shouldResolveMultipleChoiceOptionTextBeforeLetterOrPosition() {
+        // Given
+        Question numbers = question(List.of("1"), GradingPolicy.multipleChoice(Arrays.asList("3", "2", "1")));
+        Question letters = question(List.of("Paris"), GradingPolicy.multipleChoice(Arrays.asList("B", "Paris", "Rome")));
+
+        // When/Then
+        assertTrue(numbers.isCorrectAnswer("1"));
+        assertTrue(numbers.isCorrectAnswer("c"));
+        assertFalse(numbers.isCorrectAnswer("3"));
+        assertTrue(letters.isCorrectAnswer("Paris"));
+        assertTrue(letters.isCorrectAnswer("2"));
+        assertFalse(letters.isCorrectAnswer("b"));
+        assertFalse(letters.isCorrectAnswer("d"));
+        assertFalse(letters.isCorrectAnswer("4"));
+    }
+
+    @Test
+    void shouldRejectMultipleChoiceAnswerThatIsNotAnOption() {
+        // Given
+        GradingPolicy policy = GradingPolicy.multipleChoice(Arrays.asList("Snake", "Tetris"));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> policy.validate(List.of("Minecraft")));
+        assertThrows(IllegalArgumentException.class, () -> question(List.of("Minecraft"), policy));
+        assertThrows(IllegalArgumentException.class, () -> GradingPolicy.multipleChoice(Collections.emptyList()));
+    }
+
+    @Test
+    void shouldCreatePolicyFromSettings() {
+        // When/Then
+        assertEquals(GradingPolicy.normalized(), GradingPolicy.of(null, null, null, null));
+        assertEquals(GradingPolicy.fuzzy(2), GradingPolicy.of(GradingMode.FUZZY, 2, null, null));
+        assertEquals(GradingPolicy.numeric(0), GradingPolicy.of(GradingMode.NUMERIC, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> GradingPolicy.of(GradingMode.MULTIPLE_CHOICE, null, null, null));
+    }
+
+    private static Question question(List<String> correctAnswers, GradingPolicy policy) {
+        return new Question("Question", correctAnswers, 10, null, policy);
+    }
+}
@@ -0,0 +1,110 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionTest {
+
+    @Test
+    void shouldAcceptAnswerIgnoringCaseAndSurroundingWhitespace() {
+        // Given
+        Question question = new Question("Capital of France?", Collections.singletonList("Paris"), 10);
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("Paris"));
+        assertTrue(question.isCorrectAnswer("  paris "));
+        assertTrue(question.isCorrectAnswer("PARIS"));
+        assertFalse(question.isCorrectAnswer("London"));
+    }
+
+    @Test
+    void shouldAcceptAnswerIgnoringDiacriticsPunctuationAndInnerWhitespace() {
+        // Given
+        Question question = new Question("Largest city of Switzerland?", Arrays.asList("Zürich", "U.S.A.", "New  York"), 10);
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("zurich"));
+        assertTrue(question.isCorrectAnswer("ZÜRICH"));
+        assertTrue(question.isCorrectAnswer("Zu\u0308rich")); // decomposed umlaut
+        assertTrue(question.isCorrectAnswer("usa"));
+        assertTrue(question.isCorrectAnswer("new york!"));
+        assertTrue(question.isCorrectAnswer("New\tYork"));
+        assertFalse(question.isCorrectAnswer("Bern"));
+    }
+
+    @Test
+    void shouldApplyFullUnicodeCaseFolding() {
+        // Given
+        Question question = new Question("German for street?", Collections.singletonList("Straße"), 10);
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer("STRASSE"));
+        assertTrue(question.isCorrectAnswer("strasse"));
+    }
+
+    @Test
+    void shouldRejectNullAndBlankAnswers() {
+        // Given
+        Question question = new Question("What is 2+2?", Collections.singletonList("4"), 10);
+
+        // When/Then
+        assertFalse(question.isCorrectAnswer(null));
+        assertFalse(question.isCorrectAnswer(""));
+        assertFalse(question.isCorrectAnswer("   "));
+        assertFalse(question.isCorrectAnswer("?!"));
+    }
+
+    @Test
+    void shouldMatchAnswersWithoutLettersOrDigitsLiterally() {
+        // Given
+        Question question = new Question("Which operator adds?", Collections.singletonList("+"), 10);
+
+        // When/Then
+        assertTrue(question.isCorrectAnswer(" + "));
+        assertFalse(question.isCorrectAnswer("-"));
+    }
+
+    @Test
+    void shouldKeepDecimalPointsSeparatorsAndSignsInNumbers() {
+        // Given
+        Question pi = new Question("What is pi to two decimals?", Collections.singletonList("3.14"), 10);
+        Question freezing = new Question("Where do Celsius and Fahrenheit meet?", Collections.singletonList("-40"), 10);
+        Question thousand = new Question("How many grams in a kilogram?", Collections.singletonList("1,000"), 10);
+
+        // When/Then
+        assertTrue(pi.isCorrectAnswer(" 3.14 "));
+        assertFalse(pi.isCorrectAnswer("314"));
+        assertTrue(freezing.isCorrectAnswer("-40"));
+        assertFalse(freezing.isCorrectAnswer("40"));
+        assertTrue(thousand.isCorrectAnswer("1,000"));
+        assertFalse(thousand.isCorrectAnswer("1000"));
+    }
+
+    @Test
+    void shouldNormalizeNumbersOnlyWhereTheMarksTouchDigits() {
+        // When/Then
+        assertEquals("-40 degrees", AnswerNormalizer.normalize("-40 Degrees."));
+        assertEquals("about .5", AnswerNormalizer.normalize("About .5"));
+        assertEquals("covid 19", AnswerNormalizer.normalize("COVID-19"));
+        assertEquals("1 2 3", AnswerNormalizer.normalize("1, 2, 3"));
+        assertEquals("zurich -3,5", AnswerNormalizer.normalize("Zürich -3,5"));
+        assertEquals("usa", AnswerNormalizer.normalize("U.S.A."));
+    }
+
+    @Test
+    void shouldReturnAlreadyNormalizedAsciiInputAsIs() {
+        // Given
+        String answer = "new york";
+
+        // When/Then
+        assertSame(answer, AnswerNormalizer.normalize(answer));
+        String number = "-1,000.5";
+        assertSame(number, AnswerNormalizer.normalize(number));
+        assertEquals("rock n roll", AnswerNormalizer.normalize("Rock-n-Roll"));
+        assertEquals("", AnswerNormalizer.normalize(null));
+    }
+}
@@ -0,0 +1,269 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizTest {
+
+    private Quiz quiz;
+
+    @BeforeEach
+    void setUp() {
+        quiz = new Quiz("quiz123", "Test Quiz", 10, false);
+    }
+
+    @Test
+    void shouldFindPlayerById() {
+        // Given
+        Player player = new Player("Player A");
+        quiz.addPlayer(player);
+
+        // When/Then
+        assertEquals(player, quiz.findPlayerById(player.getId()).orElseThrow());
+        assertTrue(quiz.findPlayerById("nonexistent").isEmpty());
+        assertTrue(quiz.findPlayerById(null).isEmpty());
+    }
+
+    @Test
+    void shouldKeepPlayersInJoinOrder() {
+        // Given
+        Player first = new Player("Player A");
+        Player second = new Player("Player B");
+        Player third = new Player("Player C");
+
+        // When
+        quiz.addPlayer(first);
+        quiz.addPlayer(second);
+        quiz.addPlayer(third);
+
+        // Then
+        assertEquals(first, quiz.getPlayers().get(0));
+        assertEquals(second, quiz.getPlayers().get(1));
+        assertEquals(third, quiz.getPlayers().get(2));
+    }
+
+    @Test
+    void shouldRejectDuplicateNameIgnoringCaseAndWhitespace() {
+        // Given
+        quiz.addPlayer(new Player("Player A"));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> quiz.addPlayer(new Player("Player A")));
+        assertThrows(IllegalArgumentException.class, () -> quiz.addPlayer(new Player("player a")));
+        assertThrows(IllegalArgumentException.class, () -> quiz.addPlayer(new Player("  PLAYER A ")));
+        assertEquals(1, quiz.getPlayers().size());
+    }
+
+    @Test
+    void shouldFreeNameAndIdWhenPlayerLeaves() {
+        // Given
+        Player player = new Player("Player A");
+        quiz.addPlayer(player);
+
+        // When
+        quiz.removePlayer(player.getId());
+
+        // Then
+        assertTrue(quiz.findPlayerById(player.getId()).isEmpty());
+        assertDoesNotThrow(() -> quiz.addPlayer(new Player("player a")));
+    }
+
+    @Test
+    void shouldNotAddPlayerWhenMaximumReached() {
+        // Given
+        Quiz smallQuiz = new Quiz("quiz456", "Small Quiz", 1, false);
+        smallQuiz.addPlayer(new Player("Player A"));
+
+        // When/Then
+        assertThrows(IllegalStateException.class, () -> smallQuiz.addPlayer(new Player("Player B")));
+    }
+
+    @Test
+    void shouldReportRejectedJoinWithReason() {
+        // Given
+        Quiz smallQuiz = new Quiz("quiz456", "Small Quiz", 2, false);
+        smallQuiz.addPlayer(new Player("Player A"));
+
+        // When
+        CommandResult<Player> duplicateName = smallQuiz.tryAddPlayer(new Player("player a"));
+        CommandResult<Player> joined = smallQuiz.tryAddPlayer(new Player("Player B"));
+        CommandResult<Player> full = smallQuiz.tryAddPlayer(new Player("Player C"));
+
+        // Then
+        assertEquals(RejectionReason.PLAYER_NAME_TAKEN, duplicateName.getReason());
+        assertTrue(joined.isAccepted());
+        assertEquals(RejectionReason.QUIZ_FULL, full.getReason());
+        assertEquals(2, smallQuiz.getPlayers().size());
+    }
+
+    @Test
+    void shouldFindRoundById() {
+        // Given
+        Round round = new Round("Round 1");
+        quiz.addRound(round);
+
+        // When/Then
+        assertEquals(round, quiz.findRoundById(round.getId()).orElseThrow());
+        assertTrue(quiz.findRoundById("nonexistent").isEmpty());
+    }
+
+    @Test
+    void shouldIndexQuestionsAddedBeforeRoundWasAdded() {
+        // Given
+        Round round = new Round("Round 1");
+        Question question = new Question("What is 2+2?", List.of("4"), 10);
+        round.addQuestion(question);
+
+        // When
+        quiz.addRound(round);
+
+        // Then
+        assertEquals(question, quiz.findQuestionById(question.getId()).orElseThrow());
+    }
+
+    @Test
+    void shouldIndexQuestionsAddedAfterRoundWasAdded() {
+        // Given
+        Round round = new Round("Round 1");
+        quiz.addRound(round);
+        Question question = new Question("What is 2+2?", List.of("4"), 10);
+
+        // When
+        round.addQuestion(question);
+
+        // Then
+        assertEquals(question, quiz.findQuestionById(question.getId()).orElseThrow());
+        assertTrue(quiz.findQuestionById("nonexistent").isEmpty());
+    }
+
+    @Test
+    void shouldIndexDefaultRoundAndQuestion() {
+        // Given
+        Quiz quizWithDefaults = new Quiz("quiz456", "Quiz With Defaults", 10);
+        Round defaultRound = quizWithDefaults.getRounds().get(0);
+        Question defaultQuestion = defaultRound.getQuestions().get(0);
+
+        // When/Then
+        assertEquals(defaultRound, quizWithDefaults.findRoundById(defaultRound.getId()).orElseThrow());
+        assertEquals(defaultQuestion, quizWithDefaults.findQuestionById(defaultQuestion.getId()).orElseThrow());
+    }
+
+    @Test
+    void shouldUpdateMaxPlayersInPlace() {
+        // Given
+        Player player = new Player("Player A");
+        quiz.addPlayer(player);
+
+        // When
+        quiz.updateMaxPlayers(20);
+
+        // Then
+        assertEquals(20, quiz.getMaxPlayers());
+        assertEquals(player, quiz.findPlayerById(player.getId()).orElseThrow());
+    }
+
+    @Test
+    void shouldNotUpdateMaxPlayersBelowPlayerCount() {
+        // Given
+        quiz.addPlayer(new Player("Player A"));
+        quiz.addPlayer(new Player("Player B"));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> quiz.updateMaxPlayers(1));
+        assertDoesNotThrow(() -> quiz.updateMaxPlayers(2));
+        assertThrows(IllegalStateException.class, () -> quiz.addPlayer(new Player("Player C")));
+    }
+
+    @Test
+    void shouldNotUpdateMaxPlayersAfterStart() {
+        // Given
+        quiz.addRound(new Round("Round 1"));
+        quiz.addPlayer(new Player("Player A"));
+        quiz.start();
+
+        // When/Then
+        assertThrows(IllegalStateException.class, () -> quiz.updateMaxPlayers(20));
+    }
+
+    @Test
+    void shouldKeepCapacityConsistentUnderConcurrentJoinsAndUpdates() throws Exception {
+        // Given
+        int joiners = 8;
+        int joinsPerThread = 250;
+        int updaters = 4;
+        int updatesPerThread = 2000;
+        Quiz sharedQuiz = new Quiz("quiz456", "Concurrent Quiz", 1, false);
+        AtomicInteger acceptedJoins = new AtomicInteger();
+        AtomicInteger violations = new AtomicInteger();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(joiners + updaters);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < joiners; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < joinsPerThread; i++) {
+                        try {
+                            sharedQuiz.addPlayer(new Player("Player " + thread + "-" + i));
+                            acceptedJoins.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // Quiz is full at the moment, try the next player
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int t = 0; t < updaters; t++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        synchronized (sharedQuiz) {
+                            // Alternate between shrinking to the current size and growing
+                            int size = sharedQuiz.getPlayers().size();
+                            sharedQuiz.updateMaxPlayers(i % 2 == 0 ? size : size + 5);
+                        }
+                        try {
+                            sharedQuiz.updateMaxPlayers(0);
+                        } catch (IllegalArgumentException e) {
+                            // Expected as soon as any player has joined
+                        }
+                        synchronized (sharedQuiz) {
+                            if (sharedQuiz.getPlayers().size() > sharedQuiz.getMaxPlayers()) {
+                                violations.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(0, violations.get(), "Player count must never exceed the capacity");
+        assertEquals(acceptedJoins.get(), sharedQuiz.getPlayers().size(), "No accepted join may be lost");
+        assertTrue(sharedQuiz.getPlayers().size() <= sharedQuiz.getMaxPlayers());
+        for (Player player : sharedQuiz.getPlayers()) {
+            assertTrue(sharedQuiz.findPlayerById(player.getId()).isPresent());
+        }
+    }
+}
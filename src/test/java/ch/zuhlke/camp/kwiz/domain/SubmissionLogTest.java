@@ -0,0 +1,101 @@
+package ch.zuhlke.camp.kwiz.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubmissionLogTest {
+
+    @Test
+    void shouldStoreSubmissionsColumnByColumn() {
+        // Given
+        SubmissionLog log = new SubmissionLog();
+
+        // When
+        int first = log.add(3, 1, 1_000, 250_000, "Minecraft", true, true);
+        int second = log.add(0, 1, 1_001, 260_000, "Tetris", false, false);
+
+        // Then
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(2, log.size());
+        assertEquals(3, log.getPlayerSlot(0));
+        assertEquals(1, log.getQuestionSlot(0));
+        assertEquals(1_000, log.getSubmittedAtTimestamp(0));
+        assertEquals(250_000, log.getAnswerTimeMicros(0));
+        assertEquals("Minecraft", log.getAnswerText(0));
+        assertTrue(log.isGraded(0));
+        assertTrue(log.isCorrect(0));
+        assertEquals("Tetris", log.getAnswerText(1));
+        assertFalse(log.isGraded(1));
+        assertFalse(log.isCorrect(1));
+    }
+
+    @Test
+    void shouldGradeSubmissions() {
+        // Given
+        SubmissionLog log = new SubmissionLog();
+        log.add(0, 0, 0, 0, "4", false, false);
+        log.add(1, 0, 0, 0, "5", false, false);
+
+        // When
+        log.grade(0, true);
+        log.grade(1, false);
+
+        // Then
+        assertTrue(log.isGraded(0));
+        assertTrue(log.isCorrect(0));
+        assertTrue(log.isGraded(1));
+        assertFalse(log.isCorrect(1));
+    }
+
+    @Test
+    void shouldGrowColumns() {
+        // Given
+        SubmissionLog log = new SubmissionLog();
+        String longAnswer = String.join("", Collections.nCopies(300, "x"));
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            log.add(i, i % 7, i, i * 10L, i == 500 ? longAnswer : "answer " + i, true, i % 2 == 0);
+        }
+
+        // Then
+        assertEquals(1000, log.size());
+        for (int i : List.of(0, 15, 16, 499, 500, 501, 999)) {
+            assertEquals(i, log.getPlayerSlot(i));
+            assertEquals(i % 7, log.getQuestionSlot(i));
+            assertEquals(i * 10L, log.getAnswerTimeMicros(i));
+            assertEquals(i == 500 ? longAnswer : "answer " + i, log.getAnswerText(i));
+            assertEquals(i % 2 == 0, log.isCorrect(i));
+        }
+    }
+
+    @Test
+    void shouldKeepEmptyAndMissingAnswersApart() {
+        // Given
+        SubmissionLog log = new SubmissionLog();
+
+        // When
+        log.add(0, 0, 0, 0, null, true, false);
+        log.add(1, 0, 0, 0, "", true, false);
+
+        // Then
+        assertNull(log.getAnswerText(0));
+        assertEquals("", log.getAnswerText(1));
+    }
+
+    @Test
+    void shouldRejectIndexesBeyondTheLastSubmission() {
+        // Given
+        SubmissionLog log = new SubmissionLog();
+        log.add(0, 0, 0, 0, "4", true, true);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> log.getPlayerSlot(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.grade(-1, true));
+    }
+}
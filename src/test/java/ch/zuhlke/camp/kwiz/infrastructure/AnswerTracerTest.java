@@ -0,0 +1,110 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerTracerTest {
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnswerTracer answerTracer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        answerTracer = new AnswerTracer(meterRegistry, 1.0, 250, 10, directory.resolve("traces.ndjson").toString());
+    }
+
+    @Test
+    void shouldCompleteTraceWhenAllSessionsHaveBeenWritten() throws IOException {
+        // Given
+        AnswerTrace trace = answerTracer.start("rest", "game1", "player1");
+        trace.domainStarted();
+        trace.domainEnded();
+        trace.serializeStarted();
+        Message<byte[]> broadcast = MessageBuilder.createMessage(new byte[0],
+                (MessageHeaders) AnswerTracer.messageHeaders(trace));
+        ExecutorChannelInterceptor outbound = (ExecutorChannelInterceptor) answerTracer.outboundInterceptor();
+
+        // When
+        answerTracer.brokerInterceptor().preSend(broadcast, null);
+        outbound.preSend(broadcast, null);
+        outbound.preSend(broadcast, null);
+        answerTracer.finish(trace);
+        outbound.afterMessageHandled(broadcast, null, null, null);
+
+        // Then
+        assertEquals(0, meterRegistry.get(AnswerTracer.TOTAL_METER).timer().count());
+
+        // When
+        outbound.afterMessageHandled(broadcast, null, null, null);
+
+        // Then
+        assertEquals(1, meterRegistry.get(AnswerTracer.TOTAL_METER).timer().count());
+        assertEquals(1, meterRegistry.get(AnswerTracer.STAGE_METER).tag("stage", "fan-out").timer().count());
+        assertEquals(0, meterRegistry.get(AnswerTracer.STAGE_METER).tag("stage", "queue-wait").timer().count());
+
+        List<Map<String, Object>> traces = answerTracer.recentTraces(10);
+        assertEquals(1, traces.size());
+        assertEquals("game1", traces.get(0).get("gameId"));
+        assertEquals(2, traces.get(0).get("deliveries"));
+        assertEquals(1, Files.readAllLines(directory.resolve("traces.ndjson")).size());
+        assertEquals(true, answerTracer.summary().get("withinSlo"));
+    }
+
+    @Test
+    void shouldDropTraceWithoutBroadcast() {
+        // Given
+        AnswerTrace trace = answerTracer.start("stomp", "game1", "player1");
+
+        // When
+        answerTracer.finish(trace);
+
+        // Then
+        assertEquals(0, meterRegistry.get(AnswerTracer.TOTAL_METER).timer().count());
+        assertTrue(answerTracer.recentTraces(10).isEmpty());
+    }
+
+    @Test
+    void shouldStartStompTracesWhenTheMessageWasReceived() throws InterruptedException {
+        // Given
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setLeaveMutable(true);
+        Message<byte[]> inbound = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        ExecutorChannelInterceptor interceptor = (ExecutorChannelInterceptor) answerTracer.inboundInterceptor();
+
+        // When
+        interceptor.preSend(inbound, null);
+        Thread.sleep(5);
+        interceptor.beforeHandle(inbound, null, null);
+        AnswerTrace trace = answerTracer.start("stomp", "game1", "player1");
+        interceptor.afterMessageHandled(inbound, null, null, null);
+
+        // Then
+        assertTrue(trace.getQueueWaitNanos() >= 5_000_000);
+        assertEquals(0, answerTracer.start("stomp", "game1", "player1").getQueueWaitNanos());
+    }
+
+    @Test
+    void shouldNotTraceIfDisabled() {
+        assertNull(AnswerTracer.disabled().start("rest", "game1", "player1"));
+    }
+}
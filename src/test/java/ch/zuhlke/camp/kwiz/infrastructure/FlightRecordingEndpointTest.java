@@ -0,0 +1,117 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecordingEndpoint(directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (Boolean.TRUE.equals(endpoint.status().get("running"))) {
+            endpoint.stop();
+        }
+    }
+
+    @Test
+    void shouldDumpRecordedEventsWhenStopped() throws IOException {
+        // Given
+        assertEquals(WebEndpointResponse.STATUS_OK, endpoint.start(null, null).getStatus());
+        FlightRecorderEvents.AnswerSubmission event = new FlightRecorderEvents.AnswerSubmission();
+        event.begin();
+        event.end();
+        assertTrue(event.shouldCommit());
+        event.gameId = "game1";
+        event.channel = "stomp";
+        event.result = "accepted";
+        event.players = 3;
+        event.commit();
+
+        // When
+        WebEndpointResponse<Map<String, Object>> response = endpoint.stop();
+
+        // Then
+        assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Path.of((String) response.getBody().get("file"))).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("ch.zuhlke.camp.kwiz.AnswerSubmission"))
+                .toList();
+        assertEquals(1, events.size());
+        assertEquals("game1", events.get(0).getString("gameId"));
+        assertEquals(3, events.get(0).getInt("players"));
+        assertFalse((Boolean) endpoint.status().get("running"));
+    }
+
+    @Test
+    void shouldNotCommitEventsWithoutRecording() {
+        // When
+        FlightRecorderEvents.GameStateBroadcast event = new FlightRecorderEvents.GameStateBroadcast();
+        event.begin();
+        event.end();
+
+        // Then
+        assertFalse(event.shouldCommit());
+    }
+
+    @Test
+    void shouldRunOnlyOneRecording() throws IOException {
+        // Given
+        endpoint.start("default", 60L);
+
+        // Then
+        assertEquals(409, endpoint.start(null, null).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_OK, endpoint.stop().getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.stop().getStatus());
+    }
+
+    @Test
+    void shouldAlwaysBoundSizeAndAge() {
+        // Given
+        FlightRecordingEndpoint bounded = new FlightRecordingEndpoint(directory.toString(), 10, 120);
+
+        // When
+        Map<String, Object> status = bounded.start("profile", null).getBody();
+
+        // Then
+        try {
+            assertEquals(120L, status.get("maxAgeSeconds"));
+            assertEquals(10L * 1024 * 1024, status.get("maxSizeBytes"));
+        } finally {
+            bounded.stop();
+        }
+    }
+
+    @Test
+    void shouldRejectMaxAgeAboveLimit() {
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST,
+                endpoint.start(null, FlightRecordingEndpoint.DEFAULT_MAX_AGE_SECONDS + 1).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.start(null, 0L).getStatus());
+        assertFalse((Boolean) endpoint.status().get("running"));
+    }
+
+    @Test
+    void shouldRejectUnknownSettings() {
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.start("unknown", null).getStatus());
+        assertFalse((Boolean) endpoint.status().get("running"));
+    }
+}
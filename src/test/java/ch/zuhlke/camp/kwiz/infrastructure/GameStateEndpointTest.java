@@ -2,20 +2,28 @@ package ch.zuhlke.camp.kwiz.infrastructure;
 
 import ch.zuhlke.camp.kwiz.domain.Game;
 import ch.zuhlke.camp.kwiz.domain.GameEngine;
+import ch.zuhlke.camp.kwiz.domain.GameStatus;
 import ch.zuhlke.camp.kwiz.domain.Quiz;
 import ch.zuhlke.camp.kwiz.domain.Round;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 class GameStateEndpointTest {
@@ -44,17 +52,37 @@ class GameStateEndpointTest {
     }
 
     @Test
-    void gameState_shouldReturnQuizzesAndGames() {
+    void gameState_shouldCountQuizzesAndGamesByStatus() {
+        // Arrange
+        when(gameEngine.getQuizzes()).thenReturn(List.of(quiz));
+        when(gameRepository.findAll()).thenReturn(List.of(game));
+        when(quiz.isStarted()).thenReturn(false);
+        when(game.getStatus()).thenReturn(GameStatus.QUESTION_ACTIVE);
+
+        // Act
+        Map<String, Object> result = gameStateEndpoint.gameState();
+
+        // Assert
+        assertEquals(2, result.size());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> quizCounts = (Map<String, Object>) result.get("quizzes");
+        assertEquals(1, quizCounts.get("total"));
+        assertEquals(1L, quizCounts.get("lobby"));
+        assertEquals(0L, quizCounts.get("active"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> gameCounts = (Map<String, Object>) result.get("games");
+        assertEquals(1L, gameCounts.get("active"));
+        assertEquals(0L, gameCounts.get("over"));
+    }
+
+    @Test
+    void collection_shouldReturnQuizzesAndGames() {
         // Arrange
-        List<Quiz> quizzes = new ArrayList<>();
-        quizzes.add(quiz);
-        List<Game> games = new ArrayList<>();
-        games.add(game);
         List<Round> rounds = new ArrayList<>();
         rounds.add(round);
 
-        when(gameEngine.getQuizzes()).thenReturn(quizzes);
-        when(gameRepository.findAll()).thenReturn(games);
+        when(gameEngine.getQuizzes()).thenReturn(List.of(quiz));
+        when(gameRepository.findAll()).thenReturn(List.of(game));
         when(quiz.getId()).thenReturn("quiz-id");
         when(quiz.getName()).thenReturn("Quiz Name");
         when(quiz.getMaxPlayers()).thenReturn(10);
@@ -70,28 +98,112 @@ class GameStateEndpointTest {
         when(game.getId()).thenReturn("game-id");
         when(game.getQuizDefinitionId()).thenReturn("quiz-id");
         when(game.getAdminId()).thenReturn("admin-id");
+        when(game.getStatus()).thenReturn(GameStatus.LOBBY);
         when(game.getPlayers()).thenReturn(Map.of());
         when(game.getRounds()).thenReturn(rounds);
 
         // Act
-        Map<String, Object> result = gameStateEndpoint.gameState();
+        List<Map<String, Object>> quizzesList = items(gameStateEndpoint.collection("quizzes", null, null, null, null, null));
+        List<Map<String, Object>> gamesList = items(gameStateEndpoint.collection("games", null, null, null, null, null));
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertNotNull(result.get("quizzes"));
-        assertNotNull(result.get("games"));
-        
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> quizzesList = (List<Map<String, Object>>) result.get("quizzes");
         assertEquals(1, quizzesList.size());
         assertEquals("quiz-id", quizzesList.get(0).get("id"));
         assertEquals("Quiz Name", quizzesList.get(0).get("name"));
-        
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> gamesList = (List<Map<String, Object>>) result.get("games");
+        assertEquals("lobby", quizzesList.get(0).get("status"));
+        assertNotNull(quizzesList.get(0).get("rounds"));
+
         assertEquals(1, gamesList.size());
         assertEquals("game-id", gamesList.get(0).get("id"));
         assertEquals("quiz-id", gamesList.get(0).get("quizDefinitionId"));
+        assertNotNull(gamesList.get(0).get("players"));
+    }
+
+    @Test
+    void collection_shouldPageGamesByCursor() {
+        // Arrange
+        List<Game> games = List.of(new Game("quiz1", "admin"), new Game("quiz2", "admin"), new Game("quiz3", "admin"));
+        List<String> ids = games.stream().map(Game::getId).sorted().toList();
+        when(gameRepository.findAll()).thenReturn(games);
+
+        // Act
+        Map<String, Object> firstPage = page(gameStateEndpoint.collection("games", null, null, 2, null, null));
+        Map<String, Object> secondPage = page(gameStateEndpoint.collection("games", null,
+                (String) firstPage.get("nextCursor"), 2, null, null));
+
+        // Assert
+        assertEquals(List.of(ids.get(0), ids.get(1)), ids(firstPage));
+        assertEquals(ids.get(1), firstPage.get("nextCursor"));
+        assertEquals(List.of(ids.get(2)), ids(secondPage));
+        assertNull(secondPage.get("nextCursor"));
+    }
+
+    @Test
+    void collection_shouldFilterByStatusAndLeaveOutDetailsInSummary() {
+        // Arrange
+        Game lobby = new Game("quiz1", "admin");
+        lobby.addPlayer("player1", "Alice");
+        when(game.getId()).thenReturn("over-game-id");
+        when(game.getStatus()).thenReturn(GameStatus.GAME_OVER);
+        when(gameRepository.findAll()).thenReturn(List.of(lobby, game));
+
+        // Act
+        List<Map<String, Object>> games = items(gameStateEndpoint.collection("games", "lobby", null, null, true, null));
+
+        // Assert
+        assertEquals(1, games.size());
+        assertEquals(lobby.getId(), games.get(0).get("id"));
+        assertEquals(1, games.get(0).get("playerCount"));
+        assertFalse(games.get(0).containsKey("players"));
+        assertFalse(games.get(0).containsKey("rounds"));
+    }
+
+    @Test
+    void collection_shouldStreamNdjson() throws IOException {
+        // Arrange
+        List<Game> games = List.of(new Game("quiz1", "admin"), new Game("quiz2", "admin"));
+        when(gameRepository.findAll()).thenReturn(games);
+
+        // Act
+        WebEndpointResponse<Object> response = gameStateEndpoint.collection("games", null, null, null, true, "ndjson");
+
+        // Assert
+        assertEquals(GameStateEndpoint.NDJSON, response.getContentType().toString());
+        String body;
+        try (InputStream stream = ((InputStreamResource) response.getBody()).getInputStream()) {
+            body = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].endsWith("}"));
+    }
+
+    @Test
+    void collection_shouldRejectInvalidParameters() {
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST,
+                gameStateEndpoint.collection("games", "finished", null, null, null, null).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST,
+                gameStateEndpoint.collection("games", null, null, GameStateEndpoint.MAX_LIMIT + 1, null, null).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST,
+                gameStateEndpoint.collection("games", null, null, null, null, "xml").getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND,
+                gameStateEndpoint.collection("players", null, null, null, null, null).getStatus());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> page(WebEndpointResponse<Object> response) {
+        assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+        return (Map<String, Object>) response.getBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> items(WebEndpointResponse<Object> response) {
+        return (List<Map<String, Object>>) page(response).get("items");
+    }
+
+    private static List<String> ids(Map<String, Object> page) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> items = (List<Map<String, Object>>) page.get("items");
+        return items.stream().map(item -> (String) item.get("id")).toList();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package ch.zuhlke.camp.kwiz.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagingMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessagingMetrics messagingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        messagingMetrics = new MessagingMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldMapDestinationsToKindsWithoutIds() {
+        assertEquals("game-state", MessagingMetrics.destinationKind("/topic/game/game1/state"));
+        assertEquals("player-answer", MessagingMetrics.destinationKind("/topic/game/game1/player/player1/answer"));
+        assertEquals("player-ping", MessagingMetrics.destinationKind("/user/queue/latency"));
+        assertEquals("player-ping", MessagingMetrics.destinationKind("/queue/latency-usersession1"));
+        assertEquals("quiz-updates", MessagingMetrics.destinationKind("/topic/quiz/quiz1/updates"));
+        assertEquals("answer-receipt", MessagingMetrics.destinationKind("/user/queue/answers"));
+        assertEquals("roster-snapshot", MessagingMetrics.destinationKind("/app/quiz/quiz1/roster"));
+        assertEquals("other", MessagingMetrics.destinationKind("/topic/unknown"));
+        assertEquals("other", MessagingMetrics.destinationKind(null));
+    }
+
+    @Test
+    void shouldTimeSendsByDestinationKind() {
+        // When
+        messagingMetrics.timeSend("/topic/game/game1/state", () -> { });
+        messagingMetrics.timeSend("/topic/game/game2/state", () -> { });
+
+        // Then
+        assertEquals(2, meterRegistry.get(MessagingMetrics.SEND_METER).tag("destination", "game-state").timer().count());
+    }
+
+    @Test
+    void shouldRecordSizeOfOutboundMessages() {
+        // Given
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination("/topic/quiz/quiz1/updates");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[42], accessor.getMessageHeaders());
+
+        // When
+        messagingMetrics.outboundInterceptor().preSend(message, null);
+
+        // Then
+        assertEquals(42, meterRegistry.get(MessagingMetrics.OUTBOUND_BYTES_METER)
+                .tag("destination", "quiz-updates").summary().totalAmount());
+    }
+}
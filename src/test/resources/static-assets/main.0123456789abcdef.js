@@ -0,0 +1,100 @@
+console.log("warm-up line 0");
+console.log("warm-up line 1");
+console.log("warm-up line 2");
+console.log("warm-up line 3");
+console.log("warm-up line 4");
+console.log("warm-up line 5");
+console.log("warm-up line 6");
+console.log("warm-up line 7");
+console.log("warm-up line 8");
+console.log("warm-up line 9");
+console.log("warm-up line 10");
+console.log("warm-up line 11");
+console.log("warm-up line 12");
+console.log("warm-up line 13");
+console.log("warm-up line 14");
+console.log("warm-up line 15");
+console.log("warm-up line 16");
+console.log("warm-up line 17");
+console.log("warm-up line 18");
+console.log("warm-up line 19");
+console.log("warm-up line 20");
+console.log("warm-up line 21");
+console.log("warm-up line 22");
+console.log("warm-up line 23");
+console.log("warm-up line 24");
+console.log("warm-up line 25");
+console.log("warm-up line 26");
+console.log("warm-up line 27");
+console.log("warm-up line 28");
+console.log("warm-up line 29");
+console.log("warm-up line 30");
+console.log("warm-up line 31");
+console.log("warm-up line 32");
+console.log("warm-up line 33");
+console.log("warm-up line 34");
+console.log("warm-up line 35");
+console.log("warm-up line 36");
+console.log("warm-up line 37");
+console.log("warm-up line 38");
+console.log("warm-up line 39");
+console.log("warm-up line 40");
+console.log("warm-up line 41");
+console.log("warm-up line 42");
+console.log("warm-up line 43");
+console.log("warm-up line 44");
+console.log("warm-up line 45");
+console.log("warm-up line 46");
+console.log("warm-up line 47");
+console.log("warm-up line 48");
+console.log("warm-up line 49");
+console.log("warm-up line 50");
+console.log("warm-up line 51");
+console.log("warm-up line 52");
+console.log("warm-up line 53");
+console.log("warm-up line 54");
+console.log("warm-up line 55");
+console.log("warm-up line 56");
+console.log("warm-up line 57");
+console.log("warm-up line 58");
+console.log("warm-up line 59");
+console.log("warm-up line 60");
+console.log("warm-up line 61");
+console.log("warm-up line 62");
+console.log("warm-up line 63");
+console.log("warm-up line 64");
+console.log("warm-up line 65");
+console.log("warm-up line 66");
+console.log("warm-up line 67");
+console.log("warm-up line 68");
+console.log("warm-up line 69");
+console.log("warm-up line 70");
+console.log("warm-up line 71");
+console.log("warm-up line 72");
+console.log("warm-up line 73");
+console.log("warm-up line 74");
+console.log("warm-up line 75");
+console.log("warm-up line 76");
+console.log("warm-up line 77");
+console.log("warm-up line 78");
+console.log("warm-up line 79");
+console.log("warm-up line 80");
+console.log("warm-up line 81");
+console.log("warm-up line 82");
+console.log("warm-up line 83");
+console.log("warm-up line 84");
+console.log("warm-up line 85");
+console.log("warm-up line 86");
+console.log("warm-up line 87");
+console.log("warm-up line 88");
+console.log("warm-up line 89");
+console.log("warm-up line 90");
+console.log("warm-up line 91");
+console.log("warm-up line 92");
+console.log("warm-up line 93");
+console.log("warm-up line 94");
+console.log("warm-up line 95");
+console.log("warm-up line 96");
+console.log("warm-up line 97");
+console.log("warm-up line 98");
+console.log("warm-up line 99");